@@ -86,7 +86,11 @@ public enum PASharedProperties implements PACommonProperties {
     /** Controls the fetch mode of scripts defined by URL.
     If true (default), it means that the script is fetched at task execution time
     If false, it means that the script is fetch when the job is submitted to the scheduler */
-    LAZY_FETCH_SCRIPT("pa.lazy.fetch.script", PropertyType.BOOLEAN, "true");
+    LAZY_FETCH_SCRIPT("pa.lazy.fetch.script", PropertyType.BOOLEAN, "true"),
+
+    /** Maximum number of scripts kept compiled by each JVM, for script engines able to compile scripts.
+    0 (default) disables the cache, the script engines used must support evaluating a compiled script concurrently */
+    SCRIPT_COMPILED_CACHE_SIZE("pa.script.compiled.cache.size", PropertyType.INTEGER, "0");
 
     /* ***************************************************************************** */
     /* ***************************************************************************** */
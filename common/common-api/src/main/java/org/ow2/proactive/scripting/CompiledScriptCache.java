@@ -0,0 +1,150 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.core.properties.PASharedProperties;
+
+
+/**
+ * Cache of the scripts compiled by {@link Compilable} script engines, so that scripts executed repeatedly
+ * (e.g. selection scripts) are not parsed and compiled at each execution.
+ * <p>
+ * Compiled scripts are evaluated with the context of a new engine at each execution, the bindings of an
+ * execution are thus never shared with another one. The engines must support evaluating the same compiled
+ * script concurrently, the cache is then disabled by default (see {@link PASharedProperties#SCRIPT_COMPILED_CACHE_SIZE}).
+ * The least recently used scripts are evicted first.
+ *
+ * @author The ProActive Team
+ * @since ProActive Scheduling 11.1
+ */
+public final class CompiledScriptCache {
+
+    private static final Logger logger = Logger.getLogger(CompiledScriptCache.class);
+
+    private static CompiledScriptCache instance;
+
+    private final int maximumSize;
+
+    private final Map<String, CompiledScript> compiledScripts;
+
+    private final AtomicLong compilations = new AtomicLong();
+
+    private final AtomicLong cachedRuns = new AtomicLong();
+
+    CompiledScriptCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.compiledScripts = new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                return size() > CompiledScriptCache.this.maximumSize;
+            }
+        };
+    }
+
+    public static synchronized CompiledScriptCache getInstance() {
+        if (instance == null) {
+            int maximumSize;
+            try {
+                maximumSize = PASharedProperties.SCRIPT_COMPILED_CACHE_SIZE.getValueAsInt();
+            } catch (Exception e) {
+                logger.warn("Incorrect value of " + PASharedProperties.SCRIPT_COMPILED_CACHE_SIZE.getKey() +
+                            ", compiled scripts will not be cached.", e);
+                maximumSize = 0;
+            }
+            instance = new CompiledScriptCache(maximumSize);
+        }
+        return instance;
+    }
+
+    /**
+     * @return true if compiled scripts are cached
+     */
+    public boolean isEnabled() {
+        return maximumSize > 0;
+    }
+
+    /**
+     * Return the compiled script cached for the given key, or compile and cache it.
+     *
+     * @param key identifies both the script and its engine
+     * @param compiler engine compiling the script if it is not cached
+     * @param source provides the script to compile
+     * @return the compiled script
+     * @throws ScriptException if the script cannot be compiled
+     */
+    CompiledScript getOrCompile(String key, Compilable compiler, Supplier<Reader> source) throws ScriptException {
+        CompiledScript compiledScript;
+        synchronized (compiledScripts) {
+            compiledScript = compiledScripts.get(key);
+        }
+        if (compiledScript != null) {
+            cachedRuns.incrementAndGet();
+            return compiledScript;
+        }
+
+        // compiled outside of the lock, concurrent compilations of the same script only waste some work
+        compiledScript = compiler.compile(source.get());
+        compilations.incrementAndGet();
+        synchronized (compiledScripts) {
+            compiledScripts.put(key, compiledScript);
+        }
+        return compiledScript;
+    }
+
+    /**
+     * @return the number of scripts compiled since the start of the JVM
+     */
+    public long getCompilationCount() {
+        return compilations.get();
+    }
+
+    /**
+     * @return the number of executions which reused a compiled script
+     */
+    public long getCachedRunCount() {
+        return cachedRuns.get();
+    }
+
+    /**
+     * @return the number of compiled scripts currently cached
+     */
+    public int size() {
+        synchronized (compiledScripts) {
+            return compiledScripts.size();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+
+/**
+ * Script engine factories available to a class loader, discovered once instead of at each script execution.
+ * <p>
+ * Discovering the factories scans the class path (see {@link ScriptEngineManager}), one registry is thus
+ * kept per context class loader, and the factory matching a lookup name is resolved only once.
+ * <p>
+ * The factories of a registry are loaded by its class loader, hence reference it: registries are softly held
+ * so that they do not keep their class loader, nor its classes, reachable forever.
+ *
+ * @author The ProActive Team
+ * @since ProActive Scheduling 11.1
+ */
+final class ScriptEngineRegistry {
+
+    private static final LoadingCache<ClassLoader, ScriptEngineRegistry> registries;
+
+    static {
+        registries = CacheBuilder.newBuilder()
+                                 .weakKeys()
+                                 .softValues()
+                                 .build(CacheLoader.from(ScriptEngineRegistry::discover));
+    }
+
+    /** The registry of the bootstrap class loader, which cannot be a key of {@link #registries} */
+    private static volatile ScriptEngineRegistry bootstrapRegistry;
+
+    private final List<ScriptEngineFactory> factories;
+
+    private final Map<String, Optional<ScriptEngineFactory>> factoriesByLookupName = new ConcurrentHashMap<>();
+
+    private ScriptEngineRegistry(List<ScriptEngineFactory> factories) {
+        this.factories = factories;
+    }
+
+    /**
+     * @return the registry of the context class loader of the current thread
+     */
+    static ScriptEngineRegistry forContextClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader != null) {
+            return registries.getUnchecked(classLoader);
+        }
+        ScriptEngineRegistry registry = bootstrapRegistry;
+        if (registry == null) {
+            registry = discover(null);
+            bootstrapRegistry = registry;
+        }
+        return registry;
+    }
+
+    private static ScriptEngineRegistry discover(ClassLoader classLoader) {
+        return new ScriptEngineRegistry(new ScriptEngineManager(classLoader).getEngineFactories());
+    }
+
+    /**
+     * Find the factory of the given engine, looking first at the names of the engines, then at the extensions
+     * of their scripts. When several factories match, the one where the lookup name comes first wins.
+     *
+     * @param lookupName name of the engine or extension of the script
+     * @return the matching factory, or null if none matches
+     */
+    ScriptEngineFactory findFactory(String lookupName) {
+        if (lookupName == null) {
+            return null;
+        }
+        return factoriesByLookupName.computeIfAbsent(lookupName.toLowerCase(), this::resolve).orElse(null);
+    }
+
+    private Optional<ScriptEngineFactory> resolve(String lookupName) {
+        ScriptEngineFactory factory = bestMatch(lookupName, ScriptEngineFactory::getNames);
+        if (factory == null) {
+            factory = bestMatch(lookupName, ScriptEngineFactory::getExtensions);
+        }
+        return Optional.ofNullable(factory);
+    }
+
+    private ScriptEngineFactory bestMatch(String lookupName,
+            Function<ScriptEngineFactory, List<String>> lookupCriteria) {
+        int minimumMatchingIndex = Integer.MAX_VALUE;
+        ScriptEngineFactory bestFactory = null;
+
+        for (ScriptEngineFactory factory : factories) {
+            List<String> criteria = lookupCriteria.apply(factory);
+            for (int i = 0; i < criteria.size() && i < minimumMatchingIndex; i++) {
+                if (criteria.get(i).equalsIgnoreCase(lookupName)) {
+                    minimumMatchingIndex = i;
+                    bestFactory = factory;
+                    break;
+                }
+            }
+        }
+        return bestFactory;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.SimpleScriptContext;
+
+import org.junit.Test;
+
+
+public class CompiledScriptCacheTest {
+
+    @Test
+    public void testScriptIsCompiledOnce() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(10);
+        ScriptEngine engine = groovyEngine();
+
+        CompiledScript first = cache.getOrCompile("key", (Compilable) engine, () -> new StringReader("1 + 1"));
+        CompiledScript second = cache.getOrCompile("key", (Compilable) engine, () -> new StringReader("1 + 1"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getCompilationCount());
+        assertEquals(1, cache.getCachedRunCount());
+    }
+
+    @Test
+    public void testCompiledScriptUsesTheBindingsOfEachExecution() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(10);
+        CompiledScript compiledScript = cache.getOrCompile("key",
+                                                           (Compilable) groovyEngine(),
+                                                           () -> new StringReader("value * 2"));
+
+        assertEquals(2, compiledScript.eval(contextWithValue(1)));
+        assertEquals(4, compiledScript.eval(contextWithValue(2)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedScriptIsEvicted() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(2);
+        Compilable engine = (Compilable) groovyEngine();
+
+        CompiledScript first = cache.getOrCompile("1", engine, () -> new StringReader("1"));
+        cache.getOrCompile("2", engine, () -> new StringReader("2"));
+        cache.getOrCompile("3", engine, () -> new StringReader("3"));
+
+        assertEquals(2, cache.size());
+        assertNotSame(first, cache.getOrCompile("1", engine, () -> new StringReader("1")));
+        assertEquals(4, cache.getCompilationCount());
+    }
+
+    @Test
+    public void testRegistryResolvesEngineByNameAndExtension() {
+        ScriptEngineRegistry registry = ScriptEngineRegistry.forContextClassLoader();
+
+        assertSame(registry, ScriptEngineRegistry.forContextClassLoader());
+        assertSame(registry.findFactory("groovy"), registry.findFactory("GROOVY"));
+        assertEquals(null, registry.findFactory("mySuperNonExistingScriptEngine"));
+    }
+
+    private static ScriptEngine groovyEngine() {
+        return ScriptEngineRegistry.forContextClassLoader().findFactory("groovy").getScriptEngine();
+    }
+
+    private static ScriptContext contextWithValue(int value) {
+        ScriptContext context = new SimpleScriptContext();
+        context.setAttribute("value", value, ScriptContext.ENGINE_SCOPE);
+        return context;
+    }
+}
@@ -63,6 +63,7 @@ import org.ow2.proactive.scheduler.signal.SignalApiException;
 import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobIdData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobLiveLogData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobResultData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobStateData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobUsageData;
@@ -1966,6 +1967,26 @@ public interface SchedulerRestInterface {
             throws NotConnectedRestException, UnknownJobRestException, PermissionRestException,
             LogForwardingRestException, IOException;
 
+    /**
+     * Read the output of the job identified by the id <code>jobid</code> from
+     * the given line offset. Unlike {@link #getLiveLogJob(String, String)},
+     * lines are not consumed, so that several clients can follow the output of
+     * the same job, each one with its own offset.
+     *
+     * @param sessionId a valid session id
+     * @param jobId     the id of the job to retrieve
+     * @param offset    offset of the first line to read, as returned by the previous call
+     * @return the lines available from the offset and the offset of the next line
+     */
+    @GET
+    @GZIP
+    @Path("jobs/{jobid}/livelog/offset")
+    @Produces("application/json")
+    JobLiveLogData getLiveLogJobFromOffset(@HeaderParam("sessionid") String sessionId,
+            @PathParam("jobid") String jobId, @QueryParam("offset") @DefaultValue("0") long offset)
+            throws NotConnectedRestException, UnknownJobRestException, PermissionRestException,
+            LogForwardingRestException, IOException;
+
     /**
      * number of available bytes in the stream or -1 if the stream does not
      * exist.
@@ -74,18 +74,27 @@ public interface RestDataspace {
      * <li>Any other encoding format will be handled as it is (no decoding or recursive expanding).</li>
      * <li>Any file that already exists in the specified location will be
      * replaced.</li>
+     * <li>A large file can be uploaded in several chunks, or an interrupted upload resumed, by sending each chunk
+     * with a 'Content-Range' header (e.g. {@code bytes 1048576-2097151/*}). Chunks are written at the given
+     * offset of the file, the chunk starting at offset 0 replaces any existing file. A chunk cannot start beyond
+     * the current end of the file (only at its end for spaces which are not on the local file system), status 416
+     * is returned otherwise, with the current size of the file in the 'Content-Range' header. Status 400 is
+     * returned if the body of the request is not as long as the chunk. Content ranges are not supported with
+     * 'gzip' or 'zip' encodings.</li>
      * </ul>
      * @param sessionId a valid session id
+     * @param encoding encoding of the content, can be "gzip", "zip", empty or an arbitrary format which will be handled in the same way as empty.
+     * @param contentRange the position of the uploaded chunk in the file, or empty to upload the whole file
      * @param dataspace can have two possible values, 'user' or 'global',
      * depending on the target <i>DATASPACE</i>
      * @param pathname location of the file or folder to retrieve
-     * @param encoding encoding of the content, can be "gzip", "zip", empty or an arbitrary format which will be handled in the same way as empty.
      * @return a REST response with status 201(CREATED) if the operation was successful
      */
     @PUT
     @Path("/{dataspace}/{path-name:.*}")
     Response store(@HeaderParam("sessionid") String sessionId, @HeaderParam("Content-Encoding") String encoding,
-            @PathParam("dataspace") String dataspace, @PathParam("path-name") String pathname, InputStream is)
+            @HeaderParam("Content-Range") String contentRange, @PathParam("dataspace") String dataspace,
+            @PathParam("path-name") String pathname, InputStream is)
             throws NotConnectedRestException, PermissionRestException;
 
     /**
@@ -112,6 +121,10 @@ public interface RestDataspace {
      * <li>a 'zip' encoded stream, if the client accepts 'zip' encoded contents</li>
      * </ul>
      * </li>
+     * <li>If the pathname represents a file and a single byte range is given in the 'Range' header, only this
+     * part of the file is returned, without encoding and with status 206 (Partial Content). Status 416 is returned
+     * if the range is not satisfiable. Files are returned with an 'Accept-Ranges' header when they can be
+     * requested by range, so that interrupted downloads can be resumed.</li>
      * <li>If the pathname represents a directory, its contents will be included recursively and returned
      * as 'zip' encoded stream.</li>
      * <li>file names or regular expressions can be used as 'includes' and
@@ -127,6 +140,7 @@ public interface RestDataspace {
      * @param includes a list of inclusion directives
      * @param excludes a list of exclusion directives
      * @param encoding the accepted encoding supported by the client, can be "*", "gzip", "zip", "identity" or empty. It overrides the accepted encoding specified in {@code headerAcceptEncoding}.
+     * @param range the part of the file to retrieve, e.g. {@code bytes=1048576-}, or empty to retrieve the whole file
      * @return a REST response which can have various content-types
      */
     @GET
@@ -135,7 +149,8 @@ public interface RestDataspace {
             @HeaderParam("Accept-Encoding") String headerAcceptEncoding, @PathParam("dataspace") String dataspace,
             @PathParam("path-name") String pathname, @QueryParam("comp") String component,
             @QueryParam("includes") List<String> includes, @QueryParam("excludes") List<String> excludes,
-            @QueryParam("encoding") String encoding) throws NotConnectedRestException, PermissionRestException;
+            @QueryParam("encoding") String encoding, @HeaderParam("Range") String range)
+            throws NotConnectedRestException, PermissionRestException;
 
     /**
      * Delete file(s) from the specified location in the <i>dataspace</i>.
@@ -34,7 +34,12 @@ public class EventNotification {
         JOB_STATE_UPDATED,
         JOB_FULL_DATA_UPDATED,
         TASK_STATE_UPDATED,
-        USERS_UPDATED
+        USERS_UPDATED,
+        /**
+         * Events were dropped because the client could not keep up with them, the client should
+         * reload the state of the scheduler. The data is the number of dropped events.
+         */
+        RESYNC
     };
 
     private Action action;
@@ -274,6 +274,10 @@ public class SchedulerEventReceiver {
                     eventListener.usersUpdatedEvent(new NotificationData<>(SchedulerEvent.valueOf(eventData.getSchedulerEvent()),
                                                                            DataUtility.userIdentification((SchedulerUserData) eventData.getData())));
                     break;
+                case RESYNC:
+                    logger.warn(String.format("%s scheduler events were dropped by the server, the scheduler state should be reloaded",
+                                              eventData.getData()));
+                    break;
                 default:
                     throw new RuntimeException(String.format("Unknown action: %s", action));
             }
@@ -107,6 +107,9 @@ public class EventCodecUtil {
                 case USERS_UPDATED:
                     notification.setData(mapper.readValue(data, SchedulerUserData.class));
                     break;
+                case RESYNC:
+                    notification.setData(data.asInt());
+                    break;
                 default:
                     break;
             }
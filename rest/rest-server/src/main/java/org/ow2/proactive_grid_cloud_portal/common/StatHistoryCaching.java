@@ -26,16 +26,33 @@
 package org.ow2.proactive_grid_cloud_portal.common;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.concurrent.Callable;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 import javax.management.ReflectionException;
 
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 
 /**
@@ -46,16 +63,20 @@ import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
  * <p>
  * This class will store the result of the requests along with the parameter,
  * so that future request matching the same parameter are directly retrieved from the cache.
+ * <p>
+ * Concurrent requests for the same key wait for a single computation, requests for other keys are not blocked.
+ * Entries are refreshed in background once they reach three quarters of their lifetime, so that
+ * dashboards polling the statistics do not wait for the computation. The number of entries is bounded,
+ * the least recently used entries being evicted first.
  * 
  * @author mschnoor
  *
  */
-public class StatHistoryCaching {
+public class StatHistoryCaching implements StatHistoryCachingMXBean {
 
     private static final Logger LOGGER = Logger.getLogger(StatHistoryCaching.class);
 
-    // invalidate entry after MAX_DURATION millis
-    private static final long MAX_DURATION = 5000;
+    private static final String MBEAN_NAME = "ProActiveRest:name=StatHistoryCache";
 
     public class StatHistoryCacheEntry {
         private long timeStamp;
@@ -84,17 +105,43 @@ public class StatHistoryCaching {
         }
     }
 
-    private HashMap<String, StatHistoryCacheEntry> statHistoryCache = null;
-
     private static StatHistoryCaching instance = null;
 
-    private StatHistoryCaching() {
-        this.statHistoryCache = new HashMap<>();
+    private final Cache<String, StatHistoryCacheEntry> statHistoryCache;
+
+    // refresh entries in background once they are older than refreshAfter millis
+    private final long refreshAfter;
+
+    private final Set<String> refreshingKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final ExecutorService refreshExecutor;
+
+    private final AtomicLong refreshCount = new AtomicLong();
+
+    private final AtomicLong refreshFailureCount = new AtomicLong();
+
+    /**
+     * @param maximumSize maximum number of entries
+     * @param duration invalidate entries after duration millis
+     */
+    StatHistoryCaching(long maximumSize, long duration) {
+        this.statHistoryCache = CacheBuilder.newBuilder()
+                                            .maximumSize(maximumSize)
+                                            .expireAfterWrite(duration, TimeUnit.MILLISECONDS)
+                                            .recordStats()
+                                            .build();
+        this.refreshAfter = duration * 3 / 4;
+        this.refreshExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("StatHistoryCacheRefresh-%d")
+                                                                                           .setDaemon(true)
+                                                                                           .build());
     }
 
     public static synchronized StatHistoryCaching getInstance() {
-        if (instance == null)
-            instance = new StatHistoryCaching();
+        if (instance == null) {
+            instance = new StatHistoryCaching(PortalConfiguration.STAT_HISTORY_CACHE_SIZE.getValueAsInt(),
+                                              PortalConfiguration.STAT_HISTORY_CACHE_DURATION.getValueAsInt());
+            instance.registerMBean();
+        }
         return instance;
     }
 
@@ -102,32 +149,23 @@ public class StatHistoryCaching {
      * @param key key of the cache element to retrieve
      * @return the cache entry if it exists and has not expired, or null
      */
-    public synchronized StatHistoryCacheEntry getEntry(String key) {
-        StatHistoryCacheEntry entry = this.statHistoryCache.get(key);
-        if (entry == null)
-            return null;
-
-        if (System.currentTimeMillis() - entry.timeStamp > MAX_DURATION) {
-            this.statHistoryCache.remove(key);
-            return null;
-        }
-
-        return entry;
+    public StatHistoryCacheEntry getEntry(String key) {
+        return statHistoryCache.getIfPresent(key);
     }
 
-    public synchronized StatHistoryCacheEntry getEntryOrCompute(String key, RestCallable<String> valueCreator)
+    public StatHistoryCacheEntry getEntryOrCompute(String key, RestCallable<String> valueCreator)
             throws ReflectionException, InterruptedException, NotConnectedException, IntrospectionException,
             IOException, InstanceNotFoundException, MalformedObjectNameException {
-        StatHistoryCacheEntry entry = statHistoryCache.get(key);
-
-        if (entry == null || (System.currentTimeMillis() - entry.timeStamp) > MAX_DURATION) {
-            statHistoryCache.remove(key);
-            long timeStamp = System.currentTimeMillis();
-            String value = valueCreator.call();
-            entry = new StatHistoryCacheEntry(value, timeStamp);
-            statHistoryCache.put(key, entry);
+        StatHistoryCacheEntry entry;
+        try {
+            entry = statHistoryCache.get(key, () -> compute(valueCreator));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throw rethrow(e.getCause());
         }
 
+        if (System.currentTimeMillis() - entry.getTimeStamp() > refreshAfter) {
+            refreshInBackground(key, valueCreator);
+        }
         return entry;
     }
 
@@ -137,9 +175,114 @@ public class StatHistoryCaching {
                 MalformedObjectNameException, NullPointerException, InterruptedException, NotConnectedException;
     }
 
-    public synchronized void addEntry(String key, long timeStamp, String value) {
+    public void addEntry(String key, long timeStamp, String value) {
         StatHistoryCacheEntry entry = new StatHistoryCacheEntry(value, timeStamp);
         this.statHistoryCache.put(key, entry);
     }
 
+    @Override
+    public long getSize() {
+        return statHistoryCache.size();
+    }
+
+    @Override
+    public long getHitCount() {
+        return statHistoryCache.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return statHistoryCache.stats().missCount();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return statHistoryCache.stats().evictionCount();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return statHistoryCache.stats().loadCount();
+    }
+
+    @Override
+    public double getAverageLoadTime() {
+        CacheStats stats = statHistoryCache.stats();
+        return stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    @Override
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.get();
+    }
+
+    private StatHistoryCacheEntry compute(RestCallable<String> valueCreator) throws InstanceNotFoundException,
+            IntrospectionException, ReflectionException, IOException, MalformedObjectNameException,
+            InterruptedException, NotConnectedException {
+        long timeStamp = System.currentTimeMillis();
+        String value = valueCreator.call();
+        return new StatHistoryCacheEntry(value, timeStamp);
+    }
+
+    private void refreshInBackground(String key, RestCallable<String> valueCreator) {
+        if (!refreshingKeys.add(key)) {
+            // already being refreshed
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    statHistoryCache.put(key, compute(valueCreator));
+                    refreshCount.incrementAndGet();
+                } catch (Exception e) {
+                    // the entry will expire and be computed again by the next request
+                    refreshFailureCount.incrementAndGet();
+                    LOGGER.debug("Could not refresh statistic history " + key, e);
+                } finally {
+                    refreshingKeys.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingKeys.remove(key);
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(MBEAN_NAME));
+        } catch (Exception e) {
+            LOGGER.warn("Could not register statistic history cache MBean " + MBEAN_NAME, e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) throws ReflectionException, InterruptedException,
+            NotConnectedException, IntrospectionException, IOException, InstanceNotFoundException,
+            MalformedObjectNameException {
+        if (cause instanceof ReflectionException) {
+            throw (ReflectionException) cause;
+        } else if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        } else if (cause instanceof NotConnectedException) {
+            throw (NotConnectedException) cause;
+        } else if (cause instanceof IntrospectionException) {
+            throw (IntrospectionException) cause;
+        } else if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof InstanceNotFoundException) {
+            throw (InstanceNotFoundException) cause;
+        } else if (cause instanceof MalformedObjectNameException) {
+            throw (MalformedObjectNameException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
 }
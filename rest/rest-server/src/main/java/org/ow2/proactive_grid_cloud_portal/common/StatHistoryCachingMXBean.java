@@ -0,0 +1,72 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.common;
+
+/**
+ * Metrics of the {@link StatHistoryCaching} cache.
+ */
+public interface StatHistoryCachingMXBean {
+
+    /**
+     * @return the number of entries currently cached
+     */
+    long getSize();
+
+    /**
+     * @return the number of requests answered from the cache
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of requests which had to wait for the computation of their entry
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of entries evicted, either expired or because the cache reached its maximum size
+     */
+    long getEvictionCount();
+
+    /**
+     * @return the number of entries computed by requests
+     */
+    long getLoadCount();
+
+    /**
+     * @return the average time in milliseconds spent computing an entry on behalf of a request
+     */
+    double getAverageLoadTime();
+
+    /**
+     * @return the number of entries refreshed in background
+     */
+    long getRefreshCount();
+
+    /**
+     * @return the number of background refreshes which failed
+     */
+    long getRefreshFailureCount();
+}
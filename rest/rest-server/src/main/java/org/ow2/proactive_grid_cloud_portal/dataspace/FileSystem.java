@@ -29,6 +29,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
@@ -38,6 +43,7 @@ import java.util.Map;
 import javax.ws.rs.core.HttpHeaders;
 
 import org.apache.commons.vfs2.*;
+import org.apache.commons.vfs2.provider.local.LocalFileName;
 import org.objectweb.proactive.extensions.dataspaces.api.UserCredentials;
 import org.objectweb.proactive.extensions.dataspaces.vfs.VFSFactory;
 import org.ow2.proactive.authentication.crypto.CredData;
@@ -59,6 +65,8 @@ public class FileSystem {
 
     public static final String X_PROACTIVE_DS_PERMISSIONS = "x-proactive-ds-permissions";
 
+    private static final long TRANSFER_SIZE = 1024 * 1024;
+
     private FileSystemManager fsm;
 
     private String userspace;
@@ -236,6 +244,117 @@ public class FileSystem {
         }
     }
 
+    /**
+     * Copy {@code length} bytes of the given file, starting at {@code offset}, to the output stream.
+     * Files of a local space are transferred from their file channel, without going through the VFS
+     * streams. The output stream is not closed.
+     */
+    public static void copy(FileObject fo, long offset, long length, OutputStream os) throws IOException {
+        fo.refresh();
+        File localFile = localFile(fo);
+        if (localFile != null) {
+            try (FileChannel channel = FileChannel.open(localFile.toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(os);
+                long position = offset;
+                long end = offset + length;
+                while (position < end) {
+                    long transferred = channel.transferTo(position, end - position, target);
+                    if (transferred <= 0) {
+                        throw new IOException("Unexpected end of file " + localFile + " at position " + position);
+                    }
+                    position += transferred;
+                }
+            }
+        } else {
+            try (InputStream is = fo.getContent().getInputStream()) {
+                ByteStreams.skipFully(is, offset);
+                ByteStreams.copy(ByteStreams.limit(is, length), os);
+            }
+        }
+        os.flush();
+    }
+
+    /**
+     * Write the content of the input stream in the given file, starting at {@code offset}.
+     *
+     * @return the number of bytes written
+     * @see #write(InputStream, FileObject, long, long)
+     */
+    public static long write(InputStream is, FileObject outFile, long offset) throws IOException {
+        return write(is, outFile, offset, Long.MAX_VALUE);
+    }
+
+    /**
+     * Write at most {@code length} bytes of the input stream in the given file, starting at {@code offset}.
+     * Files of a local space are written through their file channel, at any offset up to their current size.
+     * Other files can only be appended, i.e. {@code offset} must be equal to the current size of the file.
+     * The input stream is not closed.
+     *
+     * @return the number of bytes written, less than {@code length} if the input stream ended before
+     * @throws IOException if the file cannot be written at the given offset
+     */
+    public static long write(InputStream is, FileObject outFile, long offset, long length) throws IOException {
+        outFile.refresh();
+        long size = size(outFile);
+        if (!canWriteAt(outFile, offset, size)) {
+            throw new IOException(String.format("Cannot write %s at offset %d, its current size is %d",
+                                                outFile.getName(),
+                                                offset,
+                                                size));
+        }
+        File localFile = localFile(outFile);
+        if (localFile != null) {
+            try (FileChannel channel = FileChannel.open(localFile.toPath(),
+                                                        StandardOpenOption.WRITE,
+                                                        StandardOpenOption.CREATE)) {
+                ReadableByteChannel source = Channels.newChannel(is);
+                long written = 0;
+                while (written < length) {
+                    long transferred = channel.transferFrom(source,
+                                                            offset + written,
+                                                            Math.min(TRANSFER_SIZE, length - written));
+                    if (transferred <= 0) {
+                        // end of the input stream
+                        break;
+                    }
+                    written += transferred;
+                }
+                return written;
+            }
+        } else {
+            try (OutputStream os = outFile.getContent().getOutputStream(true)) {
+                return ByteStreams.copy(ByteStreams.limit(is, length), os);
+            }
+        }
+    }
+
+    /**
+     * @return true if {@link #write(InputStream, FileObject, long, long)} can write the given file, whose
+     * current size is {@code size}, at the given offset
+     */
+    public static boolean canWriteAt(FileObject fo, long offset, long size) throws FileSystemException {
+        return offset == size || (offset < size && localFile(fo) != null);
+    }
+
+    /**
+     * @return the size of the given file, 0 if it does not exist
+     */
+    public static long size(FileObject fo) throws FileSystemException {
+        return fo.exists() ? fo.getContent().getSize() : 0;
+    }
+
+    /**
+     * @return the file of the local file system behind the given file object, or null if the file object
+     * does not belong to a local space
+     */
+    public static File localFile(FileObject fo) throws FileSystemException {
+        FileName name = fo.getName();
+        if (name instanceof LocalFileName) {
+            return new File(((LocalFileName) name).getRootFile() + name.getPathDecoded());
+        }
+        return null;
+    }
+
     public static boolean isEmpty(FileObject fo) throws FileSystemException {
         fo.refresh();
         FileObject[] children = fo.getChildren();
@@ -52,6 +52,7 @@ import org.ow2.proactive.scheduler.common.exception.PermissionException;
 import org.ow2.proactive_grid_cloud_portal.common.Session;
 import org.ow2.proactive_grid_cloud_portal.common.SessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStore;
+import org.ow2.proactive_grid_cloud_portal.dataspace.util.ByteRange;
 import org.ow2.proactive_grid_cloud_portal.dataspace.util.VFSZipper;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.NotConnectedRestException;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestException;
@@ -69,11 +70,16 @@ public class RestDataspaceImpl implements RestDataspace {
 
     public static final String GLOBAL = "global";
 
+    public static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    public static final String CONTENT_RANGE = "Content-Range";
+
     private static SessionStore sessions = SharedSessionStore.getInstance();
 
     @Override
     public Response store(@HeaderParam("sessionid") String sessionId, @HeaderParam("Content-Encoding") String encoding,
-            @PathParam("dataspace") String dataspace, @PathParam("path-name") String pathname, InputStream is)
+            @HeaderParam("Content-Range") String contentRange, @PathParam("dataspace") String dataspace,
+            @PathParam("path-name") String pathname, InputStream is)
             throws NotConnectedRestException, PermissionRestException {
         Session session = checkSessionValidity(sessionId);
         try {
@@ -83,6 +89,29 @@ public class RestDataspaceImpl implements RestDataspace {
             if (!fileObject.isWriteable()) {
                 return unauthorizedWriteRes(pathname);
             }
+            if (!Strings.isNullOrEmpty(contentRange)) {
+                if ("gzip".equals(encoding) || "zip".equals(encoding)) {
+                    return badRequestRes("Content range is not supported with " + encoding + " encoding.");
+                }
+                ByteRange chunk;
+                try {
+                    chunk = ByteRange.parseContentRange(contentRange);
+                } catch (IllegalArgumentException e) {
+                    return badRequestRes(e.getMessage());
+                }
+                long size = FileSystem.size(fileObject);
+                if (chunk.getStart() > 0 && !FileSystem.canWriteAt(fileObject, chunk.getStart(), size)) {
+                    // tells the client where to resume the upload
+                    return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                   .header(CONTENT_RANGE, "bytes */" + size)
+                                   .build();
+                }
+                long written = writeFileRange(is, fileObject, chunk);
+                if (written != chunk.getLength() || is.read() != -1) {
+                    return badRequestRes("The request body does not match the content range " + contentRange);
+                }
+                return Response.status(Response.Status.CREATED).build();
+            }
             writeFile(is, fileObject, encoding);
         } catch (Throwable error) {
             logger.error(String.format("Cannot save the requested file to %s in %s.",
@@ -99,7 +128,8 @@ public class RestDataspaceImpl implements RestDataspace {
             @HeaderParam("Accept-Encoding") String headerAcceptEncoding, @PathParam("dataspace") String dataspace,
             @PathParam("path-name") String pathname, @QueryParam("comp") String component,
             @QueryParam("includes") List<String> includes, @QueryParam("excludes") List<String> excludes,
-            @QueryParam("encoding") String encoding) throws NotConnectedRestException, PermissionRestException {
+            @QueryParam("encoding") String encoding, @HeaderParam("Range") String range)
+            throws NotConnectedRestException, PermissionRestException {
         if (encoding == null) {
             encoding = headerAcceptEncoding;
         }
@@ -122,6 +152,23 @@ public class RestDataspaceImpl implements RestDataspace {
                 return componentResponse(component, fo, includes, excludes);
             }
             if (fo.getType() == FileType.FILE) {
+                if (!Strings.isNullOrEmpty(range)) {
+                    long length = fo.getContent().getSize();
+                    try {
+                        ByteRange byteRange = ByteRange.parse(range, length);
+                        if (byteRange != null) {
+                            logger.debug(String.format("Retrieving bytes %s of file %s in %s",
+                                                       byteRange,
+                                                       pathname,
+                                                       dataspace.toUpperCase()));
+                            return partialFileComponentResponse(fo, byteRange, length);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                       .header(CONTENT_RANGE, "bytes */" + length)
+                                       .build();
+                    }
+                }
                 if (VFSZipper.isZipFile(fo)) {
                     logger.debug(String.format("Retrieving file %s in %s", pathname, dataspace.toUpperCase()));
                     return fileComponentResponse(fo);
@@ -278,16 +325,42 @@ public class RestDataspaceImpl implements RestDataspace {
     }
 
     private Response fileComponentResponse(final FileObject fo) throws FileSystemException {
+        final long length = fo.getContent().getSize();
         return Response.ok(new StreamingOutput() {
             @Override
             public void write(OutputStream outputStream) throws IOException, WebApplicationException {
                 try {
-                    FileSystem.copy(fo, outputStream);
+                    FileSystem.copy(fo, 0, length, outputStream);
                 } catch (IOException ioe) {
                     throw new WebApplicationException(ioe, Response.Status.INTERNAL_SERVER_ERROR);
                 }
             }
-        }).header(HttpHeaders.CONTENT_TYPE, mediaType(fo)).header(HttpHeaders.CONTENT_ENCODING, "identity").build();
+        })
+                       .header(HttpHeaders.CONTENT_TYPE, mediaType(fo))
+                       .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                       .header(HttpHeaders.CONTENT_LENGTH, length)
+                       .header(ACCEPT_RANGES, "bytes")
+                       .build();
+    }
+
+    private Response partialFileComponentResponse(final FileObject fo, final ByteRange range, long length)
+            throws FileSystemException {
+        return Response.status(Response.Status.PARTIAL_CONTENT).entity(new StreamingOutput() {
+            @Override
+            public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+                try {
+                    FileSystem.copy(fo, range.getStart(), range.getLength(), outputStream);
+                } catch (IOException ioe) {
+                    throw new WebApplicationException(ioe, Response.Status.INTERNAL_SERVER_ERROR);
+                }
+            }
+        })
+                       .header(HttpHeaders.CONTENT_TYPE, mediaType(fo))
+                       .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                       .header(HttpHeaders.CONTENT_LENGTH, range.getLength())
+                       .header(CONTENT_RANGE, range.toContentRange(length))
+                       .header(ACCEPT_RANGES, "bytes")
+                       .build();
     }
 
     private Response deleteDir(FileObject fo, List<String> includes, List<String> excludes) throws FileSystemException {
@@ -371,7 +444,7 @@ public class RestDataspaceImpl implements RestDataspace {
             if (Strings.isNullOrEmpty(encoding)) {
                 outputFile.createFile();
                 logger.debug("Writing single file " + outputFile);
-                FileSystem.copy(inputStream, outputFile);
+                FileSystem.write(inputStream, outputFile, 0);
             } else if ("gzip".equals(encoding)) {
                 logger.debug("Expanding gzip archive into " + outputFile);
                 VFSZipper.GZIP.unzip(inputStream, outputFile);
@@ -381,7 +454,7 @@ public class RestDataspaceImpl implements RestDataspace {
             } else {
                 logger.debug("Writing single file " + outputFile);
                 outputFile.createFile();
-                FileSystem.copy(inputStream, outputFile);
+                FileSystem.write(inputStream, outputFile, 0);
             }
         } catch (Throwable error) {
             if (outputFile != null) {
@@ -399,6 +472,23 @@ public class RestDataspaceImpl implements RestDataspace {
         }
     }
 
+    /**
+     * Write a chunk of a file uploaded in several parts. The chunk at offset 0 replaces any existing file,
+     * the following ones are written at their offset in the existing file.
+     *
+     * @return the number of bytes written, at most the length of the chunk
+     */
+    public long writeFileRange(InputStream inputStream, FileObject outputFile, ByteRange chunk) throws IOException {
+        if (chunk.getStart() == 0) {
+            if (outputFile.exists()) {
+                outputFile.delete(SELECT_SELF);
+            }
+            outputFile.createFile();
+        }
+        logger.debug("Writing chunk " + chunk + " of file " + outputFile);
+        return FileSystem.write(inputStream, outputFile, chunk.getStart(), chunk.getLength());
+    }
+
     public FileSystem fileSystem(Session session)
             throws FileSystemException, NotConnectedException, PermissionException {
         FileSystem fs = session.fileSystem();
@@ -0,0 +1,159 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * A single byte range of a file, as given in the 'Range' header of a download or in the
+ * 'Content-Range' header of a chunked upload.
+ */
+public class ByteRange {
+
+    private static final Pattern RANGE = Pattern.compile("^\\s*bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)\\s*$");
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("^\\s*bytes\\s+(\\d+)\\s*-\\s*(\\d+)\\s*/\\s*(\\d+|\\*)\\s*$");
+
+    private final long start;
+
+    private final long end;
+
+    public ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Parse the 'Range' header of a download request.
+     *
+     * @param range the value of the header, e.g. {@code bytes=0-499}, {@code bytes=500-} or {@code bytes=-500}
+     * @param length the size of the requested file
+     * @return the requested range, or null if the header is absent, malformed or requests several ranges,
+     * in which cases the whole file should be returned
+     * @throws IllegalArgumentException if the requested range does not overlap the file
+     */
+    public static ByteRange parse(String range, long length) {
+        if (range == null) {
+            return null;
+        }
+        Matcher matcher = RANGE.matcher(range);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                // suffix range, the last bytes of the file
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength == 0 || length == 0) {
+                    throw new IllegalArgumentException("Unsatisfiable range: " + range);
+                }
+                return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+            if (end < start && !last.isEmpty()) {
+                return null;
+            }
+            if (start >= length) {
+                throw new IllegalArgumentException("Unsatisfiable range: " + range);
+            }
+            return new ByteRange(start, Math.min(end, length - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse the 'Content-Range' header of an uploaded chunk.
+     *
+     * @param contentRange the value of the header, e.g. {@code bytes 0-1048575/*}
+     * @return the position of the chunk in the file
+     * @throws IllegalArgumentException if the header is malformed
+     */
+    public static ByteRange parseContentRange(String contentRange) {
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid content range: " + contentRange);
+        }
+        try {
+            ByteRange byteRange = new ByteRange(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)));
+            if (byteRange.end < byteRange.start) {
+                throw new IllegalArgumentException("Invalid content range: " + contentRange);
+            }
+            return byteRange;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid content range: " + contentRange, e);
+        }
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * @return the value of the 'Content-Range' header describing this range in a file of the given size
+     */
+    public String toContentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ByteRange byteRange = (ByteRange) o;
+        return start == byteRange.start && end == byteRange.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(start) + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return start + "-" + end;
+    }
+}
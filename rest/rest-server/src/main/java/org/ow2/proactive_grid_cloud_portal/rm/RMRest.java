@@ -806,11 +806,14 @@ public class RMRest implements RMRestInterface {
             throws ReflectionException, InterruptedException, IntrospectionException, NotConnectedException,
             InstanceNotFoundException, MalformedObjectNameException, IOException {
 
+        // check the session before reading the cache, entries are shared by every session
+        RMProxyUserInterface rm = checkAccess(sessionId);
+
         String newRange = MBeanInfoViewer.possibleModifyRange(range1, dataSources, 'a');
 
-        StatHistoryCacheEntry entry = StatHistoryCaching.getInstance().getEntryOrCompute(newRange, () -> {
-            RMProxyUserInterface rm = checkAccess(sessionId);
+        String key = "rm:" + newRange + ":" + function;
 
+        StatHistoryCacheEntry entry = StatHistoryCaching.getInstance().getEntryOrCompute(key, () -> {
             AttributeList attrs = rm.getMBeanAttributes(new ObjectName(RMJMXBeans.RUNTIMEDATA_MBEAN_NAME),
                                                         new String[] { "StatisticHistory" });
 
@@ -0,0 +1,126 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+
+
+/**
+ * Bounded queue of the event notifications waiting to be sent to a REST subscriber.
+ * <p>
+ * Notifications added with a coalescing key replace the pending notification with the same key, at its
+ * position in the queue, so that only the latest state of a job or a task is sent. When the queue is full,
+ * the oldest coalescable notifications are dropped first, then the oldest other ones, until the queue is
+ * back to its capacity. A {@link EventNotification.Action#RESYNC} notification is then appended to the next
+ * drained batch, telling the subscriber to reload the state of the scheduler.
+ */
+class CoalescingEventQueue {
+
+    private final int capacity;
+
+    // coalescable notifications are keyed by their coalescing key (a String),
+    // other notifications by a sequence number (a Long)
+    private final LinkedHashMap<Object, EventNotification> pending = new LinkedHashMap<>();
+
+    private long sequence;
+
+    private int droppedCount;
+
+    private int coalescedCount;
+
+    CoalescingEventQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param coalescingKey key of the notifications superseding each other, or null if the notification
+     *                      must always be sent
+     * @param notification the notification to send
+     */
+    synchronized void add(String coalescingKey, EventNotification notification) {
+        if (coalescingKey == null) {
+            pending.put(sequence++, notification);
+        } else {
+            // an insertion ordered map keeps the position of a replaced key
+            if (pending.put(coalescingKey, notification) != null) {
+                coalescedCount++;
+            }
+        }
+        if (pending.size() > capacity) {
+            overflow();
+        }
+    }
+
+    /**
+     * @return the pending notifications, in order, followed by a resync notification if some were dropped
+     */
+    synchronized List<EventNotification> drain() {
+        List<EventNotification> notifications = new ArrayList<>(pending.values());
+        pending.clear();
+        if (droppedCount > 0) {
+            notifications.add(new EventNotification(EventNotification.Action.RESYNC, null, droppedCount));
+            droppedCount = 0;
+        }
+        return notifications;
+    }
+
+    synchronized boolean isEmpty() {
+        return pending.isEmpty() && droppedCount == 0;
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * @return the number of notifications superseded by a newer one since the creation of the queue
+     */
+    synchronized int getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    private void overflow() {
+        Iterator<Map.Entry<Object, EventNotification>> iterator = pending.entrySet().iterator();
+        while (pending.size() > capacity && iterator.hasNext()) {
+            if (iterator.next().getKey() instanceof String) {
+                iterator.remove();
+                droppedCount++;
+            }
+        }
+        Iterator<Object> oldest = pending.keySet().iterator();
+        while (pending.size() > capacity) {
+            oldest.next();
+            oldest.remove();
+            droppedCount++;
+        }
+    }
+}
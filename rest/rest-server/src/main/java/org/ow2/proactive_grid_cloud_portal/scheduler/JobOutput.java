@@ -25,49 +25,315 @@
  */
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
-import org.objectweb.proactive.core.util.CircularArrayList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobLiveLogData;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
+
+/**
+ * Live log of a job, as received from the log forwarding service.
+ * <p>
+ * Each line is identified by its offset, the index of the line since the creation of the output. The most
+ * recent lines are kept in memory up to a given size, older lines are spilled to disk in segments, up to
+ * another size, beyond which the oldest segments are dropped. Readers either fetch the lines from an offset
+ * of their own (see {@link #fetchLogs(long)}), or consume the lines through the cursor shared by the
+ * output (see {@link #fetchNewLogs()}). Lines are appended under a write lock, readers only copy the lines
+ * held in memory under a read lock, and read the spilled segments without any lock.
+ */
 public class JobOutput {
 
-    private CircularArrayList<String> currentLogs;
+    private static final Logger logger = Logger.getLogger(JobOutput.class);
+
+    private final long maxMemorySize;
+
+    private final long maxDiskSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** most recent lines, the first one has the offset memoryStart */
+    private final ArrayDeque<String> memoryLines = new ArrayDeque<>();
+
+    private long memoryStart;
+
+    private long memorySize;
+
+    /** lines spilled to disk, oldest first */
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
 
-    private CircularArrayList<String> allLogs;
+    private long diskSize;
+
+    private File spillDirectory;
+
+    /** offset of the next line to log */
+    private long end;
+
+    /** offset of the first line not consumed yet by fetchNewLogs */
+    private final AtomicLong newLogsOffset = new AtomicLong();
+
+    private boolean closed;
 
     public JobOutput() {
-        currentLogs = new CircularArrayList<>(50);
-        allLogs = new CircularArrayList<>(50);
+        this(PortalConfiguration.SCHEDULER_LIVELOGS_MEMORY_SIZE.getValueAsInt(),
+             PortalConfiguration.SCHEDULER_LIVELOGS_DISK_SIZE.getValueAsInt());
+    }
+
+    /**
+     * @param maxMemorySize size in bytes of the lines kept in memory
+     * @param maxDiskSize size in bytes of the lines spilled to disk, 0 to drop lines evicted from memory
+     */
+    public JobOutput(long maxMemorySize, long maxDiskSize) {
+        this.maxMemorySize = maxMemorySize;
+        this.maxDiskSize = maxDiskSize;
     }
 
-    public synchronized void log(String message) {
-        currentLogs.add(message);
-        allLogs.add(message);
+    public void log(String message) {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            memoryLines.addLast(message);
+            memorySize += sizeOf(message);
+            end++;
+            if (memorySize > maxMemorySize) {
+                evict();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
      * @return the logs appended since last call, i.e logs are removed when fetched
      */
-    public synchronized String fetchNewLogs() {
-        int size = currentLogs.size();
-        StringBuilder mes = new StringBuilder();
-        for (int i = 0; i < size; i++) {
-            mes.append(currentLogs.remove(0));
+    public String fetchNewLogs() {
+        long to = end();
+        long from = newLogsOffset.getAndAccumulate(to, Math::max);
+        if (from >= to) {
+            return "";
         }
-        return mes.toString();
+        return read(from, to).getLogs();
+    }
+
+    /**
+     * @return all the logs still available, i.e logs are not removed
+     */
+    public String fetchAllLogs() {
+        return read(0, end()).getLogs();
+    }
+
+    /**
+     * Read the lines from the given offset, without consuming them.
+     *
+     * @param offset offset of the first line to read
+     * @return the lines still available from the offset
+     */
+    public JobLiveLogData fetchLogs(long offset) {
+        return read(offset, end());
     }
 
     /**
-     * @return all the logs since creation, i.e logs are not removed
+     * @return the number of lines which would be returned by {@link #fetchNewLogs()}
      */
-    public synchronized String fetchAllLogs() {
-        StringBuilder mes = new StringBuilder();
-        for (String aSavedOutput : allLogs) {
-            mes.append(aSavedOutput);
+    public int size() {
+        lock.readLock().lock();
+        try {
+            long available = end - Math.max(newLogsOffset.get(), start());
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, available));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Discard the lines and delete the segments spilled to disk, lines logged afterwards are ignored.
+     */
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            memoryLines.clear();
+            memorySize = 0;
+            memoryStart = end;
+            segments.clear();
+            diskSize = 0;
+            if (spillDirectory != null) {
+                FileUtils.deleteQuietly(spillDirectory);
+                spillDirectory = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long end() {
+        lock.readLock().lock();
+        try {
+            return end;
+        } finally {
+            lock.readLock().unlock();
         }
-        return mes.toString();
     }
 
-    public synchronized int size() {
-        return currentLogs.size();
+    // must be called under the lock
+    private long start() {
+        return segments.isEmpty() ? memoryStart : segments.peekFirst().firstOffset;
+    }
+
+    private JobLiveLogData read(long from, long to) {
+        List<Segment> segmentsToRead = new ArrayList<>();
+        List<String> linesInMemory = new ArrayList<>();
+        long start;
+
+        lock.readLock().lock();
+        try {
+            start = Math.max(from, start());
+            for (Segment segment : segments) {
+                if (segment.endOffset() > start && segment.firstOffset < to) {
+                    segmentsToRead.add(segment);
+                }
+            }
+            Iterator<String> iterator = memoryLines.iterator();
+            for (long offset = memoryStart; offset < to && iterator.hasNext(); offset++) {
+                String line = iterator.next();
+                if (offset >= start) {
+                    linesInMemory.add(line);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        StringBuilder logs = new StringBuilder();
+        for (Segment segment : segmentsToRead) {
+            try {
+                segment.read(start, to, logs);
+            } catch (IOException e) {
+                // the segment was dropped while being read
+                logger.debug("Could not read live logs segment " + segment.file, e);
+            }
+        }
+        for (String line : linesInMemory) {
+            logs.append(line);
+        }
+
+        JobLiveLogData data = new JobLiveLogData();
+        data.setLogs(logs.toString());
+        data.setOffset(Math.min(start, to));
+        data.setNextOffset(Math.max(start, to));
+        return data;
+    }
+
+    // must be called under the write lock
+    private void evict() {
+        // evict half of the memory at once, so that segments are not too small
+        List<String> evictedLines = new ArrayList<>();
+        long firstOffset = memoryStart;
+        while (memorySize > maxMemorySize / 2 && !memoryLines.isEmpty()) {
+            String line = memoryLines.removeFirst();
+            memorySize -= sizeOf(line);
+            memoryStart++;
+            evictedLines.add(line);
+        }
+        if (maxDiskSize > 0) {
+            spill(firstOffset, evictedLines);
+        }
+    }
+
+    // must be called under the write lock
+    private void spill(long firstOffset, List<String> lines) {
+        try {
+            if (spillDirectory == null) {
+                spillDirectory = Files.createTempDirectory("livelogs").toFile();
+            }
+            Segment segment = Segment.write(new File(spillDirectory, firstOffset + ".log"), firstOffset, lines);
+            segments.addLast(segment);
+            diskSize += segment.size;
+        } catch (IOException e) {
+            logger.warn("Could not spill " + lines.size() + " lines of live logs to disk, they are dropped", e);
+        }
+        while (diskSize > maxDiskSize && !segments.isEmpty()) {
+            Segment oldest = segments.removeFirst();
+            diskSize -= oldest.size;
+            FileUtils.deleteQuietly(oldest.file);
+        }
+    }
+
+    private static long sizeOf(String line) {
+        // lines are held as UTF-16 strings
+        return 2L * line.length();
+    }
+
+    /**
+     * Lines spilled to a file, each line being written as its length followed by its UTF-8 bytes.
+     */
+    private static class Segment {
+
+        private final File file;
+
+        private final long firstOffset;
+
+        private final int lineCount;
+
+        private final long size;
+
+        private Segment(File file, long firstOffset, int lineCount, long size) {
+            this.file = file;
+            this.firstOffset = firstOffset;
+            this.lineCount = lineCount;
+            this.size = size;
+        }
+
+        static Segment write(File file, long firstOffset, List<String> lines) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                for (String line : lines) {
+                    byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            } catch (IOException e) {
+                FileUtils.deleteQuietly(file);
+                throw e;
+            }
+            return new Segment(file, firstOffset, lines.size(), file.length());
+        }
+
+        long endOffset() {
+            return firstOffset + lineCount;
+        }
+
+        void read(long from, long to, StringBuilder logs) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                for (long offset = firstOffset; offset < to && offset < endOffset(); offset++) {
+                    int length = in.readInt();
+                    if (offset < from) {
+                        in.skipBytes(length);
+                    } else {
+                        byte[] bytes = new byte[length];
+                        in.readFully(bytes);
+                        logs.append(new String(bytes, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
     }
 }
@@ -31,6 +31,7 @@ import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
 import org.ow2.proactive.scheduler.common.exception.PermissionException;
 import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
 import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobLiveLogData;
 
 
 public class JobOutputAppender extends AppenderSkeleton {
@@ -53,6 +54,7 @@ public class JobOutputAppender extends AppenderSkeleton {
     @Override
     public void close() {
         super.closed = true;
+        jobOutput.close();
     }
 
     @Override
@@ -68,6 +70,10 @@ public class JobOutputAppender extends AppenderSkeleton {
         return jobOutput.fetchAllLogs();
     }
 
+    public JobLiveLogData fetchLogs(long offset) {
+        return jobOutput.fetchLogs(offset);
+    }
+
     public int size() {
         return jobOutput.size();
     }
@@ -26,10 +26,10 @@
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.util.log.ProActiveLogger;
@@ -40,11 +40,14 @@ import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
 import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingException;
 import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingService;
 import org.ow2.proactive_grid_cloud_portal.common.Session;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobLiveLogData;
 import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 
 /**
  * Create, show and remove jobs output
+ * <p>
+ * Outputs are read concurrently, only the creation and the removal of an output are serialized.
  *
  * @author The ProActive Team
  * @since ProActive Scheduling 0.9
@@ -54,9 +57,9 @@ public class JobsOutputController {
 
     private LogForwardingService logForwardingService;
 
-    private Map<String, JobOutputAppender> appenders = new HashMap<>();
+    private final Map<String, JobOutputAppender> appenders = new ConcurrentHashMap<>();
 
-    private Set<String> listeningTo = new HashSet<>();
+    private final Set<String> listeningTo = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     private final Session session;
 
@@ -64,17 +67,25 @@ public class JobsOutputController {
         this.session = session;
     }
 
-    public synchronized String getNewLogs(String jobId) throws LogForwardingException, NotConnectedException,
+    public String getNewLogs(String jobId) throws LogForwardingException, NotConnectedException,
             UnknownJobException, PermissionException, IOException {
         return getJobOutputAppender(jobId).fetchNewLogs();
     }
 
-    public synchronized String getAllLogs(String jobId) throws LogForwardingException, NotConnectedException,
+    public String getAllLogs(String jobId) throws LogForwardingException, NotConnectedException,
             UnknownJobException, PermissionException, IOException {
         return getJobOutputAppender(jobId).fetchAllLogs();
     }
 
-    public synchronized int availableLinesCount(String jobId) {
+    /**
+     * Read the logs of a job from the given offset, without consuming them.
+     */
+    public JobLiveLogData getLogs(String jobId, long offset) throws LogForwardingException, NotConnectedException,
+            UnknownJobException, PermissionException, IOException {
+        return getJobOutputAppender(jobId).fetchLogs(offset);
+    }
+
+    public int availableLinesCount(String jobId) {
         JobOutputAppender appender = appenders.get(jobId);
         if (appender != null) {
             return appender.size();
@@ -83,14 +94,18 @@ public class JobsOutputController {
     }
 
     public synchronized void removeAppender(String jobId) {
-        if (appenders.containsKey(jobId)) {
-            JobOutputAppender appender = appenders.remove(jobId);
+        JobOutputAppender appender = appenders.remove(jobId);
+        if (appender != null) {
             getLogForwardingService().removeAllAppenders(Log4JTaskLogs.getLoggerName(jobId));
             appender.close();
         }
     }
 
     public synchronized void terminate() {
+        for (JobOutputAppender appender : appenders.values()) {
+            appender.close();
+        }
+        appenders.clear();
         try {
             if (logForwardingService != null) {
                 logForwardingService.terminate();
@@ -100,7 +115,7 @@ public class JobsOutputController {
         }
     }
 
-    private LogForwardingService getLogForwardingService() {
+    private synchronized LogForwardingService getLogForwardingService() {
         if (logForwardingService == null) {
             logForwardingService = new LogForwardingService(PortalConfiguration.SCHEDULER_LOGINFORWARDINGSERVICE_PROVIDER.getValueAsString());
             try {
@@ -122,10 +137,15 @@ public class JobsOutputController {
         return jobOutputAppender;
     }
 
-    private JobOutputAppender createJobOutputAppender(String jobId) throws NotConnectedException, UnknownJobException,
-            PermissionException, LogForwardingException, IOException {
+    private synchronized JobOutputAppender createJobOutputAppender(String jobId) throws NotConnectedException,
+            UnknownJobException, PermissionException, LogForwardingException, IOException {
 
-        JobOutputAppender jobOutputAppender = new JobOutputAppender();
+        JobOutputAppender jobOutputAppender = appenders.get(jobId);
+        if (jobOutputAppender != null) {
+            // created by a concurrent call
+            return jobOutputAppender;
+        }
+        jobOutputAppender = new JobOutputAppender();
         addJobOutputAppender(jobId, jobOutputAppender);
         return jobOutputAppender;
     }
@@ -25,9 +25,18 @@
  */
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 import javax.servlet.ServletContext;
 
 import org.apache.log4j.Logger;
+import org.atmosphere.cpr.Broadcaster;
 import org.atmosphere.cpr.BroadcasterFactory;
 import org.atmosphere.util.ServletContextFactory;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -42,14 +51,24 @@ import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.job.UserIdentification;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobStateData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskInfoData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 
 /**
  * Broadcasts the scheduler events which it receives to the target REST client.
+ * <p>
+ * Job and task updates are coalesced during a short window, only the latest update of each job and task
+ * being sent, and are converted to the REST data objects read by the clients rather than serializing the
+ * scheduler objects. A new batch is only sent once the previous one has been written to the client, or after
+ * {@link PortalConfiguration#SCHEDULER_EVENTS_SEND_TIMEOUT}, events waiting in the meantime are bounded
+ * (see {@link CoalescingEventQueue}). The broadcaster must be stopped when the client disconnects.
  */
 public class SchedulerEventBroadcaster implements SchedulerEventListener {
 
@@ -65,8 +84,27 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
         mapper.configure(SerializationConfig.Feature.FAIL_ON_EMPTY_BEANS, false);
     }
 
+    // flushes the coalesced events of every subscriber
+    private static final ScheduledExecutorService flushExecutor = Executors.newScheduledThreadPool(2,
+                                                                                                   new ThreadFactoryBuilder().setNameFormat("SchedulerEventBroadcaster-%d")
+                                                                                                                             .setDaemon(true)
+                                                                                                                             .build());
+
     private String broadcasterUUID;
 
+    // created lazily, as the broadcaster is turned into an active object
+    private transient CoalescingEventQueue queue;
+
+    private transient ScheduledFuture<?> scheduledFlush;
+
+    private transient boolean flushing;
+
+    private transient boolean stopped;
+
+    private transient List<Future<Object>> inFlight;
+
+    private transient long inFlightSince;
+
     public SchedulerEventBroadcaster() {
         super();
     }
@@ -85,60 +123,192 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
     @Override
     public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
         logEvent(notification);
-        broadcast(new EventNotification(EventNotification.Action.JOB_STATE_UPDATED,
-                                        eventTypeName(notification),
-                                        notification.getData()));
+        enqueue("job:" + notification.getData().getJobId().value(),
+                new EventNotification(EventNotification.Action.JOB_STATE_UPDATED,
+                                      eventTypeName(notification),
+                                      notification.getData()));
     }
 
     @Override
     public void jobUpdatedFullDataEvent(JobState jobState) {
         logEvent(jobState);
-        broadcast(new EventNotification(EventNotification.Action.JOB_FULL_DATA_UPDATED,
-                                        SchedulerEvent.JOB_UPDATED.name(),
-                                        jobState));
+        enqueue("jobFullData:" + jobState.getId().value(),
+                new EventNotification(EventNotification.Action.JOB_FULL_DATA_UPDATED,
+                                      SchedulerEvent.JOB_UPDATED.name(),
+                                      jobState));
     }
 
     @Override
     public void jobSubmittedEvent(JobState jobState) {
         logEvent(jobState);
-        broadcast(new EventNotification(EventNotification.Action.JOB_SUBMITTED,
-                                        SchedulerEvent.JOB_SUBMITTED.name(),
-                                        jobState));
+        enqueue(null,
+                new EventNotification(EventNotification.Action.JOB_SUBMITTED,
+                                      SchedulerEvent.JOB_SUBMITTED.name(),
+                                      jobState));
     }
 
     @Override
     public void schedulerStateUpdatedEvent(SchedulerEvent schedulerEvent) {
         logEvent(schedulerEvent);
-        broadcast(new EventNotification(EventNotification.Action.SCHEDULER_STATE_UPDATED, schedulerEvent.name(), null));
+        enqueue(null,
+                new EventNotification(EventNotification.Action.SCHEDULER_STATE_UPDATED, schedulerEvent.name(), null));
     }
 
     @Override
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
         logEvent(notification);
-        TaskInfoData taskInfoData = dozerMapper.map(notification.getData(), TaskInfoData.class);
-
-        broadcast(new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
-                                        eventTypeName(notification),
-                                        taskInfoData));
+        TaskInfo taskInfo = notification.getData();
+        enqueue("task:" + taskInfo.getJobId().value() + ":" + taskInfo.getTaskId().value(),
+                new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
+                                      eventTypeName(notification),
+                                      taskInfo));
     }
 
     @Override
     public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
         logEvent(notification);
-        broadcast(new EventNotification(EventNotification.Action.USERS_UPDATED,
-                                        eventTypeName(notification),
-                                        notification.getData()));
+        enqueue(null,
+                new EventNotification(EventNotification.Action.USERS_UPDATED,
+                                      eventTypeName(notification),
+                                      notification.getData()));
     }
 
-    private void broadcast(EventNotification eventNotification) {
+    /**
+     * Stop sending events to the client, pending events are dropped. Returns once the broadcaster is stopped.
+     *
+     * @return true
+     */
+    public boolean stop() {
+        synchronized (this) {
+            stopped = true;
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (queue != null) {
+                queue.drain();
+            }
+            inFlight = null;
+        }
+        return true;
+    }
+
+    private void enqueue(String coalescingKey, EventNotification eventNotification) {
+        int window = PortalConfiguration.SCHEDULER_EVENTS_COALESCING_WINDOW.getValueAsInt();
+        if (window <= 0) {
+            broadcast(lookupBroadcaster(), eventNotification);
+            return;
+        }
+        CoalescingEventQueue eventQueue;
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            if (queue == null) {
+                queue = new CoalescingEventQueue(PortalConfiguration.SCHEDULER_EVENTS_QUEUE_SIZE.getValueAsInt());
+            }
+            eventQueue = queue;
+        }
+        eventQueue.add(coalescingKey, eventNotification);
+        scheduleFlush(window);
+    }
+
+    private synchronized void scheduleFlush(int window) {
+        if (!stopped && scheduledFlush == null) {
+            scheduledFlush = flushExecutor.schedule(() -> flush(window), window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(int window) {
+        List<EventNotification> notifications;
+        synchronized (this) {
+            scheduledFlush = null;
+            if (stopped) {
+                return;
+            }
+            if (flushing || (inFlight != null && !isDone(inFlight) && !isInFlightTimedOut())) {
+                // the client did not read the previous batch yet, events keep being coalesced until it does
+                scheduleFlush(window);
+                return;
+            }
+            flushing = true;
+            notifications = queue.drain();
+        }
+        List<Future<Object>> futures = new ArrayList<>(notifications.size());
         try {
-            ServletContext servletContext = ServletContextFactory.getDefault().getServletContext();
+            Broadcaster broadcaster = lookupBroadcaster();
+            if (broadcaster == null) {
+                log.debug("No broadcaster for " + broadcasterUUID + ", dropping " + notifications.size() +
+                          " event notifications");
+                return;
+            }
+            for (EventNotification notification : notifications) {
+                try {
+                    futures.add(broadcast(broadcaster, notification));
+                } catch (Exception e) {
+                    // already logged, the next notifications are still sent
+                }
+            }
+        } catch (Exception e) {
+            log.error("Cannot broadcast event notifications.", e);
+        } finally {
+            synchronized (this) {
+                inFlight = futures;
+                inFlightSince = System.currentTimeMillis();
+                flushing = false;
+            }
+        }
+    }
 
-            ((BroadcasterFactory) servletContext.getAttribute(BroadcasterFactory.class.getName())).lookup(broadcasterUUID)
-                                                                                                  .broadcast(mapper.writeValueAsString(eventNotification));
+    private boolean isInFlightTimedOut() {
+        int timeout = PortalConfiguration.SCHEDULER_EVENTS_SEND_TIMEOUT.getValueAsInt();
+        if (System.currentTimeMillis() - inFlightSince < timeout) {
+            return false;
+        }
+        log.warn("Event notifications were not sent to " + broadcasterUUID + " within " + timeout +
+                 " ms, sending the next ones");
+        return true;
+    }
+
+    private static boolean isDone(List<Future<Object>> futures) {
+        for (Future<Object> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Broadcaster lookupBroadcaster() {
+        ServletContext servletContext = ServletContextFactory.getDefault().getServletContext();
+        return ((BroadcasterFactory) servletContext.getAttribute(BroadcasterFactory.class.getName())).lookup(broadcasterUUID);
+    }
+
+    private Future<Object> broadcast(Broadcaster broadcaster, EventNotification eventNotification) {
+        try {
+            eventNotification.setData(toRestData(eventNotification.getAction(), eventNotification.getData()));
+            return broadcaster.broadcast(mapper.writeValueAsString(eventNotification));
         } catch (Exception e) {
             log.error("Cannot broadcast event notification.", e);
-            Throwables.propagate(e);
+            throw Throwables.propagate(e);
+        }
+    }
+
+    /**
+     * Convert the scheduler objects to the data objects read by the REST clients, only the events which are
+     * actually sent are converted.
+     */
+    private static Object toRestData(EventNotification.Action action, Object data) {
+        switch (action) {
+            case JOB_SUBMITTED:
+            case JOB_FULL_DATA_UPDATED:
+                return dozerMapper.map(data, JobStateData.class);
+            case JOB_STATE_UPDATED:
+                return dozerMapper.map(data, JobInfoData.class);
+            case TASK_STATE_UPDATED:
+                return dozerMapper.map(data, TaskInfoData.class);
+            default:
+                return data;
         }
     }
 
@@ -34,6 +34,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.security.KeyException;
 import java.security.PublicKey;
 import java.util.*;
@@ -41,6 +42,7 @@ import java.util.Map.Entry;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.management.JMException;
 import javax.security.auth.login.LoginException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
@@ -97,7 +99,9 @@ import org.ow2.proactive_grid_cloud_portal.common.SchedulerRestInterface;
 import org.ow2.proactive_grid_cloud_portal.common.Session;
 import org.ow2.proactive_grid_cloud_portal.common.SessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStore;
+import org.ow2.proactive_grid_cloud_portal.common.StatHistoryCaching;
 import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
+import org.ow2.proactive_grid_cloud_portal.dataspace.FileSystem;
 import org.ow2.proactive_grid_cloud_portal.dataspace.RestDataspaceImpl;
 import org.ow2.proactive_grid_cloud_portal.scheduler.client.SchedulerRestClient;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.*;
@@ -371,6 +375,25 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
+    @Override
+    public JobLiveLogData getLiveLogJobFromOffset(String sessionId, String jobId, long offset)
+            throws NotConnectedRestException, UnknownJobRestException, PermissionRestException,
+            LogForwardingRestException, IOException {
+        try {
+            checkAccess(sessionId, "/scheduler/jobs/" + jobId + "/livelog/offset");
+            Session session = sessionStore.get(sessionId);
+            return session.getJobsOutputController().getLogs(jobId, offset);
+        } catch (PermissionException e) {
+            throw new PermissionRestException(e);
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        } catch (UnknownJobException e) {
+            throw new UnknownJobRestException(e);
+        } catch (LogForwardingException e) {
+            throw new LogForwardingRestException(e);
+        }
+    }
+
     @Override
     public int getLiveLogJobAvailable(String sessionId, String jobId) throws NotConnectedRestException {
         checkAccess(sessionId, "/scheduler/jobs/" + jobId + "/livelog/available");
@@ -1739,6 +1762,11 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
         } else if (sourcefo.getType().equals(FileType.FILE)) {
             logger.info("[pullFile] reading file content from " + sourcefo.getURL());
+            File localFile = FileSystem.localFile(sourcefo);
+            if (localFile != null) {
+                // bypass the VFS streams for files of a local space
+                return Files.newInputStream(localFile.toPath());
+            }
             return sourcefo.getContent().getInputStream();
         } else {
             RuntimeException ex = new IllegalArgumentException("File " + filePath + " has an unsupported type " +
@@ -2039,11 +2067,27 @@ public class SchedulerStateRest implements SchedulerRestInterface {
     @Override
     public String getStatHistory(String sessionId, String function) throws NotConnectedRestException {
         SchedulerProxyUserInterface s = checkAccess(sessionId, "stats");
-        return s.getStatHistory("ProActiveScheduler:name=RuntimeData",
-                                "dddd", // all for ranges for the days
-                                new String[] { "PendingJobsCount", "PausedJobsCount", "RunningJobsCount",
-                                               "StalledJobsCount", "InErrorJobsCount" },
-                                function);
+        try {
+            // entries are shared by every session, the session is checked above
+            return StatHistoryCaching.getInstance()
+                                     .getEntryOrCompute("scheduler:" + function,
+                                                        () -> s.getStatHistory("ProActiveScheduler:name=RuntimeData",
+                                                                               "dddd", // all for ranges for the days
+                                                                               new String[] { "PendingJobsCount",
+                                                                                              "PausedJobsCount",
+                                                                                              "RunningJobsCount",
+                                                                                              "StalledJobsCount",
+                                                                                              "InErrorJobsCount" },
+                                                                               function))
+                                     .getValue();
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (JMException | IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
@@ -2402,6 +2446,12 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                     } catch (Exception e) {
                         logger.error(e);
                     }
+                    try {
+                        // pending events are dropped and no flush of the broadcaster is scheduled anymore
+                        activedEventListener.stop();
+                    } catch (Exception e) {
+                        logger.error(e);
+                    }
                     PAActiveObject.terminateActiveObject(activedEventListener, true);
                 }
             });
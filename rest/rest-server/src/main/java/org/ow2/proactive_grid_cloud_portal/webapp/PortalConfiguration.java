@@ -54,6 +54,21 @@ public enum PortalConfiguration implements PACommonProperties {
             PropertyType.STRING,
             "org.ow2.proactive.scheduler.common.util.logforwarder.providers.SocketBasedForwardingProvider"),
 
+    /** Time in milliseconds during which job and task events are coalesced before being sent, 0 sends every event */
+    SCHEDULER_EVENTS_COALESCING_WINDOW("scheduler.events.coalescing.window", PropertyType.INTEGER, "250"),
+
+    /** Maximum number of events waiting to be sent to a client, beyond which events are dropped */
+    SCHEDULER_EVENTS_QUEUE_SIZE("scheduler.events.queue.size", PropertyType.INTEGER, "10000"),
+
+    /** Time in milliseconds to wait for a client to read a batch of events, before the next batch is sent anyway */
+    SCHEDULER_EVENTS_SEND_TIMEOUT("scheduler.events.send.timeout", PropertyType.INTEGER, "60000"),
+
+    /** Size in bytes of the live logs of a job kept in memory, older lines are spilled to disk */
+    SCHEDULER_LIVELOGS_MEMORY_SIZE("scheduler.livelogs.memory.size", PropertyType.INTEGER, "1048576"),
+
+    /** Size in bytes of the live logs of a job spilled to disk, older lines are dropped, 0 disables the spill */
+    SCHEDULER_LIVELOGS_DISK_SIZE("scheduler.livelogs.disk.size", PropertyType.INTEGER, "67108864"),
+
     RM_URL("rm.url", PropertyType.STRING),
 
     RM_CACHE_LOGIN("rm.cache.login", PropertyType.STRING, "watcher"),
@@ -64,6 +79,12 @@ public enum PortalConfiguration implements PACommonProperties {
 
     RM_CACHE_REFRESHRATE("rm.cache.refreshrate", PropertyType.INTEGER, "3500"),
 
+    /** Maximum number of statistic history requests cached */
+    STAT_HISTORY_CACHE_SIZE("stathistory.cache.size", PropertyType.INTEGER, "100"),
+
+    /** Time in milliseconds during which a statistic history request is cached */
+    STAT_HISTORY_CACHE_DURATION("stathistory.cache.duration", PropertyType.INTEGER, "5000"),
+
     NOVNC_ENABLED("novnc.enabled", PropertyType.BOOLEAN, "false"),
 
     NOVNC_PORT("novnc.port", PropertyType.INTEGER, "5900"),
@@ -0,0 +1,126 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+
+public class StatHistoryCachingTest {
+
+    @Test
+    public void testValueIsComputedOnce() throws Exception {
+        StatHistoryCaching cache = new StatHistoryCaching(10, 60000);
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals("1", cache.getEntryOrCompute("key", () -> "" + computations.incrementAndGet()).getValue());
+        assertEquals("1", cache.getEntryOrCompute("key", () -> "" + computations.incrementAndGet()).getValue());
+
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getLoadCount());
+    }
+
+    @Test
+    public void testConcurrentRequestsWaitForASingleComputation() throws Exception {
+        StatHistoryCaching cache = new StatHistoryCaching(10, 60000);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.getEntryOrCompute("key", () -> {
+                computing.countDown();
+                release.await();
+                return "" + computations.incrementAndGet();
+            }).getValue());
+            computing.await();
+            Future<String> second = executor.submit(() -> cache.getEntryOrCompute("key",
+                                                                                  () -> "" +
+                                                                                        computations.incrementAndGet())
+                                                               .getValue());
+
+            // other keys are not blocked by the computation
+            assertEquals("other", cache.getEntryOrCompute("other", () -> "other").getValue());
+
+            release.countDown();
+            assertEquals("1", first.get(10, TimeUnit.SECONDS));
+            assertEquals("1", second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, computations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testComputationExceptionIsRethrown() throws Exception {
+        StatHistoryCaching cache = new StatHistoryCaching(10, 60000);
+        cache.getEntryOrCompute("key", () -> {
+            throw new IOException("unreachable");
+        });
+    }
+
+    @Test
+    public void testOldEntriesAreRefreshedInBackground() throws Exception {
+        StatHistoryCaching cache = new StatHistoryCaching(10, 60000);
+        cache.addEntry("key", System.currentTimeMillis() - 50000, "old");
+
+        // the current entry is returned while it is refreshed
+        assertEquals("old", cache.getEntryOrCompute("key", () -> "new").getValue());
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (cache.getRefreshCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, cache.getRefreshCount());
+        assertEquals("new", cache.getEntry("key").getValue());
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        StatHistoryCaching cache = new StatHistoryCaching(2, 60000);
+        for (int i = 0; i < 5; i++) {
+            String value = "" + i;
+            cache.getEntryOrCompute(value, () -> value);
+        }
+
+        assertEquals(2, cache.getSize());
+        assertNull(cache.getEntry("0"));
+        assertEquals("4", cache.getEntry("4").getValue());
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
+import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStoreTestUtils;
+
+
+public class RestDataspaceImplTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes();
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private RestDataspaceImpl restDataspace;
+
+    private String sessionId;
+
+    private File userSpace;
+
+    @Before
+    public void setUp() throws Exception {
+        userSpace = tempFolder.newFolder("user");
+        SchedulerProxyUserInterface scheduler = mock(SchedulerProxyUserInterface.class);
+        when(scheduler.getUserSpaceURIs()).thenReturn(Collections.singletonList(userSpace.toURI().toString()));
+        when(scheduler.getGlobalSpaceURIs()).thenReturn(Collections.singletonList(tempFolder.newFolder("global")
+                                                                                            .toURI()
+                                                                                            .toString()));
+        sessionId = SharedSessionStoreTestUtils.createValidSession(scheduler);
+        restDataspace = new RestDataspaceImpl();
+    }
+
+    @Test
+    public void testRetrieveRange() throws Exception {
+        FileUtils.writeByteArrayToFile(new File(userSpace, "file"), CONTENT);
+
+        Response response = retrieve("file", "bytes=2-5");
+
+        assertEquals(Response.Status.PARTIAL_CONTENT.getStatusCode(), response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeaderString(RestDataspaceImpl.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 2, 6), content(response));
+    }
+
+    @Test
+    public void testRetrieveUnsatisfiableRange() throws Exception {
+        FileUtils.writeByteArrayToFile(new File(userSpace, "file"), CONTENT);
+
+        Response response = retrieve("file", "bytes=10-");
+
+        assertEquals(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), response.getStatus());
+        assertEquals("bytes */10", response.getHeaderString(RestDataspaceImpl.CONTENT_RANGE));
+    }
+
+    @Test
+    public void testRetrieveWithoutRange() throws Exception {
+        FileUtils.writeByteArrayToFile(new File(userSpace, "file"), CONTENT);
+
+        Response response = retrieve("file", null);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals("bytes", response.getHeaderString(RestDataspaceImpl.ACCEPT_RANGES));
+        assertArrayEquals(CONTENT, content(response));
+    }
+
+    @Test
+    public void testStoreChunks() throws Exception {
+        assertEquals(Response.Status.CREATED.getStatusCode(),
+                     store("file", "bytes 0-4/10", Arrays.copyOfRange(CONTENT, 0, 5)).getStatus());
+        assertEquals(Response.Status.CREATED.getStatusCode(),
+                     store("file", "bytes 5-9/10", Arrays.copyOfRange(CONTENT, 5, 10)).getStatus());
+
+        assertArrayEquals(CONTENT, FileUtils.readFileToByteArray(new File(userSpace, "file")));
+    }
+
+    @Test
+    public void testStoreChunkAgain() throws Exception {
+        FileUtils.writeByteArrayToFile(new File(userSpace, "file"), CONTENT);
+
+        Response response = store("file", "bytes 2-3/10", "ab".getBytes());
+
+        assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
+        assertArrayEquals("01ab456789".getBytes(), FileUtils.readFileToByteArray(new File(userSpace, "file")));
+    }
+
+    @Test
+    public void testStoreChunkBeyondEndOfFile() throws Exception {
+        FileUtils.writeByteArrayToFile(new File(userSpace, "file"), Arrays.copyOfRange(CONTENT, 0, 5));
+
+        Response response = store("file", "bytes 6-9/10", Arrays.copyOfRange(CONTENT, 6, 10));
+
+        assertEquals(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), response.getStatus());
+        assertEquals("bytes */5", response.getHeaderString(RestDataspaceImpl.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 0, 5),
+                          FileUtils.readFileToByteArray(new File(userSpace, "file")));
+    }
+
+    @Test
+    public void testStoreChunkOfMissingFile() throws Exception {
+        Response response = store("file", "bytes 5-9/10", Arrays.copyOfRange(CONTENT, 5, 10));
+
+        assertEquals(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), response.getStatus());
+        assertEquals("bytes */0", response.getHeaderString(RestDataspaceImpl.CONTENT_RANGE));
+    }
+
+    @Test
+    public void testStoreChunkNotMatchingBody() throws Exception {
+        Response shorterBody = store("file", "bytes 0-4/10", Arrays.copyOfRange(CONTENT, 0, 4));
+        Response longerBody = store("file", "bytes 0-4/10", Arrays.copyOfRange(CONTENT, 0, 6));
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), shorterBody.getStatus());
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), longerBody.getStatus());
+    }
+
+    @Test
+    public void testStoreInvalidContentRange() throws Exception {
+        Response response = store("file", "bytes 4-0/10", CONTENT);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    public void testStoreReplacesFile() throws Exception {
+        FileUtils.writeByteArrayToFile(new File(userSpace, "file"), "previous longer content".getBytes());
+
+        Response response = store("file", null, CONTENT);
+
+        assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
+        assertArrayEquals(CONTENT, FileUtils.readFileToByteArray(new File(userSpace, "file")));
+    }
+
+    private Response retrieve(String pathname, String range) throws Exception {
+        return restDataspace.retrieve(sessionId,
+                                      "identity",
+                                      RestDataspaceImpl.USER,
+                                      pathname,
+                                      null,
+                                      null,
+                                      null,
+                                      null,
+                                      range);
+    }
+
+    private Response store(String pathname, String contentRange, byte[] body) throws Exception {
+        return restDataspace.store(sessionId,
+                                   null,
+                                   contentRange,
+                                   RestDataspaceImpl.USER,
+                                   pathname,
+                                   new ByteArrayInputStream(body));
+    }
+
+    private byte[] content(Response response) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        return output.toByteArray();
+    }
+}
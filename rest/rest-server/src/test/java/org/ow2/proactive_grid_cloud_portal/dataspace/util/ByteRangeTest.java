@@ -0,0 +1,79 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+
+/**
+ * Unit tests related to {@link ByteRange}.
+ */
+public class ByteRangeTest {
+
+    @Test
+    public void testParseRange() {
+        assertThat(ByteRange.parse("bytes=0-499", 1000)).isEqualTo(new ByteRange(0, 499));
+        assertThat(ByteRange.parse("bytes=500-", 1000)).isEqualTo(new ByteRange(500, 999));
+        assertThat(ByteRange.parse("bytes=-300", 1000)).isEqualTo(new ByteRange(700, 999));
+        assertThat(ByteRange.parse("bytes=900-2000", 1000)).isEqualTo(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=-2000", 1000)).isEqualTo(new ByteRange(0, 999));
+        assertThat(ByteRange.parse("bytes=0-499", 1000).getLength()).isEqualTo(500L);
+    }
+
+    @Test
+    public void testIgnoredRange() {
+        assertThat(ByteRange.parse(null, 1000)).isNull();
+        assertThat(ByteRange.parse("items=0-10", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=0-10,20-30", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=10-5", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=-", 1000)).isNull();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsatisfiableRange() {
+        ByteRange.parse("bytes=1000-", 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsatisfiableSuffixRange() {
+        ByteRange.parse("bytes=-0", 1000);
+    }
+
+    @Test
+    public void testContentRange() {
+        ByteRange range = ByteRange.parseContentRange("bytes 1024-2047/*");
+        assertThat(range).isEqualTo(new ByteRange(1024, 2047));
+        assertThat(ByteRange.parseContentRange("bytes 0-99/100")).isEqualTo(new ByteRange(0, 99));
+        assertThat(range.toContentRange(4096)).isEqualTo("bytes 1024-2047/4096");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidContentRange() {
+        ByteRange.parseContentRange("bytes 10-5/100");
+    }
+}
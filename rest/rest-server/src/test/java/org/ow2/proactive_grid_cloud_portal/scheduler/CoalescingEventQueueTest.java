@@ -0,0 +1,123 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification.Action;
+
+
+public class CoalescingEventQueueTest {
+
+    @Test
+    public void testUpdatesAreCoalesced() {
+        CoalescingEventQueue queue = new CoalescingEventQueue(100);
+        queue.add(null, notification(Action.JOB_SUBMITTED, "submitted"));
+        queue.add("task:1:1", notification(Action.TASK_STATE_UPDATED, "pending"));
+        queue.add("job:1", notification(Action.JOB_STATE_UPDATED, "running"));
+        queue.add("task:1:1", notification(Action.TASK_STATE_UPDATED, "finished"));
+
+        List<EventNotification> notifications = queue.drain();
+
+        assertEquals(3, notifications.size());
+        assertEquals("submitted", notifications.get(0).getData());
+        // the latest update takes the place of the update it replaces
+        assertEquals("finished", notifications.get(1).getData());
+        assertEquals("running", notifications.get(2).getData());
+        assertEquals(1, queue.getCoalescedCount());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testEventsWithoutKeyAreNotCoalesced() {
+        CoalescingEventQueue queue = new CoalescingEventQueue(100);
+        queue.add(null, notification(Action.SCHEDULER_STATE_UPDATED, "paused"));
+        queue.add(null, notification(Action.SCHEDULER_STATE_UPDATED, "resumed"));
+
+        assertEquals(2, queue.drain().size());
+    }
+
+    @Test
+    public void testOverflowDropsUpdatesAndAsksForResync() {
+        CoalescingEventQueue queue = new CoalescingEventQueue(3);
+        queue.add(null, notification(Action.JOB_SUBMITTED, "submitted"));
+        for (int i = 0; i < 3; i++) {
+            queue.add("task:1:" + i, notification(Action.TASK_STATE_UPDATED, "task" + i));
+        }
+
+        List<EventNotification> notifications = queue.drain();
+
+        // only the oldest update is dropped
+        assertEquals(4, notifications.size());
+        assertEquals("submitted", notifications.get(0).getData());
+        assertEquals("task1", notifications.get(1).getData());
+        assertEquals("task2", notifications.get(2).getData());
+        assertEquals(Action.RESYNC, notifications.get(3).getAction());
+        assertEquals(1, notifications.get(3).getData());
+        assertTrue(queue.drain().isEmpty());
+    }
+
+    @Test
+    public void testOverflowKeepsQueueAtCapacity() {
+        CoalescingEventQueue queue = new CoalescingEventQueue(3);
+        for (int i = 0; i < 10; i++) {
+            queue.add("task:1:" + i, notification(Action.TASK_STATE_UPDATED, "task" + i));
+            queue.add("job:1", notification(Action.JOB_STATE_UPDATED, "job" + i));
+        }
+
+        assertEquals(3, queue.size());
+        List<EventNotification> notifications = queue.drain();
+        assertEquals("task8", notifications.get(0).getData());
+        assertEquals("task9", notifications.get(1).getData());
+        assertEquals("job9", notifications.get(2).getData());
+        assertEquals(Action.RESYNC, notifications.get(3).getAction());
+    }
+
+    @Test
+    public void testOverflowDropsOldestEventsWithoutKey() {
+        CoalescingEventQueue queue = new CoalescingEventQueue(2);
+        for (int i = 0; i < 4; i++) {
+            queue.add(null, notification(Action.USERS_UPDATED, "user" + i));
+        }
+
+        List<EventNotification> notifications = queue.drain();
+
+        assertEquals(3, notifications.size());
+        assertEquals("user2", notifications.get(0).getData());
+        assertEquals("user3", notifications.get(1).getData());
+        assertEquals(Action.RESYNC, notifications.get(2).getAction());
+        assertEquals(2, notifications.get(2).getData());
+    }
+
+    private static EventNotification notification(Action action, Object data) {
+        return new EventNotification(action, action.name(), data);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobLiveLogData;
+
+
+public class JobOutputTest {
+
+    private JobOutput jobOutput;
+
+    @After
+    public void close() {
+        jobOutput.close();
+    }
+
+    @Test
+    public void testNewLogsAreConsumed() {
+        jobOutput = new JobOutput(1024, 0);
+        jobOutput.log("a\n");
+        jobOutput.log("b\n");
+
+        assertEquals(2, jobOutput.size());
+        assertEquals("a\nb\n", jobOutput.fetchNewLogs());
+        assertEquals(0, jobOutput.size());
+        assertEquals("", jobOutput.fetchNewLogs());
+
+        jobOutput.log("c\n");
+        assertEquals("c\n", jobOutput.fetchNewLogs());
+        assertEquals("a\nb\nc\n", jobOutput.fetchAllLogs());
+    }
+
+    @Test
+    public void testFetchFromOffset() {
+        jobOutput = new JobOutput(1024, 0);
+        jobOutput.log("a\n");
+        jobOutput.log("b\n");
+        jobOutput.log("c\n");
+
+        JobLiveLogData logs = jobOutput.fetchLogs(1);
+        assertEquals("b\nc\n", logs.getLogs());
+        assertEquals(1, logs.getOffset());
+        assertEquals(3, logs.getNextOffset());
+
+        // reading from an offset does not consume the lines
+        assertEquals(3, jobOutput.size());
+        assertEquals("", jobOutput.fetchLogs(3).getLogs());
+    }
+
+    @Test
+    public void testOldestLinesAreDroppedWithoutSpill() {
+        // each line takes 4 bytes in memory
+        jobOutput = new JobOutput(16, 0);
+        for (int i = 0; i < 10; i++) {
+            jobOutput.log(i + "\n");
+        }
+
+        JobLiveLogData logs = jobOutput.fetchLogs(0);
+        assertEquals(10, logs.getNextOffset());
+        assertEquals(10 - logs.getLogs().length() / 2, logs.getOffset());
+        assertEquals("9\n", logs.getLogs().substring(logs.getLogs().length() - 2));
+        assertEquals(logs.getLogs(), jobOutput.fetchNewLogs());
+    }
+
+    @Test
+    public void testOverflowIsSpilledToDisk() {
+        jobOutput = new JobOutput(16, 1024);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            jobOutput.log(i + "\n");
+            expected.append(i).append("\n");
+        }
+
+        assertEquals(expected.toString(), jobOutput.fetchAllLogs());
+        assertEquals(100, jobOutput.size());
+        assertEquals("50\n51\n", jobOutput.fetchLogs(50).getLogs().substring(0, 6));
+        assertEquals(expected.toString(), jobOutput.fetchNewLogs());
+    }
+
+    @Test
+    public void testDiskSizeIsBounded() {
+        jobOutput = new JobOutput(16, 32);
+        for (int i = 0; i < 1000; i++) {
+            jobOutput.log("line\n");
+        }
+
+        JobLiveLogData logs = jobOutput.fetchLogs(0);
+        assertEquals(1000, logs.getNextOffset());
+        assertEquals((1000 - logs.getOffset()) * 5, logs.getLogs().length());
+        assertEquals(1000 - logs.getOffset(), jobOutput.size());
+    }
+
+    @Test
+    public void testClosedOutputIgnoresLines() {
+        jobOutput = new JobOutput(16, 1024);
+        for (int i = 0; i < 10; i++) {
+            jobOutput.log("line\n");
+        }
+        jobOutput.close();
+        jobOutput.log("line\n");
+
+        assertEquals("", jobOutput.fetchAllLogs());
+        assertEquals(0, jobOutput.size());
+    }
+}
@@ -61,6 +61,12 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Ping frequency in ms used by node source for keeping a watch on handled nodes */
     RM_NODE_SOURCE_PING_FREQUENCY("pa.rm.node.source.ping.frequency", PropertyType.INTEGER, "45000"),
 
+    /** Time in ms after which the nodes of a node source ping without answer are reported down, the runtime can then be pinged again */
+    RM_NODE_SOURCE_PING_TIMEOUT("pa.rm.node.source.ping.timeout", PropertyType.INTEGER, "30000"),
+
+    /** Runtimes whose nodes are all busy are pinged by their node source once every this number of ping periods */
+    RM_NODE_SOURCE_PING_BUSY_NODES_PERIOD("pa.rm.node.source.ping.busy.nodes.period", PropertyType.INTEGER, "4"),
+
     /** Ping frequency used by resource manager to ping connected clients (in ms) */
     RM_CLIENT_PING_FREQUENCY("pa.rm.client.ping.frequency", PropertyType.INTEGER, "45000"),
 
@@ -70,6 +76,12 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** The number of selection script digests stored in the cache to predict the execution results */
     RM_SELECT_SCRIPT_CACHE_SIZE("pa.rm.select.script.cache", PropertyType.INTEGER, "10000"),
 
+    /**
+     * The number of selection scripts with replaced bindings, and their digests, kept in the cache of the
+     * selection manager. If this property is set to 0, digests are computed each time they are needed.
+     */
+    RM_SELECT_SCRIPT_RESOLVED_CACHE_SIZE("pa.rm.select.script.resolved.cache", PropertyType.INTEGER, "1000"),
+
     /**
      * The time period when a node has the same dynamic characteristics (in ms).
      * Default is 5 mins, which means that if any dynamic selection scripts returns
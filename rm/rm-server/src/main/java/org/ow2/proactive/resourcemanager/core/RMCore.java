@@ -270,6 +270,11 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
      **/
     private List<RMNode> eligibleNodes;
 
+    /**
+     * Index of {@link #allNodes} by node source, host, tag and token, which also tracks {@link #eligibleNodes}
+     */
+    private RMNodesIndex nodesIndex;
+
     private SelectionManager selectionManager;
 
     /**
@@ -354,6 +359,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         this.delayedNodeSourceRemovalEvents = new ConcurrentHashMap<>();
         this.delayedNodeSourceUndeploying = new ConcurrentHashMap<>();
         this.eligibleNodes = Collections.synchronizedList(new ArrayList<RMNode>());
+        this.nodesIndex = new RMNodesIndex();
 
         this.accountsManager = new RMAccountsManager();
         this.jmxHelper = new RMJMXHelper(this.accountsManager);
@@ -370,6 +376,13 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         this.selectionManager = manager;
         this.eligibleNodes = freeNodesList;
         this.dbManager = newDataBaseManager;
+        this.nodesIndex = new RMNodesIndex();
+        for (RMNode rmNode : allNodes.values()) {
+            this.nodesIndex.addNode(rmNode);
+        }
+        for (RMNode rmNode : freeNodesList) {
+            this.nodesIndex.setEligible(rmNode, true);
+        }
     }
 
     /**
@@ -605,9 +618,10 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
         // resetting owner here
         rmNode.setFree();
+        notifyNodeSourceOfBusyState(rmNode, false);
         // an eligible node is a node that is free and not locked
         if (!rmNode.isLocked()) {
-            this.eligibleNodes.add(rmNode);
+            addEligibleNode(rmNode);
         }
 
         persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
@@ -619,6 +633,21 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         return new BooleanWrapper(true);
     }
 
+    /**
+     * Lets the node source ping less often the nodes running tasks, which are already
+     * monitored by the scheduler. The call is asynchronous.
+     */
+    private void notifyNodeSourceOfBusyState(RMNode rmNode, boolean busy) {
+        NodeSource nodeSource = rmNode.getNodeSource();
+        if (nodeSource != null) {
+            try {
+                nodeSource.setNodeBusy(rmNode.getNodeURL(), busy);
+            } catch (Exception e) {
+                logger.warn("Could not notify node source of the state of node " + rmNode.getNodeURL(), e);
+            }
+        }
+    }
+
     /**
      * Mark nodes as free after cleaning procedure.
      *
@@ -690,6 +719,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             eligibleNodes.remove(rmnode);
         }
         this.allNodes.remove(rmnode.getNodeURL());
+        this.nodesIndex.removeNode(rmnode.getNodeURL());
 
         // persist node removal
         dbManager.removeNode(rmnode);
@@ -782,6 +812,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
      */
     public BooleanWrapper registerAvailableNode(RMNode rmNode) {
         this.allNodes.put(rmNode.getNodeURL(), rmNode);
+        this.nodesIndex.addNode(rmNode);
         return new BooleanWrapper(true);
     }
 
@@ -975,9 +1006,8 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
     public void removeNodes(int number, String nodeSourceName, boolean preemptive) {
         int numberOfRemovedNodes = 0;
 
-        // temporary list to avoid concurrent modification
-        List<RMNode> nodelList = new LinkedList<>();
-        nodelList.addAll(eligibleNodes);
+        // the index returns copies, which avoids concurrent modifications
+        List<RMNode> nodelList = nodesIndex.getNodesBySource(nodeSourceName, true);
 
         logger.debug("Free nodes size " + nodelList.size());
         for (RMNode node : nodelList) {
@@ -986,23 +1016,20 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 break;
             }
 
-            if (node.getNodeSource().getName().equals(nodeSourceName)) {
-                removeNode(node.getNodeURL(), preemptive);
-                numberOfRemovedNodes++;
-            }
+            removeNode(node.getNodeURL(), preemptive);
+            numberOfRemovedNodes++;
         }
 
-        nodelList.clear();
-        nodelList.addAll(allNodes.values());
-        logger.debug("All nodes size " + nodelList.size());
         if (numberOfRemovedNodes < number) {
+            nodelList = nodesIndex.getNodesBySource(nodeSourceName, false);
+            logger.debug("Node source nodes size " + nodelList.size());
             for (RMNode node : nodelList) {
 
                 if (numberOfRemovedNodes == number) {
                     break;
                 }
 
-                if (node.isBusy() && node.getNodeSource().getName().equals(nodeSourceName)) {
+                if (node.isBusy()) {
                     removeNode(node.getNodeURL(), preemptive);
                     numberOfRemovedNodes++;
                 }
@@ -1061,6 +1088,9 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
     public void addEligibleNodesToRecover(List<RMNode> eligibleNodes) {
         this.eligibleNodes.addAll(eligibleNodes);
+        for (RMNode rmNode : eligibleNodes) {
+            this.nodesIndex.setEligible(rmNode, true);
+        }
     }
 
     private final class RemoveAllNodes implements Function<NodeSource, Void> {
@@ -2181,7 +2211,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
     }
 
     private boolean nodeSourceCanBeRemoved(String nodeSourceName) {
-        return allNodes.values().stream().noneMatch(rmNode -> rmNode.getNodeSourceName().equals(nodeSourceName));
+        return !nodesIndex.hasNodesInSource(nodeSourceName);
     }
 
     private void finalizeShutdown() {
@@ -2235,8 +2265,9 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         // Get the previous state of the node needed for the event
         final NodeState previousNodeState = rmNode.getState();
         rmNode.setBusy(owner, usageInfo);
+        notifyNodeSourceOfBusyState(rmNode, true);
 
-        this.eligibleNodes.remove(rmNode);
+        removeEligibleNode(rmNode);
 
         persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
 
@@ -2262,7 +2293,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             // Get the previous state of the node needed for the event
             final NodeState previousNodeState = rmNode.getState();
             if (rmNode.isFree()) {
-                eligibleNodes.remove(rmNode);
+                removeEligibleNode(rmNode);
             }
 
             rmNode.setDown();
@@ -2305,6 +2336,49 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         return eligibleNodes;
     }
 
+    /**
+     * Returns the eligible nodes which can match the given criteria. Candidates are narrowed using the nodes
+     * index, to the nodes protected by the node access token and to the acceptable node urls, the nodes of the
+     * black list being removed. Permissions and selection scripts are checked by the selection manager.
+     *
+     * @param criteria the selection criteria
+     * @return the candidate nodes for the selection
+     */
+    public List<RMNode> getFreeNodes(Criteria criteria) {
+        String token = criteria.getNodeAccessToken();
+        if (token != null && token.isEmpty()) {
+            token = null;
+        }
+        return nodesIndex.getEligibleNodes(token,
+                                           criteria.getAcceptableNodesUrls(),
+                                           getNodeUrls(criteria.getBlackList()));
+    }
+
+    private static Set<String> getNodeUrls(NodeSet nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return null;
+        }
+        Set<String> nodeUrls = new HashSet<>(nodes.size());
+        for (Node node : nodes) {
+            try {
+                nodeUrls.add(node.getNodeInformation().getURL());
+            } catch (Exception e) {
+                logger.debug("Cannot get the url of an excluded node", e);
+            }
+        }
+        return nodeUrls;
+    }
+
+    private void addEligibleNode(RMNode rmNode) {
+        eligibleNodes.add(rmNode);
+        nodesIndex.setEligible(rmNode, true);
+    }
+
+    private void removeEligibleNode(RMNode rmNode) {
+        eligibleNodes.remove(rmNode);
+        nodesIndex.setEligible(rmNode, false);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -2717,7 +2791,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             // can throw a security exception if the lockInitiator is not an admin
             this.checkNodeAdminPermission(rmNode, lockInitiator);
             rmNode.lock(lockInitiator);
-            this.eligibleNodes.remove(rmNode);
+            removeEligibleNode(rmNode);
         } catch (SecurityException e) {
             logger.warn("Lock node lockInitiator is not admin", e);
             return false;
@@ -2780,7 +2854,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
             // an eligible node is a node that is free AND not locked
             if (rmNode.isFree()) {
-                eligibleNodes.add(rmNode);
+                addEligibleNode(rmNode);
             }
 
             updateNode(rmNode);
@@ -2891,7 +2965,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                     NodeSource nodeSource = this.deployedNodeSources.get(target);
                     if (nodeSource != null) {
                         Set<String> scriptExecutionHostNames = new HashSet<>();
-                        for (RMNode candidateNode : this.allNodes.values()) {
+                        for (RMNode candidateNode : this.nodesIndex.getNodesBySource(target, false)) {
                             String candidateNodeHostName = candidateNode.getHostName();
                             if (candidateNode.getNodeSource().equals(nodeSource) &&
                                 !scriptExecutionHostNames.contains(candidateNodeHostName)) {
@@ -2914,11 +2988,9 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             case HOSTNAME:
                 // If target is hostname select first node from that host
                 for (String target : targets) {
-                    for (RMNode node : this.allNodes.values()) {
-                        if (node.getHostName().equals(target)) {
-                            this.selectCandidateNode(selectedRMNodes, node, client);
-                            break;
-                        }
+                    List<RMNode> hostNodes = this.nodesIndex.getNodesByHost(target);
+                    if (!hostNodes.isEmpty()) {
+                        this.selectCandidateNode(selectedRMNodes, hostNodes.get(0), client);
                     }
                 }
                 break;
@@ -3138,6 +3210,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 checkNodeAdminPermission(rmNode, caller);
             }
             rmNode.addToken(token);
+            nodesIndex.reindexNode(rmNode);
 
             persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
 
@@ -3170,32 +3243,14 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
     @Override
     public Set<String> getNodesByTag(String tag) {
-        Set<String> result = new HashSet<>();
-        for (RMNode rmNode : this.allNodes.values()) {
-            if (rmNode.getNodeTags().contains(tag)) {
-                result.add(rmNode.getNodeURL());
-            }
-        }
-        return result;
+        return nodesIndex.getNodeUrlsByTags(Collections.singleton(tag), true);
     }
 
     @Override
     public Set<String> getNodesByTags(Set<String> tags, boolean all) {
-        Set<String> result = new HashSet<>();
-        for (RMNode rmNode : this.allNodes.values()) {
-            if (all) {
-                if (rmNode.getNodeTags().containsAll(tags)) {
-                    result.add(rmNode.getNodeURL());
-                }
-            } else {
-                // include node in the result if node contains any specified tag
-                // (i.e, have common elements between the ndoe tags and specified tags)
-                if (!Collections.disjoint(rmNode.getNodeTags(), tags)) {
-                    result.add(rmNode.getNodeURL());
-                }
-            }
-        }
-        return result;
+        // when all is false, include node in the result if node contains any specified tag
+        // (i.e, have common elements between the node tags and specified tags)
+        return nodesIndex.getNodeUrlsByTags(tags, all);
     }
 
     @Override
@@ -3211,6 +3266,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 checkNodeAdminPermission(rmNode, caller);
             }
             rmNode.removeToken(token);
+            nodesIndex.reindexNode(rmNode);
 
             persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
 
@@ -3231,6 +3287,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         if (allNodes.containsKey(nodeUrl)) {
             RMNode rmNode = allNodes.get(nodeUrl);
             rmNode.setNodeTokens(nodeUrl, tokens);
+            nodesIndex.reindexNode(rmNode);
 
             persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
 
@@ -0,0 +1,341 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+
+
+/**
+ * Index of the nodes known by the {@link RMCore}, by node source, host, tag and access token.
+ * <p>
+ * Each node is given an ordinal when it is registered, ordinals of removed nodes being reused.
+ * Every index key maps to the set of ordinals of the matching nodes, and the eligible nodes
+ * (free and not locked) are tracked in a separate set. Queries are then answered by intersecting
+ * these sets instead of scanning all the nodes.
+ * <p>
+ * The index is updated by the core thread on node events and can be read concurrently by
+ * immediate services and the selection manager.
+ */
+public class RMNodesIndex {
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    private final List<IndexedNode> indexedNodes = new ArrayList<>();
+
+    private final BitSet unusedOrdinals = new BitSet();
+
+    private final BitSet eligible = new BitSet();
+
+    private final Map<String, BitSet> byNodeSource = new HashMap<>();
+
+    private final Map<String, BitSet> byHost = new HashMap<>();
+
+    private final Map<String, BitSet> byTag = new HashMap<>();
+
+    private final Map<String, BitSet> byToken = new HashMap<>();
+
+    /**
+     * Index a node, or refresh the keys of an already indexed node (e.g. when its tags or tokens changed).
+     * The eligibility of an already indexed node is kept.
+     *
+     * @param rmNode the node to index
+     */
+    synchronized void addNode(RMNode rmNode) {
+        String nodeUrl = rmNode.getNodeURL();
+        if (nodeUrl == null) {
+            return;
+        }
+        Integer ordinal = ordinals.get(nodeUrl);
+        if (ordinal == null) {
+            ordinal = allocateOrdinal();
+            ordinals.put(nodeUrl, ordinal);
+        } else {
+            unindexKeys(ordinal, indexedNodes.get(ordinal));
+        }
+        IndexedNode indexedNode = new IndexedNode(rmNode);
+        indexedNodes.set(ordinal, indexedNode);
+        indexKeys(ordinal, indexedNode);
+    }
+
+    /**
+     * Refresh the keys of a node, if it is indexed.
+     *
+     * @param rmNode the node which tags or tokens changed
+     */
+    synchronized void reindexNode(RMNode rmNode) {
+        if (ordinals.containsKey(rmNode.getNodeURL())) {
+            addNode(rmNode);
+        }
+    }
+
+    /**
+     * Remove a node from the index.
+     *
+     * @param nodeUrl url of the node
+     */
+    synchronized void removeNode(String nodeUrl) {
+        Integer ordinal = ordinals.remove(nodeUrl);
+        if (ordinal == null) {
+            return;
+        }
+        unindexKeys(ordinal, indexedNodes.get(ordinal));
+        indexedNodes.set(ordinal, null);
+        eligible.clear(ordinal);
+        unusedOrdinals.set(ordinal);
+    }
+
+    /**
+     * Flag a node as eligible for scheduling or not. A node which is not indexed yet is indexed
+     * when it becomes eligible.
+     *
+     * @param rmNode the node
+     * @param isEligible true if the node is free and not locked
+     */
+    synchronized void setEligible(RMNode rmNode, boolean isEligible) {
+        Integer ordinal = ordinals.get(rmNode.getNodeURL());
+        if (ordinal == null) {
+            if (!isEligible) {
+                return;
+            }
+            addNode(rmNode);
+            ordinal = ordinals.get(rmNode.getNodeURL());
+            if (ordinal == null) {
+                return;
+            }
+        }
+        eligible.set(ordinal, isEligible);
+    }
+
+    /**
+     * Return the eligible nodes, narrowed to the nodes protected by the given token and to the given urls,
+     * the excluded nodes being removed.
+     *
+     * @param token node access token, or null to not filter on tokens
+     * @param nodeUrls acceptable node urls, or null to accept any node
+     * @param excludedNodeUrls urls of the nodes to exclude, or null to not exclude any node
+     * @return eligible nodes matching the filters
+     */
+    public synchronized List<RMNode> getEligibleNodes(String token, Set<String> nodeUrls,
+            Set<String> excludedNodeUrls) {
+        BitSet result = (BitSet) eligible.clone();
+        if (token != null) {
+            result.and(lookup(byToken, token));
+        }
+        if (nodeUrls != null) {
+            result.and(ordinalsOf(nodeUrls));
+        }
+        if (excludedNodeUrls != null) {
+            result.andNot(ordinalsOf(excludedNodeUrls));
+        }
+        return nodesOf(result);
+    }
+
+    /**
+     * @param nodeSourceName name of a node source
+     * @param eligibleOnly true to only return the eligible nodes
+     * @return the nodes of the given node source
+     */
+    public synchronized List<RMNode> getNodesBySource(String nodeSourceName, boolean eligibleOnly) {
+        BitSet result = (BitSet) lookup(byNodeSource, nodeSourceName).clone();
+        if (eligibleOnly) {
+            result.and(eligible);
+        }
+        return nodesOf(result);
+    }
+
+    /**
+     * @param nodeSourceName name of a node source
+     * @return true if at least one node of the given node source is indexed
+     */
+    public synchronized boolean hasNodesInSource(String nodeSourceName) {
+        return !lookup(byNodeSource, nodeSourceName).isEmpty();
+    }
+
+    /**
+     * @param hostName name of a host
+     * @return the nodes running on the given host
+     */
+    public synchronized List<RMNode> getNodesByHost(String hostName) {
+        return nodesOf(lookup(byHost, hostName));
+    }
+
+    /**
+     * Return the urls of the nodes having the given tags.
+     *
+     * @param tags tags to look for
+     * @param all true if nodes must have all the tags, false if any of them is enough
+     * @return urls of the matching nodes
+     */
+    public synchronized Set<String> getNodeUrlsByTags(Set<String> tags, boolean all) {
+        BitSet result;
+        if (all) {
+            result = new BitSet();
+            result.set(0, indexedNodes.size());
+            result.andNot(unusedOrdinals);
+            for (String tag : tags) {
+                result.and(lookup(byTag, tag));
+            }
+        } else {
+            result = new BitSet();
+            for (String tag : tags) {
+                result.or(lookup(byTag, tag));
+            }
+        }
+        Set<String> nodeUrls = new HashSet<>();
+        for (RMNode rmNode : nodesOf(result)) {
+            nodeUrls.add(rmNode.getNodeURL());
+        }
+        return nodeUrls;
+    }
+
+    /**
+     * @return the number of indexed nodes
+     */
+    public synchronized int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * @return the number of eligible nodes
+     */
+    public synchronized int eligibleSize() {
+        return eligible.cardinality();
+    }
+
+    private int allocateOrdinal() {
+        int ordinal = unusedOrdinals.nextSetBit(0);
+        if (ordinal < 0) {
+            indexedNodes.add(null);
+            return indexedNodes.size() - 1;
+        }
+        unusedOrdinals.clear(ordinal);
+        return ordinal;
+    }
+
+    private void indexKeys(int ordinal, IndexedNode indexedNode) {
+        index(byNodeSource, indexedNode.nodeSourceName, ordinal);
+        index(byHost, indexedNode.hostName, ordinal);
+        for (String tag : indexedNode.tags) {
+            index(byTag, tag, ordinal);
+        }
+        for (String token : indexedNode.tokens) {
+            index(byToken, token, ordinal);
+        }
+    }
+
+    private void unindexKeys(int ordinal, IndexedNode indexedNode) {
+        unindex(byNodeSource, indexedNode.nodeSourceName, ordinal);
+        unindex(byHost, indexedNode.hostName, ordinal);
+        for (String tag : indexedNode.tags) {
+            unindex(byTag, tag, ordinal);
+        }
+        for (String token : indexedNode.tokens) {
+            unindex(byToken, token, ordinal);
+        }
+    }
+
+    private static void index(Map<String, BitSet> index, String key, int ordinal) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private static void unindex(Map<String, BitSet> index, String key, int ordinal) {
+        if (key == null) {
+            return;
+        }
+        BitSet ordinals = index.get(key);
+        if (ordinals != null) {
+            ordinals.clear(ordinal);
+            if (ordinals.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static BitSet lookup(Map<String, BitSet> index, String key) {
+        BitSet ordinals = index.get(key);
+        return ordinals != null ? ordinals : new BitSet();
+    }
+
+    private BitSet ordinalsOf(Set<String> nodeUrls) {
+        BitSet result = new BitSet();
+        for (String nodeUrl : nodeUrls) {
+            Integer ordinal = ordinals.get(nodeUrl);
+            if (ordinal != null) {
+                result.set(ordinal);
+            }
+        }
+        return result;
+    }
+
+    private List<RMNode> nodesOf(BitSet ordinals) {
+        List<RMNode> nodes = new ArrayList<>(ordinals.cardinality());
+        for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            nodes.add(indexedNodes.get(ordinal).rmNode);
+        }
+        return nodes;
+    }
+
+    /**
+     * Keys of an indexed node, as they were when the node was indexed, so that
+     * the node can be unindexed even if its tags or tokens changed since.
+     */
+    private static class IndexedNode {
+
+        private final RMNode rmNode;
+
+        private final String nodeSourceName;
+
+        private final String hostName;
+
+        private final Collection<String> tags;
+
+        private final Collection<String> tokens;
+
+        private IndexedNode(RMNode rmNode) {
+            this.rmNode = rmNode;
+            this.nodeSourceName = rmNode.getNodeSourceName();
+            this.hostName = rmNode.getHostName();
+            this.tags = copyOf(rmNode.getNodeTags());
+            this.tokens = copyOf(rmNode.getNodeTokens());
+        }
+
+        private static Collection<String> copyOf(Collection<String> keys) {
+            return keys != null ? new ArrayList<>(keys) : Collections.<String> emptyList();
+        }
+    }
+}
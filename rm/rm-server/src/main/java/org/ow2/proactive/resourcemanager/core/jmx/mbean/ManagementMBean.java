@@ -65,4 +65,27 @@ public interface ManagementMBean {
      * Reload the resource manager configuration, permissions, and log4j config.
      */
     void refreshConfiguration();
+
+    /**
+     * Returns the number of selection script digests found in the cache of the selection manager.
+     * @return the number of cache hits
+     */
+    long getSelectionScriptCacheHits();
+
+    /**
+     * Returns the number of selection script digests which had to be computed by the selection manager.
+     * @return the number of cache misses
+     */
+    long getSelectionScriptCacheMisses();
+
+    /**
+     * Returns the number of selection script digests currently cached by the selection manager.
+     * @return the size of the cache
+     */
+    int getSelectionScriptCacheSize();
+
+    /**
+     * Clears the cache of selection script digests
+     */
+    void clearSelectionScriptCache();
 }
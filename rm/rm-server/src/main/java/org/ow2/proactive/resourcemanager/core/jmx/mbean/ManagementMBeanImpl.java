@@ -35,6 +35,7 @@ import javax.management.StandardMBean;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.PropertyConfigurator;
 import org.ow2.proactive.resourcemanager.core.account.RMAccountsManager;
+import org.ow2.proactive.resourcemanager.selection.statistics.SelectionScriptCache;
 
 
 /**
@@ -88,4 +89,20 @@ public final class ManagementMBeanImpl extends StandardMBean implements Manageme
             }
         }
     }
+
+    public long getSelectionScriptCacheHits() {
+        return SelectionScriptCache.getInstance().getHits();
+    }
+
+    public long getSelectionScriptCacheMisses() {
+        return SelectionScriptCache.getInstance().getMisses();
+    }
+
+    public int getSelectionScriptCacheSize() {
+        return SelectionScriptCache.getInstance().size();
+    }
+
+    public void clearSelectionScriptCache() {
+        SelectionScriptCache.getInstance().clear();
+    }
 }
@@ -141,6 +141,8 @@ public class NodeSource implements InitActive, RunActive {
 
     private static ThreadPoolHolder threadPoolHolder;
 
+    private NodeSourcePinger pinger;
+
     private NodeSource stub;
 
     private final Client administrator;
@@ -281,6 +283,12 @@ public class NodeSource implements InitActive, RunActive {
                                                                            .getIdentityPrincipals(this.administrator));
         this.nodeUserAccessType = this.activePolicy.getUserAccessType();
 
+        this.pinger = new NodeSourcePinger(this.name,
+                                           task -> NodeSource.threadPoolHolder.execute(PINGER_POOL, task),
+                                           this::notifyPingedDownNode,
+                                           PAResourceManagerProperties.RM_NODE_SOURCE_PING_TIMEOUT.getValueAsInt(),
+                                           PAResourceManagerProperties.RM_NODE_SOURCE_PING_BUSY_NODES_PERIOD.getValueAsInt());
+
         Thread.currentThread().setName("Node Source \"" + this.name + "\"");
     }
 
@@ -299,10 +307,9 @@ public class NodeSource implements InitActive, RunActive {
                 timeStamp = System.currentTimeMillis();
 
                 if (delta > pingFrequency) {
-                    logger.info("[" + name + "] Pinging alive nodes : " + getAliveNodes().size());
-                    for (Node node : getAliveNodes()) {
-                        pingNode(node);
-                    }
+                    LinkedList<Node> aliveNodes = getAliveNodes();
+                    logger.info("[" + name + "] Pinging alive nodes : " + aliveNodes.size());
+                    pinger.pingNodes(aliveNodes);
                     delta = 0;
                 }
             } catch (InterruptedException e) {
@@ -969,24 +976,40 @@ public class NodeSource implements InitActive, RunActive {
      * If the node is dead sends the request to the node source.
      */
     public void pingNode(final Node node) {
-        NodeSource.threadPoolHolder.execute(PINGER_POOL, () -> {
-            String nodeName = node.getNodeInformation().getName();
-            String nodeUrl = node.getNodeInformation().getURL();
+        pinger.pingNode(node);
+    }
 
-            try {
-                node.getNumberOfActiveObjects();
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Node " + nodeUrl + " is alive");
-                }
-            } catch (Throwable t) {
-                logger.warn("Error occurred when trying to ping node " + nodeUrl, t);
-                try {
-                    stub.detectedPingedDownNode(nodeName, nodeUrl);
-                } catch (Exception e) {
-                    logger.warn("Could not send detectedPingedDownNode message", e);
-                }
-            }
-        });
+    /**
+     * Notifies the node source that a node started or stopped running a task. Runtimes
+     * whose nodes are all busy are pinged less often.
+     *
+     * @param nodeUrl url of the node
+     * @param busy true if the node is busy
+     */
+    public void setNodeBusy(String nodeUrl, boolean busy) {
+        if (pinger != null) {
+            pinger.setNodeBusy(nodeUrl, busy);
+        }
+    }
+
+    /**
+     * Returns the number of runtime pings by latency range, and the number of pings
+     * which did not get an answer before the ping timeout.
+     */
+    @ImmediateService
+    public Map<String, Long> getPingLatencyHistogram() {
+        if (pinger == null) {
+            return new LinkedHashMap<>();
+        }
+        return pinger.getLatencyHistogram();
+    }
+
+    private void notifyPingedDownNode(String nodeName, String nodeUrl) {
+        try {
+            stub.detectedPingedDownNode(nodeName, nodeUrl);
+        } catch (Exception e) {
+            logger.warn("Could not send detectedPingedDownNode message", e);
+        }
     }
 
     /**
@@ -0,0 +1,314 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
+
+
+/**
+ * Checks the liveness of the nodes of a node source.
+ * <p>
+ * Nodes are grouped by the runtime (JVM) hosting them and all the nodes of a runtime
+ * are checked with a single remote call, listing the nodes the runtime still hosts.
+ * A runtime is not pinged again while a previous ping is waiting for its answer. Once the
+ * ping timeout is reached, such a ping is reported as late, the nodes it checks are reported
+ * down and the runtime can be pinged again; the answer of the late ping is then ignored.
+ * Runtimes whose nodes are all busy are pinged less often, the nodes running tasks
+ * being already monitored by the scheduler.
+ *
+ * @author The ProActive Team
+ * @since ProActive Scheduling 11.1
+ */
+class NodeSourcePinger {
+
+    private static final Logger logger = Logger.getLogger(NodeSourcePinger.class);
+
+    /**
+     * Upper bounds in milliseconds of the ping latency histogram buckets, the last bucket has no upper bound
+     */
+    static final long[] LATENCY_BUCKETS = { 10, 50, 100, 500, 1000, 5000, 10000, 30000 };
+
+    private final String nodeSourceName;
+
+    private final Executor executor;
+
+    private final BiConsumer<String, String> downNodeHandler;
+
+    private final long timeout;
+
+    private final int busyNodesPeriod;
+
+    private final Set<String> busyNodeUrls = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Pings waiting for an answer, by runtime or, for pings of a single node, by node url.
+     * Removing a ping from this map decides whether its answer or its timeout reports its nodes.
+     */
+    private final ConcurrentMap<String, PendingPing> pendingPings = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BUCKETS.length + 1);
+
+    private final AtomicLong latePings = new AtomicLong();
+
+    private long pingPeriods;
+
+    /**
+     * @param nodeSourceName name of the node source, used in logs
+     * @param executor executes the remote calls
+     * @param downNodeHandler called with the name and url of each node found down
+     * @param timeout time in milliseconds after which the nodes of a ping without answer are reported down
+     * @param busyNodesPeriod runtimes with only busy nodes are pinged once every busyNodesPeriod ping periods
+     */
+    NodeSourcePinger(String nodeSourceName, Executor executor, BiConsumer<String, String> downNodeHandler,
+            long timeout, int busyNodesPeriod) {
+        this.nodeSourceName = nodeSourceName;
+        this.executor = executor;
+        this.downNodeHandler = downNodeHandler;
+        this.timeout = timeout;
+        this.busyNodesPeriod = Math.max(1, busyNodesPeriod);
+    }
+
+    void setNodeBusy(String nodeUrl, boolean busy) {
+        if (busy) {
+            busyNodeUrls.add(nodeUrl);
+        } else {
+            busyNodeUrls.remove(nodeUrl);
+        }
+    }
+
+    /**
+     * Pings the given nodes, called once per ping period.
+     *
+     * @param nodes alive nodes of the node source
+     */
+    void pingNodes(Collection<Node> nodes) {
+        pingPeriods++;
+        expireLatePings();
+        boolean pingBusyRuntimes = pingPeriods % busyNodesPeriod == 0;
+
+        Map<String, List<Node>> nodesByRuntime = new LinkedHashMap<>();
+        Set<String> nodeUrls = new HashSet<>(nodes.size());
+        for (Node node : nodes) {
+            nodeUrls.add(node.getNodeInformation().getURL());
+            nodesByRuntime.computeIfAbsent(getRuntimeKey(node), key -> new ArrayList<>()).add(node);
+        }
+        // forget the nodes which left the node source
+        busyNodeUrls.retainAll(nodeUrls);
+
+        int pingedRuntimes = 0;
+        for (Map.Entry<String, List<Node>> runtimeNodes : nodesByRuntime.entrySet()) {
+            if (pingBusyRuntimes || !isBusy(runtimeNodes.getValue())) {
+                ping(runtimeNodes.getKey(), runtimeNodes.getValue());
+                pingedRuntimes++;
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("[" + nodeSourceName + "] Pinged " + pingedRuntimes + " runtimes out of " +
+                         nodesByRuntime.size() + ", ping latencies: " + getLatencyHistogram());
+        }
+    }
+
+    /**
+     * Pings a single node, for instance when a failure makes it suspicious. The node is pinged
+     * even if a ping of its runtime is waiting for an answer.
+     */
+    void pingNode(Node node) {
+        ping(node.getNodeInformation().getURL(), Collections.singletonList(node));
+    }
+
+    /**
+     * @return the number of pings by latency bucket, plus the number of pings reported late
+     */
+    Map<String, Long> getLatencyHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+            histogram.put("<= " + LATENCY_BUCKETS[i] + " ms", latencyCounts.get(i));
+        }
+        histogram.put("> " + LATENCY_BUCKETS[LATENCY_BUCKETS.length - 1] + " ms",
+                      latencyCounts.get(LATENCY_BUCKETS.length));
+        histogram.put("late", latePings.get());
+        return histogram;
+    }
+
+    private boolean isBusy(List<Node> runtimeNodes) {
+        for (Node node : runtimeNodes) {
+            if (!busyNodeUrls.contains(node.getNodeInformation().getURL())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ping(String pingKey, List<Node> nodes) {
+        PendingPing ping = new PendingPing(nodes);
+        PendingPing pendingPing = pendingPings.putIfAbsent(pingKey, ping);
+        if (pendingPing != null) {
+            if (!expireIfLate(pingKey, pendingPing, ping.sentTime)) {
+                return;
+            }
+            if (pendingPings.putIfAbsent(pingKey, ping) != null) {
+                return;
+            }
+        }
+        try {
+            executor.execute(() -> check(pingKey, ping));
+        } catch (RuntimeException e) {
+            pendingPings.remove(pingKey, ping);
+            throw e;
+        }
+    }
+
+    /**
+     * Reports down the nodes of the pings which did not get an answer before the timeout,
+     * whether or not their runtime is pinged again during this period.
+     */
+    private void expireLatePings() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, PendingPing> pendingPing : pendingPings.entrySet()) {
+            expireIfLate(pendingPing.getKey(), pendingPing.getValue(), now);
+        }
+    }
+
+    /**
+     * @return true if the ping was late and its nodes have been reported down
+     */
+    private boolean expireIfLate(String pingKey, PendingPing ping, long now) {
+        long waitingTime = now - ping.sentTime;
+        if (waitingTime <= timeout || !pendingPings.remove(pingKey, ping)) {
+            return false;
+        }
+        latePings.incrementAndGet();
+        logger.warn("[" + nodeSourceName + "] Runtime " + pingKey + " did not answer to ping for " + waitingTime +
+                    " ms, its nodes are reported down");
+        for (NodeInformation nodeInformation : ping.nodeInformations) {
+            downNodeHandler.accept(nodeInformation.getName(), nodeInformation.getURL());
+        }
+        return true;
+    }
+
+    private void check(String pingKey, PendingPing ping) {
+        long startTime = System.currentTimeMillis();
+        Set<String> aliveNodeNames = null;
+        Throwable failure = null;
+        try {
+            aliveNodeNames = getAliveNodeNames(ping.nodes);
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            recordLatency(System.currentTimeMillis() - startTime);
+        }
+        if (!pendingPings.remove(pingKey, ping)) {
+            // the ping was late, its nodes have already been reported down
+            return;
+        }
+
+        for (NodeInformation nodeInformation : ping.nodeInformations) {
+            String nodeName = nodeInformation.getName();
+            String nodeUrl = nodeInformation.getURL();
+            if (failure != null) {
+                logger.warn("Error occurred when trying to ping node " + nodeUrl, failure);
+                downNodeHandler.accept(nodeName, nodeUrl);
+            } else if (!aliveNodeNames.contains(nodeName)) {
+                logger.warn("Node " + nodeUrl + " is not hosted anymore by its runtime");
+                downNodeHandler.accept(nodeName, nodeUrl);
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("Node " + nodeUrl + " is alive");
+            }
+        }
+    }
+
+    /**
+     * A single node is pinged directly, the nodes of a runtime are checked by listing
+     * the nodes it hosts.
+     */
+    private static Set<String> getAliveNodeNames(List<Node> runtimeNodes) throws Exception {
+        Node firstNode = runtimeNodes.get(0);
+        if (runtimeNodes.size() == 1) {
+            firstNode.getNumberOfActiveObjects();
+            return Collections.singleton(firstNode.getNodeInformation().getName());
+        }
+        return new HashSet<>(Arrays.asList(firstNode.getProActiveRuntime().getLocalNodeNames()));
+    }
+
+    private void recordLatency(long latency) {
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS.length && latency > LATENCY_BUCKETS[bucket]) {
+            bucket++;
+        }
+        latencyCounts.incrementAndGet(bucket);
+    }
+
+    /**
+     * Nodes started in the same JVM share the same VM identifier, nodes whose runtime
+     * cannot be identified are pinged on their own.
+     */
+    private static String getRuntimeKey(Node node) {
+        try {
+            return node.getVMInformation().getVMID().toString();
+        } catch (RuntimeException e) {
+            return node.getNodeInformation().getURL();
+        }
+    }
+
+    /**
+     * A ping waiting for its answer. The information of the nodes is read when the ping is sent,
+     * so that their names and urls are still known if the runtime hangs.
+     */
+    private static final class PendingPing {
+
+        private final long sentTime = System.currentTimeMillis();
+
+        private final List<Node> nodes;
+
+        private final List<NodeInformation> nodeInformations;
+
+        private PendingPing(List<Node> nodes) {
+            this.nodes = nodes;
+            this.nodeInformations = new ArrayList<>(nodes.size());
+            for (Node node : nodes) {
+                nodeInformations.add(node.getNodeInformation());
+            }
+        }
+    }
+}
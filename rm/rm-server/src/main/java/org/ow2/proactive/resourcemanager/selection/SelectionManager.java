@@ -243,7 +243,7 @@ public abstract class SelectionManager {
 
         int totalNumberOfAliveNodesRightNow = rmcore.getTotalAliveNodesNumber();
 
-        List<RMNode> freeNodes = rmcore.getFreeNodes();
+        List<RMNode> freeNodes = rmcore.getFreeNodes(criteria);
         // filtering out the "free node list"
         // removing exclusion and checking permissions
         List<RMNode> filteredNodes = filterOut(freeNodes, criteria, client);
@@ -527,14 +527,11 @@ public abstract class SelectionManager {
     }
 
     /**
-     * Removes exclusion nodes and nodes not accessible for the client
+     * Removes nodes not accessible for the client. Excluded and not acceptable nodes have already been
+     * removed by {@link RMCore#getFreeNodes(Criteria)}.
      */
     private List<RMNode> filterOut(List<RMNode> freeNodes, Criteria criteria, Client client) {
 
-        // Get inclusion/exclusion list for the final check
-        Set<String> inclusion = criteria.getAcceptableNodesUrls();
-        NodeSet exclusion = criteria.getBlackList();
-
         // Is a token specified at the task level ?
         boolean nodeWithTokenRequested = criteria.getNodeAccessToken() != null &&
                                          !criteria.getNodeAccessToken().isEmpty();
@@ -549,26 +546,39 @@ public abstract class SelectionManager {
         }
 
         // Can client has access to the node ?
+        // permissions are shared by the nodes of a node source, each of them is checked once
         List<RMNode> filteredList = new ArrayList<>();
         HashSet<Permission> clientPermissions = new HashSet<>();
+        HashSet<Permission> deniedPermissions = new HashSet<>();
+        Boolean clientNodeUserAllPermission = null;
         for (RMNode node : freeNodes) {
-            try {
-                if (node.isProtectedByToken() && !nodeWithTokenRequested && !isClientNodeUserAllPermission(client)) {
+            if (node.isProtectedByToken() && !nodeWithTokenRequested) {
+                if (clientNodeUserAllPermission == null) {
+                    clientNodeUserAllPermission = isClientNodeUserAllPermission(client);
+                }
+                if (!clientNodeUserAllPermission) {
                     logger.debug("Node " + node.getNodeURL() + " is protected by token");
                     continue;
                 }
-                if (!clientPermissions.contains(node.getUserPermission())) {
-                    client.checkPermission(node.getUserPermission(),
+            }
+            Permission nodeUserPermission = node.getUserPermission();
+            if (deniedPermissions.contains(nodeUserPermission)) {
+                continue;
+            }
+            if (!clientPermissions.contains(nodeUserPermission)) {
+                try {
+                    client.checkPermission(nodeUserPermission,
                                            client + " is not authorized to get the node " + node.getNodeURL() +
-                                                                     " from " + node.getNodeSource().getName(),
+                                                               " from " + node.getNodeSource().getName(),
                                            new NodeUserAllPermission());
                     // YES
-                    clientPermissions.add(node.getUserPermission());
+                    clientPermissions.add(nodeUserPermission);
+                } catch (SecurityException e) {
+                    // NO
+                    logger.debug(e.getMessage());
+                    deniedPermissions.add(nodeUserPermission);
+                    continue;
                 }
-            } catch (SecurityException e) {
-                // NO
-                logger.debug(e.getMessage());
-                continue;
             }
 
             // If a token is specified at the client level (ie token in a task GI), and if the current node
@@ -593,9 +603,7 @@ public abstract class SelectionManager {
                 }
             }
 
-            if (!contains(exclusion, node) && ((inclusion != null) ? inclusion.contains(node.getNodeURL()) : true)) {
-                filteredList.add(node);
-            }
+            filteredList.add(node);
         }
         return filteredList;
     }
@@ -705,30 +713,4 @@ public abstract class SelectionManager {
         scriptExecutorThreadPool.shutdownNow();
         PAActiveObject.terminateActiveObject(false);
     }
-
-    /**
-     * Return true if node contains the node set.
-     *
-     * @param nodeset
-     *            - a list of nodes to inspect
-     * @param node
-     *            - a node to find
-     * @return true if node contains the node set.
-     */
-    private boolean contains(NodeSet nodeset, RMNode node) {
-        if (nodeset == null)
-            return false;
-
-        for (Node n : nodeset) {
-            try {
-                if (n.getNodeInformation().getURL().equals(node.getNodeURL())) {
-                    return true;
-                }
-            } catch (Exception e) {
-                continue;
-            }
-        }
-        return false;
-    }
-
 }
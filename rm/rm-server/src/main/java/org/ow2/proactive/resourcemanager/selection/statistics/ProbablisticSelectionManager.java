@@ -31,10 +31,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
@@ -42,7 +44,6 @@ import org.ow2.proactive.resourcemanager.core.RMCore;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 import org.ow2.proactive.resourcemanager.rmnode.RMNode;
 import org.ow2.proactive.resourcemanager.selection.SelectionManager;
-import org.ow2.proactive.scripting.InvalidScriptException;
 import org.ow2.proactive.scripting.ScriptResult;
 import org.ow2.proactive.scripting.SelectionScript;
 
@@ -69,23 +70,26 @@ public class ProbablisticSelectionManager extends SelectionManager {
 
     // contains an information about already executed scripts
     // script digest => node => probability
-    private HashMap<String, HashMap<String, Probability>> probabilities;
+    // concurrent maps are used so that the script executor threads do not serialize on this manager
+    private ConcurrentHashMap<String, ScriptStatistics> probabilities;
 
     // in order to avoid OOM when the number of scripts exceeds the limit
     // we could :
     // 1. Reset all the probabilities for all scripts (simple but long to recover performance)
-    // 2. Remove the oldest script execution results (too expensive and complicated)
-    //	  need to store the time, update it each time, then sort when removing
-    //    the system will be too CPU consuming working on the limit
-    // 3. Removed the oldest added script. For this we have this queue. 
-    private LinkedList<String> digestQueue = new LinkedList<>();
+    // 2. Remove the least recently used script (exact LRU needs a global lock or sorting by access time)
+    // 3. Remove the oldest added script, unless it was used since it was last considered for removal,
+    //    in which case it is given a second chance. This approximates LRU with a lock-free queue.
+    private final Queue<String> digestQueue = new ConcurrentLinkedQueue<>();
+
+    // selection scripts with replaced bindings and their digests
+    private final SelectionScriptCache scriptCache = SelectionScriptCache.getInstance();
 
     public ProbablisticSelectionManager() {
     }
 
     public ProbablisticSelectionManager(RMCore rmcore) {
         super(rmcore);
-        this.probabilities = new HashMap<>();
+        this.probabilities = new ConcurrentHashMap<>();
     }
 
     /**
@@ -108,21 +112,27 @@ public class ProbablisticSelectionManager extends SelectionManager {
             return nodes;
         }
 
+        // digests do not depend on the node, compute them once for all nodes
+        List<String> digests = new ArrayList<>(scripts.size());
+        for (SelectionScript script : scripts) {
+            String digest = "";
+            try {
+                digest = scriptCache.resolve(script, bindings).getDigest();
+            } catch (NoSuchAlgorithmException e) {
+                logger.error(e.getMessage(), e);
+            }
+            digests.add(digest);
+        }
+
         // finding intersection
         HashMap<RMNode, Probability> intersectionMap = new LinkedHashMap<>();
         for (RMNode rmnode : nodes) {
             boolean intersection = true;
             double intersectionProbability = 1;
-            for (SelectionScript script : scripts) {
-                SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
-                String digest = "";
-                try {
-                    digest = new String(scriptWithReplacedBindings.digest());
-                } catch (NoSuchAlgorithmException e) {
-                    logger.error(e.getMessage(), e);
-                }
-                if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                    double probability = probabilities.get(digest).get(rmnode.getNodeURL()).value();
+            for (String digest : digests) {
+                Probability knownProbability = getProbability(digest, rmnode);
+                if (knownProbability != null) {
+                    double probability = knownProbability.value();
                     if (Math.abs(probability - 0) < 0.0001) {
                         intersection = false;
                         break;
@@ -168,17 +178,18 @@ public class ProbablisticSelectionManager extends SelectionManager {
      * @return true if script will pass on the node
      */
     @Override
-    public synchronized boolean isPassed(SelectionScript script, Map<String, Serializable> bindings, RMNode rmnode) {
+    public boolean isPassed(SelectionScript script, Map<String, Serializable> bindings, RMNode rmnode) {
         String digest = null;
-        SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
-        if (logger.isTraceEnabled()) {
-            logger.trace(rmnode.getNodeURL() + " : script with replaced bindings : " +
-                         scriptWithReplacedBindings.getId());
-        }
         try {
-            digest = new String(scriptWithReplacedBindings.digest());
-            if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                Probability p = probabilities.get(digest).get(rmnode.getNodeURL());
+            SelectionScriptCache.ResolvedSelectionScript resolvedScript = scriptCache.resolve(script, bindings);
+            SelectionScript scriptWithReplacedBindings = resolvedScript.getScript();
+            if (logger.isTraceEnabled()) {
+                logger.trace(rmnode.getNodeURL() + " : script with replaced bindings : " +
+                             scriptWithReplacedBindings.getId());
+            }
+            digest = resolvedScript.getDigest();
+            Probability p = getProbability(digest, rmnode);
+            if (p != null) {
                 String scriptType = scriptWithReplacedBindings.isDynamic() ? "dynamic" : "static";
                 if (logger.isDebugEnabled())
                     logger.debug(rmnode.getNodeURL() + " : " + digest.hashCode() + " known " + scriptType + " script");
@@ -203,19 +214,20 @@ public class ProbablisticSelectionManager extends SelectionManager {
      * @return whether node is selected
      */
     @Override
-    public synchronized boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
+    public boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
             ScriptResult<Boolean> scriptResult, RMNode rmnode) {
 
         boolean result = false;
 
-        SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
-
         try {
-            String digest = new String(scriptWithReplacedBindings.digest());
-            Probability probability = new Probability(Probability.defaultValue());
-            if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                probability = probabilities.get(digest).get(rmnode.getNodeURL());
+            SelectionScriptCache.ResolvedSelectionScript resolvedScript = scriptCache.resolve(script, bindings);
+            SelectionScript scriptWithReplacedBindings = resolvedScript.getScript();
+            String digest = resolvedScript.getDigest();
+            Probability probability = getProbability(digest, rmnode);
+            if (probability != null) {
                 assert (probability.value() >= 0 && probability.value() <= 1);
+            } else {
+                probability = new Probability(Probability.defaultValue());
             }
 
             if (scriptResult == null || scriptResult.errorOccured() || !scriptResult.getResult()) {
@@ -235,28 +247,12 @@ public class ProbablisticSelectionManager extends SelectionManager {
                 }
             }
 
-            if (!probabilities.containsKey(digest)) {
-                // checking if the number of selection script does not exceeded the maximum
-                if (probabilities.size() >= PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.getValueAsInt()) {
-                    String oldest = digestQueue.poll();
-                    probabilities.remove(oldest);
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("Removing the script: " + scriptWithReplacedBindings.hashCode() +
-                                     " from the data base because the limit is reached");
-                    }
-                }
-                // adding a new script record
-                probabilities.put(digest, new HashMap<String, Probability>());
-                logger.debug("Scripts cache size " + probabilities.size());
-                digestQueue.offer(digest);
-            }
-
             if (logger.isDebugEnabled()) {
                 logger.debug(rmnode.getNodeURL() + " : script " + scriptWithReplacedBindings.hashCode() +
                              ", probability " + probability);
             }
 
-            probabilities.get(digest).put(rmnode.getNodeURL().intern(), probability);
+            getOrCreateScriptStatistics(digest).nodes.put(rmnode.getNodeURL().intern(), probability);
 
         } catch (NoSuchAlgorithmException e) {
             logger.error(e.getMessage(), e);
@@ -265,52 +261,77 @@ public class ProbablisticSelectionManager extends SelectionManager {
         return result;
     }
 
-    /**
-     * @see org.ow2.proactive.authentication.Loggable#getLogger()
-     */
-    public Logger getLogger() {
-        return logger;
+    private Probability getProbability(String digest, RMNode rmnode) {
+        ScriptStatistics statistics = probabilities.get(digest);
+        if (statistics == null) {
+            return null;
+        }
+        statistics.referenced = true;
+        return statistics.nodes.get(rmnode.getNodeURL());
     }
 
-    private SelectionScript replaceBindings(SelectionScript script, Map<String, Serializable> bindings) {
-        String scriptContent = script.fetchScript();
-        if (scriptContent != null && bindings != null) {
-            for (Map.Entry<String, Serializable> entry : bindings.entrySet()) {
-                String reservedKeyword = entry.getKey();
-                Serializable binding = entry.getValue();
-                if (binding instanceof Map) {
-                    scriptContent = replaceBindingKeysByTheirValue(scriptContent, (Map<String, Serializable>) binding);
-                } else {
-                    if (binding != null) {
-                        scriptContent = scriptContent.replace(reservedKeyword, binding.toString());
-                    }
-                }
-            }
+    private ScriptStatistics getOrCreateScriptStatistics(String digest) {
+        ScriptStatistics statistics = probabilities.get(digest);
+        if (statistics != null) {
+            return statistics;
         }
-        try {
-            if (scriptContent != null) {
-                return new SelectionScript(scriptContent,
-                                           script.getEngineName(),
-                                           script.getParameters(),
-                                           script.isDynamic());
-            } else {
-                return script;
-            }
-        } catch (InvalidScriptException e) {
-            logger.warn("Error when replacing bindings of script (revert to use original script):" +
-                        System.lineSeparator() + script.toString(), e);
-            return script;
+        ScriptStatistics created = new ScriptStatistics();
+        statistics = probabilities.putIfAbsent(digest, created);
+        if (statistics != null) {
+            return statistics;
         }
+        // adding a new script record
+        digestQueue.offer(digest);
+        evictScripts();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Scripts cache size " + probabilities.size());
+        }
+        return created;
     }
 
-    private String replaceBindingKeysByTheirValue(String scriptContent, Map<String, Serializable> binding) {
-        for (Map.Entry<String, Serializable> variableMapping : binding.entrySet()) {
-            Serializable bindingValue = variableMapping.getValue();
-            if (bindingValue != null) {
-                scriptContent = scriptContent.replace(variableMapping.getKey(), bindingValue.toString());
+    /**
+     * Remove scripts until the number of scripts does not exceed the maximum.
+     * A script which has been used since it was last considered is put back in the queue, the number
+     * of second chances being bounded as other threads may keep using the scripts meanwhile.
+     */
+    private void evictScripts() {
+        int maxSize = PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.getValueAsInt();
+        int secondChances = probabilities.size();
+        while (probabilities.size() > maxSize) {
+            String oldest = digestQueue.poll();
+            if (oldest == null) {
+                return;
+            }
+            ScriptStatistics statistics = probabilities.get(oldest);
+            if (statistics != null && statistics.referenced && secondChances-- > 0) {
+                statistics.referenced = false;
+                digestQueue.offer(oldest);
+            } else {
+                probabilities.remove(oldest);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Removing the script: " + oldest.hashCode() +
+                                 " from the data base because the limit is reached");
+                }
             }
         }
-        return scriptContent;
+    }
+
+    /**
+     * Probabilities of a script to pass on the nodes where it has been executed.
+     */
+    private static class ScriptStatistics {
+
+        private final ConcurrentHashMap<String, Probability> nodes = new ConcurrentHashMap<>();
+
+        // set when the script is used, cleared when it is given a second chance before eviction
+        private volatile boolean referenced;
+    }
+
+    /**
+     * @see org.ow2.proactive.authentication.Loggable#getLogger()
+     */
+    public Logger getLogger() {
+        return logger;
     }
 
 }
@@ -0,0 +1,272 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.selection.statistics;
+
+import java.io.Serializable;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
+import org.ow2.proactive.scripting.InvalidScriptException;
+import org.ow2.proactive.scripting.SelectionScript;
+
+
+/**
+ * Least recently used cache of selection scripts whose bindings have been replaced, together with their digest.
+ * <p>
+ * The selection manager needs the digest of every selection script, once its bindings are replaced,
+ * for each node it considers. The cache is keyed by the script content (before its bindings are replaced),
+ * engine, parameters and type, together with the binding values. Replacing the bindings, building the script
+ * and computing its SHA-1 digest are thus only done when the key is missing.
+ * Hits and misses are exposed through the management MBean of the resource manager.
+ */
+public class SelectionScriptCache {
+
+    private static final Logger logger = Logger.getLogger(SelectionScriptCache.class);
+
+    private static final SelectionScriptCache instance = new SelectionScriptCache(PAResourceManagerProperties.RM_SELECT_SCRIPT_RESOLVED_CACHE_SIZE.getValueAsInt());
+
+    private final int maxSize;
+
+    private final Map<Key, ResolvedSelectionScript> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    SelectionScriptCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<Key, ResolvedSelectionScript>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ResolvedSelectionScript> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cache shared by the selection managers of this resource manager
+     */
+    public static SelectionScriptCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Replace the bindings inside the given script and return the resulting script and its digest.
+     *
+     * @param script selection script
+     * @param bindings bindings to replace inside the script
+     * @return the script with its bindings replaced, and its digest
+     * @throws NoSuchAlgorithmException if the digest algorithm is not available
+     */
+    public ResolvedSelectionScript resolve(SelectionScript script, Map<String, Serializable> bindings)
+            throws NoSuchAlgorithmException {
+        // the script content is held by the script, so its hash code is only computed once per script
+        String scriptContent = script.fetchScript();
+        if (scriptContent == null || maxSize <= 0) {
+            misses.incrementAndGet();
+            return newResolvedScript(script, replaceBindings(scriptContent, bindings));
+        }
+
+        Key key = new Key(scriptContent, script, bindings);
+        ResolvedSelectionScript resolved;
+        synchronized (cache) {
+            resolved = cache.get(key);
+        }
+        if (resolved != null) {
+            hits.incrementAndGet();
+            return resolved;
+        }
+
+        misses.incrementAndGet();
+        resolved = newResolvedScript(script, replaceBindings(scriptContent, bindings));
+        synchronized (cache) {
+            cache.put(key.withCopiedBindings(), resolved);
+        }
+        return resolved;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static ResolvedSelectionScript newResolvedScript(SelectionScript script, String scriptContent)
+            throws NoSuchAlgorithmException {
+        SelectionScript scriptWithReplacedBindings = script;
+        if (scriptContent != null) {
+            try {
+                scriptWithReplacedBindings = new SelectionScript(scriptContent,
+                                                                 script.getEngineName(),
+                                                                 script.getParameters(),
+                                                                 script.isDynamic());
+            } catch (InvalidScriptException e) {
+                logger.warn("Error when replacing bindings of script (revert to use original script):" +
+                            System.lineSeparator() + script.toString(), e);
+            }
+        }
+        return new ResolvedSelectionScript(scriptWithReplacedBindings,
+                                           new String(scriptWithReplacedBindings.digest()));
+    }
+
+    private static String replaceBindings(String scriptContent, Map<String, Serializable> bindings) {
+        if (scriptContent != null && bindings != null) {
+            for (Map.Entry<String, Serializable> entry : bindings.entrySet()) {
+                String reservedKeyword = entry.getKey();
+                Serializable binding = entry.getValue();
+                if (binding instanceof Map) {
+                    scriptContent = replaceBindingKeysByTheirValue(scriptContent, (Map<String, Serializable>) binding);
+                } else {
+                    if (binding != null) {
+                        scriptContent = scriptContent.replace(reservedKeyword, binding.toString());
+                    }
+                }
+            }
+        }
+        return scriptContent;
+    }
+
+    private static String replaceBindingKeysByTheirValue(String scriptContent, Map<String, Serializable> binding) {
+        for (Map.Entry<String, Serializable> variableMapping : binding.entrySet()) {
+            Serializable bindingValue = variableMapping.getValue();
+            if (bindingValue != null) {
+                scriptContent = scriptContent.replace(variableMapping.getKey(), bindingValue.toString());
+            }
+        }
+        return scriptContent;
+    }
+
+    /**
+     * A selection script with its bindings replaced, and its digest.
+     */
+    public static class ResolvedSelectionScript {
+
+        private final SelectionScript script;
+
+        private final String digest;
+
+        ResolvedSelectionScript(SelectionScript script, String digest) {
+            this.script = script;
+            this.digest = digest;
+        }
+
+        public SelectionScript getScript() {
+            return script;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+    }
+
+    private static final class Key {
+
+        private final String scriptContent;
+
+        private final String engineName;
+
+        private final Serializable[] parameters;
+
+        private final boolean dynamic;
+
+        private final Map<String, Serializable> bindings;
+
+        private final int hashCode;
+
+        private Key(String scriptContent, SelectionScript script, Map<String, Serializable> bindings) {
+            this(scriptContent, script.getEngineName(), script.getParameters(), script.isDynamic(), bindings);
+        }
+
+        private Key(String scriptContent, String engineName, Serializable[] parameters, boolean dynamic,
+                Map<String, Serializable> bindings) {
+            this.scriptContent = scriptContent;
+            this.engineName = engineName;
+            this.parameters = parameters;
+            this.dynamic = dynamic;
+            this.bindings = bindings;
+            this.hashCode = Objects.hash(scriptContent, engineName, Arrays.hashCode(parameters), dynamic, bindings);
+        }
+
+        /**
+         * @return the same key, holding a copy of the bindings so that it is not altered if they are modified
+         */
+        @SuppressWarnings("unchecked")
+        private Key withCopiedBindings() {
+            Map<String, Serializable> copiedBindings = null;
+            if (bindings != null) {
+                copiedBindings = new HashMap<>(bindings.size());
+                for (Map.Entry<String, Serializable> entry : bindings.entrySet()) {
+                    Serializable binding = entry.getValue();
+                    if (binding instanceof Map) {
+                        binding = new HashMap<>((Map<String, Serializable>) binding);
+                    }
+                    copiedBindings.put(entry.getKey(), binding);
+                }
+            }
+            return new Key(scriptContent, engineName, parameters, dynamic, copiedBindings);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode && dynamic == key.dynamic && scriptContent.equals(key.scriptContent) &&
+                   Objects.equals(engineName, key.engineName) && Arrays.equals(parameters, key.parameters) &&
+                   Objects.equals(bindings, key.bindings);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
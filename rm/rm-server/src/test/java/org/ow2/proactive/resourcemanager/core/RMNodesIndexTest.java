@@ -0,0 +1,165 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+
+import com.google.common.collect.ImmutableSet;
+
+
+public class RMNodesIndexTest {
+
+    private RMNodesIndex index;
+
+    @Before
+    public void init() {
+        index = new RMNodesIndex();
+    }
+
+    @Test
+    public void testNodesBySourceAndHost() {
+        RMNode node1 = createNode("node1", "ns1", "host1");
+        RMNode node2 = createNode("node2", "ns1", "host2");
+        RMNode node3 = createNode("node3", "ns2", "host2");
+        index.addNode(node1);
+        index.addNode(node2);
+        index.addNode(node3);
+
+        assertThat(index.getNodesBySource("ns1", false)).containsExactly(node1, node2);
+        assertThat(index.getNodesBySource("unknown", false)).isEmpty();
+        assertThat(index.getNodesByHost("host2")).containsExactly(node2, node3);
+        assertThat(index.hasNodesInSource("ns2")).isTrue();
+
+        index.removeNode("node3");
+
+        assertThat(index.hasNodesInSource("ns2")).isFalse();
+        assertThat(index.getNodesByHost("host2")).containsExactly(node2);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEligibleNodes() {
+        RMNode node1 = createNode("node1", "ns1", "host1");
+        RMNode node2 = createNode("node2", "ns1", "host1");
+        index.addNode(node1);
+        index.addNode(node2);
+
+        index.setEligible(node1, true);
+        index.setEligible(node2, true);
+        assertThat(index.getNodesBySource("ns1", true)).containsExactly(node1, node2);
+
+        index.setEligible(node1, false);
+        assertThat(index.getEligibleNodes(null, null, null)).containsExactly(node2);
+        assertThat(index.getEligibleNodes(null, ImmutableSet.of("node1"), null)).isEmpty();
+        assertThat(index.getEligibleNodes(null, ImmutableSet.of("node2", "unknown"), null)).containsExactly(node2);
+
+        index.removeNode("node2");
+        assertThat(index.eligibleSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void testEligibleNodesWithExclusion() {
+        RMNode node1 = createNode("node1", "ns1", "host1");
+        RMNode node2 = createNode("node2", "ns1", "host1");
+        RMNode node3 = createNode("node3", "ns1", "host1");
+        index.setEligible(node1, true);
+        index.setEligible(node2, true);
+        index.setEligible(node3, true);
+
+        assertThat(index.getEligibleNodes(null, null, ImmutableSet.of("node1", "unknown"))).containsExactly(node2,
+                                                                                                          node3);
+        assertThat(index.getEligibleNodes(null,
+                                          ImmutableSet.of("node1", "node2"),
+                                          ImmutableSet.of("node1"))).containsExactly(node2);
+    }
+
+    @Test
+    public void testEligibleNodesWithToken() {
+        RMNode node1 = createNode("node1", "ns1", "host1");
+        RMNode node2 = createNode("node2", "ns1", "host1");
+        when(node2.getNodeTokens()).thenReturn(Arrays.asList("token1", "token2"));
+        index.setEligible(node1, true);
+        index.setEligible(node2, true);
+
+        assertThat(index.getEligibleNodes("token2", null, null)).containsExactly(node2);
+
+        when(node2.getNodeTokens()).thenReturn(Collections.singletonList("token1"));
+        index.reindexNode(node2);
+
+        assertThat(index.getEligibleNodes("token2", null, null)).isEmpty();
+        // eligibility is kept when the node is reindexed
+        assertThat(index.getEligibleNodes("token1", null, null)).containsExactly(node2);
+    }
+
+    @Test
+    public void testNodesByTags() {
+        RMNode node1 = createNode("node1", "ns1", "host1");
+        RMNode node2 = createNode("node2", "ns1", "host1");
+        when(node1.getNodeTags()).thenReturn(ImmutableSet.of("linux", "gpu"));
+        when(node2.getNodeTags()).thenReturn(ImmutableSet.of("linux"));
+        index.addNode(node1);
+        index.addNode(node2);
+
+        assertThat(index.getNodeUrlsByTags(ImmutableSet.of("linux"), true)).containsExactly("node1", "node2");
+        assertThat(index.getNodeUrlsByTags(ImmutableSet.of("linux", "gpu"), true)).containsExactly("node1");
+        assertThat(index.getNodeUrlsByTags(ImmutableSet.of("gpu", "windows"), false)).containsExactly("node1");
+        assertThat(index.getNodeUrlsByTags(Collections.<String> emptySet(), true)).containsExactly("node1", "node2");
+        assertThat(index.getNodeUrlsByTags(Collections.<String> emptySet(), false)).isEmpty();
+    }
+
+    @Test
+    public void testOrdinalsAreReused() {
+        RMNode node1 = createNode("node1", "ns1", "host1");
+        RMNode node2 = createNode("node2", "ns1", "host1");
+        RMNode node3 = createNode("node3", "ns1", "host1");
+        index.addNode(node1);
+        index.addNode(node2);
+        index.removeNode("node1");
+        index.addNode(node3);
+
+        // node3 takes the ordinal released by node1
+        List<RMNode> nodes = index.getNodesBySource("ns1", false);
+        assertThat(nodes).containsExactly(node3, node2).inOrder();
+    }
+
+    private static RMNode createNode(String url, String nodeSourceName, String hostName) {
+        RMNode rmNode = mock(RMNode.class);
+        when(rmNode.getNodeURL()).thenReturn(url);
+        when(rmNode.getNodeSourceName()).thenReturn(nodeSourceName);
+        when(rmNode.getHostName()).thenReturn(hostName);
+        return rmNode;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.rmi.dgc.VMID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
+import org.objectweb.proactive.core.runtime.ProActiveRuntime;
+import org.objectweb.proactive.core.runtime.VMInformation;
+
+
+public class NodeSourcePingerTest {
+
+    private List<String> downNodes;
+
+    private List<Runnable> pendingPings;
+
+    private NodeSourcePinger pinger;
+
+    @Before
+    public void setUp() {
+        downNodes = new ArrayList<>();
+        pendingPings = new ArrayList<>();
+        pinger = createPinger(60000);
+    }
+
+    @Test
+    public void testNodesOfARuntimeArePingedWithOneCall() throws Exception {
+        ProActiveRuntime runtime = mock(ProActiveRuntime.class);
+        when(runtime.getLocalNodeNames()).thenReturn(new String[] { "node1", "node2" });
+        VMID vmid = new VMID();
+
+        pinger.pingNodes(Arrays.asList(createNode("node1", runtime, vmid),
+                                       createNode("node2", runtime, vmid),
+                                       createNode("node3", runtime, vmid)));
+        runPendingPings();
+
+        verify(runtime, times(1)).getLocalNodeNames();
+        assertThat(downNodes).containsExactly("node3");
+    }
+
+    @Test
+    public void testNodesOfAFailingRuntimeAreDown() throws Exception {
+        ProActiveRuntime runtime = mock(ProActiveRuntime.class);
+        when(runtime.getLocalNodeNames()).thenThrow(new IllegalStateException("unreachable"));
+        VMID vmid = new VMID();
+
+        pinger.pingNodes(Arrays.asList(createNode("node1", runtime, vmid), createNode("node2", runtime, vmid)));
+        runPendingPings();
+
+        assertThat(downNodes).containsExactly("node1", "node2");
+    }
+
+    @Test
+    public void testRuntimeIsNotPingedAgainUntilItAnswers() throws Exception {
+        ProActiveRuntime runtime = mock(ProActiveRuntime.class);
+        when(runtime.getLocalNodeNames()).thenReturn(new String[] { "node1", "node2" });
+        VMID vmid = new VMID();
+        List<Node> nodes = Arrays.asList(createNode("node1", runtime, vmid), createNode("node2", runtime, vmid));
+
+        pinger.pingNodes(nodes);
+        pinger.pingNodes(nodes);
+
+        assertThat(pendingPings).hasSize(1);
+
+        runPendingPings();
+        pinger.pingNodes(nodes);
+
+        assertThat(pendingPings).hasSize(1);
+        assertThat(downNodes).isEmpty();
+        assertThat(pinger.getLatencyHistogram().get("late")).isEqualTo(0L);
+    }
+
+    @Test
+    public void testNodesOfALatePingAreDown() throws Exception {
+        pinger = createPinger(0);
+        ProActiveRuntime runtime = mock(ProActiveRuntime.class);
+        when(runtime.getLocalNodeNames()).thenReturn(new String[] { "node1", "node2" });
+        VMID vmid = new VMID();
+        List<Node> nodes = Arrays.asList(createNode("node1", runtime, vmid), createNode("node2", runtime, vmid));
+
+        pinger.pingNodes(nodes);
+        Thread.sleep(5);
+        pinger.pingNodes(nodes);
+
+        assertThat(downNodes).containsExactly("node1", "node2");
+        assertThat(pinger.getLatencyHistogram().get("late")).isEqualTo(1L);
+        // the runtime is pinged again
+        assertThat(pendingPings).hasSize(2);
+
+        // the answer of the late ping is ignored
+        pendingPings.remove(0).run();
+        assertThat(downNodes).hasSize(2);
+    }
+
+    @Test
+    public void testLatePingIsExpiredWhenItsRuntimeIsNotPingedAgain() throws Exception {
+        pinger = createPinger(0);
+        ProActiveRuntime runtime = mock(ProActiveRuntime.class);
+        VMID vmid = new VMID();
+
+        pinger.pingNodes(Arrays.asList(createNode("node1", runtime, vmid), createNode("node2", runtime, vmid)));
+        Thread.sleep(5);
+        pinger.pingNodes(Collections.emptyList());
+
+        assertThat(downNodes).containsExactly("node1", "node2");
+        assertThat(pendingPings).hasSize(1);
+    }
+
+    @Test
+    public void testNodeIsPingedWhileItsRuntimeIsPinged() throws Exception {
+        ProActiveRuntime runtime = mock(ProActiveRuntime.class);
+        when(runtime.getLocalNodeNames()).thenReturn(new String[] { "node1", "node2" });
+        VMID vmid = new VMID();
+        Node node1 = createNode("node1", runtime, vmid);
+
+        pinger.pingNodes(Arrays.asList(node1, createNode("node2", runtime, vmid)));
+        pinger.pingNode(node1);
+
+        assertThat(pendingPings).hasSize(2);
+        runPendingPings();
+        verify(node1).getNumberOfActiveObjects();
+        assertThat(downNodes).isEmpty();
+    }
+
+    @Test
+    public void testBusyRuntimesArePingedLessOften() throws Exception {
+        ProActiveRuntime runtime = mock(ProActiveRuntime.class);
+        when(runtime.getLocalNodeNames()).thenReturn(new String[] { "node1", "node2" });
+        VMID vmid = new VMID();
+        Node node1 = createNode("node1", runtime, vmid);
+        Node node2 = createNode("node2", runtime, vmid);
+        List<Node> nodes = Arrays.asList(node1, node2);
+
+        pinger.setNodeBusy(node1.getNodeInformation().getURL(), true);
+        pinger.setNodeBusy(node2.getNodeInformation().getURL(), true);
+        pinger.pingNodes(nodes);
+        assertThat(pendingPings).isEmpty();
+
+        pinger.pingNodes(nodes);
+        assertThat(pendingPings).hasSize(1);
+        runPendingPings();
+
+        pinger.setNodeBusy(node2.getNodeInformation().getURL(), false);
+        pinger.pingNodes(nodes);
+        assertThat(pendingPings).hasSize(1);
+    }
+
+    @Test
+    public void testSingleNodeIsPingedDirectly() throws Exception {
+        ProActiveRuntime runtime = mock(ProActiveRuntime.class);
+        Node node = createNode("node1", runtime, new VMID());
+        when(node.getNumberOfActiveObjects()).thenReturn(1);
+
+        pinger.pingNode(node);
+        runPendingPings();
+
+        verify(node).getNumberOfActiveObjects();
+        assertThat(downNodes).isEmpty();
+        long pings = pinger.getLatencyHistogram()
+                           .entrySet()
+                           .stream()
+                           .filter(entry -> !entry.getKey().equals("late"))
+                           .mapToLong(entry -> entry.getValue())
+                           .sum();
+        assertThat(pings).isEqualTo(1L);
+    }
+
+    private NodeSourcePinger createPinger(long timeout) {
+        Executor executor = pendingPings::add;
+        return new NodeSourcePinger("ns", executor, (name, url) -> downNodes.add(name), timeout, 2);
+    }
+
+    private void runPendingPings() {
+        List<Runnable> pings = new ArrayList<>(pendingPings);
+        pendingPings.clear();
+        pings.forEach(Runnable::run);
+    }
+
+    private static Node createNode(String name, ProActiveRuntime runtime, VMID vmid) {
+        NodeInformation nodeInformation = mock(NodeInformation.class);
+        when(nodeInformation.getName()).thenReturn(name);
+        when(nodeInformation.getURL()).thenReturn("pnp://host:64738/" + name);
+        VMInformation vmInformation = mock(VMInformation.class);
+        when(vmInformation.getVMID()).thenReturn(vmid);
+
+        Node node = mock(Node.class);
+        when(node.getNodeInformation()).thenReturn(nodeInformation);
+        when(node.getVMInformation()).thenReturn(vmInformation);
+        when(node.getProActiveRuntime()).thenReturn(runtime);
+        return node;
+    }
+}
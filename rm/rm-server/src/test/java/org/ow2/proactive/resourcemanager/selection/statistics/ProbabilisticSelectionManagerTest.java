@@ -26,6 +26,7 @@
 package org.ow2.proactive.resourcemanager.selection.statistics;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
 import java.io.Serializable;
@@ -34,6 +35,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.BasicConfigurator;
 import org.apache.log4j.Level;
@@ -305,6 +309,60 @@ public class ProbabilisticSelectionManagerTest {
         Assert.assertFalse(selectionManager.isPassed(script, bindings, freeNodes.get(0)));
     }
 
+    @Test
+    public void testLeastRecentlyUsedScriptIsEvicted() throws Exception {
+        SelectionScript script1 = new SelectionScript("test1", "groovy", false);
+        SelectionScript script2 = new SelectionScript("test2", "groovy", false);
+        SelectionScript script3 = new SelectionScript("test3", "groovy", false);
+        ManagerObjects managerObjects = new ManagerObjects(1).invoke();
+        SelectionManager selectionManager = managerObjects.getSelectionManager();
+        RMNode node = managerObjects.getFreeNodes().get(0);
+
+        PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.updateProperty("2");
+        try {
+            selectionManager.processScriptResult(script1, Collections.EMPTY_MAP, new ScriptResult<>(true), node);
+            selectionManager.processScriptResult(script2, Collections.EMPTY_MAP, new ScriptResult<>(true), node);
+            // script1 is used again, script2 is then the one to evict
+            Assert.assertTrue(selectionManager.isPassed(script1, Collections.EMPTY_MAP, node));
+            selectionManager.processScriptResult(script3, Collections.EMPTY_MAP, new ScriptResult<>(true), node);
+
+            Assert.assertTrue(selectionManager.isPassed(script1, Collections.EMPTY_MAP, node));
+            Assert.assertFalse(selectionManager.isPassed(script2, Collections.EMPTY_MAP, node));
+            Assert.assertTrue(selectionManager.isPassed(script3, Collections.EMPTY_MAP, node));
+        } finally {
+            PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.updateProperty("10000");
+        }
+    }
+
+    @Test
+    public void testConcurrentScriptResults() throws Exception {
+        int nbNodes = 50;
+        SelectionScript script = new SelectionScript("test", "groovy", false);
+        ManagerObjects managerObjects = new ManagerObjects(nbNodes).invoke();
+        SelectionManager selectionManager = managerObjects.getSelectionManager();
+        ArrayList<RMNode> freeNodes = managerObjects.getFreeNodes();
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(nbNodes);
+            for (RMNode node : freeNodes) {
+                results.add(executor.submit(() -> selectionManager.processScriptResult(script,
+                                                                                       Collections.EMPTY_MAP,
+                                                                                       new ScriptResult<>(true),
+                                                                                       node)));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (RMNode node : freeNodes) {
+            Assert.assertTrue(selectionManager.isPassed(script, Collections.EMPTY_MAP, node));
+        }
+    }
+
     private class ManagerObjects {
         private int nbNodes;
 
@@ -333,7 +391,7 @@ public class ProbabilisticSelectionManagerTest {
                                                                     "mocked-node-" + (i + 1),
                                                                     "mocked-node-" + (i + 1)));
             }
-            when(rmCore.getFreeNodes()).thenReturn(freeNodes);
+            when(rmCore.getFreeNodes(any(Criteria.class))).thenReturn(freeNodes);
 
             selectionManager = new ProbablisticSelectionManager(rmCore);
 
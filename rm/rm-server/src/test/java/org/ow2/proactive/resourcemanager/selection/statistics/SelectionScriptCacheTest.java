@@ -0,0 +1,110 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.selection.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.ow2.proactive.scripting.SelectionScript;
+
+
+public class SelectionScriptCacheTest {
+
+    @Test
+    public void testSameResolvedScriptIsCached() throws Exception {
+        SelectionScriptCache cache = new SelectionScriptCache(10);
+        SelectionScript script = new SelectionScript("variables.get(\"key\")", "groovy", false);
+
+        SelectionScriptCache.ResolvedSelectionScript first = cache.resolve(script, bindings("key", "value"));
+        SelectionScriptCache.ResolvedSelectionScript second = cache.resolve(script, bindings("key", "value"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testDifferentBindingsGiveDifferentDigests() throws Exception {
+        SelectionScriptCache cache = new SelectionScriptCache(10);
+        SelectionScript script = new SelectionScript("variables.get(\"key\")", "groovy", false);
+
+        String digest = cache.resolve(script, bindings("key", "value")).getDigest();
+        String otherDigest = cache.resolve(script, bindings("key", "otherValue")).getDigest();
+
+        assertNotEquals(digest, otherDigest);
+        assertEquals(new String(new SelectionScript("variables.get(\"value\")", "groovy", false).digest()),
+                     digest);
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBindingsModifiedAfterResolutionAreNotCached() throws Exception {
+        SelectionScriptCache cache = new SelectionScriptCache(10);
+        SelectionScript script = new SelectionScript("variables.get(\"key\")", "groovy", false);
+        Map<String, Serializable> bindings = bindings("key", "value");
+
+        String digest = cache.resolve(script, bindings).getDigest();
+        ((Map<String, Serializable>) bindings.get("variables")).put("key", "otherValue");
+        String otherDigest = cache.resolve(script, bindings).getDigest();
+
+        assertNotEquals(digest, otherDigest);
+        assertEquals(new String(new SelectionScript("variables.get(\"otherValue\")", "groovy", false).digest()),
+                     otherDigest);
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedScriptIsEvicted() throws Exception {
+        SelectionScriptCache cache = new SelectionScriptCache(2);
+        SelectionScript script = new SelectionScript("variables.get(\"key\")", "groovy", false);
+
+        cache.resolve(script, bindings("key", "1"));
+        cache.resolve(script, bindings("key", "2"));
+        cache.resolve(script, bindings("key", "1"));
+        cache.resolve(script, bindings("key", "3"));
+        assertEquals(2, cache.size());
+
+        cache.resolve(script, bindings("key", "1"));
+        assertEquals(2, cache.getHits());
+        cache.resolve(script, bindings("key", "2"));
+        assertEquals(2, cache.getHits());
+    }
+
+    private static Map<String, Serializable> bindings(String key, String value) {
+        HashMap<String, Serializable> variables = new HashMap<>();
+        variables.put(key, value);
+        Map<String, Serializable> bindings = new HashMap<>();
+        bindings.put("variables", variables);
+        return bindings;
+    }
+}
@@ -171,6 +171,11 @@ public class SchedulerConstants {
      */
     public static String DISABLE_PROCESS_TREE_KILLER_GENERIC_INFO = "DISABLE_PTK";
 
+    /**
+     * This generic information can be used to always run a forked task in a new JVM, instead of a pooled one
+     */
+    public static String DISABLE_FORKED_JVM_POOL_GENERIC_INFO = "DISABLE_FORK_POOL";
+
     /**
      * This generic information can be used to configure a task walltime
      */
@@ -32,7 +32,11 @@ import static org.ow2.proactive.scheduler.common.job.factories.XMLTags.TASK_FLOW
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.io.IOUtils;
 import org.iso_relax.verifier.Schema;
@@ -53,6 +57,12 @@ import com.sun.msv.verifier.ValidityViolation;
  */
 public class ValidationUtil {
 
+    /**
+     * Compiled schemas, by location. Compiled schemas are thread-safe, only the
+     * verifiers created from them must not be shared between validations.
+     */
+    private static final ConcurrentMap<String, Schema> COMPILED_SCHEMAS = new ConcurrentHashMap<>();
+
     /**
      * Validates the job descriptor file against the specified schema.
      * 
@@ -66,19 +76,74 @@ public class ValidationUtil {
      */
     public static void validate(InputStream jobInputStream, InputStream schemaIs)
             throws SAXException, IOException, JobCreationException {
+        Schema schema;
         try {
+            schema = compileSchema(schemaIs);
+        } catch (VerifierConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        ContentHandlerDecorator contentHandlerDecorator = newVerifierHandler(schema);
+        parse(jobInputStream, contentHandlerDecorator);
+    }
 
-            XMLReader reader = XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
-            VerifierFactory vfactory = new com.sun.msv.verifier.jarv.TheFactoryImpl();
-            Schema schema = vfactory.compileSchema(schemaIs);
+    /**
+     * Validates the job descriptor file against the schema matching the namespace
+     * of its root element, or against the latest schema if the namespace is unknown.
+     * <p>
+     * The job descriptor is read once: the schema is selected when the root element
+     * is parsed and the same SAX stream is then fed to its verifier.
+     *
+     * @param jobInputStream
+     *            the job file content as an InputStream
+     *
+     * @throws JobCreationException
+     *             if the job descriptor is invalid
+     */
+    public static void validate(InputStream jobInputStream) throws SAXException, IOException, JobCreationException {
+        parse(jobInputStream, new SchemaSelectorContentHandler());
+    }
 
+    /**
+     * Returns the compiled schema of the given job descriptor version, compiling
+     * it on first use.
+     */
+    public static Schema getCompiledSchema(Schemas schema) {
+        return COMPILED_SCHEMAS.computeIfAbsent(schema.getLocation(), location -> {
+            try (InputStream schemaIs = ValidationUtil.class.getResourceAsStream(location)) {
+                if (schemaIs == null) {
+                    throw new IllegalStateException("Job descriptor schema not found: " + location);
+                }
+                return compileSchema(schemaIs);
+            } catch (VerifierConfigurationException | SAXException | IOException e) {
+                throw new IllegalStateException("Could not compile job descriptor schema " + location, e);
+            }
+        });
+    }
+
+    private static Schema compileSchema(InputStream schemaIs)
+            throws VerifierConfigurationException, SAXException, IOException {
+        VerifierFactory vfactory = new com.sun.msv.verifier.jarv.TheFactoryImpl();
+        return vfactory.compileSchema(schemaIs);
+    }
+
+    private static ContentHandlerDecorator newVerifierHandler(Schema schema) throws SAXException {
+        try {
             Verifier verifier = schema.newVerifier();
             VerifierHandler handler = verifier.getVerifierHandler();
             ContentHandlerDecorator contentHandlerDecorator = new ContentHandlerDecorator(handler);
-            reader.setContentHandler(contentHandlerDecorator);
             ValidationErrorHandler errHandler = new ValidationErrorHandler(contentHandlerDecorator);
             verifier.setErrorHandler(errHandler);
+            return contentHandlerDecorator;
+        } catch (VerifierConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
+    private static void parse(InputStream jobInputStream, ContentHandler contentHandler)
+            throws SAXException, IOException, JobCreationException {
+        try {
+            XMLReader reader = XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
+            reader.setContentHandler(contentHandler);
             reader.parse(new InputSource(jobInputStream));
         } catch (SAXException se) {
             Throwable cause = se.getCause();
@@ -88,8 +153,6 @@ public class ValidationUtil {
             } else {
                 throw se;
             }
-        } catch (VerifierConfigurationException e) {
-            throw new IllegalStateException(e);
         }
     }
 
@@ -154,6 +217,110 @@ public class ValidationUtil {
         }
     }
 
+    /**
+     * Holds back the events preceding the root element until its namespace tells
+     * which schema to validate against, then forwards everything to a verifier of
+     * that schema.
+     */
+    private static class SchemaSelectorContentHandler implements ContentHandler {
+        private ContentHandler handler;
+
+        private Locator locator;
+
+        private final List<String[]> prefixMappings = new ArrayList<>();
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            // forwarded once the root element is known
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            if (handler != null) {
+                handler.endDocument();
+            }
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            if (handler == null) {
+                prefixMappings.add(new String[] { prefix, uri });
+            } else {
+                handler.startPrefixMapping(prefix, uri);
+            }
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            handler.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            if (handler == null) {
+                selectSchema(uri, localName);
+            }
+            handler.startElement(uri, localName, qName, atts);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            handler.endElement(uri, localName, qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (handler != null) {
+                handler.characters(ch, start, length);
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            if (handler != null) {
+                handler.ignorableWhitespace(ch, start, length);
+            }
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            if (handler != null) {
+                handler.processingInstruction(target, data);
+            }
+        }
+
+        @Override
+        public void skippedEntity(String name) throws SAXException {
+            if (handler != null) {
+                handler.skippedEntity(name);
+            }
+        }
+
+        private void selectSchema(String uri, String localName) throws SAXException {
+            Schemas schema = null;
+            if (XMLTags.JOB.matches(localName)) {
+                schema = Schemas.getSchemaByNamespace(uri);
+            }
+            if (schema == null) {
+                schema = Schemas.SCHEMA_LATEST;
+            }
+            handler = newVerifierHandler(getCompiledSchema(schema));
+            if (locator != null) {
+                handler.setDocumentLocator(locator);
+            }
+            handler.startDocument();
+            for (String[] prefixMapping : prefixMappings) {
+                handler.startPrefixMapping(prefixMapping[0], prefixMapping[1]);
+            }
+            prefixMappings.clear();
+        }
+    }
+
     private static class ContentHandlerDecorator implements ContentHandler {
         private ContentHandler handler;
 
@@ -25,22 +25,13 @@
  */
 package org.ow2.proactive.scheduler.common.job.factories.spi.stax;
 
-import java.io.ByteArrayInputStream;
-import java.io.FileNotFoundException;
 import java.io.InputStream;
 
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
-import javax.xml.stream.events.XMLEvent;
-
 import org.ow2.proactive.scheduler.common.Scheduler;
 import org.ow2.proactive.scheduler.common.SchedulerSpaceInterface;
 import org.ow2.proactive.scheduler.common.exception.JobValidationException;
 import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
-import org.ow2.proactive.scheduler.common.job.factories.Schemas;
 import org.ow2.proactive.scheduler.common.job.factories.ValidationUtil;
-import org.ow2.proactive.scheduler.common.job.factories.XMLTags;
 import org.ow2.proactive.scheduler.common.job.factories.spi.JobValidatorService;
 
 
@@ -49,28 +40,10 @@ import org.ow2.proactive.scheduler.common.job.factories.spi.JobValidatorService;
  */
 public class StaxJobValidatorServiceProvider implements JobValidatorService {
 
-    private XMLInputFactory xmlInputFactory = null;
-
-    public StaxJobValidatorServiceProvider() {
-        System.setProperty("javax.xml.stream.XMLInputFactory", "com.ctc.wstx.stax.WstxInputFactory");
-        xmlInputFactory = XMLInputFactory.newInstance();
-        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
-        xmlInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.TRUE);
-        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
-        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
-    }
-
     @Override
     public void validateJob(InputStream jobInputStream) throws JobValidationException {
         try {
-            byte[] bytes = ValidationUtil.getInputStreamBytes(jobInputStream);
-            try (ByteArrayInputStream jobInputStreamForSchema = new ByteArrayInputStream(bytes)) {
-                String findSchemaByNamespaceUsed = findSchemaByNamespaceUsed(jobInputStreamForSchema);
-                InputStream schemaStream = this.getClass().getResourceAsStream(findSchemaByNamespaceUsed);
-                try (ByteArrayInputStream jobInputStreamForValidation = new ByteArrayInputStream(bytes)) {
-                    ValidationUtil.validate(jobInputStreamForValidation, schemaStream);
-                }
-            }
+            ValidationUtil.validate(jobInputStream);
         } catch (Exception e) {
             throw new JobValidationException(true, e);
         }
@@ -87,37 +60,4 @@ public class StaxJobValidatorServiceProvider implements JobValidatorService {
         // validate any job
         return job;
     }
-
-    private String findSchemaByNamespaceUsed(InputStream jobInputStream)
-            throws FileNotFoundException, XMLStreamException, JobValidationException {
-        XMLStreamReader cursorRoot = xmlInputFactory.createXMLStreamReader(jobInputStream);
-        try {
-            while (cursorRoot.hasNext()) {
-                String namespace = advanceCursorAndFindSchema(cursorRoot);
-                if (namespace != null)
-                    return namespace;
-            }
-            return Schemas.SCHEMA_LATEST.getLocation();
-        } catch (Exception e) {
-            throw new JobValidationException(e.getMessage(), e);
-        } finally {
-            if (cursorRoot != null) {
-                cursorRoot.close();
-            }
-        }
-    }
-
-    private String advanceCursorAndFindSchema(XMLStreamReader cursorRoot) throws XMLStreamException {
-        int eventType;
-        String current;
-        eventType = cursorRoot.next();
-        if (eventType == XMLEvent.START_ELEMENT) {
-            current = cursorRoot.getLocalName();
-            if (XMLTags.JOB.matches(current)) {
-                String namespace = cursorRoot.getName().getNamespaceURI();
-                return Schemas.getSchemaByNamespace(namespace).getLocation();
-            }
-        }
-        return null;
-    }
 }
@@ -60,6 +60,68 @@ public class VariableSubstitutor {
 
     private static final char UND = '_';
 
+    /**
+     * Matches the beginning of a variable, can either be $ or ${
+     */
+    static final StrMatcher PREFIX_MATCHER = new StrMatcher() {
+        @Override
+        public int isMatch(char[] buffer, int pos, int bufferStart, int bufferEnd) {
+            if (pos + 1 >= bufferEnd) {
+                return -1;
+            }
+            char firstChar = buffer[pos];
+            char secondChar = buffer[pos + 1];
+            if (firstChar == DOLLAR) {
+                if (secondChar == LCB) {
+                    // dollar with a {
+                    return 2;
+                }
+                // dollar and the beginning of a NCName
+                if (Character.isLetterOrDigit(secondChar)) {
+                    return 1;
+                }
+                switch (secondChar) {
+                    case DASH:
+                    case DOT:
+                    case UND:
+                        return 1;
+                }
+            }
+            // no match
+            return -1;
+        }
+    };
+
+    /**
+     * Matches the end of a variable, can be an explicit }, the end of a NCName or the buffer end
+     */
+    static final StrMatcher SUFFIX_MATCHER = new StrMatcher() {
+        @Override
+        public int isMatch(char[] buffer, int pos, int bufferStart, int bufferEnd) {
+            // end of the buffer is the end of a variable
+            if (pos == bufferEnd) {
+                return 0;
+            }
+            char aChar = buffer[pos];
+            // any character part of a NCName is not an end
+            if (Character.isLetterOrDigit(aChar)) {
+                return -1;
+            }
+            switch (aChar) {
+                case DASH:
+                case DOT:
+                case UND:
+                    return -1;
+            }
+            // an explicit }
+            if (aChar == RCB) {
+                return 1;
+            }
+            // anything else is the end of a variable
+            return 0;
+        }
+    };
+
     // non-instantiable
     private VariableSubstitutor() {
     }
@@ -74,9 +136,10 @@ public class VariableSubstitutor {
             Map<String, ? extends Serializable> variables) {
 
         Map<String, String> result = new HashMap<>(variables.size());
+        VariableTemplate.Context context = new VariableTemplate.Context(variables);
 
         for (Map.Entry<String, String> entry : input.entrySet()) {
-            result.put(entry.getKey(), filterAndUpdate(entry.getValue(), variables));
+            result.put(entry.getKey(), filterAndUpdate(entry.getValue(), context));
         }
 
         return result;
@@ -90,8 +153,9 @@ public class VariableSubstitutor {
      * all references and then for each variable we do a filterAndUpdate that will recursively replace
      * when needed, @see VariableSubstitutor.
      *
-     * Some limitations to consider: recursive substitution limit is VariableSubstitutor.MAXIMUM_DEPTH,
-     * if the variable value is a complex data structure (array, List, Vector) we will not substitute it.
+     * Each value is parsed once into a cached template and each referenced variable is resolved once,
+     * before the variables referencing it. Cyclic references raise an IllegalStateException.
+     * If the variable value is a complex data structure (array, List, Vector) we will not substitute it.
      *
      * @param variables input hash containing variables and their values may reference other variables
      * @return dictionary with the same variables however with their values resolved
@@ -99,12 +163,12 @@ public class VariableSubstitutor {
     public static Map<String, Serializable> resolveVariables(Map<String, Serializable> variables,
             Map<String, Serializable> dictionary) {
 
-        StrSubstitutor substitutor = buildSubstitutor(dictionary);
+        VariableTemplate.Context context = new VariableTemplate.Context(dictionary);
 
         Map<String, Serializable> resolvedVariables = new HashMap<>();
         for (Map.Entry<String, Serializable> entry : variables.entrySet()) {
             if (entry.getValue() instanceof String) {
-                resolvedVariables.put(entry.getKey(), substitutor.replace((String) entry.getValue()));
+                resolvedVariables.put(entry.getKey(), VariableTemplate.of((String) entry.getValue()).resolve(context));
             } else {
                 resolvedVariables.put(entry.getKey(), entry.getValue());
             }
@@ -122,26 +186,15 @@ public class VariableSubstitutor {
      * @see VariableSubstitutor#filterAndUpdate(String, Map)
      */
     public static String filterAndUpdate(String input, Map<? extends Serializable, ? extends Serializable> variables) {
+        return filterAndUpdate(input, new VariableTemplate.Context(variables));
+    }
+
+    private static String filterAndUpdate(String input, VariableTemplate.Context context) {
         if (input == null || input.isEmpty()) {
             return input;
         }
 
-        String output = input;
-        StrSubstitutor substitutor = buildSubstitutor(variables);
-        output = replaceRecursively(output, substitutor);
-
-        return output;
-    }
-
-    /**
-     * Replace the given string with a list of substitutions recursively. Recursion will be limited to MAXIMUM_DEPTH.
-     *
-     * @param value       string used to apply replacement
-     * @param substitutor substitution handler
-     * @return a new string where all replacements were performed
-     */
-    private static String replaceRecursively(final String value, StrSubstitutor substitutor) {
-        return substitutor.replace(value);
+        return VariableTemplate.of(input).resolve(context);
     }
 
     /**
@@ -154,18 +207,23 @@ public class VariableSubstitutor {
      */
     public static void filterAndUpdate(Script<?> script,
             Map<? extends Serializable, ? extends Serializable> variables) {
-        script.setScript(filterAndUpdate(script.getScript(), variables));
+        VariableTemplate.Context context = new VariableTemplate.Context(variables);
+        script.setScript(filterAndUpdate(script.getScript(), context));
         Serializable[] params = script.getParameters();
         if (params != null) {
             for (int i = 0; i < params.length; i++) {
                 if (params[i] != null) {
-                    params[i] = filterAndUpdate(params[i].toString(), variables);
+                    params[i] = filterAndUpdate(params[i].toString(), context);
                 }
             }
         }
     }
 
     public static StrSubstitutor buildSubstitutor(Map<? extends Serializable, ? extends Serializable> variables) {
+        return newSubstitutor(buildReplacements(variables));
+    }
+
+    static Map<String, String> buildReplacements(Map<? extends Serializable, ? extends Serializable> variables) {
 
         Map<String, String> replacements = new HashMap<>();
 
@@ -181,65 +239,13 @@ public class VariableSubstitutor {
             }
         }
 
-        StrSubstitutor substitutor = new StrSubstitutor(replacements, SUBSITUTE_PREFIX, SUBSTITUTE_SUFFIX, (char) 0);
+        return replacements;
+    }
 
-        // match the beginning of a variable, can either be $ or ${
-        substitutor.setVariablePrefixMatcher(new StrMatcher() {
-            @Override
-            public int isMatch(char[] buffer, int pos, int bufferStart, int bufferEnd) {
-                if (pos + 1 >= bufferEnd) {
-                    return -1;
-                }
-                char firstChar = buffer[pos];
-                char secondChar = buffer[pos + 1];
-                if (firstChar == DOLLAR) {
-                    if (secondChar == LCB) {
-                        // dollar with a {
-                        return 2;
-                    }
-                    // dollar and the beginning of a NCName
-                    if (Character.isLetterOrDigit(secondChar)) {
-                        return 1;
-                    }
-                    switch (secondChar) {
-                        case DASH:
-                        case DOT:
-                        case UND:
-                            return 1;
-                    }
-                }
-                // no match
-                return -1;
-            }
-        });
-
-        // match the end of a variable, can be an explicit }, the end of a NCName or the buffer end
-        substitutor.setVariableSuffixMatcher(new StrMatcher() {
-            @Override
-            public int isMatch(char[] buffer, int pos, int bufferStart, int bufferEnd) {
-                // end of the buffer is the end of a variable
-                if (pos == bufferEnd) {
-                    return 0;
-                }
-                char aChar = buffer[pos];
-                // any character part of a NCName is not an end
-                if (Character.isLetterOrDigit(aChar)) {
-                    return -1;
-                }
-                switch (aChar) {
-                    case DASH:
-                    case DOT:
-                    case UND:
-                        return -1;
-                }
-                // an explicit }
-                if (aChar == RCB) {
-                    return 1;
-                }
-                // anything else is the end of a variable
-                return 0;
-            }
-        });
+    static StrSubstitutor newSubstitutor(Map<String, String> replacements) {
+        StrSubstitutor substitutor = new StrSubstitutor(replacements, SUBSITUTE_PREFIX, SUBSTITUTE_SUFFIX, (char) 0);
+        substitutor.setVariablePrefixMatcher(PREFIX_MATCHER);
+        substitutor.setVariableSuffixMatcher(SUFFIX_MATCHER);
         substitutor.setEnableSubstitutionInVariables(true);
 
         return substitutor;
@@ -0,0 +1,279 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.util.text.StrMatcher;
+import org.ow2.proactive.scheduler.common.util.text.StrSubstitutor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * A string parsed once into literal text and variable references, following the
+ * syntax and semantics of the substitutor built by {@link VariableSubstitutor}.
+ * <p>
+ * Templates are cached by source string so that the same job definition strings,
+ * replicated over many tasks, are only scanned once. A template is immutable and
+ * can be resolved concurrently against different dictionaries.
+ *
+ * @author The ProActive Team
+ * @since ProActive Scheduling 11.1
+ */
+final class VariableTemplate {
+
+    /**
+     * Maximum number of source characters kept by the template cache
+     */
+    private static final long MAXIMUM_CACHED_CHARACTERS = 4 * 1024 * 1024;
+
+    private static final Cache<String, VariableTemplate> TEMPLATES = CacheBuilder.newBuilder()
+                                                                                .maximumWeight(MAXIMUM_CACHED_CHARACTERS)
+                                                                                .weigher((String source,
+                                                                                        VariableTemplate template) -> source.length())
+                                                                                .build();
+
+    private final String source;
+
+    /**
+     * null if the source contains no variable reference
+     */
+    private final List<Object> segments;
+
+    /**
+     * The escape character of the substitutor is (char) 0, sources containing it are left to the substitutor
+     */
+    private final boolean escaped;
+
+    private VariableTemplate(String source, List<Object> segments, boolean escaped) {
+        this.source = source;
+        this.segments = segments;
+        this.escaped = escaped;
+    }
+
+    /**
+     * Returns the template of the given string, parsing it if it is not already cached
+     */
+    static VariableTemplate of(String source) {
+        VariableTemplate template = TEMPLATES.getIfPresent(source);
+        if (template == null) {
+            template = parse(source);
+            TEMPLATES.put(source, template);
+        }
+        return template;
+    }
+
+    /**
+     * @return true if resolving this template may give something else than its source
+     */
+    boolean hasReferences() {
+        return segments != null || escaped;
+    }
+
+    /**
+     * Replaces the variable references of this template using the given context.
+     *
+     * @throws IllegalStateException if variables reference each other cyclically
+     */
+    String resolve(Context context) {
+        return resolve(context, null);
+    }
+
+    private String resolve(Context context, List<String> priorVariables) {
+        if (!hasReferences()) {
+            return source;
+        }
+        if (escaped) {
+            return VariableSubstitutor.newSubstitutor(context.getReplacements()).replace(source);
+        }
+        StringBuilder resolved = new StringBuilder(source.length());
+        for (Object segment : segments) {
+            if (segment instanceof Reference) {
+                if (priorVariables == null) {
+                    priorVariables = new ArrayList<>();
+                    priorVariables.add(source);
+                }
+                resolved.append(((Reference) segment).resolve(context, priorVariables));
+            } else {
+                resolved.append((String) segment);
+            }
+        }
+        return resolved.toString();
+    }
+
+    /**
+     * Mirrors the scan of {@link StrSubstitutor}: a reference starts with the prefix matcher
+     * and ends with the first suffix match which is not closing a nested reference.
+     */
+    private static VariableTemplate parse(String source) {
+        if (source.indexOf((char) 0) >= 0) {
+            return new VariableTemplate(source, null, true);
+        }
+        StrMatcher prefixMatcher = VariableSubstitutor.PREFIX_MATCHER;
+        StrMatcher suffixMatcher = VariableSubstitutor.SUFFIX_MATCHER;
+        char[] chars = source.toCharArray();
+        int end = chars.length;
+        List<Object> segments = null;
+        int literalStart = 0;
+        int pos = 0;
+        while (pos < end) {
+            int startMatchLen = prefixMatcher.isMatch(chars, pos, 0, end);
+            if (startMatchLen < 0) {
+                pos++;
+                continue;
+            }
+            int startPos = pos;
+            pos += startMatchLen;
+            int nestedVarCount = 0;
+            while (pos <= end) {
+                int endMatchLen = prefixMatcher.isMatch(chars, pos, 0, end);
+                if (endMatchLen >= 0) {
+                    nestedVarCount++;
+                    pos += endMatchLen;
+                    continue;
+                }
+                endMatchLen = suffixMatcher.isMatch(chars, pos, 0, end);
+                if (endMatchLen < 0) {
+                    pos++;
+                } else if (nestedVarCount == 0) {
+                    String nameExpression = source.substring(startPos + startMatchLen, pos);
+                    pos += endMatchLen;
+                    if (segments == null) {
+                        segments = new ArrayList<>();
+                    }
+                    if (startPos > literalStart) {
+                        segments.add(source.substring(literalStart, startPos));
+                    }
+                    segments.add(new Reference(source.substring(startPos, pos), of(nameExpression)));
+                    literalStart = pos;
+                    break;
+                } else {
+                    nestedVarCount--;
+                    pos += endMatchLen;
+                }
+            }
+        }
+        if (segments != null && literalStart < end) {
+            segments.add(source.substring(literalStart));
+        }
+        return new VariableTemplate(source, segments, false);
+    }
+
+    private static final class Reference {
+
+        private final String text;
+
+        private final VariableTemplate nameExpression;
+
+        private Reference(String text, VariableTemplate nameExpression) {
+            this.text = text;
+            this.nameExpression = nameExpression;
+        }
+
+        private String resolve(Context context, List<String> priorVariables) {
+            // the name expression is resolved on its own, as the substitutor does
+            String name = nameExpression.resolve(context);
+            String defaultValue = null;
+            char[] nameChars = name.toCharArray();
+            for (int i = 0; i < nameChars.length; i++) {
+                int delimiterLength = StrSubstitutor.DEFAULT_VALUE_DELIMITER.isMatch(nameChars, i);
+                if (delimiterLength >= 0) {
+                    defaultValue = name.substring(i + delimiterLength);
+                    name = name.substring(0, i);
+                    break;
+                }
+            }
+
+            checkCyclicSubstitution(name, priorVariables);
+            priorVariables.add(name);
+            try {
+                String value = context.resolveVariable(name, priorVariables);
+                if (value == null && defaultValue != null) {
+                    value = of(defaultValue).resolve(context, priorVariables);
+                }
+                return value != null ? value : text;
+            } finally {
+                priorVariables.remove(priorVariables.size() - 1);
+            }
+        }
+
+        private static void checkCyclicSubstitution(String name, List<String> priorVariables) {
+            if (priorVariables.contains(name)) {
+                List<String> cycle = new ArrayList<>(priorVariables);
+                String source = cycle.remove(0);
+                throw new IllegalStateException("Infinite loop in property interpolation of " + source + ": " +
+                                                String.join("->", cycle));
+            }
+        }
+    }
+
+    /**
+     * A dictionary against which templates are resolved. Each variable is resolved at most once
+     * per context, variables referenced by other variables being resolved first.
+     */
+    static final class Context {
+
+        private final Map<? extends Serializable, ? extends Serializable> variables;
+
+        private Map<String, String> replacements;
+
+        private final Map<String, String> resolvedVariables = new HashMap<>();
+
+        Context(Map<? extends Serializable, ? extends Serializable> variables) {
+            this.variables = variables;
+        }
+
+        /**
+         * Replacements are only computed once a template actually references a variable
+         */
+        Map<String, String> getReplacements() {
+            if (replacements == null) {
+                replacements = variables != null ? VariableSubstitutor.buildReplacements(variables)
+                                                 : Collections.emptyMap();
+            }
+            return replacements;
+        }
+
+        private String resolveVariable(String name, List<String> priorVariables) {
+            String resolved = resolvedVariables.get(name);
+            if (resolved == null) {
+                String value = getReplacements().get(name);
+                if (value != null) {
+                    resolved = of(value).resolve(this, priorVariables);
+                    resolvedVariables.put(name, resolved);
+                }
+            }
+            return resolved;
+        }
+    }
+}
@@ -61,6 +61,10 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** Defines the maximum number of tasks to be scheduled in each scheduling loop. */
     SCHEDULER_POLICY_NBTASKPERLOOP("pa.scheduler.policy.nbtaskperloop", PropertyType.INTEGER, "10"),
 
+    /** Defines if the scheduling loop relies on an incrementally maintained index of the jobs to order the eligible tasks,
+     * instead of sorting every job at each scheduling loop. */
+    SCHEDULER_POLICY_INCREMENTAL_INDEX("pa.scheduler.policy.incremental.index", PropertyType.BOOLEAN, "true"),
+
     /** Path of the license properties file. */
     SCHEDULER_LICENSE_POLICY_CONFIGURATION("pa.scheduler.license.policy.configuration", PropertyType.STRING),
 
@@ -133,6 +137,19 @@ public enum PASchedulerProperties implements PACommonProperties {
      * until the scheduling loop will block as well.*/
     SCHEDULER_STARTTASK_THREADNUMBER("pa.scheduler.core.starttask.threadnumber", PropertyType.INTEGER, "5"),
 
+    /** Maximum number of groups of compatible tasks for which nodes are requested concurrently during a scheduling loop.
+     * Each group is given a disjoint part of the free nodes. A value of 1 requests nodes one group after the other.*/
+    SCHEDULER_NODE_ACQUISITION_PARALLEL_GROUPS("pa.scheduler.core.nodeacquisition.parallelgroups", PropertyType.INTEGER, "1"),
+
+    /** Number of threads used to create task launchers and submit the start task action. When greater than 0,
+     * the scheduling loop only reserves the nodes of the tasks and enqueues their deployment.
+     * 0 deploys tasks synchronously from the scheduling loop.*/
+    SCHEDULER_DEPLOYMENT_THREADNUMBER("pa.scheduler.core.deployment.threadnumber", PropertyType.INTEGER, "0"),
+
+    /** Maximum number of task deployments waiting for a deployment thread. When it is reached, the scheduling loop
+     * deploys the tasks itself.*/
+    SCHEDULER_DEPLOYMENT_QUEUESIZE("pa.scheduler.core.deployment.queuesize", PropertyType.INTEGER, "1000"),
+
     /** Maximum number of threads used to send events to clients. This property defines the number of clients
      * than can block at the same time. If this number is reached, every clients won't receive events until
      * a thread unlock. */
@@ -224,6 +241,24 @@ public enum PASchedulerProperties implements PACommonProperties {
      **/
     TASK_RUNASME("pa.scheduler.task.runasme", PropertyType.BOOLEAN, "false"),
 
+    /**
+     * Maximum number of idle forked JVMs kept by each node JVM to run forked tasks. 0 disables the pool.
+     * Tasks which do not use runAsMe, a fork environment script, system environment variables or a
+     * pre-java command are then executed in a pre-started JVM sharing the same command line.
+     * The working directory of pooled JVMs is not the task working directory.
+     */
+    TASK_FORK_POOL_SIZE("pa.scheduler.task.fork.pool.size", PropertyType.INTEGER, "0"),
+
+    /** Number of tasks executed by a pooled forked JVM before it is replaced by a new one */
+    TASK_FORK_POOL_MAX_TASKS("pa.scheduler.task.fork.pool.maxtasks", PropertyType.INTEGER, "50"),
+
+    /**
+     * If true, the context and the result of forked tasks are exchanged with the forked JVM through a local
+     * socket instead of temporary files. Tasks executed in runAsMe mode, or whose fork environment defines
+     * a pre java command or an environment script, always use files.
+     */
+    TASK_FORK_CHANNEL("pa.scheduler.task.fork.channel", PropertyType.BOOLEAN, "true"),
+
     /** Number of tasks to fetch per page when pagination is used */
     TASKS_PAGE_SIZE("pa.scheduler.tasks.page.size", PropertyType.INTEGER, "100"),
 
@@ -423,6 +458,12 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** Set a timeout for initial connection to the RM connection (in ms) */
     RESOURCE_MANAGER_CONNECTION_TIMEOUT("pa.scheduler.resourcemanager.connection.timeout", PropertyType.INTEGER, "120000"),
 
+    /**
+     * Maintain a local mirror of the RM nodes state, fed by the RM events, instead of
+     * asking the RM for its full state at each scheduling loop
+     */
+    RESOURCE_MANAGER_STATE_MIRROR("pa.scheduler.resourcemanager.state.mirror", PropertyType.BOOLEAN, "true"),
+
     /* ***************************************************************** */
     /* ********************** HIBERNATE PROPERTIES ********************* */
     /* ***************************************************************** */
@@ -459,8 +500,22 @@ public enum PASchedulerProperties implements PACommonProperties {
 
     SCHEDULER_DB_ITEMS_MAX_SIZE("pa.scheduler.db.items.max.size", PropertyType.INTEGER, "1000"),
 
+    /**
+     * Maximum delay (in milliseconds) before non-critical task status updates (e.g. tasks becoming pending) are
+     * written in database. Updates received during this delay are written in a single transaction.
+     * If this property is set to 0, these updates are written synchronously.
+     */
+    SCHEDULER_DB_TASK_STATUS_UPDATES_DELAY("pa.scheduler.db.task.status.updates.delay", PropertyType.INTEGER, "100"),
+
     SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE("pa.scheduler.db.fetch.batch_size", PropertyType.INTEGER, "50"),
 
+    /**
+     * Number of statements grouped in a single JDBC batch when jobs and tasks are written in database.
+     * Used as hibernate.jdbc.batch_size, unless the hibernate configuration file already defines it.
+     * If this property is set to 0, JDBC batching is disabled.
+     */
+    SCHEDULER_DB_JDBC_BATCH_SIZE("pa.scheduler.db.jdbc.batch_size", PropertyType.INTEGER, "50"),
+
     /* ***************************************************************** */
     /* ************** VARIABLES & GENERIC INFO PROPERTIES ************** */
     /* ***************************************************************** */
@@ -507,6 +562,22 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** location of the jdbm database for persistent channels */
     SCHEDULER_SYNCHRONIZATION_DATABASE("pa.scheduler.synchronization.db", PropertyType.STRING, "data/synchronization"),
 
+    /**
+     * when modifications of persistent channels are committed: 'sync' to commit each modification before the
+     * request returns, 'group' to commit the modifications of each group of requests together, once they are
+     * served (a crash may then lose the modifications of the last group)
+     */
+    SCHEDULER_SYNCHRONIZATION_DATABASE_DURABILITY(
+            "pa.scheduler.synchronization.db.durability",
+            PropertyType.STRING,
+            "sync"),
+
+    /** maximum number of compiled closures kept in cache by the synchronization service */
+    SCHEDULER_SYNCHRONIZATION_CLOSURE_CACHE_SIZE(
+            "pa.scheduler.synchronization.closure.cache",
+            PropertyType.INTEGER,
+            "1000"),
+
     /* ***************************************************************** */
     /* ***************** SIGNAL API PROPERTIES ************** */
     /* ***************************************************************** */
@@ -0,0 +1,79 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.job.factories.spi.stax;
+
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.exception.JobValidationException;
+import org.ow2.proactive.scheduler.common.job.factories.Schemas;
+import org.ow2.proactive.scheduler.common.job.factories.ValidationUtil;
+
+
+public class StaxJobValidatorServiceProviderTest {
+
+    private static final String JOB_TASK_FLOW = "/org/ow2/proactive/scheduler/common/job/factories/Job_TaskFlow.xml";
+
+    private StaxJobValidatorServiceProvider validator;
+
+    @Before
+    public void before() {
+        validator = new StaxJobValidatorServiceProvider();
+    }
+
+    @Test
+    public void testValidateJobAgainstSchemaOfItsNamespace() throws Exception {
+        try (InputStream job = getClass().getResourceAsStream(JOB_TASK_FLOW)) {
+            validator.validateJob(job);
+        }
+    }
+
+    @Test(expected = JobValidationException.class)
+    public void testValidateInvalidJob() throws Exception {
+        validator.validateJob(toInputStream("<job xmlns=\"" + Schemas.SCHEMA_LATEST.getNamespace() +
+                                            "\" name=\"job\"><unknown/></job>"));
+    }
+
+    @Test(expected = JobValidationException.class)
+    public void testValidateJobWithUnknownNamespace() throws Exception {
+        validator.validateJob(toInputStream("<job xmlns=\"urn:unknown\" name=\"job\"/>"));
+    }
+
+    @Test
+    public void testSchemaIsCompiledOnce() {
+        assertSame(ValidationUtil.getCompiledSchema(Schemas.SCHEMA_LATEST),
+                   ValidationUtil.getCompiledSchema(Schemas.SCHEMA_LATEST));
+    }
+
+    private static InputStream toInputStream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
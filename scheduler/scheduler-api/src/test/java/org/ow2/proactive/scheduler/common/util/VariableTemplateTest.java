@@ -0,0 +1,159 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+
+public class VariableTemplateTest {
+
+    private static final Map<String, Serializable> VARIABLES = ImmutableMap.<String, Serializable> builder()
+                                                                           .put("foo", "bar")
+                                                                           .put("foo.bar", "B")
+                                                                           .put("suffix", "bar")
+                                                                           .put("indirect", "${foo.${suffix}}")
+                                                                           .put("a", "1")
+                                                                           .put("b", "2")
+                                                                           .put("a2", "12")
+                                                                           .put("path", "/tmp/$foo")
+                                                                           .put("empty", "")
+                                                                           .build();
+
+    private static final List<String> INPUTS = Arrays.asList("no variable",
+                                                             "",
+                                                             "$",
+                                                             "$$",
+                                                             "$$foo",
+                                                             "${",
+                                                             "${}",
+                                                             "$}",
+                                                             "${foo",
+                                                             "${foo}",
+                                                             "A${foo}C",
+                                                             "A$foo C",
+                                                             "A$FOO_BAR C",
+                                                             "$foo.bar/toto",
+                                                             "A_${foo.${suffix}}_C",
+                                                             "${indirect}",
+                                                             "$a$b",
+                                                             "${a${b}}",
+                                                             "$a${b}",
+                                                             "${unknown}",
+                                                             "${unknown:-default}",
+                                                             "${unknown:-$foo}",
+                                                             "${foo:-default}",
+                                                             "${empty}x",
+                                                             "${path}",
+                                                             "${${suffix}}",
+                                                             "\u0000${foo} ${foo}",
+                                                             "${foo}}{$");
+
+    @Test
+    public void testTemplatesResolveLikeTheSubstitutor() {
+        for (String input : INPUTS) {
+            assertEquals(input, substitute(input, VARIABLES), VariableSubstitutor.filterAndUpdate(input, VARIABLES));
+        }
+    }
+
+    @Test
+    public void testRandomTemplatesResolveLikeTheSubstitutor() {
+        Random random = new Random(42);
+        String alphabet = "$${}ab.-_:x ";
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expected;
+            try {
+                expected = substitute(input.toString(), VARIABLES);
+            } catch (IllegalStateException e) {
+                expected = "cycle";
+            }
+            String actual;
+            try {
+                actual = VariableSubstitutor.filterAndUpdate(input.toString(), VARIABLES);
+            } catch (IllegalStateException e) {
+                actual = "cycle";
+            }
+            assertEquals(input.toString(), expected, actual);
+        }
+    }
+
+    @Test
+    public void testResolveVariablesDetectsCycles() {
+        Map<String, Serializable> variables = new HashMap<>();
+        variables.put("first", "${second}");
+        variables.put("second", "$first");
+        try {
+            VariableSubstitutor.resolveVariables(variables, variables);
+            fail("cyclic variables should not be resolved");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), true, e.getMessage().startsWith("Infinite loop in property interpolation"));
+        }
+    }
+
+    @Test
+    public void testResolveVariablesInDependencyOrder() {
+        Map<String, Serializable> variables = new HashMap<>();
+        variables.put("a", "${b}${b}");
+        variables.put("b", "${c}.${c}");
+        variables.put("c", "value");
+        variables.put("d", 42);
+
+        Map<String, Serializable> resolved = VariableSubstitutor.resolveVariables(variables, variables);
+
+        assertEquals("value.valuevalue.value", resolved.get("a"));
+        assertEquals("value.value", resolved.get("b"));
+        assertEquals("value", resolved.get("c"));
+        assertEquals(42, resolved.get("d"));
+    }
+
+    @Test
+    public void testTemplatesAreParsedOnce() {
+        assertSame(VariableTemplate.of("A${foo}C"), VariableTemplate.of(new String("A${foo}C")));
+        assertFalse(VariableTemplate.of("no variable").hasReferences());
+    }
+
+    private static String substitute(String input, Map<String, Serializable> variables) {
+        return VariableSubstitutor.buildSubstitutor(variables).replace(input);
+    }
+}
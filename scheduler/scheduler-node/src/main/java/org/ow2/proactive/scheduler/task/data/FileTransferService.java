@@ -0,0 +1,133 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+
+import com.google.common.util.concurrent.Striped;
+
+
+/**
+ * File transfer executor shared by the dataspaces of all the tasks running on a node.
+ * <p>
+ * All transfers use a single bounded thread pool, instead of one thread pool per task. Transfers to a
+ * shared destination (the node cache space) are deduplicated: a task asking for a transfer which is already
+ * in progress waits for this transfer instead of starting a new one. Concurrent transfers to the same
+ * destination path are serialized using striped locks, transfers to unrelated paths run in parallel.
+ *
+ * @see TaskProActiveDataspaces
+ */
+public class FileTransferService {
+
+    private static final Logger logger = Logger.getLogger(FileTransferService.class);
+
+    private static final int DESTINATION_LOCK_STRIPES = 256;
+
+    private static FileTransferService instance = null;
+
+    private final ExecutorService executor;
+
+    private final Striped<Lock> destinationLocks = Striped.lazyWeakLock(DESTINATION_LOCK_STRIPES);
+
+    private final ConcurrentMap<String, Future<Boolean>> inFlightTransfers = new ConcurrentHashMap<>();
+
+    FileTransferService(int threadPoolSize) {
+        this.executor = Executors.newFixedThreadPool(threadPoolSize,
+                                                     new NamedThreadFactory("FileTransferThreadPool", true));
+    }
+
+    /**
+     * @param threadPoolSize size of the thread pool, only used when the service is created
+     * @return the file transfer service of this node
+     */
+    static synchronized FileTransferService getInstance(int threadPoolSize) {
+        if (instance == null) {
+            instance = new FileTransferService(threadPoolSize);
+        }
+        return instance;
+    }
+
+    /**
+     * Execute a job which only matters to the task submitting it (e.g. a transfer to its scratch space).
+     */
+    <T> Future<T> submit(Callable<T> job) {
+        return executor.submit(job);
+    }
+
+    /**
+     * Execute a transfer to a destination shared between tasks. If the same transfer is already in progress,
+     * its future is returned instead of starting a new transfer. Such transfers must not be cancelled by
+     * a task, as other tasks may wait for them.
+     *
+     * @param source      URI of the transferred file
+     * @param destination URI of the destination file
+     * @param copy        the transfer itself, executed while holding the lock of the destination path
+     * @return the future of the transfer
+     */
+    Future<Boolean> transfer(String source, String destination, Callable<Boolean> copy) {
+        String transferKey = source + " -> " + destination;
+        FutureTask<Boolean> transfer = new FutureTask<Boolean>(() -> copyLocked(destination, copy)) {
+            @Override
+            protected void done() {
+                inFlightTransfers.remove(transferKey, this);
+            }
+        };
+        Future<Boolean> inFlightTransfer = inFlightTransfers.putIfAbsent(transferKey, transfer);
+        if (inFlightTransfer != null) {
+            logger.debug("Waiting for the transfer in progress of " + transferKey);
+            return inFlightTransfer;
+        }
+        executor.execute(transfer);
+        return transfer;
+    }
+
+    private Boolean copyLocked(String destination, Callable<Boolean> copy) throws Exception {
+        Lock destinationLock = destinationLocks.get(destination);
+        destinationLock.lockInterruptibly();
+        try {
+            return copy.call();
+        } finally {
+            destinationLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of shared transfers in progress
+     */
+    int getInFlightTransfersCount() {
+        return inFlightTransfers.size();
+    }
+}
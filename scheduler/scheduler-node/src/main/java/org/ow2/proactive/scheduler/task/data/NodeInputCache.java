@@ -0,0 +1,352 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.resourcemanager.nodesource.dataspace.DataSpaceNodeConfigurationAgent;
+
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Content-addressed index of the files copied to the cache space of a node.
+ * <p>
+ * Each cached file is recorded with the content key of its source (a digest of the source URI, size and
+ * modification time). When a task asks for a file already cached with the same content key, the copy is
+ * skipped without checking the destination file through the dataspaces API. The index is saved in the
+ * cache directory, so that it survives node restarts.
+ * <p>
+ * When a maximum size is configured, the least recently used files are deleted from the cache once
+ * this size is exceeded. Files used during the last {@link #EVICTION_GRACE_PERIOD_MILLIS} milliseconds are
+ * never deleted, as running tasks may still read them.
+ * <p>
+ * Cache metrics are exposed through JMX, see {@link NodeInputCacheMXBean}.
+ */
+public class NodeInputCache implements NodeInputCacheMXBean {
+
+    private static final Logger logger = Logger.getLogger(NodeInputCache.class);
+
+    public static final String MBEAN_NAME = "ProActiveNode:name=InputCache";
+
+    static final String INDEX_FILE_NAME = ".cache-index";
+
+    static final long EVICTION_GRACE_PERIOD_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String SEPARATOR = "\t";
+
+    private static final Map<String, NodeInputCache> caches = new ConcurrentHashMap<>();
+
+    private final File cacheRoot;
+
+    private final long maxSize;
+
+    // access ordered, the least recently used file comes first
+    private final LinkedHashMap<String, CachedFile> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long cachedBytes;
+
+    private boolean dirty;
+
+    private long hits;
+
+    private long misses;
+
+    private long bytesSaved;
+
+    private long evictions;
+
+    /**
+     * @param cacheRoot local directory of the cache space, or null if the cache space is not on the local
+     *                  file system (cached files cannot be checked then, so every lookup misses, the index is
+     *                  not saved and files are never evicted)
+     * @param maxSize   maximum size of the cache in bytes, 0 if unlimited
+     */
+    NodeInputCache(File cacheRoot, long maxSize) {
+        this.cacheRoot = cacheRoot;
+        this.maxSize = maxSize;
+        load();
+    }
+
+    /**
+     * @param cacheRootPath local path or URI of the cache space
+     * @param maxSize       maximum size of the cache in bytes, 0 if unlimited, only used when the cache is created
+     * @return the cache of the given cache space
+     */
+    static NodeInputCache forCacheRoot(String cacheRootPath, long maxSize) {
+        return caches.computeIfAbsent(cacheRootPath, path -> {
+            File cacheRoot = new File(path);
+            NodeInputCache cache = new NodeInputCache(cacheRoot.isDirectory() ? cacheRoot : null, maxSize);
+            cache.registerMBean(path);
+            return cache;
+        });
+    }
+
+    /**
+     * @return the content key of a source file
+     */
+    static String contentKey(String sourceUri, long size, long lastModifiedTime) {
+        return Hashing.sha1()
+                      .hashString(sourceUri + '\n' + size + '\n' + lastModifiedTime, StandardCharsets.UTF_8)
+                      .toString();
+    }
+
+    /**
+     * Check whether the file of the given content is already cached at the given path.
+     *
+     * @param relativePath path of the file in the cache space
+     * @param contentKey   content key of the source file
+     * @return true if the file does not need to be copied
+     */
+    synchronized boolean lookup(String relativePath, String contentKey) {
+        CachedFile cachedFile = entries.get(relativePath);
+        if (cachedFile != null && cachedFile.contentKey.equals(contentKey) && isPresent(relativePath)) {
+            cachedFile.lastAccess = System.currentTimeMillis();
+            hits++;
+            bytesSaved += cachedFile.size;
+            dirty = true;
+            return true;
+        }
+        if (cachedFile != null) {
+            // outdated, it will be recorded again once copied
+            entries.remove(relativePath);
+            cachedBytes -= cachedFile.size;
+            dirty = true;
+        }
+        misses++;
+        return false;
+    }
+
+    /**
+     * Record a file copied to the cache, evicting older files if the cache is full.
+     *
+     * @param relativePath path of the file in the cache space
+     * @param contentKey   content key of the source file
+     * @param size         size of the file
+     */
+    synchronized void record(String relativePath, String contentKey, long size) {
+        if (relativePath.contains("\n")) {
+            return;
+        }
+        CachedFile previous = entries.put(relativePath,
+                                          new CachedFile(contentKey, size, System.currentTimeMillis()));
+        if (previous != null) {
+            cachedBytes -= previous.size;
+        }
+        cachedBytes += size;
+        dirty = true;
+        evict();
+    }
+
+    private void evict() {
+        if (maxSize <= 0 || cacheRoot == null) {
+            return;
+        }
+        try {
+            // do not delete files while the cache space cleaner deletes them
+            DataSpaceNodeConfigurationAgent.lockCacheSpaceCleaning();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<String, CachedFile>> iterator = entries.entrySet().iterator();
+            while (cachedBytes > maxSize && iterator.hasNext()) {
+                Map.Entry<String, CachedFile> leastRecentlyUsed = iterator.next();
+                if (now - leastRecentlyUsed.getValue().lastAccess < EVICTION_GRACE_PERIOD_MILLIS) {
+                    // every following file was used more recently
+                    break;
+                }
+                File file = new File(cacheRoot, leastRecentlyUsed.getKey());
+                if (!file.exists() || file.delete()) {
+                    logger.info("Evicting " + file + " from the cache space");
+                    iterator.remove();
+                    cachedBytes -= leastRecentlyUsed.getValue().size;
+                    evictions++;
+                }
+            }
+        } finally {
+            DataSpaceNodeConfigurationAgent.unlockCacheSpaceCleaning();
+        }
+    }
+
+    private boolean isPresent(String relativePath) {
+        return cacheRoot != null && new File(cacheRoot, relativePath).isFile();
+    }
+
+    /**
+     * Save the index in the cache directory, if it changed since it was last saved.
+     */
+    synchronized void save() {
+        if (!dirty || cacheRoot == null) {
+            return;
+        }
+        File indexFile = new File(cacheRoot, INDEX_FILE_NAME);
+        File temporaryFile = new File(cacheRoot, INDEX_FILE_NAME + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile.toPath(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, CachedFile> entry : entries.entrySet()) {
+                    CachedFile cachedFile = entry.getValue();
+                    writer.write(entry.getKey() + SEPARATOR + cachedFile.contentKey + SEPARATOR + cachedFile.size +
+                                 SEPARATOR + cachedFile.lastAccess);
+                    writer.newLine();
+                }
+            }
+            Files.move(temporaryFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            logger.warn("Could not save the cache index " + indexFile, e);
+        }
+    }
+
+    private void load() {
+        if (cacheRoot == null) {
+            return;
+        }
+        File indexFile = new File(cacheRoot, INDEX_FILE_NAME);
+        if (!indexFile.isFile()) {
+            return;
+        }
+        List<Map.Entry<String, CachedFile>> loadedEntries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // the path is the only field which may contain the separator
+                int lastAccessStart = line.lastIndexOf(SEPARATOR);
+                int sizeStart = line.lastIndexOf(SEPARATOR, lastAccessStart - 1);
+                int contentKeyStart = line.lastIndexOf(SEPARATOR, sizeStart - 1);
+                if (contentKeyStart <= 0) {
+                    continue;
+                }
+                String path = line.substring(0, contentKeyStart);
+                CachedFile cachedFile = new CachedFile(line.substring(contentKeyStart + 1, sizeStart),
+                                                       Long.parseLong(line.substring(sizeStart + 1, lastAccessStart)),
+                                                       Long.parseLong(line.substring(lastAccessStart + 1)));
+                loadedEntries.add(new AbstractMap.SimpleEntry<>(path, cachedFile));
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read the cache index " + indexFile + ", the cache is considered empty", e);
+            return;
+        }
+        loadedEntries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        for (Map.Entry<String, CachedFile> entry : loadedEntries) {
+            if (isPresent(entry.getKey())) {
+                entries.put(entry.getKey(), entry.getValue());
+                cachedBytes += entry.getValue().size;
+            }
+        }
+        logger.info("Loaded " + entries.size() + " files from the cache index " + indexFile);
+    }
+
+    private void registerMBean(String cacheRootPath) {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME + ",root=" + ObjectName.quote(cacheRootPath));
+            if (!mbs.isRegistered(name)) {
+                mbs.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            logger.warn("Unable to register the input cache mbean", e);
+        }
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized int getCachedFiles() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    @Override
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    private static class CachedFile {
+
+        private final String contentKey;
+
+        private final long size;
+
+        private long lastAccess;
+
+        private CachedFile(String contentKey, long size, long lastAccess) {
+            this.contentKey = contentKey;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+/**
+ * Metrics of the input files cache of a node.
+ *
+ * @see NodeInputCache
+ */
+public interface NodeInputCacheMXBean {
+
+    /**
+     * @return the number of cache transfers skipped as the file was already cached
+     */
+    long getHits();
+
+    /**
+     * @return the number of cache transfers which had to copy the file
+     */
+    long getMisses();
+
+    /**
+     * @return hits divided by the number of cache transfers, 0 if no transfer occurred
+     */
+    double getHitRatio();
+
+    /**
+     * @return the number of bytes which did not have to be transferred thanks to the cache
+     */
+    long getBytesSaved();
+
+    /**
+     * @return the number of files removed from the cache to respect its maximum size
+     */
+    long getEvictions();
+
+    /**
+     * @return the number of files referenced by the cache index
+     */
+    int getCachedFiles();
+
+    /**
+     * @return the size of the files referenced by the cache index
+     */
+    long getCachedBytes();
+
+    /**
+     * @return the maximum size of the cache in bytes, 0 if unlimited
+     */
+    long getMaxSize();
+}
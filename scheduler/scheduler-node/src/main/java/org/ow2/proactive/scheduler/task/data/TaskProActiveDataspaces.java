@@ -31,15 +31,13 @@ import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
@@ -57,7 +55,6 @@ import org.objectweb.proactive.extensions.dataspaces.core.SpaceInstanceInfo;
 import org.objectweb.proactive.extensions.dataspaces.core.naming.NamingService;
 import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
 import org.objectweb.proactive.extensions.dataspaces.exceptions.SpaceAlreadyRegisteredException;
-import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.objectweb.proactive.utils.OperatingSystem;
 import org.objectweb.proactive.utils.StackTraceUtil;
 import org.ow2.proactive.authentication.crypto.CredData;
@@ -78,6 +75,10 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
     public static final String PA_NODE_DATASPACE_CREATE_FOLDER_HIERARCHY_SEQUENTIALLY = "pa.node.dataspace.create_folder_hierarchy_sequentially";
 
+    public static final String PA_NODE_DATASPACE_CACHE_INDEX = "pa.node.dataspace.cache.index";
+
+    public static final String PA_NODE_DATASPACE_CACHE_MAX_SIZE = "pa.node.dataspace.cache.maxsize";
+
     private transient DataSpacesFileObject SCRATCH;
 
     private transient DataSpacesFileObject CACHE;
@@ -98,12 +99,13 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
     private boolean linuxOS;
 
-    private static transient ReentrantLock cacheTransferLock = new ReentrantLock();
-
     private SpaceInstanceInfo cacheSpaceInstanceInfo;
 
-    private transient ExecutorService executorTransfer = Executors.newFixedThreadPool(getFileTransferThreadPoolSize(),
-                                                                                      new NamedThreadFactory("FileTransferThreadPool"));
+    private transient FileTransferService fileTransferService = FileTransferService.getInstance(getFileTransferThreadPoolSize());
+
+    private transient NodeInputCache inputCache;
+
+    private final transient List<Future<?>> taskTransfers = Collections.synchronizedList(new ArrayList<Future<?>>());
 
     private transient TaskLogger taskLogger;
 
@@ -470,26 +472,29 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         boolean cacheTransferPresent = !inputSpaceCacheFiles.isEmpty() || !outputSpaceCacheFiles.isEmpty() ||
                                        !globalSpaceCacheFiles.isEmpty() || !userSpaceCacheFiles.isEmpty();
         if (cacheTransferPresent && CACHE != null) {
-            cacheTransferLock.lockInterruptibly();
-            try {
-
-                Map<String, DataSpacesFileObject> filesToCopyToCache = createFolderHierarchySequentially(CACHE,
-                                                                                                         inputSpaceUri,
-                                                                                                         inputSpaceCacheFiles,
-                                                                                                         outputSpaceUri,
-                                                                                                         outputSpaceCacheFiles,
-                                                                                                         globalSpaceUri,
-                                                                                                         globalSpaceCacheFiles,
-                                                                                                         userSpaceUri,
-                                                                                                         userSpaceCacheFiles);
+            // cache transfers are shared with the other tasks of the node, see FileTransferService
+            Map<String, DataSpacesFileObject> filesToCopyToCache = createFolderHierarchySequentially(CACHE,
+                                                                                                     inputSpaceUri,
+                                                                                                     inputSpaceCacheFiles,
+                                                                                                     outputSpaceUri,
+                                                                                                     outputSpaceCacheFiles,
+                                                                                                     globalSpaceUri,
+                                                                                                     globalSpaceCacheFiles,
+                                                                                                     userSpaceUri,
+                                                                                                     userSpaceCacheFiles);
+
+            if (isInputCacheEnabled()) {
+                inputCache = NodeInputCache.forCacheRoot(getCacheURI(), getInputCacheMaxSize());
+            }
 
-                long startTime = System.currentTimeMillis();
-                List<Future<Boolean>> transferFuturesCache = doCopyInputDataToSpace(CACHE, filesToCopyToCache);
+            long startTime = System.currentTimeMillis();
+            List<Future<Boolean>> transferFuturesCache = doCopyInputDataToSpace(CACHE, filesToCopyToCache);
 
+            try {
                 handleResultsWhileTransferringFile(transferFuturesCache, "CACHE", startTime);
             } finally {
-                if (cacheTransferPresent) {
-                    cacheTransferLock.unlock();
+                if (inputCache != null) {
+                    inputCache.save();
                 }
             }
         } else if (cacheTransferPresent) {
@@ -607,6 +612,26 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         }
     }
 
+    protected boolean isInputCacheEnabled() {
+        String property = System.getProperty(PA_NODE_DATASPACE_CACHE_INDEX);
+
+        return property == null || "true".equalsIgnoreCase(property);
+    }
+
+    protected long getInputCacheMaxSize() {
+        String maxSizeAsString = System.getProperty(PA_NODE_DATASPACE_CACHE_MAX_SIZE);
+
+        if (maxSizeAsString != null) {
+            try {
+                return Long.parseLong(maxSizeAsString);
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value set for property '" + PA_NODE_DATASPACE_CACHE_MAX_SIZE + "': " +
+                            maxSizeAsString);
+            }
+        }
+        return 0;
+    }
+
     protected boolean isCreateFolderHierarchySequentiallyEnabled() {
         String property = System.getProperty(PA_NODE_DATASPACE_CREATE_FOLDER_HIERARCHY_SEQUENTIALLY);
 
@@ -790,46 +815,93 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
         logger.debug("------------ resolving " + destinationRelativeToBase);
 
-        return executorTransfer.submit(new Callable<Boolean>() {
+        Callable<Boolean> copy = new Callable<Boolean>() {
             @Override
             public Boolean call() throws FileSystemException {
-
-                DataSpacesFileObject target = destinationBase.resolveFile(destinationRelativeToBase);
-
-                target.refresh();
-                if (!target.exists()) {
-                    logger.info("Copying " + source.getRealURI() + " to " + destinationBase.getRealURI() + "/" +
-                                destinationRelativeToBase);
-                    target.copyFrom(source, FileSelector.SELECT_SELF);
-                } else if (source.getContent().getLastModifiedTime() > target.getContent().getLastModifiedTime()) {
-                    logger.info("Copying " + source.getRealURI() + " to " + destinationBase.getRealURI() + "/" +
-                                destinationRelativeToBase + " (newer version)");
-                    target.copyFrom(source, FileSelector.SELECT_SELF);
+                if (destinationBase == CACHE && inputCache != null) {
+                    copyFileToCache(source, destinationRelativeToBase, isInputFile);
                 } else {
-                    logger.debug("Destination file " + target.getRealURI() + " is already present and newer.");
-                }
-
-                target.refresh();
-                if (!target.exists()) {
-                    String message = "There was a problem during the copy of " + source.getRealURI() + " to " +
-                                     target.getRealURI() + ". File not present after copy.";
-                    logger.error(message);
-                    logDataspacesStatus(message, DataspacesStatusLevel.ERROR);
-                } else {
-                    if (isInputFile) {
-                        setFileRightsForRunAsUserMode(target);
-                    }
+                    copyFile(source, destinationBase, destinationRelativeToBase, isInputFile);
                 }
                 return true;
             }
-        });
+        };
+
+        if (destinationBase == CACHE) {
+            return fileTransferService.transfer(source.getRealURI(),
+                                                destinationBase.getRealURI() + "/" + destinationRelativeToBase,
+                                                copy);
+        }
+        return submitTaskTransfer(copy);
+    }
+
+    /**
+     * Copy a file to the cache space, unless the input cache knows that the same content is already cached.
+     * On a cache hit, the cached file is not checked through the dataspaces API.
+     */
+    private void copyFileToCache(DataSpacesFileObject source, String destinationRelativeToBase,
+            boolean isInputFile) throws FileSystemException {
+        long size = source.getContent().getSize();
+        String contentKey = NodeInputCache.contentKey(source.getRealURI(),
+                                                      size,
+                                                      source.getContent().getLastModifiedTime());
+        if (inputCache.lookup(destinationRelativeToBase, contentKey)) {
+            logger.debug("Cached file " + destinationRelativeToBase + " is up to date with " + source.getRealURI());
+            return;
+        }
+        if (copyFile(source, CACHE, destinationRelativeToBase, isInputFile)) {
+            inputCache.record(destinationRelativeToBase, contentKey, size);
+        }
+    }
+
+    /**
+     * Copy a file if it is not present at the destination or if the source is newer.
+     *
+     * @return true if the file is present at the destination after the copy
+     */
+    private boolean copyFile(DataSpacesFileObject source, DataSpacesFileObject destinationBase,
+            String destinationRelativeToBase, boolean isInputFile) throws FileSystemException {
+
+        DataSpacesFileObject target = destinationBase.resolveFile(destinationRelativeToBase);
+
+        target.refresh();
+        if (!target.exists()) {
+            logger.info("Copying " + source.getRealURI() + " to " + destinationBase.getRealURI() + "/" +
+                        destinationRelativeToBase);
+            target.copyFrom(source, FileSelector.SELECT_SELF);
+        } else if (source.getContent().getLastModifiedTime() > target.getContent().getLastModifiedTime()) {
+            logger.info("Copying " + source.getRealURI() + " to " + destinationBase.getRealURI() + "/" +
+                        destinationRelativeToBase + " (newer version)");
+            target.copyFrom(source, FileSelector.SELECT_SELF);
+        } else {
+            logger.debug("Destination file " + target.getRealURI() + " is already present and newer.");
+        }
+
+        target.refresh();
+        if (!target.exists()) {
+            String message = "There was a problem during the copy of " + source.getRealURI() + " to " +
+                             target.getRealURI() + ". File not present after copy.";
+            logger.error(message);
+            logDataspacesStatus(message, DataspacesStatusLevel.ERROR);
+            return false;
+        }
+        if (isInputFile) {
+            setFileRightsForRunAsUserMode(target);
+        }
+        return true;
+    }
+
+    private <T> Future<T> submitTaskTransfer(Callable<T> job) {
+        Future<T> future = fileTransferService.submit(job);
+        taskTransfers.add(future);
+        return future;
     }
 
     private Future<List<DataSpacesFileObject>> findFilesToCopyFromInput(final DataSpacesFileObject space,
             final String spaceName, final InputSelector inputSelector,
             final org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector) {
 
-        return executorTransfer.submit(new Callable<List<DataSpacesFileObject>>() {
+        return submitTaskTransfer(new Callable<List<DataSpacesFileObject>>() {
             @Override
             public List<DataSpacesFileObject> call() throws Exception {
                 List<DataSpacesFileObject> results = new ArrayList<>();
@@ -958,7 +1030,16 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
     @Override
     public void close() {
-        if (!executorTransfer.shutdownNow().isEmpty()) {
+        int cancelledTransfers = 0;
+        synchronized (taskTransfers) {
+            for (Future<?> transfer : taskTransfers) {
+                if (transfer.cancel(true)) {
+                    cancelledTransfers++;
+                }
+            }
+            taskTransfers.clear();
+        }
+        if (cancelledTransfers > 0) {
             String message = "Remaining tasks to execute while closing thread pool used for data transfer";
             logger.error(message);
             logDataspacesStatus(message, DataspacesStatusLevel.ERROR);
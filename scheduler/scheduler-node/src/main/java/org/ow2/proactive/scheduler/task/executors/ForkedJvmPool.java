@@ -0,0 +1,191 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.extensions.processbuilder.OSProcessBuilder;
+import org.ow2.proactive.scheduler.common.SchedulerConstants;
+import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTaskInsideNewJvm;
+
+
+/**
+ * Pool of forked JVMs kept alive between tasks, so that forked tasks do not pay the start-up
+ * of a new JVM (class loading, JIT warm-up, script engines initialization) each time they run.
+ * <p>
+ * Pooled JVMs are grouped by job owner and command line: a task only reuses a JVM started for a task of the
+ * same user, with the same java home, JVM arguments and classpath. Only tasks which do not customize the process
+ * itself (fork environment script, system environment variables, pre-java command, runAsMe mode) and which let
+ * their child processes be killed at the end of the task can be executed in a pooled JVM.
+ * <p>
+ * A pooled JVM executes each task with the task working directory as {@code user.dir} and loads the task
+ * classes from this directory, see {@link ExecuteForkedTaskInsideNewJvm#POOLED_MODE}.
+ * A JVM is retired after {@link PASchedulerProperties#TASK_FORK_POOL_MAX_TASKS} tasks or as soon as a task
+ * fails in an unexpected way, as tasks may leave static state behind them.
+ * <p>
+ * The pool is disabled unless {@link PASchedulerProperties#TASK_FORK_POOL_SIZE} is set.
+ *
+ * @see PooledForkedJvm
+ */
+public class ForkedJvmPool {
+
+    private static final Logger logger = Logger.getLogger(ForkedJvmPool.class);
+
+    private static ForkedJvmPool instance = null;
+
+    private final int maxIdleJvms;
+
+    private final int maxTasksPerJvm;
+
+    private final Map<String, Deque<PooledForkedJvm>> idleJvms = new HashMap<>();
+
+    private final AtomicInteger startedJvms = new AtomicInteger();
+
+    private final File workingDir = new File(System.getProperty("java.io.tmpdir"));
+
+    private int idleJvmsCount;
+
+    ForkedJvmPool(int maxIdleJvms, int maxTasksPerJvm) {
+        this.maxIdleJvms = maxIdleJvms;
+        this.maxTasksPerJvm = maxTasksPerJvm;
+    }
+
+    public static synchronized ForkedJvmPool getInstance() {
+        if (instance == null) {
+            instance = new ForkedJvmPool(PASchedulerProperties.TASK_FORK_POOL_SIZE.getValueAsInt(),
+                                         PASchedulerProperties.TASK_FORK_POOL_MAX_TASKS.getValueAsInt());
+            if (instance.maxIdleJvms > 0) {
+                Runtime.getRuntime().addShutdownHook(new Thread(instance::shutdown, "ForkedJvmPool shutdown"));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param context the context of a forked task
+     * @return true if the task can be executed in a pooled JVM
+     */
+    public boolean accepts(TaskContext context) {
+        if (maxIdleJvms <= 0 || context.isRunAsUser()) {
+            return false;
+        }
+        Map<String, String> genericInformation = context.getInitializer().getGenericInformation();
+        if (genericInformation != null) {
+            if ("true".equalsIgnoreCase(genericInformation.get(SchedulerConstants.DISABLE_FORKED_JVM_POOL_GENERIC_INFO))) {
+                return false;
+            }
+            // processes started by the task must outlive it, only the termination of its own JVM allows that
+            if ("true".equalsIgnoreCase(genericInformation.get(SchedulerConstants.DISABLE_PROCESS_TREE_KILLER_GENERIC_INFO))) {
+                return false;
+            }
+        }
+        ForkEnvironment forkEnvironment = context.getInitializer().getForkEnvironment();
+        return forkEnvironment == null ||
+               (forkEnvironment.getEnvScript() == null && forkEnvironment.getSystemEnvironment().isEmpty() &&
+                forkEnvironment.getPreJavaCommand().isEmpty() && !forkEnvironment.isDockerWindowsToLinux());
+    }
+
+    /**
+     * Take an idle JVM able to execute the given task, or start a new one if none is available.
+     *
+     * @param context the task to execute
+     * @param processBuilderCreator creator of the pooled JVM command line
+     * @return a JVM which must be given back using {@link #release(PooledForkedJvm, boolean)}
+     * @throws Exception if a new JVM cannot be started
+     */
+    PooledForkedJvm acquire(TaskContext context, ForkedProcessBuilderCreator processBuilderCreator) throws Exception {
+        OSProcessBuilder processBuilder = processBuilderCreator.createPooledForkedProcessBuilder(context, workingDir);
+        // tasks of different users must not share the static state of a JVM
+        String key = context.getInitializer().getJobOwner() + "\u0000" +
+                     String.join("\u0000", processBuilder.command());
+        synchronized (this) {
+            Deque<PooledForkedJvm> candidates = idleJvms.get(key);
+            while (candidates != null && !candidates.isEmpty()) {
+                PooledForkedJvm jvm = candidates.pollFirst();
+                idleJvmsCount--;
+                if (jvm.isAlive()) {
+                    logger.debug("Reusing pooled forked JVM " + jvm.getName());
+                    return jvm;
+                }
+                jvm.destroy();
+            }
+        }
+        String name = "ForkedJvmPool" + startedJvms.incrementAndGet();
+        logger.info("Starting pooled forked JVM " + name);
+        return new PooledForkedJvm(key, name, processBuilder);
+    }
+
+    /**
+     * Give back a JVM after a task execution. The JVM is kept for a later task if it is reusable,
+     * did not reach the maximum number of tasks and the pool is not full, otherwise it is destroyed.
+     *
+     * @param jvm the JVM which executed a task
+     * @param reusable false if the task execution went wrong
+     */
+    void release(PooledForkedJvm jvm, boolean reusable) {
+        if (reusable && jvm.isAlive() && jvm.getExecutedTasks() < maxTasksPerJvm) {
+            synchronized (this) {
+                if (idleJvmsCount < maxIdleJvms) {
+                    idleJvms.computeIfAbsent(jvm.getKey(), key -> new ArrayDeque<>()).addFirst(jvm);
+                    idleJvmsCount++;
+                    return;
+                }
+            }
+        }
+        jvm.destroy();
+    }
+
+    /**
+     * @return the number of JVMs waiting for a task
+     */
+    public synchronized int getIdleJvmsCount() {
+        return idleJvmsCount;
+    }
+
+    /**
+     * Destroy every idle JVM.
+     */
+    public void shutdown() {
+        List<PooledForkedJvm> jvms = new ArrayList<>();
+        synchronized (this) {
+            idleJvms.values().forEach(jvms::addAll);
+            idleJvms.clear();
+            idleJvmsCount = 0;
+        }
+        jvms.forEach(PooledForkedJvm::destroy);
+    }
+}
@@ -35,6 +35,7 @@ import org.objectweb.proactive.extensions.processbuilder.OSProcessBuilder;
 import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
 import org.ow2.proactive.scheduler.task.context.TaskContext;
 import org.ow2.proactive.scheduler.task.context.TaskContextVariableExtractor;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTaskInsideNewJvm;
 import org.ow2.proactive.scheduler.task.executors.forked.env.ForkedJvmTaskExecutionCommandCreator;
 import org.ow2.proactive.scheduler.task.utils.ForkerUtils;
 import org.ow2.proactive.scripting.ScriptResult;
@@ -63,6 +64,22 @@ public class ForkedProcessBuilderCreator implements Serializable {
      */
     public OSProcessBuilder createForkedProcessBuilder(TaskContext context, File serializedContext,
             PrintStream outputSink, PrintStream errorSink, File workingDir) throws Exception {
+        return createForkedProcessBuilder(context,
+                                          serializedContext.getAbsolutePath(),
+                                          outputSink,
+                                          errorSink,
+                                          workingDir);
+    }
+
+    /**
+     * Same as {@link #createForkedProcessBuilder(TaskContext, File, PrintStream, PrintStream, File)}, the forked JVM
+     * receiving the given argument instead of the path of a serialized context.
+     *
+     * @param taskArgument the path of the serialized context or {@link ExecuteForkedTaskInsideNewJvm#CHANNEL_MODE}
+     * @see ExecuteForkedTaskInsideNewJvm#CHANNEL_MODE
+     */
+    public OSProcessBuilder createForkedProcessBuilder(TaskContext context, String taskArgument,
+            PrintStream outputSink, PrintStream errorSink, File workingDir) throws Exception {
 
         String nativeScriptPath = context.getSchedulerHome();
 
@@ -76,12 +93,34 @@ public class ForkedProcessBuilderCreator implements Serializable {
         processBuilder.command()
                       .addAll(forkedJvmTaskExecutionCommandCreator.createForkedJvmTaskExecutionCommand(context,
                                                                                                        forkEnvironmentScriptResult,
-                                                                                                       serializedContext.getAbsolutePath()));
+                                                                                                       taskArgument));
 
         processBuilder = processBuilder.directory(workingDir);
         return processBuilder;
     }
 
+    /**
+     * Creates a process builder starting a pooled JVM, able to execute tasks which share the command line
+     * of the given task context. The task must not need a fork environment script, system environment
+     * variables or a pre-java command, and must not be executed in runAsMe mode.
+     *
+     * @param context    A task context which can be executed by the pooled JVM.
+     * @param workingDir The working directory of the pooled JVM.
+     * @return Returns a process builder, ready to execute.
+     * @throws Exception
+     * @see ExecuteForkedTaskInsideNewJvm#POOLED_MODE
+     */
+    public OSProcessBuilder createPooledForkedProcessBuilder(TaskContext context, File workingDir) throws Exception {
+        OSProcessBuilder processBuilder = getOsProcessBuilder(context, workingDir, context.getSchedulerHome());
+
+        processBuilder.command()
+                      .addAll(forkedJvmTaskExecutionCommandCreator.createForkedJvmTaskExecutionCommand(context,
+                                                                                                       null,
+                                                                                                       ExecuteForkedTaskInsideNewJvm.POOLED_MODE));
+
+        return processBuilder.directory(workingDir);
+    }
+
     private ScriptResult executeForkEnvironmentScriptAndExtractVariables(TaskContext context, PrintStream outputSink,
             PrintStream errorSink, OSProcessBuilder processBuilder) throws Exception {
         ScriptResult forkEnvironmentScriptResult = null;
@@ -28,21 +28,26 @@ package org.ow2.proactive.scheduler.task.executors;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.ObjectInputStream;
 import java.io.PrintStream;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.extensions.processbuilder.OSProcessBuilder;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
+import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
 import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scheduler.task.context.TaskContext;
 import org.ow2.proactive.scheduler.task.context.TaskContextSerializer;
 import org.ow2.proactive.scheduler.task.context.TaskContextVariableExtractor;
 import org.ow2.proactive.scheduler.task.exceptions.ForkedJvmProcessException;
 import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTaskInsideNewJvm;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ForkedTaskChannel;
 import org.ow2.proactive.scheduler.task.utils.ProcessStreamsReader;
 import org.ow2.proactive.scheduler.task.utils.task.termination.CleanupTimeoutGetter;
 import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
@@ -62,6 +67,8 @@ public class ForkedTaskExecutor implements TaskExecutor {
 
     private final TaskContextSerializer taskContextSerializer = new TaskContextSerializer();
 
+    private final ForkedJvmPool forkedJvmPool = ForkedJvmPool.getInstance();
+
     private final File workingDir;
 
     public ForkedTaskExecutor(File workingDir) {
@@ -70,22 +77,38 @@ public class ForkedTaskExecutor implements TaskExecutor {
 
     @Override
     public TaskResultImpl execute(TaskContext context, PrintStream outputSink, PrintStream errorSink) {
+        if (forkedJvmPool.accepts(context)) {
+            return executeInPooledJvm(context, outputSink, errorSink);
+        }
+
         CookieBasedProcessTreeKiller taskProcessTreeKiller = null;
         Process process = null;
         ProcessStreamsReader processStreamsReader = null;
+        ForkedTaskChannel channel = null;
         File serializedContext = null;
 
         try {
             if (!workingDir.exists()) {
                 FileUtils.forceMkdir(workingDir);
             }
-            serializedContext = taskContextSerializer.serializeContext(context, workingDir);
 
-            OSProcessBuilder processBuilder = forkedJvmProcessBuilderCreator.createForkedProcessBuilder(context,
-                                                                                                        serializedContext,
-                                                                                                        outputSink,
-                                                                                                        errorSink,
-                                                                                                        workingDir);
+            OSProcessBuilder processBuilder;
+            if (usesChannel(context)) {
+                channel = ForkedTaskChannel.open();
+                processBuilder = forkedJvmProcessBuilderCreator.createForkedProcessBuilder(context,
+                                                                                           ExecuteForkedTaskInsideNewJvm.CHANNEL_MODE,
+                                                                                           outputSink,
+                                                                                           errorSink,
+                                                                                           workingDir);
+                processBuilder.environment().put(ForkedTaskChannel.ADDRESS_VARIABLE, channel.getAddress());
+            } else {
+                serializedContext = taskContextSerializer.serializeContext(context, workingDir);
+                processBuilder = forkedJvmProcessBuilderCreator.createForkedProcessBuilder(context,
+                                                                                           serializedContext,
+                                                                                           outputSink,
+                                                                                           errorSink,
+                                                                                           workingDir);
+            }
 
             TaskId taskId = context.getTaskId();
 
@@ -101,29 +124,35 @@ public class ForkedTaskExecutor implements TaskExecutor {
             process = processBuilder.start();
             processStreamsReader = new ProcessStreamsReader(taskId.toString(), process, outputSink, errorSink);
 
+            Object result = null;
+            if (channel != null) {
+                result = exchangeThroughChannel(channel, context, process::isAlive);
+            }
+
             int exitCode = process.waitFor();
 
-            if (exitCode != 0) {
+            if (channel == null) {
                 try {
-                    Object error = deserializeTaskResult(serializedContext);
-                    if (error instanceof TaskContext) {
-                        return createTaskResult(context,
-                                                new IOException("Forked JVM process returned with exit code " +
-                                                                exitCode + ", see task logs for more information"));
-                    } else {
-                        Throwable exception = (Throwable) error;
-                        return createTaskResult(context, exception);
-                    }
+                    result = deserializeTaskResult(serializedContext);
                 } catch (Throwable cannotDeserializeResult) {
                     return createTaskResult(context, cannotDeserializeResult);
                 }
             }
 
-            return (TaskResultImpl) deserializeTaskResult(serializedContext);
+            if (exitCode != 0 || !(result instanceof TaskResultImpl)) {
+                return createTaskResultFromFailedExecution(context,
+                                                           result,
+                                                           "Forked JVM process returned with exit code " + exitCode);
+            }
+
+            return (TaskResultImpl) result;
         } catch (Throwable throwable) {
             return createTaskResult(context, throwable);
         } finally {
             FileUtils.deleteQuietly(serializedContext);
+            if (channel != null) {
+                channel.close();
+            }
 
             if (process != null) {
                 logger.info("killing forked JVM process");
@@ -145,6 +174,106 @@ public class ForkedTaskExecutor implements TaskExecutor {
         }
     }
 
+    /**
+     * Same as {@link #execute(TaskContext, PrintStream, PrintStream)}, in a JVM taken from the {@link ForkedJvmPool}.
+     * The JVM is given back to the pool once the task is executed, unless the task did not return a result.
+     */
+    private TaskResultImpl executeInPooledJvm(TaskContext context, PrintStream outputSink, PrintStream errorSink) {
+        PooledForkedJvm jvm = null;
+        boolean reusable = false;
+        ForkedTaskChannel channel = null;
+        File serializedContext = null;
+
+        try {
+            if (!workingDir.exists()) {
+                FileUtils.forceMkdir(workingDir);
+            }
+
+            jvm = forkedJvmPool.acquire(context, forkedJvmProcessBuilderCreator);
+
+            Object result = null;
+            if (usesChannel(context)) {
+                channel = ForkedTaskChannel.open();
+                jvm.submit(workingDir, channel.getAddress(), outputSink, errorSink);
+                result = exchangeThroughChannel(channel, context, jvm::isAlive);
+            } else {
+                serializedContext = taskContextSerializer.serializeContext(context, workingDir);
+                jvm.submit(workingDir, serializedContext.getAbsolutePath(), outputSink, errorSink);
+            }
+
+            boolean executed = jvm.awaitTaskEnd();
+
+            if (channel == null) {
+                try {
+                    result = deserializeTaskResult(serializedContext);
+                } catch (Throwable cannotDeserializeResult) {
+                    return createTaskResult(context, cannotDeserializeResult);
+                }
+            }
+
+            if (!executed) {
+                return createTaskResultFromFailedExecution(context,
+                                                           result,
+                                                           "Forked JVM process returned with exit code " +
+                                                                   jvm.waitForExitCode());
+            }
+            if (result instanceof TaskResultImpl) {
+                reusable = true;
+                return (TaskResultImpl) result;
+            }
+            return createTaskResultFromFailedExecution(context, result, "Forked JVM did not return a task result");
+        } catch (Throwable throwable) {
+            return createTaskResult(context, throwable);
+        } finally {
+            FileUtils.deleteQuietly(serializedContext);
+            if (channel != null) {
+                channel.close();
+            }
+            if (jvm != null) {
+                forkedJvmPool.release(jvm, reusable);
+            }
+        }
+    }
+
+    private boolean usesChannel(TaskContext context) {
+        // the JVM of a runAsMe task is started by another user, it reads its context from a shared file
+        if (context.isRunAsUser() || !PASchedulerProperties.TASK_FORK_CHANNEL.getValueAsBoolean()) {
+            return false;
+        }
+        // a JVM started through a pre java command (e.g. inside a container) may neither inherit the channel
+        // address nor reach the loopback interface of the node, it reads its context from the working directory
+        ForkEnvironment forkEnvironment = context.getInitializer().getForkEnvironment();
+        return forkEnvironment == null ||
+               (forkEnvironment.getEnvScript() == null && forkEnvironment.getPreJavaCommand().isEmpty() &&
+                !forkEnvironment.isDockerWindowsToLinux());
+    }
+
+    /**
+     * Send the context of the task through the channel and wait for its result.
+     *
+     * @return the task result, the throwable which prevented the task execution, or null if the forked JVM
+     * terminated without returning anything
+     */
+    private Object exchangeThroughChannel(ForkedTaskChannel channel, TaskContext context, BooleanSupplier jvmAlive)
+            throws ClassNotFoundException, InterruptedException {
+        try {
+            channel.sendContext(context, jvmAlive);
+            return channel.receiveResult();
+        } catch (InterruptedIOException e) {
+            throw new InterruptedException(e.getMessage());
+        } catch (IOException e) {
+            logger.warn("Could not exchange task context and result with the forked JVM", e);
+            return null;
+        }
+    }
+
+    private TaskResultImpl createTaskResultFromFailedExecution(TaskContext context, Object error, String failure) {
+        if (error instanceof Throwable) {
+            return createTaskResult(context, (Throwable) error);
+        }
+        return createTaskResult(context, new IOException(failure + ", see task logs for more information"));
+    }
+
     private TaskResultImpl createTaskResult(TaskContext context, Throwable throwable) {
         TaskResultImpl result = new TaskResultImpl(context.getTaskId(),
                                                    new ForkedJvmProcessException("Failed to execute task in a forked JVM",
@@ -0,0 +1,246 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.extensions.processbuilder.OSProcessBuilder;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTaskInsideNewJvm;
+import org.ow2.proactive.scheduler.task.utils.task.termination.CleanupTimeoutGetter;
+import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
+
+
+/**
+ * A forked JVM started in pooled mode, which executes tasks one after the other.
+ * <p>
+ * The working directory of each task and a reference to the task, the address of its channel or the path of its
+ * serialized context, are written on the standard input of the JVM. The output of the JVM is forwarded to the sinks of the running task
+ * until the end marker of this task is read on both streams.
+ *
+ * @see ExecuteForkedTaskInsideNewJvm#POOLED_MODE
+ * @see ForkedJvmPool
+ */
+class PooledForkedJvm {
+
+    private static final Logger logger = Logger.getLogger(PooledForkedJvm.class);
+
+    private final String key;
+
+    private final String name;
+
+    private final Process process;
+
+    private final CookieBasedProcessTreeKiller processTreeKiller;
+
+    private final BufferedWriter commands;
+
+    private final TaskOutputPump outputPump;
+
+    private final TaskOutputPump errorPump;
+
+    private int executedTasks;
+
+    private CountDownLatch taskEnd;
+
+    PooledForkedJvm(String key, String name, OSProcessBuilder processBuilder) throws IOException {
+        this.key = key;
+        this.name = name;
+        this.processTreeKiller = CookieBasedProcessTreeKiller.createProcessChildrenKiller(name,
+                                                                                          processBuilder.environment());
+        this.process = processBuilder.start();
+        this.commands = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+        this.outputPump = new TaskOutputPump(process.getInputStream());
+        this.errorPump = new TaskOutputPump(process.getErrorStream());
+        startPump(outputPump, name + " stdout");
+        startPump(errorPump, name + " stderr");
+    }
+
+    private static void startPump(TaskOutputPump pump, String threadName) {
+        Thread thread = new Thread(pump, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Send a task to the JVM, its output is forwarded to the given sinks until the end of the task.
+     *
+     * @param workingDir    working directory of the task
+     * @param taskReference the address of the task channel or the path of the serialized task context
+     * @param outputSink    standard output of the task
+     * @param errorSink     error output of the task
+     * @throws IOException if the task cannot be sent to the JVM
+     */
+    void submit(File workingDir, String taskReference, PrintStream outputSink, PrintStream errorSink)
+            throws IOException {
+        String endMarker = ExecuteForkedTaskInsideNewJvm.TASK_END_MARKER + taskReference;
+        taskEnd = new CountDownLatch(2);
+        outputPump.startTask(outputSink, endMarker, taskEnd);
+        errorPump.startTask(errorSink, endMarker, taskEnd);
+        executedTasks++;
+
+        commands.write(workingDir.getAbsolutePath());
+        commands.newLine();
+        commands.write(taskReference);
+        commands.newLine();
+        commands.flush();
+    }
+
+    /**
+     * Wait for the end of the task submitted last, once its whole output has been forwarded.
+     *
+     * @return true if the task was executed, false if the JVM exited before the end of the task
+     * @throws InterruptedException if interrupted while waiting for the task termination
+     */
+    boolean awaitTaskEnd() throws InterruptedException {
+        taskEnd.await();
+        return outputPump.isTaskEnded() && errorPump.isTaskEnded();
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getExecutedTasks() {
+        return executedTasks;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * @return the exit code of the JVM, waiting for its termination if needed
+     */
+    int waitForExitCode() throws InterruptedException {
+        return process.waitFor();
+    }
+
+    /**
+     * Terminate the JVM and the processes it started.
+     */
+    void destroy() {
+        logger.info("killing pooled forked JVM process " + name);
+        process.destroy();
+        try {
+            process.waitFor((new CleanupTimeoutGetter()).getCleanupTimeSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        processTreeKiller.kill();
+    }
+
+    /**
+     * Forwards one output stream of the JVM to the sink of the running task, until the end marker
+     * of the task is read. Lines printed by the JVM between two tasks are only logged.
+     */
+    private static class TaskOutputPump implements Runnable {
+
+        private final BufferedReader reader;
+
+        private PrintStream sink;
+
+        private String endMarker;
+
+        private CountDownLatch taskEnd;
+
+        private boolean taskEnded;
+
+        private boolean closed;
+
+        private TaskOutputPump(InputStream stream) {
+            this.reader = new BufferedReader(new InputStreamReader(stream));
+        }
+
+        @Override
+        public void run() {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    forward(line);
+                }
+            } catch (IOException e) {
+                logger.debug("Pooled forked JVM stream closed", e);
+            } finally {
+                close();
+            }
+        }
+
+        synchronized void startTask(PrintStream sink, String endMarker, CountDownLatch taskEnd) {
+            this.sink = sink;
+            this.endMarker = endMarker;
+            this.taskEnd = taskEnd;
+            this.taskEnded = false;
+            if (closed) {
+                taskEnd.countDown();
+            }
+        }
+
+        synchronized boolean isTaskEnded() {
+            return taskEnded;
+        }
+
+        private synchronized void forward(String line) {
+            if (endMarker != null && line.endsWith(endMarker)) {
+                String lastLine = line.substring(0, line.length() - endMarker.length());
+                if (!lastLine.isEmpty()) {
+                    sink.println(lastLine);
+                }
+                sink.flush();
+                sink = null;
+                endMarker = null;
+                taskEnded = true;
+                taskEnd.countDown();
+            } else if (sink != null) {
+                sink.println(line);
+            } else {
+                logger.debug(line);
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            if (endMarker != null) {
+                endMarker = null;
+                sink = null;
+                taskEnd.countDown();
+            }
+        }
+    }
+}
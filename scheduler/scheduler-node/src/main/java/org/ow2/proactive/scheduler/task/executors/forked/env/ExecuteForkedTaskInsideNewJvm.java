@@ -26,12 +26,15 @@
 package org.ow2.proactive.scheduler.task.executors.forked.env;
 
 import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.security.Policy;
 
 import org.apache.commons.io.FileUtils;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scheduler.task.context.TaskContext;
 import org.ow2.proactive.scheduler.task.executors.InProcessTaskExecutor;
+import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
 
 
 public class ExecuteForkedTaskInsideNewJvm {
@@ -42,6 +45,30 @@ public class ExecuteForkedTaskInsideNewJvm {
 
     public static final String CONTEXT_FILE = "Context file ";
 
+    /**
+     * Argument given instead of the context path to start a pooled JVM, which reads the tasks to execute from
+     * its standard input until an empty line or the end of the input. Each task is given on two lines, the working
+     * directory of the task followed by its context path or channel address. The task is executed with its working
+     * directory as {@code user.dir} and loads its classes from this directory, the processes it starts are killed
+     * once it is terminated.
+     */
+    public static final String POOLED_MODE = "--pooled";
+
+    /**
+     * Argument given instead of the context path to exchange the context and the result of the task through
+     * the {@link ForkedTaskChannel} whose address is given by the {@link ForkedTaskChannel#ADDRESS_VARIABLE}
+     * environment variable.
+     */
+    public static final String CHANNEL_MODE = "--channel";
+
+    /**
+     * Line printed by a pooled JVM on its standard output and error streams, followed by the task reference,
+     * once the result of a task has been written and its output flushed.
+     */
+    public static final String TASK_END_MARKER = "#forked-task-end#";
+
+    private static final String POOLED_TASK_COOKIE_SUFFIX = "PooledTask";
+
     private ExecuteForkedTaskInsideNewJvm() {
 
     }
@@ -125,7 +152,13 @@ public class ExecuteForkedTaskInsideNewJvm {
 
         ExecuteForkedTaskInsideNewJvm instance = ExecuteForkedTaskInsideNewJvm.getInstance();
 
-        instance.fromForkedJVM(args[0]);
+        if (POOLED_MODE.equals(args[0])) {
+            instance.fromPooledJVM();
+        } else if (CHANNEL_MODE.equals(args[0])) {
+            instance.fromForkedJVM(System.getenv(ForkedTaskChannel.ADDRESS_VARIABLE));
+        } else {
+            instance.fromForkedJVM(args[0]);
+        }
 
         // Call to System.exit is necessary at this point (when the task is finished normally) as the forked JVM can keep alive non-daemon threads
         System.exit(0);
@@ -137,13 +170,107 @@ public class ExecuteForkedTaskInsideNewJvm {
         Policy.getPolicy().refresh();
     }
 
-    private void fromForkedJVM(String contextPath) {
+    private void fromForkedJVM(String taskReference) {
+        if (!executeTask(taskReference)) {
+            System.exit(1);
+        }
+    }
+
+    private void fromPooledJVM() throws IOException {
+        executePooledTasks(new BufferedReader(new InputStreamReader(System.in)), System.out, System.err);
+    }
+
+    /**
+     * Execute the tasks read from the given reader, see {@link #POOLED_MODE}. The standard output and error
+     * streams are replaced by streams writing to the given ones.
+     */
+    void executePooledTasks(BufferedReader tasks, PrintStream outputStream, PrintStream errorStream)
+            throws IOException {
+        LastByteOutputStream output = new LastByteOutputStream(outputStream);
+        LastByteOutputStream error = new LastByteOutputStream(errorStream);
+        System.setOut(new PrintStream(output, true));
+        System.setErr(new PrintStream(error, true));
+
+        String workingDir;
+        String taskReference;
+        while ((workingDir = tasks.readLine()) != null && !workingDir.isEmpty() &&
+               (taskReference = tasks.readLine()) != null) {
+            executeTaskInWorkingDir(new File(workingDir), taskReference);
+            endTaskOutput(System.out, output, taskReference);
+            endTaskOutput(System.err, error, taskReference);
+        }
+    }
+
+    private void executeTaskInWorkingDir(File workingDir, String taskReference) {
+        String jvmUserDir = System.getProperty("user.dir");
+        ClassLoader jvmClassLoader = Thread.currentThread().getContextClassLoader();
+        CookieBasedProcessTreeKiller taskProcessTreeKiller = CookieBasedProcessTreeKiller.createAllChildrenKiller(POOLED_TASK_COOKIE_SUFFIX);
+        try (URLClassLoader taskClassLoader = new URLClassLoader(new URL[] { workingDir.toURI().toURL() },
+                                                                 jvmClassLoader)) {
+            // replaces the current directory which is in the classpath of a forked JVM
+            Thread.currentThread().setContextClassLoader(taskClassLoader);
+            System.setProperty("user.dir", workingDir.getAbsolutePath());
+            executeTask(taskReference);
+        } catch (IOException couldNotCloseClassLoader) {
+            couldNotCloseClassLoader.printStackTrace(System.err);
+        } finally {
+            System.setProperty("user.dir", jvmUserDir);
+            Thread.currentThread().setContextClassLoader(jvmClassLoader);
+            taskProcessTreeKiller.kill();
+        }
+    }
+
+    private void endTaskOutput(PrintStream stream, LastByteOutputStream lastByteStream, String taskReference) {
+        stream.flush();
+        if (lastByteStream.lastByte != -1 && lastByteStream.lastByte != '\n') {
+            // the marker must be on its own line
+            stream.println();
+        }
+        stream.println(TASK_END_MARKER + taskReference);
+        stream.flush();
+    }
+
+    /**
+     * @param taskReference the address of a {@link ForkedTaskChannel} or the path of a serialized task context
+     * @return true if the task was executed, false if its execution could not be started
+     */
+    private boolean executeTask(String taskReference) {
+        if (ForkedTaskChannel.isAddress(taskReference)) {
+            return executeTaskFromChannel(taskReference);
+        }
+        return executeTaskFromFile(taskReference);
+    }
+
+    private boolean executeTaskFromChannel(String channelAddress) {
+        try (ForkedTaskChannel.Connection connection = ForkedTaskChannel.connect(channelAddress)) {
+            Object result;
+            boolean executed;
+            try {
+                TaskContext container = connection.readContext();
+                result = new InProcessTaskExecutor().execute(container, System.out, System.err);
+                executed = true;
+            } catch (Throwable throwable) {
+                throwable.printStackTrace(System.err);
+                result = throwable;
+                executed = false;
+            }
+            connection.writeResult(result);
+            return executed;
+        } catch (Throwable couldNotUseChannel) {
+            System.err.println("Could not exchange the task context and result with the task executor:");
+            couldNotUseChannel.printStackTrace(System.err);
+            return false;
+        }
+    }
+
+    private boolean executeTaskFromFile(String contextPath) {
         try {
             TaskContext container = deserializeContext(contextPath);
 
             TaskResultImpl result = new InProcessTaskExecutor().execute(container, System.out, System.err);
 
             serializeTaskResult(result, contextPath);
+            return true;
         } catch (Throwable throwable) {
             throwable.printStackTrace(System.err);
             try {
@@ -152,7 +279,33 @@ public class ExecuteForkedTaskInsideNewJvm {
                 System.err.println("Could not serialize exception as task result:");
                 couldNotSerializeException.printStackTrace(System.err);
             }
-            System.exit(1);
+            return false;
+        }
+    }
+
+    /**
+     * Remembers the last byte written, to know whether the output of a task ended with a new line.
+     */
+    private static class LastByteOutputStream extends FilterOutputStream {
+
+        private volatile int lastByte = -1;
+
+        private LastByteOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            lastByte = b & 0xFF;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (len > 0) {
+                lastByte = b[off + len - 1] & 0xFF;
+            }
         }
     }
 }
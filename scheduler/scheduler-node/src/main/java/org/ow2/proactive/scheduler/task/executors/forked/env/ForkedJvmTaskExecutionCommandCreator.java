@@ -107,7 +107,11 @@ public class ForkedJvmTaskExecutionCommandCreator implements Serializable {
 
         configureLogging(jvmArguments, variables, isDockerWindowsToLinux);
 
-        StringBuilder classpath = new StringBuilder("." + getPathSeparator(isDockerWindowsToLinux));
+        StringBuilder classpath = new StringBuilder();
+        if (!ExecuteForkedTaskInsideNewJvm.POOLED_MODE.equals(serializedContextAbsolutePath)) {
+            // a pooled JVM loads the classes of each task from the working directory of the task
+            classpath.append(".").append(getPathSeparator(isDockerWindowsToLinux));
+        }
         if (!System.getProperty("java.class.path", "").contains("node.jar")) {
             // in case the class path of the node is not built with the node.jar, we
             // build the classpath with wildcards to avoid command too long errors on windows
@@ -116,8 +120,9 @@ public class ForkedJvmTaskExecutionCommandCreator implements Serializable {
         }
 
         for (String classpathEntry : OneJar.getClasspath()) {
-            classpath.append(getPathSeparator(isDockerWindowsToLinux))
-                     .append(convertToLinuxClassPathIfNeeded(isDockerWindowsToLinux, classpathEntry));
+            appendPathSeparatorIfNeeded(classpath,
+                                        isDockerWindowsToLinux).append(convertToLinuxClassPathIfNeeded(isDockerWindowsToLinux,
+                                                                                                       classpathEntry));
         }
 
         if (forkEnvironment != null) {
@@ -128,8 +133,9 @@ public class ForkedJvmTaskExecutionCommandCreator implements Serializable {
             for (String classpathEntry : forkEnvironment.getAdditionalClasspath()) {
                 // classpath defined in the fork environment does not need to be converted to linux (as we expect the user to provide the correct path)
                 VariableSubstitutor.filterAndUpdate(classpathEntry, variables);
-                classpath.append(getPathSeparator(isDockerWindowsToLinux))
-                         .append(VariableSubstitutor.filterAndUpdate(classpathEntry, variables));
+                appendPathSeparatorIfNeeded(classpath,
+                                            isDockerWindowsToLinux).append(VariableSubstitutor.filterAndUpdate(classpathEntry,
+                                                                                                               variables));
             }
 
             if (!Strings.isNullOrEmpty(forkEnvironment.getJavaHome())) {
@@ -203,6 +209,11 @@ public class ForkedJvmTaskExecutionCommandCreator implements Serializable {
         return isDockerWindowsToLinux ? ":" : File.pathSeparatorChar;
     }
 
+    private StringBuilder appendPathSeparatorIfNeeded(StringBuilder classpath, boolean isDockerWindowsToLinux) {
+        // an empty classpath entry would stand for the current directory
+        return classpath.length() > 0 ? classpath.append(getPathSeparator(isDockerWindowsToLinux)) : classpath;
+    }
+
     private void forwardProActiveProperties(List<String> jvmArguments, PAProperty... propertiesToForward) {
         for (PAProperty property : propertiesToForward) {
             if (property.isSet() && !propertyDefinedByScript(jvmArguments, property)) {
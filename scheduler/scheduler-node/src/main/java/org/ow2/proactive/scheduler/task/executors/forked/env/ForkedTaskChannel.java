@@ -0,0 +1,359 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.env;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BooleanSupplier;
+
+import org.apache.commons.io.IOUtils;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+
+
+/**
+ * Local socket used to exchange the context and the result of a task with the JVM executing it,
+ * instead of writing them to temporary files.
+ * <p>
+ * The executor opens the channel on the loopback interface and gives its address to the forked JVM
+ * (through the {@link #ADDRESS_VARIABLE} environment variable, or the standard input of a pooled JVM).
+ * The forked JVM connects, authenticates with the secret part of the address, reads the task context
+ * and writes back the task result, or the throwable which prevented the task execution. Both objects
+ * are streamed through the socket, they are never materialized on disk.
+ * <p>
+ * A connection which does not send the secret right away is authenticated in the background, so that
+ * a stalled local connection cannot delay the forked JVM.
+ *
+ * @see ExecuteForkedTaskInsideNewJvm#CHANNEL_MODE
+ */
+public class ForkedTaskChannel implements Closeable {
+
+    /**
+     * Environment variable holding the channel address of a forked JVM started in channel mode.
+     * The address is not given on the command line as it contains the channel secret.
+     */
+    public static final String ADDRESS_VARIABLE = "PA_FORKED_TASK_CHANNEL";
+
+    private static final String ADDRESS_PREFIX = "channel://";
+
+    private static final int POLL_INTERVAL_MILLIS = 1000;
+
+    private static final int IMMEDIATE_AUTHENTICATION_TIMEOUT_MILLIS = 100;
+
+    private static final int AUTHENTICATION_TIMEOUT_MILLIS = 10000;
+
+    private static final ExecutorService authenticationExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("ForkedTaskChannelAuthentication",
+                                                                                                                       true));
+
+    private final ServerSocket serverSocket;
+
+    private final String secret = UUID.randomUUID().toString();
+
+    private final byte[] encodedSecret;
+
+    /**
+     * Connections being authenticated in the background, closed with the channel
+     */
+    private final Set<Socket> pendingCandidates = ConcurrentHashMap.newKeySet();
+
+    private final BlockingQueue<Socket> authenticatedCandidates = new LinkedBlockingQueue<>();
+
+    private volatile boolean closed;
+
+    private Socket socket;
+
+    private ForkedTaskChannel(ServerSocket serverSocket) throws IOException {
+        this.serverSocket = serverSocket;
+        this.encodedSecret = encode(secret);
+    }
+
+    /**
+     * Open a channel on an ephemeral port of the loopback interface.
+     */
+    public static ForkedTaskChannel open() throws IOException {
+        ServerSocket serverSocket = new ServerSocket(0, 5, InetAddress.getLoopbackAddress());
+        serverSocket.setSoTimeout(POLL_INTERVAL_MILLIS);
+        return new ForkedTaskChannel(serverSocket);
+    }
+
+    /**
+     * @return the address to give to the forked JVM, it must not be made visible to other users
+     */
+    public String getAddress() {
+        return ADDRESS_PREFIX + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort() +
+               "/" + secret;
+    }
+
+    /**
+     * @param taskReference a channel address or the path of a serialized task context
+     * @return true if the given reference is a channel address
+     */
+    public static boolean isAddress(String taskReference) {
+        return taskReference != null && taskReference.startsWith(ADDRESS_PREFIX);
+    }
+
+    /**
+     * Wait for the forked JVM to connect and send it the task context.
+     *
+     * @param context the task to execute
+     * @param peerAlive tells whether the forked JVM is still running
+     * @throws IOException if the forked JVM terminated before connecting or the context cannot be sent
+     */
+    public void sendContext(TaskContext context, BooleanSupplier peerAlive) throws IOException {
+        socket = accept(peerAlive);
+        ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        outputStream.writeObject(context);
+        outputStream.flush();
+    }
+
+    /**
+     * Wait for the result written by the forked JVM. Waiting can be interrupted, an
+     * {@link InterruptedIOException} is then thrown and the interrupted status of the thread is kept.
+     *
+     * @return the task result or the throwable which prevented the task execution, null if the forked JVM
+     * closed the channel without sending anything
+     */
+    public Object receiveResult() throws IOException, ClassNotFoundException {
+        socket.setSoTimeout(POLL_INTERVAL_MILLIS);
+        InputStream inputStream = new BufferedInputStream(new InterruptibleInputStream(socket.getInputStream()));
+        inputStream.mark(1);
+        if (inputStream.read() == -1) {
+            return null;
+        }
+        inputStream.reset();
+        return new ObjectInputStream(inputStream).readObject();
+    }
+
+    private Socket accept(BooleanSupplier peerAlive) throws IOException {
+        while (true) {
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the forked JVM");
+            }
+            Socket authenticated = authenticatedCandidates.poll();
+            if (authenticated != null) {
+                return authenticated;
+            }
+            Socket candidate;
+            try {
+                candidate = serverSocket.accept();
+            } catch (SocketTimeoutException e) {
+                if (!peerAlive.getAsBoolean()) {
+                    throw new IOException("Forked JVM terminated before connecting to the task channel");
+                }
+                continue;
+            }
+            Authentication authentication = new Authentication(candidate);
+            try {
+                if (authentication.authenticate(IMMEDIATE_AUTHENTICATION_TIMEOUT_MILLIS)) {
+                    return candidate;
+                }
+                IOUtils.closeQuietly(candidate);
+            } catch (SocketTimeoutException e) {
+                pendingCandidates.add(candidate);
+                authenticationExecutor.execute(authentication);
+            } catch (IOException e) {
+                IOUtils.closeQuietly(candidate);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        IOUtils.closeQuietly(socket);
+        IOUtils.closeQuietly(serverSocket);
+        for (Socket candidate : pendingCandidates) {
+            IOUtils.closeQuietly(candidate);
+        }
+        for (Socket candidate : authenticatedCandidates) {
+            IOUtils.closeQuietly(candidate);
+        }
+    }
+
+    private static byte[] encode(String secret) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        new DataOutputStream(encoded).writeUTF(secret);
+        return encoded.toByteArray();
+    }
+
+    /**
+     * Reads the secret sent by a connection. Reading can be resumed after a timeout, the bytes already
+     * received being kept.
+     */
+    private class Authentication implements Runnable {
+
+        private final Socket candidate;
+
+        private final byte[] received = new byte[encodedSecret.length];
+
+        private int receivedLength;
+
+        private Authentication(Socket candidate) {
+            this.candidate = candidate;
+        }
+
+        private boolean authenticate(int timeoutMillis) throws IOException {
+            candidate.setSoTimeout(timeoutMillis);
+            InputStream inputStream = candidate.getInputStream();
+            while (receivedLength < received.length) {
+                int read = inputStream.read(received, receivedLength, received.length - receivedLength);
+                if (read == -1) {
+                    return false;
+                }
+                receivedLength += read;
+            }
+            return MessageDigest.isEqual(encodedSecret, received);
+        }
+
+        @Override
+        public void run() {
+            boolean authenticated;
+            try {
+                authenticated = authenticate(AUTHENTICATION_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                authenticated = false;
+            }
+            if (pendingCandidates.remove(candidate) && authenticated && !closed) {
+                authenticatedCandidates.add(candidate);
+                if (closed && authenticatedCandidates.remove(candidate)) {
+                    IOUtils.closeQuietly(candidate);
+                }
+            } else {
+                IOUtils.closeQuietly(candidate);
+            }
+        }
+    }
+
+    /**
+     * Connect to the channel of the given address, from the forked JVM.
+     */
+    public static Connection connect(String address) throws IOException {
+        String hostAndPort = address.substring(ADDRESS_PREFIX.length(), address.lastIndexOf('/'));
+        String host = hostAndPort.substring(0, hostAndPort.lastIndexOf(':'));
+        int port = Integer.parseInt(hostAndPort.substring(hostAndPort.lastIndexOf(':') + 1));
+        Socket socket = new Socket(host, port);
+        try {
+            DataOutputStream outputStream = new DataOutputStream(socket.getOutputStream());
+            outputStream.writeUTF(address.substring(address.lastIndexOf('/') + 1));
+            outputStream.flush();
+        } catch (IOException e) {
+            IOUtils.closeQuietly(socket);
+            throw e;
+        }
+        return new Connection(socket);
+    }
+
+    /**
+     * Forked JVM side of the channel.
+     */
+    public static class Connection implements Closeable {
+
+        private final Socket socket;
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        public TaskContext readContext() throws IOException, ClassNotFoundException {
+            return (TaskContext) new ObjectInputStream(new BufferedInputStream(socket.getInputStream())).readObject();
+        }
+
+        public void writeResult(Object result) throws IOException {
+            ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            outputStream.writeObject(result);
+            outputStream.flush();
+        }
+
+        @Override
+        public void close() {
+            IOUtils.closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Socket input stream polled with a read timeout, so that a thread waiting for the task result
+     * can be interrupted like a thread waiting for the forked process.
+     */
+    private static class InterruptibleInputStream extends FilterInputStream {
+
+        private InterruptibleInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (true) {
+                checkInterrupted();
+                try {
+                    return super.read();
+                } catch (SocketTimeoutException e) {
+                    // poll again
+                }
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (true) {
+                checkInterrupted();
+                try {
+                    return super.read(b, off, len);
+                } catch (SocketTimeoutException e) {
+                    // poll again
+                }
+            }
+        }
+
+        private static void checkInterrupted() throws InterruptedIOException {
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the task result");
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+
+public class FileTransferServiceTest {
+
+    private final FileTransferService service = new FileTransferService(4);
+
+    @Test
+    public void testSameTransferIsExecutedOnce() throws Exception {
+        CountDownLatch copyStarted = new CountDownLatch(1);
+        CountDownLatch releaseCopy = new CountDownLatch(1);
+        AtomicInteger copies = new AtomicInteger();
+
+        Future<Boolean> first = service.transfer("input/a", "cache/a", () -> {
+            copies.incrementAndGet();
+            copyStarted.countDown();
+            releaseCopy.await();
+            return true;
+        });
+        copyStarted.await(10, TimeUnit.SECONDS);
+        Future<Boolean> second = service.transfer("input/a", "cache/a", () -> copies.incrementAndGet() > 0);
+
+        assertThat(second).isSameAs(first);
+        releaseCopy.countDown();
+        assertThat(second.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(copies.get()).isEqualTo(1);
+        assertThat(service.getInFlightTransfersCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCompletedTransferIsExecutedAgain() throws Exception {
+        AtomicInteger copies = new AtomicInteger();
+
+        service.transfer("input/a", "cache/a", () -> copies.incrementAndGet() > 0).get(10, TimeUnit.SECONDS);
+        service.transfer("input/a", "cache/a", () -> copies.incrementAndGet() > 0).get(10, TimeUnit.SECONDS);
+
+        assertThat(copies.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTransfersToDifferentDestinationsRunInParallel() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        Future<Boolean> first = service.transfer("input/a", "cache/a", () -> {
+            bothStarted.countDown();
+            return bothStarted.await(10, TimeUnit.SECONDS);
+        });
+        Future<Boolean> second = service.transfer("input/b", "cache/b", () -> {
+            bothStarted.countDown();
+            return bothStarted.await(10, TimeUnit.SECONDS);
+        });
+
+        assertThat(first.get(20, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(20, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testTransfersToSameDestinationAreSerialized() throws Exception {
+        AtomicInteger concurrentCopies = new AtomicInteger();
+        AtomicInteger maxConcurrentCopies = new AtomicInteger();
+
+        Future<Boolean> first = service.transfer("input/a", "cache/a", () -> copy(concurrentCopies, maxConcurrentCopies));
+        Future<Boolean> second = service.transfer("global/a", "cache/a", () -> copy(concurrentCopies, maxConcurrentCopies));
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertThat(maxConcurrentCopies.get()).isEqualTo(1);
+    }
+
+    private static boolean copy(AtomicInteger concurrentCopies, AtomicInteger maxConcurrentCopies)
+            throws InterruptedException {
+        int running = concurrentCopies.incrementAndGet();
+        maxConcurrentCopies.accumulateAndGet(running, Math::max);
+        Thread.sleep(100);
+        concurrentCopies.decrementAndGet();
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class NodeInputCacheTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private File cacheRoot;
+
+    @Before
+    public void init() throws Exception {
+        cacheRoot = tmpFolder.newFolder("cache");
+    }
+
+    @Test
+    public void testCachedFileIsHit() throws Exception {
+        NodeInputCache cache = new NodeInputCache(cacheRoot, 0);
+        String contentKey = NodeInputCache.contentKey("file:/input/a", 10, 1000);
+
+        assertThat(cache.lookup("a", contentKey)).isFalse();
+        cacheFile("a", 10);
+        cache.record("a", contentKey, 10);
+
+        assertThat(cache.lookup("a", contentKey)).isTrue();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getBytesSaved()).isEqualTo(10);
+        assertThat(cache.getHitRatio()).isWithin(0.001).of(0.5);
+    }
+
+    @Test
+    public void testModifiedSourceIsMissed() throws Exception {
+        NodeInputCache cache = new NodeInputCache(cacheRoot, 0);
+        cacheFile("a", 10);
+        cache.record("a", NodeInputCache.contentKey("file:/input/a", 10, 1000), 10);
+
+        assertThat(cache.lookup("a", NodeInputCache.contentKey("file:/input/a", 10, 2000))).isFalse();
+        assertThat(cache.getCachedFiles()).isEqualTo(0);
+        assertThat(cache.getCachedBytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void testDeletedFileIsMissed() throws Exception {
+        NodeInputCache cache = new NodeInputCache(cacheRoot, 0);
+        String contentKey = NodeInputCache.contentKey("file:/input/a", 10, 1000);
+        cache.record("a", contentKey, 10);
+
+        assertThat(cache.lookup("a", contentKey)).isFalse();
+    }
+
+    @Test
+    public void testNonLocalCacheIsMissed() throws Exception {
+        NodeInputCache cache = new NodeInputCache(null, 0);
+        String contentKey = NodeInputCache.contentKey("file:/input/a", 10, 1000);
+        cache.record("a", contentKey, 10);
+
+        assertThat(cache.lookup("a", contentKey)).isFalse();
+        assertThat(cache.getHits()).isEqualTo(0);
+    }
+
+    @Test
+    public void testIndexIsSavedAndLoaded() throws Exception {
+        NodeInputCache cache = new NodeInputCache(cacheRoot, 0);
+        String contentKey = NodeInputCache.contentKey("file:/input/dir with\ttab/a", 10, 1000);
+        cacheFile("dir with\ttab/a", 10);
+        cache.record("dir with\ttab/a", contentKey, 10);
+        cache.save();
+
+        NodeInputCache reloadedCache = new NodeInputCache(cacheRoot, 0);
+
+        assertThat(reloadedCache.getCachedFiles()).isEqualTo(1);
+        assertThat(reloadedCache.getCachedBytes()).isEqualTo(10);
+        assertThat(reloadedCache.lookup("dir with\ttab/a", contentKey)).isTrue();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFilesAreEvicted() throws Exception {
+        long unused = System.currentTimeMillis() - 2 * NodeInputCache.EVICTION_GRACE_PERIOD_MILLIS;
+        cacheFile("old", 10);
+        cacheFile("older", 10);
+        FileUtils.writeLines(new File(cacheRoot, NodeInputCache.INDEX_FILE_NAME),
+                             StandardCharsets.UTF_8.name(),
+                             Arrays.asList("old\tkey1\t10\t" + unused, "older\tkey2\t10\t" + (unused - 1000)));
+        NodeInputCache cache = new NodeInputCache(cacheRoot, 25);
+
+        cacheFile("new", 10);
+        cache.record("new", "key3", 10);
+
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.getCachedBytes()).isEqualTo(20);
+        assertThat(new File(cacheRoot, "older").exists()).isFalse();
+        assertThat(new File(cacheRoot, "old").exists()).isTrue();
+    }
+
+    @Test
+    public void testRecentlyUsedFilesAreNotEvicted() throws Exception {
+        NodeInputCache cache = new NodeInputCache(cacheRoot, 15);
+        cacheFile("a", 10);
+        cache.record("a", "key1", 10);
+        cacheFile("b", 10);
+        cache.record("b", "key2", 10);
+
+        assertThat(cache.getEvictions()).isEqualTo(0);
+        assertThat(cache.getCachedBytes()).isEqualTo(20);
+    }
+
+    private void cacheFile(String relativePath, int size) throws Exception {
+        FileUtils.writeByteArrayToFile(new File(cacheRoot, relativePath), new byte[size]);
+    }
+}
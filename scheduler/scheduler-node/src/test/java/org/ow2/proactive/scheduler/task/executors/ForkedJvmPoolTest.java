@@ -0,0 +1,369 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.proactive.extensions.processbuilder.OSProcessBuilder;
+import org.ow2.proactive.scheduler.common.SchedulerConstants;
+import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskLauncherInitializer;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
+import org.ow2.proactive.scheduler.task.context.NodeDataSpacesURIs;
+import org.ow2.proactive.scheduler.task.context.NodeInfo;
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTaskInsideNewJvm;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.proactive.scripting.TaskScript;
+
+
+public class ForkedJvmPoolTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private final ForkedJvmPool pool = new ForkedJvmPool(2, 10);
+
+    private final ForkedProcessBuilderCreator processBuilderCreator = mock(ForkedProcessBuilderCreator.class);
+
+    private final List<FakeProcess> startedProcesses = new ArrayList<>();
+
+    @Before
+    public void mockPooledJvmStart() throws Exception {
+        when(processBuilderCreator.createPooledForkedProcessBuilder(any(TaskContext.class),
+                                                                    any(File.class))).thenAnswer(invocation -> createProcessBuilder());
+    }
+
+    @Test
+    public void testAcceptsTaskWithoutForkEnvironment() throws Exception {
+        assertTrue(pool.accepts(createTaskContext(null)));
+    }
+
+    @Test
+    public void testAcceptsTaskWithJvmArguments() throws Exception {
+        ForkEnvironment forkEnvironment = new ForkEnvironment();
+        forkEnvironment.addJVMArgument("-Xmx256m");
+
+        assertTrue(pool.accepts(createTaskContext(forkEnvironment)));
+    }
+
+    @Test
+    public void testRejectsTaskCustomizingTheProcess() throws Exception {
+        ForkEnvironment withEnvironmentVariable = new ForkEnvironment();
+        withEnvironmentVariable.addSystemEnvironmentVariable("KEY", "value");
+        ForkEnvironment withPreJavaCommand = new ForkEnvironment();
+        withPreJavaCommand.addPreJavaCommand("nice");
+        ForkEnvironment withEnvScript = new ForkEnvironment();
+        withEnvScript.setEnvScript(new SimpleScript("print('env')", "javascript"));
+
+        assertFalse(pool.accepts(createTaskContext(withEnvironmentVariable)));
+        assertFalse(pool.accepts(createTaskContext(withPreJavaCommand)));
+        assertFalse(pool.accepts(createTaskContext(withEnvScript)));
+    }
+
+    @Test
+    public void testRejectsRunAsMeTask() throws Exception {
+        TaskContext taskContext = createTaskContext(null);
+        taskContext.getExecutableContainer().setRunAsUser(true);
+
+        assertFalse(pool.accepts(taskContext));
+    }
+
+    @Test
+    public void testRejectsTaskDisablingThePool() throws Exception {
+        TaskContext taskContext = createTaskContext(null);
+        taskContext.getInitializer()
+                   .setGenericInformation(Collections.singletonMap(SchedulerConstants.DISABLE_FORKED_JVM_POOL_GENERIC_INFO,
+                                                                   "true"));
+
+        assertFalse(pool.accepts(taskContext));
+    }
+
+    @Test
+    public void testDisabledPool() throws Exception {
+        ForkedJvmPool disabledPool = new ForkedJvmPool(0, 10);
+
+        assertFalse(disabledPool.accepts(createTaskContext(null)));
+        assertEquals(0, disabledPool.getIdleJvmsCount());
+    }
+
+    @Test
+    public void testRejectsTaskDisablingTheProcessTreeKiller() throws Exception {
+        TaskContext taskContext = createTaskContext(null);
+        taskContext.getInitializer()
+                   .setGenericInformation(Collections.singletonMap(SchedulerConstants.DISABLE_PROCESS_TREE_KILLER_GENERIC_INFO,
+                                                                   "true"));
+
+        assertFalse(pool.accepts(taskContext));
+    }
+
+    @Test
+    public void testReleasedJvmIsReused() throws Exception {
+        PooledForkedJvm jvm = pool.acquire(createUserTaskContext("user"), processBuilderCreator);
+        pool.release(jvm, true);
+
+        assertEquals(1, pool.getIdleJvmsCount());
+        assertSame(jvm, pool.acquire(createUserTaskContext("user"), processBuilderCreator));
+        assertEquals(0, pool.getIdleJvmsCount());
+        assertEquals(1, startedProcesses.size());
+    }
+
+    @Test
+    public void testTasksOfDifferentUsersDoNotShareJvms() throws Exception {
+        PooledForkedJvm jvm = pool.acquire(createUserTaskContext("user"), processBuilderCreator);
+        pool.release(jvm, true);
+
+        assertNotSame(jvm, pool.acquire(createUserTaskContext("anotherUser"), processBuilderCreator));
+        assertEquals(1, pool.getIdleJvmsCount());
+        assertEquals(2, startedProcesses.size());
+    }
+
+    @Test
+    public void testJvmIsDestroyedWhenNotReusable() throws Exception {
+        PooledForkedJvm jvm = pool.acquire(createUserTaskContext("user"), processBuilderCreator);
+        pool.release(jvm, false);
+
+        assertEquals(0, pool.getIdleJvmsCount());
+        assertFalse(startedProcesses.get(0).isAlive());
+    }
+
+    @Test
+    public void testJvmIsDestroyedAfterMaxTasks() throws Exception {
+        ForkedJvmPool singleTaskPool = new ForkedJvmPool(2, 1);
+        PooledForkedJvm jvm = singleTaskPool.acquire(createUserTaskContext("user"), processBuilderCreator);
+        jvm.submit(tmpFolder.getRoot(), "task", new PrintStream(new ByteArrayOutputStream()), System.err);
+        singleTaskPool.release(jvm, true);
+
+        assertEquals(0, singleTaskPool.getIdleJvmsCount());
+        assertFalse(startedProcesses.get(0).isAlive());
+    }
+
+    @Test
+    public void testJvmIsDestroyedWhenPoolIsFull() throws Exception {
+        List<PooledForkedJvm> jvms = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            jvms.add(pool.acquire(createUserTaskContext("user"), processBuilderCreator));
+        }
+        jvms.forEach(jvm -> pool.release(jvm, true));
+
+        assertEquals(2, pool.getIdleJvmsCount());
+        assertFalse(startedProcesses.get(2).isAlive());
+
+        pool.shutdown();
+
+        assertEquals(0, pool.getIdleJvmsCount());
+        assertFalse(startedProcesses.get(0).isAlive());
+        assertFalse(startedProcesses.get(1).isAlive());
+    }
+
+    @Test
+    public void testExitedJvmIsNotReused() throws Exception {
+        PooledForkedJvm jvm = pool.acquire(createUserTaskContext("user"), processBuilderCreator);
+        pool.release(jvm, true);
+        startedProcesses.get(0).exit();
+
+        assertNotSame(jvm, pool.acquire(createUserTaskContext("user"), processBuilderCreator));
+        assertEquals(0, pool.getIdleJvmsCount());
+    }
+
+    @Test
+    public void testTaskOutputIsForwardedUntilEndMarker() throws Exception {
+        PooledForkedJvm jvm = pool.acquire(createUserTaskContext("user"), processBuilderCreator);
+        FakeProcess process = startedProcesses.get(0);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        jvm.submit(tmpFolder.getRoot(), "task", new PrintStream(output, true), new PrintStream(error, true));
+        process.printOutput("first line");
+        process.printOutput("last line" + ExecuteForkedTaskInsideNewJvm.TASK_END_MARKER + "task");
+        process.printOutput("not part of the task");
+        process.printError(ExecuteForkedTaskInsideNewJvm.TASK_END_MARKER + "task");
+
+        assertTrue(jvm.awaitTaskEnd());
+        assertEquals(String.format("first line%nlast line%n"), output.toString());
+        assertEquals("", error.toString());
+        assertEquals(String.format("%s%ntask%n", tmpFolder.getRoot().getAbsolutePath()), process.getInput());
+        assertEquals(1, jvm.getExecutedTasks());
+    }
+
+    @Test
+    public void testTaskEndIsReportedWhenJvmExits() throws Exception {
+        PooledForkedJvm jvm = pool.acquire(createUserTaskContext("user"), processBuilderCreator);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        jvm.submit(tmpFolder.getRoot(), "task", new PrintStream(output, true), new PrintStream(output, true));
+        startedProcesses.get(0).printOutput("output of a crashing task");
+        startedProcesses.get(0).exit();
+
+        assertFalse(jvm.awaitTaskEnd());
+        assertEquals(String.format("output of a crashing task%n"), output.toString());
+        assertFalse(jvm.isAlive());
+    }
+
+    private OSProcessBuilder createProcessBuilder() throws IOException {
+        OSProcessBuilder processBuilder = mock(OSProcessBuilder.class);
+        when(processBuilder.command()).thenReturn(Arrays.asList("java", ExecuteForkedTaskInsideNewJvm.POOLED_MODE));
+        when(processBuilder.environment()).thenReturn(new HashMap<>());
+        when(processBuilder.start()).thenAnswer(invocation -> {
+            FakeProcess process = new FakeProcess();
+            startedProcesses.add(process);
+            return process;
+        });
+        return processBuilder;
+    }
+
+    private TaskContext createUserTaskContext(String jobOwner) throws Exception {
+        TaskContext taskContext = createTaskContext(null);
+        taskContext.getInitializer().setJobOwner(jobOwner);
+        return taskContext;
+    }
+
+    private TaskContext createTaskContext(ForkEnvironment forkEnvironment) throws Exception {
+        ScriptExecutableContainer scriptContainer = new ScriptExecutableContainer(new TaskScript(new SimpleScript("print('hello')",
+                                                                                                                  "javascript")));
+        TaskLauncherInitializer initializer = new TaskLauncherInitializer();
+        initializer.setTaskId(TaskIdImpl.createTaskId(new JobIdImpl(1L, "job"), "task", 1L));
+        initializer.setForkEnvironment(forkEnvironment);
+        return new TaskContext(scriptContainer,
+                               initializer,
+                               null,
+                               new NodeDataSpacesURIs(null, null, null, null, null, null),
+                               null,
+                               new NodeInfo(null, null, null, null));
+    }
+
+    /**
+     * A pooled JVM whose output is written by the test.
+     */
+    private static class FakeProcess extends Process {
+
+        private final ByteArrayOutputStream input = new ByteArrayOutputStream();
+
+        private final PipedInputStream output = new PipedInputStream();
+
+        private final PipedInputStream error = new PipedInputStream();
+
+        private final PrintStream outputWriter;
+
+        private final PrintStream errorWriter;
+
+        private volatile boolean alive = true;
+
+        private FakeProcess() throws IOException {
+            outputWriter = new PrintStream(new PipedOutputStream(output), true);
+            errorWriter = new PrintStream(new PipedOutputStream(error), true);
+        }
+
+        void printOutput(String line) {
+            outputWriter.println(line);
+        }
+
+        void printError(String line) {
+            errorWriter.println(line);
+        }
+
+        String getInput() {
+            return input.toString();
+        }
+
+        void exit() {
+            alive = false;
+            outputWriter.close();
+            errorWriter.close();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return input;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return output;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return error;
+        }
+
+        @Override
+        public int waitFor() {
+            return 0;
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) {
+            return !alive;
+        }
+
+        @Override
+        public int exitValue() {
+            if (alive) {
+                throw new IllegalThreadStateException();
+            }
+            return 0;
+        }
+
+        @Override
+        public void destroy() {
+            exit();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+    }
+}
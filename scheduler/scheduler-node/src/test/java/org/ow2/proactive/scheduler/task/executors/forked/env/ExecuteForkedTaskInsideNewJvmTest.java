@@ -0,0 +1,134 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.env;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.ObjectInputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class ExecuteForkedTaskInsideNewJvmTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private PrintStream systemOut;
+
+    private PrintStream systemErr;
+
+    private String userDir;
+
+    private ClassLoader contextClassLoader;
+
+    @Before
+    public void saveJvmState() {
+        systemOut = System.out;
+        systemErr = System.err;
+        userDir = System.getProperty("user.dir");
+        contextClassLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    @After
+    public void restoreJvmState() {
+        System.setOut(systemOut);
+        System.setErr(systemErr);
+    }
+
+    @Test
+    public void testPooledTasksAreExecutedUntilEmptyLine() throws Exception {
+        File workingDir = tmpFolder.newFolder("workingDir");
+        // the contexts do not exist, each task writes back the error preventing its execution
+        File firstContext = new File(workingDir, "first");
+        File secondContext = new File(workingDir, "second");
+        File ignoredContext = new File(workingDir, "ignored");
+        String tasks = String.format("%s%n%s%n%s%n%s%n%n%s%n%s%n",
+                                     workingDir,
+                                     firstContext,
+                                     workingDir,
+                                     secondContext,
+                                     workingDir,
+                                     ignoredContext);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        ExecuteForkedTaskInsideNewJvm.getInstance().executePooledTasks(new BufferedReader(new StringReader(tasks)),
+                                                                       new PrintStream(output, true),
+                                                                       new PrintStream(error, true));
+
+        assertEquals(Arrays.asList(ExecuteForkedTaskInsideNewJvm.TASK_END_MARKER + firstContext,
+                                   ExecuteForkedTaskInsideNewJvm.TASK_END_MARKER + secondContext),
+                     lines(output));
+        List<String> errorLines = lines(error);
+        assertTrue(errorLines.contains(ExecuteForkedTaskInsideNewJvm.TASK_END_MARKER + firstContext));
+        assertEquals(ExecuteForkedTaskInsideNewJvm.TASK_END_MARKER + secondContext,
+                     errorLines.get(errorLines.size() - 1));
+
+        assertTrue(readResult(firstContext) instanceof IllegalStateException);
+        assertTrue(readResult(secondContext) instanceof IllegalStateException);
+        assertFalse(ignoredContext.exists());
+    }
+
+    @Test
+    public void testJvmStateIsRestoredAfterPooledTask() throws Exception {
+        File workingDir = tmpFolder.newFolder("workingDir");
+        String tasks = String.format("%s%n%s%n", workingDir, new File(workingDir, "context"));
+
+        ExecuteForkedTaskInsideNewJvm.getInstance()
+                                     .executePooledTasks(new BufferedReader(new StringReader(tasks)),
+                                                         new PrintStream(new ByteArrayOutputStream()),
+                                                         new PrintStream(new ByteArrayOutputStream()));
+
+        assertEquals(userDir, System.getProperty("user.dir"));
+        assertSame(contextClassLoader, Thread.currentThread().getContextClassLoader());
+    }
+
+    private List<String> lines(ByteArrayOutputStream stream) {
+        return Arrays.asList(stream.toString().split(System.lineSeparator()));
+    }
+
+    private Object readResult(File context) throws Exception {
+        try (ObjectInputStream inputStream = new ObjectInputStream(new FileInputStream(context))) {
+            return inputStream.readObject();
+        }
+    }
+}
@@ -31,6 +31,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 
+import java.io.File;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -192,6 +193,29 @@ public class ForkedJvmTaskExecutionCommandCreatorTest extends ProActiveTestClean
                                  false);
     }
 
+    @Test
+    public void testPooledJvmClasspathDoesNotContainCurrentDirectory() throws Exception {
+        TaskContext taskContext = createTaskContext();
+        taskContext.getInitializer().setForkEnvironment(createForkEnvironment());
+
+        List<String> forkedJvmClasspath = getClasspath(new ForkedJvmTaskExecutionCommandCreator().createForkedJvmTaskExecutionCommand(taskContext,
+                                                                                                                                      null,
+                                                                                                                                      serializedContextAbsolutePath));
+        List<String> pooledJvmClasspath = getClasspath(new ForkedJvmTaskExecutionCommandCreator().createForkedJvmTaskExecutionCommand(taskContext,
+                                                                                                                                      null,
+                                                                                                                                      ExecuteForkedTaskInsideNewJvm.POOLED_MODE));
+
+        assertThat(forkedJvmClasspath.contains("."), is(true));
+        assertThat(pooledJvmClasspath.contains("."), is(false));
+        assertThat(pooledJvmClasspath.contains(""), is(false));
+        assertThat(pooledJvmClasspath.contains(additionalClasspath), is(true));
+    }
+
+    private List<String> getClasspath(List<String> javaCommand) {
+        String classpath = javaCommand.get(javaCommand.indexOf("-cp") + 1);
+        return Arrays.asList(classpath.split(File.pathSeparator, -1));
+    }
+
     private void javaCommandContainsOrNot(List<String> stringsContained, ForkEnvironment forkEnvironment,
             boolean contains, boolean addJavaPrefix) throws Exception {
         ForkedJvmTaskExecutionCommandCreator forkedJvmTaskExecutionCommandCreator = new ForkedJvmTaskExecutionCommandCreator();
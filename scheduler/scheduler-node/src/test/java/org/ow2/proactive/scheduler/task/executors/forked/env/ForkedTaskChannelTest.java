@@ -0,0 +1,168 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.env;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskLauncherInitializer;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
+import org.ow2.proactive.scheduler.task.context.NodeDataSpacesURIs;
+import org.ow2.proactive.scheduler.task.context.NodeInfo;
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.proactive.scripting.TaskScript;
+
+
+public class ForkedTaskChannelTest {
+
+    private ExecutorService forkedJvm;
+
+    private ForkedTaskChannel channel;
+
+    @Before
+    public void init() throws IOException {
+        forkedJvm = Executors.newSingleThreadExecutor();
+        channel = ForkedTaskChannel.open();
+    }
+
+    @After
+    public void clean() {
+        channel.close();
+        forkedJvm.shutdownNow();
+    }
+
+    @Test
+    public void testContextAndResultAreExchanged() throws Exception {
+        Future<String> receivedTaskName = forkedJvm.submit(() -> {
+            try (ForkedTaskChannel.Connection connection = ForkedTaskChannel.connect(channel.getAddress())) {
+                TaskContext context = connection.readContext();
+                connection.writeResult("result");
+                return context.getTaskId().getReadableName();
+            }
+        });
+
+        channel.sendContext(createTaskContext(), () -> true);
+
+        assertEquals("result", channel.receiveResult());
+        assertEquals("task", receivedTaskName.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConnectionWithWrongSecretIsRejected() throws Exception {
+        String address = channel.getAddress();
+        String wrongAddress = address.substring(0, address.lastIndexOf('/') + 1) + "wrong";
+        Future<String> receivedTaskName = forkedJvm.submit(() -> {
+            try (ForkedTaskChannel.Connection intruder = ForkedTaskChannel.connect(wrongAddress)) {
+                try (ForkedTaskChannel.Connection connection = ForkedTaskChannel.connect(address)) {
+                    TaskContext context = connection.readContext();
+                    connection.writeResult("result");
+                    return context.getTaskId().getReadableName();
+                }
+            }
+        });
+
+        channel.sendContext(createTaskContext(), () -> true);
+
+        assertEquals("result", channel.receiveResult());
+        assertEquals("task", receivedTaskName.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStalledConnectionDoesNotDelayForkedJvm() throws Exception {
+        String address = channel.getAddress();
+        int port = Integer.parseInt(address.substring(address.lastIndexOf(':') + 1, address.lastIndexOf('/')));
+        try (Socket stalled = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            Future<String> receivedTaskName = forkedJvm.submit(() -> {
+                try (ForkedTaskChannel.Connection connection = ForkedTaskChannel.connect(address)) {
+                    TaskContext context = connection.readContext();
+                    connection.writeResult("result");
+                    return context.getTaskId().getReadableName();
+                }
+            });
+
+            long start = System.currentTimeMillis();
+            channel.sendContext(createTaskContext(), () -> true);
+
+            assertEquals("result", channel.receiveResult());
+            assertEquals("task", receivedTaskName.get(10, TimeUnit.SECONDS));
+            // the stalled connection is authenticated in the background, with a 10 seconds timeout
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+    }
+
+    @Test
+    public void testNoResultWhenConnectionIsClosed() throws Exception {
+        forkedJvm.submit(() -> {
+            try (ForkedTaskChannel.Connection connection = ForkedTaskChannel.connect(channel.getAddress())) {
+                return connection.readContext();
+            }
+        });
+
+        channel.sendContext(createTaskContext(), () -> true);
+
+        assertNull(channel.receiveResult());
+    }
+
+    @Test(expected = IOException.class)
+    public void testForkedJvmTerminatedBeforeConnecting() throws Exception {
+        channel.sendContext(createTaskContext(), () -> false);
+    }
+
+    @Test
+    public void testAddress() {
+        assertTrue(ForkedTaskChannel.isAddress(channel.getAddress()));
+        assertFalse(ForkedTaskChannel.isAddress("/tmp/001context"));
+    }
+
+    private TaskContext createTaskContext() throws Exception {
+        ScriptExecutableContainer scriptContainer = new ScriptExecutableContainer(new TaskScript(new SimpleScript("print('hello')",
+                                                                                                                  "javascript")));
+        TaskLauncherInitializer initializer = new TaskLauncherInitializer();
+        initializer.setTaskId(TaskIdImpl.createTaskId(new JobIdImpl(1L, "job"), "task", 1L));
+        return new TaskContext(scriptContainer,
+                               initializer,
+                               null,
+                               new NodeDataSpacesURIs(null, null, null, null, null, null),
+                               null,
+                               new NodeInfo(null, null, null, null));
+    }
+}
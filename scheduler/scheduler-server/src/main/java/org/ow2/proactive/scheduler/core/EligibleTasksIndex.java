@@ -0,0 +1,363 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
+import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
+
+
+/**
+ * Incrementally maintained index of the live jobs, ordered by the job comparator of the current policy.
+ * <p>
+ * Instead of sorting every job at each scheduling loop, policies can walk this index through a cursor
+ * (see {@link #cursor(Comparator, Map)}) which reads the eligible tasks of the jobs in their scheduling order.
+ * <p>
+ * The index is fed by {@link LiveJobs}: jobs are added when submitted or recovered, removed when terminated
+ * and re-positioned when their priority changes. Every job modified under its lock is flagged as dirty,
+ * the per-loop bookkeeping (pending statuses, number of needed nodes) is then only recomputed for those jobs.
+ *
+ * @author The ProActive Team
+ * @since ProActive Scheduling 11.1
+ */
+public class EligibleTasksIndex {
+
+    private final Map<JobId, JobDescriptor> jobs = new ConcurrentHashMap<>();
+
+    private final Set<JobId> dirtyJobs = Collections.newSetFromMap(new ConcurrentHashMap<JobId, Boolean>());
+
+    private final Map<JobId, Integer> neededNodesByJob = new ConcurrentHashMap<>();
+
+    private Comparator<JobDescriptor> jobComparator;
+
+    private volatile ConcurrentSkipListSet<JobDescriptor> orderedJobs;
+
+    /**
+     * Add a newly submitted or recovered job to the index.
+     *
+     * @param jobDescriptor the descriptor of the job
+     */
+    synchronized void addJob(JobDescriptor jobDescriptor) {
+        jobs.put(jobDescriptor.getJobId(), jobDescriptor);
+        if (orderedJobs != null) {
+            orderedJobs.add(jobDescriptor);
+        }
+        dirtyJobs.add(jobDescriptor.getJobId());
+    }
+
+    /**
+     * Remove a terminated job from the index.
+     *
+     * @param jobId id of the job
+     */
+    synchronized void removeJob(JobId jobId) {
+        JobDescriptor jobDescriptor = jobs.remove(jobId);
+        if (jobDescriptor != null && orderedJobs != null) {
+            orderedJobs.remove(jobDescriptor);
+        }
+        dirtyJobs.remove(jobId);
+        neededNodesByJob.remove(jobId);
+    }
+
+    /**
+     * Apply a change which modifies the ordering key of a job (e.g. its priority) and re-position the job
+     * in the index accordingly. The job is taken out of the index before the change is applied, as the
+     * ordered set can only find it with its former key.
+     *
+     * @param jobId id of the job
+     * @param orderingChange the modification to apply on the job
+     */
+    synchronized void reorderJob(JobId jobId, Runnable orderingChange) {
+        JobDescriptor jobDescriptor = jobs.get(jobId);
+        if (jobDescriptor == null || orderedJobs == null) {
+            orderingChange.run();
+            return;
+        }
+        orderedJobs.remove(jobDescriptor);
+        try {
+            orderingChange.run();
+        } finally {
+            orderedJobs.add(jobDescriptor);
+        }
+    }
+
+    /**
+     * Flag the given job as modified since the last scheduling loop.
+     *
+     * @param jobId id of the job
+     */
+    void markDirty(JobId jobId) {
+        if (jobs.containsKey(jobId)) {
+            dirtyJobs.add(jobId);
+        }
+    }
+
+    /**
+     * Recompute the bookkeeping of the dirty jobs which are locked by the scheduling loop.
+     * Dirty jobs which are not part of the given map stay dirty until a later loop locks them.
+     *
+     * @param lockedJobs jobs locked by the current scheduling loop
+     * @return the eligible tasks of the refreshed jobs
+     */
+    List<EligibleTaskDescriptor> refreshDirtyJobs(Map<JobId, JobDescriptor> lockedJobs) {
+        List<EligibleTaskDescriptor> refreshedTasks = new ArrayList<>();
+        for (Iterator<JobId> iterator = dirtyJobs.iterator(); iterator.hasNext();) {
+            JobId jobId = iterator.next();
+            JobDescriptor jobDescriptor = lockedJobs.get(jobId);
+            if (jobDescriptor == null) {
+                continue;
+            }
+            iterator.remove();
+            int neededNodes = 0;
+            for (TaskDescriptor task : eligibleTasksOf(jobDescriptor)) {
+                neededNodes += task.getNumberOfNodesNeeded();
+                refreshedTasks.add((EligibleTaskDescriptor) task);
+            }
+            if (jobs.containsKey(jobId)) {
+                neededNodesByJob.put(jobId, neededNodes);
+            }
+        }
+        return refreshedTasks;
+    }
+
+    /**
+     * @param jobIds ids of the jobs to consider
+     * @return the number of nodes needed to start every eligible task of the given jobs, as computed when
+     * the jobs were last refreshed
+     */
+    int getNeededNodes(Collection<JobId> jobIds) {
+        int neededNodes = 0;
+        for (JobId jobId : jobIds) {
+            neededNodes += neededNodesByJob.getOrDefault(jobId, 0);
+        }
+        return neededNodes;
+    }
+
+    /**
+     * Wrap the tasks returned by the policy, so that they can be pulled by the scheduling loop after the jobs
+     * are unlocked, only as far as there are free nodes to start them.
+     * <p>
+     * Eligible tasks are read from concurrent views of the job descriptors. Only the tasks whose pending
+     * status was set while the jobs were locked are returned, tasks which became eligible meanwhile are
+     * scheduled by a next loop.
+     *
+     * @param orderedTasks the tasks returned by the policy, in the scheduling order
+     * @param jobsToSchedule jobs selected for the current scheduling loop
+     * @return a lazy iterator on the pending tasks, counting the nodes they need
+     */
+    PendingTasks pendingTasks(Iterator<EligibleTaskDescriptor> orderedTasks,
+            Map<JobId, JobDescriptor> jobsToSchedule) {
+        return new PendingTasks(orderedTasks, jobsToSchedule);
+    }
+
+    /**
+     * @return the number of jobs currently indexed
+     */
+    public int size() {
+        return jobs.size();
+    }
+
+    /**
+     * Return a lazy cursor on the eligible tasks of the given jobs, jobs being ordered with the given comparator.
+     * Only the jobs which are part of the given map are considered. Eligible tasks are read from the job
+     * descriptors while iterating, so the cursor must be consumed while the given jobs are locked.
+     *
+     * @param comparator the job ordering of the policy, ties are broken using the job id
+     * @param jobsToSchedule jobs selected for the current scheduling loop
+     * @return an iterator on the eligible tasks, in the scheduling order
+     */
+    public Iterator<EligibleTaskDescriptor> cursor(Comparator<JobDescriptor> comparator,
+            Map<JobId, JobDescriptor> jobsToSchedule) {
+        return cursor(comparator, jobsToSchedule, null);
+    }
+
+    /**
+     * Same as {@link #cursor(Comparator, Map)}, skipping the tasks which are rejected by the given filter.
+     *
+     * @param comparator the job ordering of the policy, ties are broken using the job id
+     * @param jobsToSchedule jobs selected for the current scheduling loop
+     * @param taskFilter tasks to keep, or null to keep every eligible task
+     * @return an iterator on the eligible tasks, in the scheduling order
+     */
+    public Iterator<EligibleTaskDescriptor> cursor(Comparator<JobDescriptor> comparator,
+            Map<JobId, JobDescriptor> jobsToSchedule, Predicate<EligibleTaskDescriptor> taskFilter) {
+        return new Cursor(orderedBy(comparator).iterator(), jobsToSchedule, taskFilter);
+    }
+
+    private synchronized NavigableSet<JobDescriptor> orderedBy(Comparator<JobDescriptor> comparator) {
+        if (orderedJobs == null || jobComparator != comparator) {
+            ConcurrentSkipListSet<JobDescriptor> reordered = new ConcurrentSkipListSet<>(comparator.thenComparing(JobDescriptor::getJobId));
+            reordered.addAll(jobs.values());
+            jobComparator = comparator;
+            orderedJobs = reordered;
+        }
+        return orderedJobs;
+    }
+
+    private static Collection<? extends TaskDescriptor> eligibleTasksOf(JobDescriptor jobDescriptor) {
+        if (jobDescriptor instanceof JobDescriptorImpl) {
+            // avoid copying the eligible tasks of the job
+            return ((JobDescriptorImpl) jobDescriptor).getEligibleTasksView();
+        }
+        return jobDescriptor.getEligibleTasks();
+    }
+
+    private static class Cursor implements Iterator<EligibleTaskDescriptor> {
+
+        private final Iterator<JobDescriptor> jobsIterator;
+
+        private final Map<JobId, JobDescriptor> jobsToSchedule;
+
+        private final Predicate<EligibleTaskDescriptor> taskFilter;
+
+        private Iterator<? extends TaskDescriptor> tasksIterator = Collections.emptyIterator();
+
+        private EligibleTaskDescriptor next;
+
+        private Cursor(Iterator<JobDescriptor> jobsIterator, Map<JobId, JobDescriptor> jobsToSchedule,
+                Predicate<EligibleTaskDescriptor> taskFilter) {
+            this.jobsIterator = jobsIterator;
+            this.jobsToSchedule = jobsToSchedule;
+            this.taskFilter = taskFilter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (tasksIterator.hasNext()) {
+                    EligibleTaskDescriptor candidate = (EligibleTaskDescriptor) tasksIterator.next();
+                    if (taskFilter == null || taskFilter.test(candidate)) {
+                        next = candidate;
+                    }
+                } else if (jobsIterator.hasNext()) {
+                    JobDescriptor jobDescriptor = jobsIterator.next();
+                    if (jobsToSchedule.containsKey(jobDescriptor.getJobId())) {
+                        tasksIterator = eligibleTasksOf(jobDescriptor).iterator();
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public EligibleTaskDescriptor next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            EligibleTaskDescriptor result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    /**
+     * Lazy iterator on the pending tasks returned by the policy, see {@link #pendingTasks(Iterator, Map)}.
+     */
+    class PendingTasks implements Iterator<EligibleTaskDescriptor> {
+
+        private final Iterator<EligibleTaskDescriptor> orderedTasks;
+
+        private final Map<JobId, JobDescriptor> jobsToSchedule;
+
+        private final Set<JobId> reachedJobs = new HashSet<>();
+
+        private int returnedNeededNodes;
+
+        private boolean exhausted;
+
+        private EligibleTaskDescriptor next;
+
+        private PendingTasks(Iterator<EligibleTaskDescriptor> orderedTasks, Map<JobId, JobDescriptor> jobsToSchedule) {
+            this.orderedTasks = orderedTasks;
+            this.jobsToSchedule = jobsToSchedule;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (!orderedTasks.hasNext()) {
+                    exhausted = true;
+                    return false;
+                }
+                EligibleTaskDescriptor candidate = orderedTasks.next();
+                if (((EligibleTaskDescriptorImpl) candidate).getInternal().getStatus() == TaskStatus.PENDING) {
+                    next = candidate;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public EligibleTaskDescriptor next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            EligibleTaskDescriptor result = next;
+            next = null;
+            reachedJobs.add(result.getJobId());
+            returnedNeededNodes += result.getNumberOfNodesNeeded();
+            return result;
+        }
+
+        /**
+         * @return the number of nodes needed by the tasks returned so far, plus, when the policy has more tasks,
+         * the number of nodes needed by the selected jobs which were not reached yet
+         */
+        int getNeededNodes() {
+            if (exhausted) {
+                return returnedNeededNodes;
+            }
+            List<JobId> notReachedJobs = new ArrayList<>(jobsToSchedule.size());
+            for (JobId jobId : jobsToSchedule.keySet()) {
+                if (!reachedJobs.contains(jobId)) {
+                    notReachedJobs.add(jobId);
+                }
+            }
+            return returnedNeededNodes + EligibleTasksIndex.this.getNeededNodes(notReachedJobs);
+        }
+    }
+}
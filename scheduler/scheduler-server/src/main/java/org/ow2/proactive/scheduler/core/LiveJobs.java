@@ -28,7 +28,7 @@ package org.ow2.proactive.scheduler.core;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
@@ -90,15 +90,30 @@ class LiveJobs {
 
         final InternalJob job;
 
-        final ReentrantLock jobLock = new ReentrantLock();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
-        private JobData(InternalJob job) {
+        /** Exclusive lock, held while the job is modified or scheduled */
+        final ReentrantReadWriteLock.WriteLock jobLock = lock.writeLock();
+
+        /** Shared lock, held by the read-only queries so that they do not exclude each other */
+        final ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+
+        private final EligibleTasksIndex eligibleTasksIndex;
+
+        private JobData(InternalJob job, EligibleTasksIndex eligibleTasksIndex) {
             this.job = job;
+            this.eligibleTasksIndex = eligibleTasksIndex;
         }
 
         void unlock() {
+            // the job may have been modified while it was locked
+            eligibleTasksIndex.markDirty(job.getId());
             jobLock.unlock();
         }
+
+        void readUnlock() {
+            readLock.unlock();
+        }
     }
 
     private final SchedulerDBManager dbManager;
@@ -109,6 +124,8 @@ class LiveJobs {
 
     private final ConcurrentHashMap<TaskIdWrapper, RunningTaskData> runningTasksData = new ConcurrentHashMap<>();
 
+    private final EligibleTasksIndex eligibleTasksIndex = new EligibleTasksIndex();
+
     private final OnErrorPolicyInterpreter onErrorPolicyInterpreter = new OnErrorPolicyInterpreter();
 
     private final StartAtUpdater startAtUpdater = new StartAtUpdater();
@@ -127,6 +144,10 @@ class LiveJobs {
         this.synchronizationInternal = synchronizationAPI;
     }
 
+    EligibleTasksIndex getEligibleTasksIndex() {
+        return eligibleTasksIndex;
+    }
+
     Collection<RunningTaskData> getRunningTasks() {
         return runningTasksData.values();
     }
@@ -136,7 +157,7 @@ class LiveJobs {
     }
 
     void jobRecovered(InternalJob job) {
-        jobs.put(job.getId(), new JobData(job));
+        registerJob(job);
         for (InternalTask task : job.getITasks()) {
             if (task.getStatus() == TaskStatus.RUNNING) {
                 logger.info("Recover task " + task.getId() + " (" + task.getName() + ") of job " + job.getId() + " (" +
@@ -196,14 +217,14 @@ class LiveJobs {
         if (!jobs.containsKey(jobId)) {
             return false;
         }
-        JobData jobData = lockJob(jobId);
+        JobData jobData = readLockJob(jobId);
         if (jobData == null) {
             return false;
         }
         try {
             return jobData.job.getStatus().isJobAlive();
         } finally {
-            jobData.unlock();
+            jobData.readUnlock();
         }
     }
 
@@ -211,38 +232,38 @@ class LiveJobs {
         if (!jobs.containsKey(jobId)) {
             return null;
         }
-        JobData jobData = lockJob(jobId);
+        JobData jobData = readLockJob(jobId);
         if (jobData == null) {
             return null;
         }
         try {
             return jobData.job.getStatus();
         } finally {
-            jobData.unlock();
+            jobData.readUnlock();
         }
     }
 
     boolean isTaskAlive(TaskId taskId) {
-        JobData jobData = lockJob(taskId.getJobId());
+        JobData jobData = readLockJob(taskId.getJobId());
         if (jobData == null) {
             return false;
         }
         try {
             return jobData.job.getHMTasks().get(taskId).isTaskAlive();
         } finally {
-            jobData.unlock();
+            jobData.readUnlock();
         }
     }
 
     TaskStatus getTaskStatus(TaskId taskId) {
-        JobData jobData = lockJob(taskId.getJobId());
+        JobData jobData = readLockJob(taskId.getJobId());
         if (jobData == null) {
             return null;
         }
         try {
             return jobData.job.getHMTasks().get(taskId).getStatus();
         } finally {
-            jobData.unlock();
+            jobData.readUnlock();
         }
     }
 
@@ -252,7 +273,7 @@ class LiveJobs {
             return;
         }
         try {
-            jobData.job.setPriority(priority);
+            eligibleTasksIndex.reorderJob(jobId, () -> jobData.job.setPriority(priority));
 
             dbManager.changeJobPriority(jobId, priority);
 
@@ -359,14 +380,44 @@ class LiveJobs {
         job.prepareTasks();
         job.submitAction();
         dbManager.newJobSubmitted(job);
+        registerSubmittedJob(job);
+    }
+
+    /**
+     * Register several newly submitted jobs, which are persisted in a single database transaction.
+     *
+     * @param submittedJobs the jobs to register
+     */
+    void jobsSubmitted(List<InternalJob> submittedJobs) {
+        for (InternalJob job : submittedJobs) {
+            job.prepareTasks();
+            job.submitAction();
+        }
+        dbManager.newJobsSubmitted(submittedJobs);
+        for (InternalJob job : submittedJobs) {
+            registerSubmittedJob(job);
+        }
+    }
+
+    private void registerSubmittedJob(InternalJob job) {
         ClientJobState clientJobState = new ClientJobState(job);
-        jobs.put(job.getId(), new JobData(job));
+        registerJob(job);
         listener.jobSubmitted(clientJobState);
     }
 
+    /**
+     * Lock the jobs to be scheduled during a scheduling loop.
+     * <p>
+     * Jobs locked by another operation (task termination, client request, ...) are not awaited, so that the
+     * scheduling loop does not hold the locks of the other jobs while waiting. They are left for a next loop,
+     * together with the locked jobs having a strictly lower priority, so that no lower priority job can be
+     * scheduled before them. The other jobs are scheduled by the current loop.
+     *
+     * @param isSchedulerPausedOrStopped if true, only running or stalled jobs are locked
+     * @return the jobs locked by the current thread
+     */
     Map<JobId, JobDescriptor> lockJobsToSchedule(boolean isSchedulerPausedOrStopped) {
 
-        TreeSet<JobPriority> prioritiesScheduled = new TreeSet<>();
         TreeSet<JobPriority> prioritiesNotScheduled = new TreeSet<>();
 
         Map<JobId, JobDescriptor> result = new HashMap<>();
@@ -382,50 +433,34 @@ class LiveJobs {
             if (value.jobLock.tryLock()) {
                 InternalJob job = entry.getValue().job;
                 result.put(job.getId(), job.getJobDescriptor());
-                prioritiesScheduled.add(job.getPriority());
             } else {
                 prioritiesNotScheduled.add(value.job.getPriority());
             }
-            if (unlockIfConflict(prioritiesScheduled, prioritiesNotScheduled, result))
-                return new HashMap<>(0);
         }
-        return result;
-    }
 
-    private boolean unlockIfConflict(TreeSet<JobPriority> prioritiesScheduled,
-            TreeSet<JobPriority> prioritiesNotScheduled, Map<JobId, JobDescriptor> result) {
-        if (priorityConflict(prioritiesScheduled, prioritiesNotScheduled)) {
-            unlockJobsToSchedule(result.values());
-            return true;
+        if (!prioritiesNotScheduled.isEmpty()) {
+            unlockLowerPriorityJobs(result, prioritiesNotScheduled.last());
         }
-        return false;
+        return result;
     }
 
-    /**
-     * This method checks if there is a conflict priority between the jobs
-     * selected to be scheduled and those not selected. There is a conflict if
-     * any job scheduled has a strictly lower priority than any unscheduled job
-     *
-     * @param prioritiesScheduled
-     * @param prioritiesNotScheduled
-     * @return
-     */
-    public boolean priorityConflict(TreeSet<JobPriority> prioritiesScheduled,
-            TreeSet<JobPriority> prioritiesNotScheduled) {
-
-        for (JobPriority jp : prioritiesNotScheduled) {
-            if (!prioritiesScheduled.headSet(jp).isEmpty()) {
-                return true;
+    private void unlockLowerPriorityJobs(Map<JobId, JobDescriptor> lockedJobs, JobPriority priority) {
+        for (Iterator<JobDescriptor> iterator = lockedJobs.values().iterator(); iterator.hasNext();) {
+            JobDescriptor jobDescriptor = iterator.next();
+            JobData jobData = jobs.get(jobDescriptor.getJobId());
+            if (jobData != null && jobData.job.getPriority().compareTo(priority) < 0) {
+                jobData.jobLock.unlock();
+                iterator.remove();
             }
         }
-        return false;
     }
 
     void unlockJobsToSchedule(Collection<JobDescriptor> jobDescriptors) {
         for (JobDescriptor desc : jobDescriptors) {
             JobData jobData = checkJobAccess(desc.getJobId());
             if (jobData != null) {
-                jobData.unlock();
+                // the scheduling sweep does not modify the eligible tasks, the job is not flagged as dirty
+                jobData.jobLock.unlock();
             }
         }
     }
@@ -808,7 +843,7 @@ class LiveJobs {
                 // terminating job
                 job.terminate();
                 jlogger.debug(job.getId(), "terminated");
-                jobs.remove(job.getId());
+                unregisterJob(job.getId());
                 terminationData.addJobToTerminate(job.getId(), job.getGenericInformation(), job.getCredentials());
             }
 
@@ -1104,7 +1139,7 @@ class LiveJobs {
 
             jlogger.debug(job.getId(), "terminated");
             terminationData.addJobToTerminate(job.getId(), job.getGenericInformation(), job.getCredentials());
-            jobs.remove(job.getId());
+            unregisterJob(job.getId());
         }
 
         task.setTaskResult(result);
@@ -1175,7 +1210,7 @@ class LiveJobs {
 
                 JobId jobId = jobData.job.getId();
 
-                jobs.remove(jobId);
+                unregisterJob(jobId);
                 terminationData.addJobToTerminate(jobId,
                                                   jobData.job.getGenericInformation(),
                                                   jobData.job.getCredentials());
@@ -1240,7 +1275,7 @@ class LiveJobs {
             String errorMsg, JobStatus jobStatus) {
         JobId jobId = jobData.job.getId();
 
-        jobs.remove(jobId);
+        unregisterJob(jobId);
 
         terminationData.addJobToTerminate(jobId, jobData.job.getGenericInformation(), jobData.job.getCredentials());
 
@@ -1336,6 +1371,16 @@ class LiveJobs {
         }
     }
 
+    private void registerJob(InternalJob job) {
+        jobs.put(job.getId(), new JobData(job, eligibleTasksIndex));
+        eligibleTasksIndex.addJob(job.getJobDescriptor());
+    }
+
+    private void unregisterJob(JobId jobId) {
+        jobs.remove(jobId);
+        eligibleTasksIndex.removeJob(jobId);
+    }
+
     public JobData lockJob(JobId jobId) {
         JobData jobData = jobs.get(jobId);
         if (jobData == null) {
@@ -1351,6 +1396,28 @@ class LiveJobs {
         }
     }
 
+    /**
+     * Acquire the shared lock of a job, for read-only accesses which must not wait for each other.
+     * The lock must be released using {@link JobData#readUnlock()}.
+     *
+     * @param jobId id of the job
+     * @return the data of the job, or null if the job is terminated
+     */
+    private JobData readLockJob(JobId jobId) {
+        JobData jobData = jobs.get(jobId);
+        if (jobData == null) {
+            logger.info("Job " + jobId + " is terminated");
+            return null;
+        }
+        jobData.readLock.lock();
+        if (jobs.containsKey(jobId)) {
+            return jobData;
+        } else {
+            jobData.readUnlock();
+            return null;
+        }
+    }
+
     /**
      * @param jobIds job ids to lock and return its data
      * @return list of locked jobs for each job id provided, otherwise null
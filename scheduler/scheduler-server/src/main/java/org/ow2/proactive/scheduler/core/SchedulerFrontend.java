@@ -553,6 +553,51 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
         }
     }
 
+    /**
+     * Submit several jobs at once. Jobs are persisted in a single database transaction, which is much
+     * cheaper than submitting them one by one. Either every job is submitted, or none of them.
+     *
+     * @param userJobs the jobs to submit
+     * @return the ids of the submitted jobs, in the same order as the given jobs
+     * @throws NotConnectedException if you are not authenticated.
+     * @throws PermissionException if you can't access to this particular method.
+     * @throws SubmissionClosedException if the submit action could not be performed.
+     * @throws JobCreationException if there was a problem while creating one of the jobs
+     */
+    @ImmediateService
+    public List<JobId> submit(List<Job> userJobs)
+            throws NotConnectedException, PermissionException, SubmissionClosedException, JobCreationException {
+        try {
+            if (logger.isDebugEnabled()) {
+                logger.debug("New submission of " + userJobs.size() + " jobs requested");
+            }
+            // check if the scheduler is stopped
+            if (!schedulingService.isSubmitPossible()) {
+                String msg = "Scheduler is stopped, cannot submit job";
+                logger.info(msg);
+                throw new SubmissionClosedException(msg);
+            }
+
+            UserIdentificationImpl ident = frontendState.checkPermission("submit",
+                                                                         YOU_DO_NOT_HAVE_PERMISSION_TO_SUBMIT_A_JOB);
+            List<InternalJob> jobs = new ArrayList<>(userJobs.size());
+            for (Job userJob : userJobs) {
+                jobs.add(frontendState.createJob(userJob, ident));
+            }
+            schedulingService.submitJobs(jobs);
+
+            List<JobId> jobIds = new ArrayList<>(jobs.size());
+            for (InternalJob job : jobs) {
+                frontendState.jobSubmitted(job, ident);
+                jobIds.add(job.getId());
+            }
+            return jobIds;
+        } catch (Exception e) {
+            logger.warn("Error when submitting jobs.", e);
+            throw e;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -38,4 +38,10 @@ public interface SchedulingMethod {
      */
     int schedule();
 
+    /**
+     * Release the resources used by the scheduling process, called once the scheduling thread is stopped.
+     */
+    default void shutdown() {
+    }
+
 }
@@ -38,7 +38,18 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
@@ -60,6 +71,7 @@ import org.ow2.proactive.scheduler.common.job.JobType;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.util.VariableSubstitutor;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.core.db.TaskStatusUpdate;
 import org.ow2.proactive.scheduler.core.helpers.VariableBatchSizeIterator;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.core.rmproxies.RMProxiesManager;
@@ -85,6 +97,7 @@ import org.ow2.proactive.threading.TimeoutThreadPoolExecutor;
 import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
 import org.ow2.proactive.utils.Criteria;
 import org.ow2.proactive.utils.NodeSet;
+import org.ow2.proactive.utils.TaskIdWrapper;
 
 import com.google.common.collect.ImmutableList;
 
@@ -110,7 +123,7 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     /** Maximum blocking time for the do task action */
     protected int dotaskActionTimeout;
 
-    protected int activeObjectCreationRetryTimeNumber;
+    protected volatile int activeObjectCreationRetryTimeNumber;
 
     protected final SchedulingService schedulingService;
 
@@ -122,22 +135,82 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     private CheckEligibleTaskDescriptorScript checkEligibleTaskDescriptorScript;
 
-    private SchedulingMainLoopTimingLogger schedulingMainLoopTimingLogger;
+    private SchedulingMainLoopTimingLogger schedulingMainLoopTimingLogger = new SchedulingMainLoopTimingLogger(logger);
+
+    /** Pool used to request nodes for several groups of tasks at once, null when groups are handled sequentially */
+    private ExecutorService nodeAcquisitionThreadPool;
+
+    /** Pool creating the task launchers and submitting the doTask actions, null when tasks are deployed synchronously */
+    private ThreadPoolExecutor deploymentThreadPool;
+
+    /** Tasks for which a deployment has been enqueued and is not yet finished */
+    private final Set<TaskIdWrapper> deployingTasks = ConcurrentHashMap.newKeySet();
+
+    /** Tasks deployed by the deployment thread pool since the last scheduling loop */
+    private final AtomicInteger deployedTasks = new AtomicInteger();
+
+    /** Url of the node of the task termination notification active object, resolved once */
+    private String terminateNotificationNodeURL;
 
     public SchedulingMethodImpl(SchedulingService schedulingService) throws Exception {
+        this(schedulingService,
+             createTerminateNotification(schedulingService),
+             Credentials.getPrivateKey(PASchedulerProperties.getAbsolutePath(PASchedulerProperties.SCHEDULER_AUTH_PRIVKEY_PATH.getValueAsString())));
+        this.terminateNotificationNodeURL = PAActiveObject.getActiveObjectNode(terminateNotification)
+                                                          .getNodeInformation()
+                                                          .getURL();
+    }
+
+    SchedulingMethodImpl(SchedulingService schedulingService, TaskTerminateNotification terminateNotification,
+            PrivateKey corePrivateKey) {
         this.schedulingService = schedulingService;
         this.checkEligibleTaskDescriptorScript = new CheckEligibleTaskDescriptorScript();
-        terminateNotification = new TerminateNotification(schedulingService);
+        this.terminateNotification = terminateNotification;
+
+        this.threadPool = TimeoutThreadPoolExecutor.newFixedThreadPool(PASchedulerProperties.SCHEDULER_STARTTASK_THREADNUMBER.getValueAsInt(),
+                                                                       new NamedThreadFactory("DoTask_Action"));
+        int nodeAcquisitionParallelGroups = PASchedulerProperties.SCHEDULER_NODE_ACQUISITION_PARALLEL_GROUPS.getValueAsInt();
+        if (nodeAcquisitionParallelGroups > 1) {
+            this.nodeAcquisitionThreadPool = Executors.newFixedThreadPool(nodeAcquisitionParallelGroups,
+                                                                          new NamedThreadFactory("NodeAcquisition"));
+        }
+        int deploymentThreadNumber = PASchedulerProperties.SCHEDULER_DEPLOYMENT_THREADNUMBER.getValueAsInt();
+        if (deploymentThreadNumber > 0) {
+            // when the queue is full, the scheduling thread deploys the task itself, which slows down the loop
+            this.deploymentThreadPool = new ThreadPoolExecutor(deploymentThreadNumber,
+                                                               deploymentThreadNumber,
+                                                               0L,
+                                                               TimeUnit.MILLISECONDS,
+                                                               new ArrayBlockingQueue<>(PASchedulerProperties.SCHEDULER_DEPLOYMENT_QUEUESIZE.getValueAsInt()),
+                                                               new NamedThreadFactory("TaskDeployment"),
+                                                               new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        this.corePrivateKey = corePrivateKey;
+    }
+
+    private static TaskTerminateNotification createTerminateNotification(SchedulingService schedulingService)
+            throws Exception {
         Node terminateNotificationNode = NodeFactory.createLocalNode("taskTerminationNode",
                                                                      true,
                                                                      "taskTerminationVNode");
-        terminateNotification = PAActiveObject.turnActive(terminateNotification,
-                                                          TaskTerminateNotification.class.getName(),
-                                                          terminateNotificationNode);
+        return PAActiveObject.turnActive(new TerminateNotification(schedulingService),
+                                         TaskTerminateNotification.class.getName(),
+                                         terminateNotificationNode);
+    }
 
-        this.threadPool = TimeoutThreadPoolExecutor.newFixedThreadPool(PASchedulerProperties.SCHEDULER_STARTTASK_THREADNUMBER.getValueAsInt(),
-                                                                       new NamedThreadFactory("DoTask_Action"));
-        this.corePrivateKey = Credentials.getPrivateKey(PASchedulerProperties.getAbsolutePath(PASchedulerProperties.SCHEDULER_AUTH_PRIVKEY_PATH.getValueAsString()));
+    @Override
+    public void shutdown() {
+        if (nodeAcquisitionThreadPool != null) {
+            nodeAcquisitionThreadPool.shutdownNow();
+        }
+        if (deploymentThreadPool != null) {
+            // the nodes of the deployments which did not start yet were already taken from the RM
+            for (Runnable notStarted : deploymentThreadPool.shutdownNow()) {
+                if (notStarted instanceof TaskDeployment) {
+                    ((TaskDeployment) notStarted).cancel();
+                }
+            }
+        }
     }
 
     RMProxiesManager getRMProxiesManager() {
@@ -191,6 +264,11 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
         int tasksStarted = startTasks(currentPolicy, jobMap, toUnlock);
 
+        if (deploymentThreadPool != null) {
+            // tasks enqueued for deployment are counted once they are deployed
+            tasksStarted += collectDeployedTasks();
+        }
+
         if (tasksStarted > 0) {
             schedulingMainLoopTimingLogger.printTimingsINFOLevel();
         }
@@ -204,8 +282,10 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     private void updateNeededNodes(Collection<? extends TaskDescriptor> eligibleByPolicyTasks) {
         // Needed nodes
-        final int neededNodes = eligibleByPolicyTasks.stream().mapToInt(TaskDescriptor::getNumberOfNodesNeeded).sum();
+        updateNeededNodes(eligibleByPolicyTasks.stream().mapToInt(TaskDescriptor::getNumberOfNodesNeeded).sum());
+    }
 
+    private void updateNeededNodes(int neededNodes) {
         // for statistics used in RM portal
         getRMProxiesManager().getRmProxy().setNeededNodes(neededNodes);
 
@@ -216,8 +296,6 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     private int startTasks(Policy currentPolicy, Map<JobId, JobDescriptor> jobMap, Map<JobId, JobDescriptor> toUnlock) {
         try {
-            List<JobDescriptor> descriptors = new ArrayList<>(jobMap.values());
-
             schedulingMainLoopTimingLogger.start("getFreeResources");
             //get rmState and update it in scheduling policy
             Set<String> freeResources = getFreeResources(currentPolicy);
@@ -225,22 +303,44 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
             schedulingMainLoopTimingLogger.end("getFreeResources");
 
             schedulingMainLoopTimingLogger.start("getOrderedTasks");
-            // ask the policy all the tasks to be schedule according to the jobs list.
-            LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy = currentPolicy.getOrderedTasks(descriptors);
-
-            setPendingStatusesToAllEligibleTasks(fullListOfTaskRetrievedFromPolicy);
+            Iterator<EligibleTaskDescriptor> orderedTasks;
+            EligibleTasksIndex.PendingTasks pendingTasks = null;
+            int neededNodes;
+            if (PASchedulerProperties.SCHEDULER_POLICY_INCREMENTAL_INDEX.getValueAsBoolean() &&
+                currentPolicy.isEligibleTasksIndexSupported()) {
+                EligibleTasksIndex index = schedulingService.getEligibleTasksIndex();
+                // only the jobs modified since the previous scheduling loop may have new eligible tasks
+                setPendingStatusesToAllEligibleTasks(index.refreshDirtyJobs(jobMap));
+                // ask the policy a cursor on the tasks to be schedule according to the jobs list,
+                // tasks are then pulled only when there are free resources to start them
+                pendingTasks = index.pendingTasks(currentPolicy.getOrderedTasks(index, jobMap), jobMap);
+                orderedTasks = pendingTasks;
+                neededNodes = 0;
+            } else {
+                List<JobDescriptor> descriptors = new ArrayList<>(jobMap.values());
+                // ask the policy all the tasks to be schedule according to the jobs list.
+                LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy = currentPolicy.getOrderedTasks(descriptors);
+                if (fullListOfTaskRetrievedFromPolicy == null) {
+                    fullListOfTaskRetrievedFromPolicy = new LinkedList<>();
+                }
+                setPendingStatusesToAllEligibleTasks(fullListOfTaskRetrievedFromPolicy);
+                orderedTasks = fullListOfTaskRetrievedFromPolicy.iterator();
+                neededNodes = fullListOfTaskRetrievedFromPolicy.stream()
+                                                               .mapToInt(TaskDescriptor::getNumberOfNodesNeeded)
+                                                               .sum();
+            }
 
             //if there is no free resources, stop it right now without starting any task
             if (freeResources.isEmpty()) {
 
-                updateNeededNodes(fullListOfTaskRetrievedFromPolicy);
+                updateNeededNodes(pendingTasks != null ? pendingTasks.getNeededNodes() : neededNodes);
                 return 0;
             }
 
             schedulingMainLoopTimingLogger.end("getOrderedTasks");
 
             //if there is no task to scheduled, return without starting any task
-            if (fullListOfTaskRetrievedFromPolicy == null || fullListOfTaskRetrievedFromPolicy.isEmpty()) {
+            if (!orderedTasks.hasNext()) {
                 updateNeededNodes();
                 return 0;
             }
@@ -249,7 +349,7 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
             toUnlock = unlockResources(toUnlock);
             schedulingMainLoopTimingLogger.end("unlockResources");
 
-            return getNumberOfTaskStarted(currentPolicy, jobMap, freeResources, fullListOfTaskRetrievedFromPolicy);
+            return getNumberOfTaskStarted(currentPolicy, jobMap, freeResources, orderedTasks, pendingTasks, neededNodes);
         } finally {
             if (toUnlock != null) {
                 schedulingService.unlockJobsToSchedule(toUnlock.values());
@@ -265,24 +365,30 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                                                                                            .equals(TaskStatus.PENDING))
                                                                       .collect(Collectors.toList());
 
+        if (notPendingYet.isEmpty()) {
+            return;
+        }
+
+        long scheduledTime = System.currentTimeMillis();
+        List<TaskStatusUpdate> updates = new ArrayList<>(notPendingYet.size());
         notPendingYet.forEach(task -> {
+            TaskStatus previousStatus = task.getInternal().getStatus();
             if (task.getInternal().getScheduledTime() == -1) {
-                task.getInternal().setScheduledTime(System.currentTimeMillis());
+                task.getInternal().setScheduledTime(scheduledTime);
             }
             task.getInternal().setStatus(TaskStatus.PENDING);
+            updates.add(new TaskStatusUpdate(task.getInternal(), previousStatus));
         });
 
-        notPendingYet.forEach(task -> {
-            getDBManager().updateTaskStatusAndScheduledTime(task,
-                                                            TaskStatus.PENDING,
-                                                            task.getInternal().getScheduledTime());
-        });
+        // pending statuses are recomputed when the scheduler is recovered, they can be written later in a batch
+        getDBManager().bufferTaskStatusesAndScheduledTimes(updates);
 
     }
 
     private int getNumberOfTaskStarted(Policy currentPolicy, Map<JobId, JobDescriptor> jobMap,
-            Set<String> freeResources, LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy) {
-        return selectAndStartTasks(currentPolicy, jobMap, freeResources, fullListOfTaskRetrievedFromPolicy);
+            Set<String> freeResources, Iterator<EligibleTaskDescriptor> orderedTasks,
+            EligibleTasksIndex.PendingTasks pendingTasks, int neededNodes) {
+        return selectAndStartTasks(currentPolicy, jobMap, freeResources, orderedTasks, pendingTasks, neededNodes);
 
     }
 
@@ -312,19 +418,27 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     }
 
     private int selectAndStartTasks(Policy currentPolicy, Map<JobId, JobDescriptor> jobMap, Set<String> freeResources,
-            LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy) {
+            Iterator<EligibleTaskDescriptor> orderedTasks, EligibleTasksIndex.PendingTasks pendingTasks,
+            int neededNodes) {
         int numberOfTaskStarted = 0;
 
-        VariableBatchSizeIterator progressiveIterator = new VariableBatchSizeIterator(fullListOfTaskRetrievedFromPolicy);
+        // tasks are taken from the ordered tasks only when there are free resources to start them
+        VariableBatchSizeIterator<EligibleTaskDescriptor> progressiveIterator = new VariableBatchSizeIterator<>(orderedTasks);
 
-        Set<EligibleTaskDescriptor> rest = new HashSet<>(fullListOfTaskRetrievedFromPolicy);
+        int startedNodes = 0;
 
         while (progressiveIterator.hasMoreElements() && !freeResources.isEmpty()) {
 
             LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy = new LinkedList<>(progressiveIterator.getNextElements(freeResources.size()));
 
+            if (deploymentThreadPool != null) {
+                // tasks being deployed are still eligible until their deployment completes
+                taskRetrievedFromPolicy.removeIf(task -> deployingTasks.contains(TaskIdWrapper.wrap(task.getTaskId())));
+            }
+
             if (logger.isDebugEnabled()) {
-                loggingEligibleTasksDetails(fullListOfTaskRetrievedFromPolicy, taskRetrievedFromPolicy);
+                loggingEligibleTasksDetails(pendingTasks != null ? pendingTasks.getNeededNodes() : neededNodes,
+                                            taskRetrievedFromPolicy);
             }
 
             schedulingMainLoopTimingLogger.start("updateVariablesForTasksToSchedule");
@@ -354,119 +468,402 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                     break;
                 }
 
-                //get the next compatible tasks from the whole returned policy tasks
-                LinkedList<EligibleTaskDescriptor> tasksToSchedule = new LinkedList<>();
-                int neededResourcesNumber = 0;
+                List<EligibleTaskDescriptor> startedTasks;
+                if (nodeAcquisitionThreadPool != null) {
+                    startedTasks = selectAndStartTaskGroupsInParallel(currentPolicy,
+                                                                      jobMap,
+                                                                      freeResources,
+                                                                      taskRetrievedFromPolicy);
+                } else {
+                    startedTasks = selectAndStartNextTaskGroup(currentPolicy,
+                                                               jobMap,
+                                                               freeResources,
+                                                               taskRetrievedFromPolicy);
+                }
 
-                schedulingMainLoopTimingLogger.start("getNextcompatibleTasks");
+                if (startedTasks == null) {
+                    // no more compatible tasks can be found
+                    break;
+                }
 
-                while (!taskRetrievedFromPolicy.isEmpty() && neededResourcesNumber == 0) {
-                    //the loop will search for next compatible task until it find something
-                    neededResourcesNumber = getNextcompatibleTasks(jobMap,
-                                                                   taskRetrievedFromPolicy,
-                                                                   freeResources.size(),
-                                                                   tasksToSchedule);
+                for (EligibleTaskDescriptor startedTask : startedTasks) {
+                    startedNodes += startedTask.getNumberOfNodesNeeded();
+                    if (deploymentThreadPool == null) {
+                        numberOfTaskStarted++;
+                    }
                 }
 
-                schedulingMainLoopTimingLogger.end("getNextcompatibleTasks");
+                if (activeObjectCreationRetryTimeNumber == 0) {
+                    break;
+                }
+            }
+            if (freeResources.isEmpty()) {
+                break;
+            }
+            if (activeObjectCreationRetryTimeNumber == 0) {
+                break;
+            }
+        }
+
+        if (pendingTasks != null) {
+            // the tasks which were not pulled are accounted from the selected jobs
+            neededNodes = pendingTasks.getNeededNodes();
+        }
+        // number of nodes needed to start all pending tasks
+        updateNeededNodes(Math.max(0, neededNodes - startedNodes));
+
+        return numberOfTaskStarted;
+    }
+
+    /**
+     * Extract the next group of compatible tasks, ask the RM for nodes and start the tasks of the group.
+     *
+     * @return the tasks which have been started, or null if no compatible tasks could be extracted
+     */
+    private List<EligibleTaskDescriptor> selectAndStartNextTaskGroup(Policy currentPolicy,
+            Map<JobId, JobDescriptor> jobMap, Set<String> freeResources,
+            LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy) {
+        //get the next compatible tasks from the whole returned policy tasks
+        LinkedList<EligibleTaskDescriptor> tasksToSchedule = new LinkedList<>();
+
+        int neededResourcesNumber = 0;
+
+        schedulingMainLoopTimingLogger.start("getNextcompatibleTasks");
+
+        while (!taskRetrievedFromPolicy.isEmpty() && neededResourcesNumber == 0) {
+            //the loop will search for next compatible task until it find something
+            neededResourcesNumber = getNextcompatibleTasks(jobMap,
+                                                           taskRetrievedFromPolicy,
+                                                           freeResources.size(),
+                                                           tasksToSchedule);
+        }
+
+        schedulingMainLoopTimingLogger.end("getNextcompatibleTasks");
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("tasksToSchedule : " + tasksToSchedule);
+        }
+
+        logger.debug("required number of nodes : " + neededResourcesNumber);
+        if (neededResourcesNumber == 0 || tasksToSchedule.isEmpty()) {
+            return null;
+        }
+
+        schedulingMainLoopTimingLogger.start("getRMNodes");
+        NodeSet nodeSet = getRMNodes(jobMap,
+                                     neededResourcesNumber,
+                                     tasksToSchedule,
+                                     freeResources,
+                                     schedulingMainLoopTimingLogger);
+        schedulingMainLoopTimingLogger.end("getRMNodes");
+
+        if (nodeSet != null) {
+            freeResources.removeAll(nodeSet.getAllNodesUrls());
+        }
+
+        return startTasks(currentPolicy, jobMap, freeResources, tasksToSchedule, nodeSet);
+    }
+
+    /**
+     * Extract up to {@link PASchedulerProperties#SCHEDULER_NODE_ACQUISITION_PARALLEL_GROUPS} groups of compatible
+     * tasks and ask the RM for the nodes of every group concurrently. Each group is given a disjoint part of the
+     * free nodes so that groups cannot be given the same nodes. The tasks of a group are started as soon as
+     * its nodes are received. The groups which did not find enough nodes in their part are then given
+     * a second chance, one after the other, with every node which is still free.
+     *
+     * @return the tasks which have been started, or null if no compatible tasks could be extracted
+     */
+    private List<EligibleTaskDescriptor> selectAndStartTaskGroupsInParallel(Policy currentPolicy,
+            Map<JobId, JobDescriptor> jobMap, Set<String> freeResources,
+            LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy) {
+        int maxGroups = PASchedulerProperties.SCHEDULER_NODE_ACQUISITION_PARALLEL_GROUPS.getValueAsInt();
+
+        schedulingMainLoopTimingLogger.start("getNextcompatibleTasks");
+        List<LinkedList<EligibleTaskDescriptor>> groups = new ArrayList<>(maxGroups);
+        List<Integer> groupsNeededResources = new ArrayList<>(maxGroups);
+        int availableResources = freeResources.size();
+        while (groups.size() < maxGroups && availableResources > 0 && !taskRetrievedFromPolicy.isEmpty()) {
+            LinkedList<EligibleTaskDescriptor> tasksToSchedule = new LinkedList<>();
+            int neededResourcesNumber = 0;
+            while (!taskRetrievedFromPolicy.isEmpty() && neededResourcesNumber == 0) {
+                neededResourcesNumber = getNextcompatibleTasks(jobMap,
+                                                               taskRetrievedFromPolicy,
+                                                               availableResources,
+                                                               tasksToSchedule);
+            }
+            if (neededResourcesNumber == 0 || tasksToSchedule.isEmpty()) {
+                break;
+            }
+            availableResources -= neededResourcesNumber;
+            groups.add(tasksToSchedule);
+            groupsNeededResources.add(neededResourcesNumber);
+        }
+        schedulingMainLoopTimingLogger.end("getNextcompatibleTasks");
+
+        if (groups.isEmpty()) {
+            return null;
+        }
+
+        List<Set<String>> partitions = partitionFreeResources(freeResources, groupsNeededResources);
 
-                if (logger.isDebugEnabled()) {
-                    logger.debug("tasksToSchedule : " + tasksToSchedule);
+        if (logger.isDebugEnabled()) {
+            logger.debug("requesting nodes for " + groups.size() + " groups of tasks in parallel");
+        }
+
+        schedulingMainLoopTimingLogger.start("getRMNodes");
+        CompletionService<NodeSet> completionService = new ExecutorCompletionService<>(nodeAcquisitionThreadPool);
+        Map<Future<NodeSet>, LinkedList<EligibleTaskDescriptor>> pendingGroups = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            LinkedList<EligibleTaskDescriptor> tasksToSchedule = groups.get(i);
+            int neededResourcesNumber = groupsNeededResources.get(i);
+            Set<String> partition = partitions.get(i);
+            // the timings of concurrent requests are accounted globally by the scheduling thread
+            pendingGroups.put(completionService.submit(() -> getRMNodes(jobMap,
+                                                                        neededResourcesNumber,
+                                                                        tasksToSchedule,
+                                                                        partition,
+                                                                        new SchedulingMainLoopTimingLogger(logger))),
+                              tasksToSchedule);
+        }
+        schedulingMainLoopTimingLogger.end("getRMNodes");
+
+        List<EligibleTaskDescriptor> startedTasks = new ArrayList<>();
+        List<LinkedList<EligibleTaskDescriptor>> unservedGroups = new ArrayList<>();
+        RuntimeException selectionFailure = null;
+        while (!pendingGroups.isEmpty()) {
+            LinkedList<EligibleTaskDescriptor> tasksToSchedule = null;
+            NodeSet nodeSet = null;
+            try {
+                schedulingMainLoopTimingLogger.start("waitForParallelRMNodes");
+                Future<NodeSet> completed = completionService.take();
+                schedulingMainLoopTimingLogger.end("waitForParallelRMNodes");
+                tasksToSchedule = pendingGroups.remove(completed);
+                nodeSet = completed.get();
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted while waiting for nodes", e);
+                Thread.currentThread().interrupt();
+                releaseNodesOfPendingGroups(jobMap, pendingGroups);
+                break;
+            } catch (ExecutionException e) {
+                logger.error("An exception occurred while selecting nodes for tasks " + tasksToSchedule, e.getCause());
+                if (selectionFailure == null && e.getCause() instanceof RuntimeException) {
+                    selectionFailure = (RuntimeException) e.getCause();
                 }
+                continue;
+            }
+
+            if (nodeSet == null) {
+                // the selection failed, the tasks have been handled by getRMNodes
+                continue;
+            }
+            if (nodeSet.isEmpty()) {
+                unservedGroups.add(tasksToSchedule);
+                continue;
+            }
+            freeResources.removeAll(nodeSet.getAllNodesUrls());
+            if (activeObjectCreationRetryTimeNumber == 0) {
+                // tasks cannot be started anymore during this loop, give back the nodes
+                releaseNodesQuietly(jobMap, tasksToSchedule, nodeSet, freeResources);
+                continue;
+            }
+            startedTasks.addAll(startTasks(currentPolicy, jobMap, freeResources, tasksToSchedule, nodeSet));
+            if (!tasksToSchedule.isEmpty()) {
+                unservedGroups.add(tasksToSchedule);
+            }
+        }
+
+        startTaskGroupsWithRemainingResources(currentPolicy, jobMap, freeResources, unservedGroups, startedTasks);
 
-                logger.debug("required number of nodes : " + neededResourcesNumber);
-                if (neededResourcesNumber == 0 || tasksToSchedule.isEmpty()) {
+        if (selectionFailure != null) {
+            if (startedTasks.isEmpty()) {
+                // same behavior as the sequential node acquisition
+                throw selectionFailure;
+            }
+            // the started tasks must be accounted, the failure is handled without leaving the loop
+            schedulingService.handleException(selectionFailure);
+        }
+        return startedTasks;
+    }
+
+    /**
+     * Second chance for the groups which did not find enough nodes in their part of the free nodes:
+     * a group whose selection scripts or token match only a few nodes may have been given none of them.
+     * Groups are served one after the other, each of them with every node which is still free.
+     */
+    private void startTaskGroupsWithRemainingResources(Policy currentPolicy, Map<JobId, JobDescriptor> jobMap,
+            Set<String> freeResources, List<LinkedList<EligibleTaskDescriptor>> unservedGroups,
+            List<EligibleTaskDescriptor> startedTasks) {
+        for (LinkedList<EligibleTaskDescriptor> tasksToSchedule : unservedGroups) {
+            if (freeResources.isEmpty() || activeObjectCreationRetryTimeNumber == 0) {
+                return;
+            }
+            int neededResourcesNumber = 0;
+            int fittingTasks = 0;
+            for (EligibleTaskDescriptor task : tasksToSchedule) {
+                if (neededResourcesNumber + task.getNumberOfNodesNeeded() > freeResources.size()) {
                     break;
                 }
-
-                schedulingMainLoopTimingLogger.start("getRMNodes");
-                NodeSet nodeSet = getRMNodes(jobMap, neededResourcesNumber, tasksToSchedule, freeResources);
+                neededResourcesNumber += task.getNumberOfNodesNeeded();
+                fittingTasks++;
+            }
+            if (fittingTasks == 0) {
+                continue;
+            }
+            LinkedList<EligibleTaskDescriptor> fittingGroup = new LinkedList<>(tasksToSchedule.subList(0,
+                                                                                                       fittingTasks));
+            NodeSet nodeSet;
+            schedulingMainLoopTimingLogger.start("getRMNodes");
+            try {
+                nodeSet = getRMNodes(jobMap,
+                                     neededResourcesNumber,
+                                     fittingGroup,
+                                     new HashSet<>(freeResources),
+                                     schedulingMainLoopTimingLogger);
+            } catch (RuntimeException e) {
+                logger.error("An exception occurred while selecting nodes for tasks " + fittingGroup, e);
+                continue;
+            } finally {
                 schedulingMainLoopTimingLogger.end("getRMNodes");
+            }
+            if (nodeSet == null || nodeSet.isEmpty()) {
+                continue;
+            }
+            freeResources.removeAll(nodeSet.getAllNodesUrls());
+            startedTasks.addAll(startTasks(currentPolicy, jobMap, freeResources, fittingGroup, nodeSet));
+        }
+    }
 
-                if (nodeSet != null) {
-                    freeResources.removeAll(nodeSet.getAllNodesUrls());
+    /**
+     * Split the free nodes into disjoint sets, one per group of tasks. Each group receives at least the number of
+     * nodes it needs (when available), the remaining nodes are distributed according to the number of nodes needed
+     * by each group. Free nodes are shuffled so that a group which could not find suitable nodes in its part
+     * is given other nodes in the next scheduling loop.
+     */
+    static List<Set<String>> partitionFreeResources(Set<String> freeResources, List<Integer> groupsNeededResources) {
+        List<String> nodeUrls = new ArrayList<>(freeResources);
+        Collections.shuffle(nodeUrls);
+
+        int totalNeeded = 0;
+        for (int needed : groupsNeededResources) {
+            totalNeeded += needed;
+        }
+        int surplus = Math.max(0, nodeUrls.size() - totalNeeded);
+
+        List<Set<String>> partitions = new ArrayList<>(groupsNeededResources.size());
+        int offset = 0;
+        for (int i = 0; i < groupsNeededResources.size(); i++) {
+            int size;
+            if (i == groupsNeededResources.size() - 1) {
+                size = nodeUrls.size() - offset;
+            } else {
+                size = groupsNeededResources.get(i) + (int) ((long) surplus * groupsNeededResources.get(i) / totalNeeded);
+            }
+            int upperIndexExclusive = Math.min(nodeUrls.size(), offset + size);
+            partitions.add(new HashSet<>(nodeUrls.subList(offset, upperIndexExclusive)));
+            offset = upperIndexExclusive;
+        }
+        return partitions;
+    }
+
+    private void releaseNodesOfPendingGroups(Map<JobId, JobDescriptor> jobMap,
+            Map<Future<NodeSet>, LinkedList<EligibleTaskDescriptor>> pendingGroups) {
+        for (Map.Entry<Future<NodeSet>, LinkedList<EligibleTaskDescriptor>> pendingGroup : pendingGroups.entrySet()) {
+            try {
+                NodeSet nodeSet = pendingGroup.getKey().get();
+                if (nodeSet != null && !nodeSet.isEmpty()) {
+                    releaseNodesQuietly(jobMap, pendingGroup.getValue(), nodeSet, null);
                 }
+            } catch (Exception e) {
+                logger.debug("Unable to get the nodes of a pending group", e);
+            }
+        }
+        pendingGroups.clear();
+    }
 
-                //start selected tasks
-                Node node = null;
-                InternalJob currentJob = null;
-                try {
-                    while (nodeSet != null && !nodeSet.isEmpty()) {
-                        EligibleTaskDescriptor taskDescriptor = tasksToSchedule.removeFirst();
-                        currentJob = ((JobDescriptorImpl) jobMap.get(taskDescriptor.getJobId())).getInternal();
-                        InternalTask internalTask = ((EligibleTaskDescriptorImpl) taskDescriptor).getInternal();
-
-                        if (currentPolicy.isTaskExecutable(nodeSet, taskDescriptor)) {
-                            //create launcher and try to start the task
-                            node = nodeSet.get(0);
-
-                            schedulingMainLoopTimingLogger.start("createExecution");
-
-                            if (createExecution(nodeSet, node, currentJob, internalTask, taskDescriptor)) {
-                                rest.remove(taskDescriptor);
-                                numberOfTaskStarted++;
-                            }
-                            schedulingMainLoopTimingLogger.end("createExecution");
-
-                        }
-
-                        //if every task that should be launched have been removed
-                        if (tasksToSchedule.isEmpty()) {
-                            //get back unused nodes to the RManager
-                            if (!nodeSet.isEmpty()) {
-                                schedulingMainLoopTimingLogger.start("releaseNodes");
-                                releaseNodes(currentJob, nodeSet);
-                                freeResources.addAll(nodeSet.getAllNodesUrls());
-                                schedulingMainLoopTimingLogger.end("releaseNodes");
-                            }
-                            //and leave the loop
-                            break;
-                        }
-                    }
-                } catch (ActiveObjectCreationException e1) {
-                    //Something goes wrong with the active object creation (createLauncher)
-                    logger.warn("An exception occured while creating the task launcher.", e1);
-                    //so try to get back every remaining nodes to the resource manager
-                    try {
-                        releaseNodes(currentJob, nodeSet);
-                        freeResources.addAll(nodeSet.getAllNodesUrls());
-                    } catch (Exception e2) {
-                        logger.info("Unable to get back the nodeSet to the RM", e2);
-                    }
-                    if (--activeObjectCreationRetryTimeNumber == 0) {
-                        break;
+    private void releaseNodesQuietly(Map<JobId, JobDescriptor> jobMap, List<EligibleTaskDescriptor> tasksToSchedule,
+            NodeSet nodeSet, Set<String> freeResources) {
+        InternalJob job = ((JobDescriptorImpl) jobMap.get(tasksToSchedule.get(0).getJobId())).getInternal();
+        try {
+            releaseNodes(job, nodeSet);
+            if (freeResources != null) {
+                freeResources.addAll(nodeSet.getAllNodesUrls());
+            }
+        } catch (Exception e) {
+            logger.info("Unable to get back the nodeSet to the RM", e);
+        }
+    }
+
+    /**
+     * Start the given compatible tasks on the given nodes. Nodes which are not used are given back to the RM.
+     *
+     * @return the tasks which have been started
+     */
+    private List<EligibleTaskDescriptor> startTasks(Policy currentPolicy, Map<JobId, JobDescriptor> jobMap,
+            Set<String> freeResources, LinkedList<EligibleTaskDescriptor> tasksToSchedule, NodeSet nodeSet) {
+        List<EligibleTaskDescriptor> startedTasks = new ArrayList<>();
+        //start selected tasks
+        Node node = null;
+        InternalJob currentJob = null;
+        try {
+            while (nodeSet != null && !nodeSet.isEmpty()) {
+                EligibleTaskDescriptor taskDescriptor = tasksToSchedule.removeFirst();
+                currentJob = ((JobDescriptorImpl) jobMap.get(taskDescriptor.getJobId())).getInternal();
+                InternalTask internalTask = ((EligibleTaskDescriptorImpl) taskDescriptor).getInternal();
+
+                if (currentPolicy.isTaskExecutable(nodeSet, taskDescriptor)) {
+                    //create launcher and try to start the task
+                    node = nodeSet.get(0);
+
+                    schedulingMainLoopTimingLogger.start("createExecution");
+
+                    if (createExecution(nodeSet, node, currentJob, internalTask, taskDescriptor)) {
+                        startedTasks.add(taskDescriptor);
                     }
-                } catch (Exception e1) {
-                    //if we are here, it is that something append while launching the current task.
-                    logger.warn("An exception occured while starting task.", e1);
-                    //so try to get back every remaining nodes to the resource manager
-                    try {
+                    schedulingMainLoopTimingLogger.end("createExecution");
+
+                }
+
+                //if every task that should be launched have been removed
+                if (tasksToSchedule.isEmpty()) {
+                    //get back unused nodes to the RManager
+                    if (!nodeSet.isEmpty()) {
+                        schedulingMainLoopTimingLogger.start("releaseNodes");
                         releaseNodes(currentJob, nodeSet);
                         freeResources.addAll(nodeSet.getAllNodesUrls());
-                    } catch (Exception e2) {
-                        logger.info("Unable to get back the nodeSet to the RM", e2);
+                        schedulingMainLoopTimingLogger.end("releaseNodes");
                     }
+                    //and leave the loop
+                    break;
                 }
             }
-            if (freeResources.isEmpty()) {
-                break;
+        } catch (ActiveObjectCreationException e1) {
+            //Something goes wrong with the active object creation (createLauncher)
+            logger.warn("An exception occured while creating the task launcher.", e1);
+            //so try to get back every remaining nodes to the resource manager
+            try {
+                releaseNodes(currentJob, nodeSet);
+                freeResources.addAll(nodeSet.getAllNodesUrls());
+            } catch (Exception e2) {
+                logger.info("Unable to get back the nodeSet to the RM", e2);
             }
-            if (activeObjectCreationRetryTimeNumber == 0) {
-                break;
+            activeObjectCreationFailed();
+        } catch (Exception e1) {
+            //if we are here, it is that something append while launching the current task.
+            logger.warn("An exception occured while starting task.", e1);
+            //so try to get back every remaining nodes to the resource manager
+            try {
+                releaseNodes(currentJob, nodeSet);
+                freeResources.addAll(nodeSet.getAllNodesUrls());
+            } catch (Exception e2) {
+                logger.info("Unable to get back the nodeSet to the RM", e2);
             }
         }
-
-        // number of nodes needed to start all pending tasks
-        updateNeededNodes(rest);
-
-        return numberOfTaskStarted;
+        return startedTasks;
     }
 
-    private void loggingEligibleTasksDetails(LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy,
+    private void loggingEligibleTasksDetails(int neededNodes,
             LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy) {
-        logger.debug("full list of eligible tasks: " +
-                     (fullListOfTaskRetrievedFromPolicy.size() < 5 ? fullListOfTaskRetrievedFromPolicy
-                                                                   : fullListOfTaskRetrievedFromPolicy.size()));
+        logger.debug("nodes needed by eligible tasks: " + neededNodes);
         logger.debug("working list of eligible tasks: " +
                      (taskRetrievedFromPolicy.size() < 5 ? taskRetrievedFromPolicy : taskRetrievedFromPolicy.size()));
     }
@@ -556,12 +953,15 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
      *
      * @param neededResourcesNumber the number of resources to ask for (must be &gt; 0).
      * @param tasksToSchedule the task to be scheduled
+     * @param freeResources the urls of the nodes which can be selected
+     * @param schedulingMainLoopTimingLogger the logger recording the timings of the request
      * @return A nodeSet that contains at most 'neededResourcesNumber' available compatible resources.
      * 		   An empty nodeSet if no nodes could be found
      * 		   null if the their was an exception when asking for the nodes (ie : selection script has failed)
      */
     protected NodeSet getRMNodes(Map<JobId, JobDescriptor> jobMap, int neededResourcesNumber,
-            LinkedList<EligibleTaskDescriptor> tasksToSchedule, Set<String> freeResources) {
+            LinkedList<EligibleTaskDescriptor> tasksToSchedule, Set<String> freeResources,
+            SchedulingMainLoopTimingLogger schedulingMainLoopTimingLogger) {
         NodeSet nodeSet;
         if (neededResourcesNumber <= 0) {
             throw new IllegalArgumentException("'neededResourcesNumber' must be greater than 0");
@@ -782,6 +1182,9 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
      */
     protected boolean createExecution(NodeSet nodeSet, Node node, InternalJob job, InternalTask task,
             TaskDescriptor taskDescriptor) throws Exception {
+        if (deploymentThreadPool != null) {
+            return enqueueDeployment(nodeSet, node, job, task, taskDescriptor);
+        }
         TaskLauncher launcher = null;
         LiveJobs.JobData jobData = null;
         try {
@@ -826,15 +1229,7 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
                     tlogger.debug(task.getId(), "deploying");
 
-                    // Dynamically adjust the start-task-timeout according to the number dependency tasks in a merge.
-                    // above 500 parent tasks, it is worth adjusting.
-                    if (taskDescriptor.getParents().size() > 500) {
-                        dotaskActionTimeout = (int) (taskDescriptor.getParents().size() / 500.0 *
-                                                     PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt());
-                    } else {
-                        // reset the dotaskActionTimeout to its default value otherwise.
-                        dotaskActionTimeout = PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt();
-                    }
+                    dotaskActionTimeout = getDoTaskActionTimeout(taskDescriptor);
 
                     schedulingMainLoopTimingLogger.start("areNodesRecoverable");
                     boolean taskRecoverable = getRMProxiesManager().getRmProxy().areNodesRecoverable(nodes);
@@ -903,6 +1298,211 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     }
 
+    /**
+     * Reserve the nodes of the task and enqueue its deployment. The job lock, the dataspace application start,
+     * the task launcher creation and the doTask submission are done by the deployment thread pool, so that
+     * the scheduling thread does not wait for them.
+     *
+     * @return true if the deployment of the task has been enqueued
+     */
+    private boolean enqueueDeployment(NodeSet nodeSet, Node node, InternalJob job, InternalTask task,
+            TaskDescriptor taskDescriptor) throws Exception {
+        // the task status is checked again under the job lock by the deployment
+        if (nodeSet.size() < task.getNumberOfNodesNeeded() || task.getStatus() == TaskStatus.PAUSED) {
+            return false;
+        }
+
+        // reserve the nodes of the task
+        nodeSet.remove(0);
+        NodeSet nodes = new NodeSet();
+        if (task.isParallel()) {
+            nodes = new NodeSet(nodeSet);
+            nodeSet.clear();
+        }
+        deployingTasks.add(TaskIdWrapper.wrap(task.getId()));
+
+        tlogger.debug(task.getId(), "deployment enqueued");
+
+        TaskDeployment deployment = new TaskDeployment(node,
+                                                       nodes,
+                                                       job,
+                                                       task,
+                                                       taskDescriptor,
+                                                       getDoTaskActionTimeout(taskDescriptor));
+        schedulingMainLoopTimingLogger.start("enqueueDeployment");
+        try {
+            deploymentThreadPool.execute(deployment);
+        } catch (RejectedExecutionException e) {
+            deployment.cancel();
+            throw e;
+        } finally {
+            schedulingMainLoopTimingLogger.end("enqueueDeployment");
+        }
+        return true;
+    }
+
+    /**
+     * Deployment of a task whose nodes are reserved, run by the deployment thread pool.
+     */
+    private final class TaskDeployment implements Runnable {
+
+        private final Node node;
+
+        private final NodeSet nodes;
+
+        private final InternalJob job;
+
+        private final InternalTask task;
+
+        private final TaskDescriptor taskDescriptor;
+
+        private final int doTaskActionTimeout;
+
+        private TaskDeployment(Node node, NodeSet nodes, InternalJob job, InternalTask task,
+                TaskDescriptor taskDescriptor, int doTaskActionTimeout) {
+            this.node = node;
+            this.nodes = nodes;
+            this.job = job;
+            this.task = task;
+            this.taskDescriptor = taskDescriptor;
+            this.doTaskActionTimeout = doTaskActionTimeout;
+        }
+
+        @Override
+        public void run() {
+            deployTask(node, nodes, job, task, taskDescriptor, doTaskActionTimeout);
+        }
+
+        /**
+         * Give back the nodes of a deployment which will not run, the task stays eligible.
+         */
+        private void cancel() {
+            tlogger.info(task.getId(), "deployment cancelled");
+            releaseDeploymentNodes(job, node, nodes);
+            deployingTasks.remove(TaskIdWrapper.wrap(task.getId()));
+        }
+    }
+
+    /**
+     * Start the dataspace application of the job, create the launcher of the task and submit its doTask action.
+     * Run by the deployment thread pool. If the task cannot be started anymore, or if something goes wrong,
+     * the nodes of the task are given back to the RM and the task stays eligible for a next scheduling loop.
+     */
+    private void deployTask(Node node, NodeSet nodes, InternalJob job, InternalTask task,
+            TaskDescriptor taskDescriptor, int doTaskActionTimeout) {
+        LiveJobs.JobData jobData = null;
+        try {
+            jobData = schedulingService.lockJob(job.getId());
+            if (!isDeployable(jobData, task)) {
+                releaseDeploymentNodes(job, node, nodes);
+                return;
+            }
+            //start dataspace app for this job, the launcher initializer relies on it
+            DataSpaceServiceStarter dsStarter = schedulingService.getInfrastructure().getDataSpaceServiceStarter();
+            job.startDataSpaceApplication(dsStarter.getNamingService(), ImmutableList.of(task));
+            job.setSynchronizationAPI(schedulingService.getSynchronizationAPI());
+            task.getExecutableContainer().setNodes(nodes);
+            // the job is not locked while the launcher is created on the node
+            jobData.unlock();
+            jobData = null;
+
+            TaskLauncher launcher = task.createLauncher(node);
+
+            activeObjectCreationRetryTimeNumber = ACTIVEOBJECT_CREATION_RETRY_TIME_NUMBER;
+
+            //if topology is enabled and it is a multi task, give every nodes to the multi-nodes task
+            if (task.isParallel()) {
+                task.getExecuterInformation().addNodes(nodes);
+            }
+
+            boolean taskRecoverable = getRMProxiesManager().getRmProxy().areNodesRecoverable(nodes);
+            TaskRecoveryData taskRecoveryData = new TaskRecoveryData(terminateNotificationNodeURL, taskRecoverable);
+
+            jobData = schedulingService.lockJob(job.getId());
+            if (!isDeployable(jobData, task)) {
+                releaseDeploymentNodes(job, node, nodes);
+                return;
+            }
+
+            tlogger.debug(task.getId(), "deploying");
+
+            threadPool.submitWithTimeout(new TimedDoTaskAction(job,
+                                                               taskDescriptor,
+                                                               launcher,
+                                                               schedulingService,
+                                                               terminateNotification,
+                                                               corePrivateKey,
+                                                               taskRecoveryData),
+                                         doTaskActionTimeout,
+                                         TimeUnit.MILLISECONDS);
+
+            finalizeStarting(job, task, node, launcher);
+            deployedTasks.incrementAndGet();
+        } catch (ActiveObjectCreationException e) {
+            //Something goes wrong with the active object creation (createLauncher)
+            logger.warn("An exception occured while creating the task launcher of task " + task.getId(), e);
+            releaseDeploymentNodes(job, node, nodes);
+            activeObjectCreationFailed();
+        } catch (Exception e) {
+            logger.warn("An exception occured while deploying task " + task.getId(), e);
+            releaseDeploymentNodes(job, node, nodes);
+        } finally {
+            if (jobData != null) {
+                jobData.unlock();
+            }
+            deployingTasks.remove(TaskIdWrapper.wrap(task.getId()));
+        }
+        // the task is either started or eligible again, a new scheduling loop can use its result
+        schedulingService.wakeUpSchedulingThread();
+    }
+
+    /**
+     * @return false if the job has been terminated or the task has been paused or killed since it was scheduled
+     */
+    private static boolean isDeployable(LiveJobs.JobData jobData, InternalTask task) {
+        if (jobData == null ||
+            (task.getStatus() != TaskStatus.PENDING && task.getStatus() != TaskStatus.SUBMITTED)) {
+            tlogger.info(task.getId(), "deployment cancelled, task status is " + task.getStatus());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of tasks deployed since the previous call
+     */
+    int collectDeployedTasks() {
+        return deployedTasks.getAndSet(0);
+    }
+
+    private synchronized void activeObjectCreationFailed() {
+        if (activeObjectCreationRetryTimeNumber > 0) {
+            --activeObjectCreationRetryTimeNumber;
+        }
+    }
+
+    private void releaseDeploymentNodes(InternalJob job, Node node, NodeSet nodes) {
+        NodeSet toRelease = new NodeSet(nodes);
+        toRelease.add(node);
+        try {
+            releaseNodes(job, toRelease);
+        } catch (Exception e) {
+            logger.info("Unable to get back the nodeSet to the RM", e);
+        }
+    }
+
+    /**
+     * Dynamically adjust the start-task-timeout according to the number dependency tasks in a merge.
+     * Above 500 parent tasks, it is worth adjusting, otherwise the default value is used.
+     */
+    private static int getDoTaskActionTimeout(TaskDescriptor taskDescriptor) {
+        if (taskDescriptor.getParents().size() > 500) {
+            return (int) (taskDescriptor.getParents().size() / 500.0 *
+                          PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt());
+        }
+        return PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt();
+    }
+
     /**
      * Finalize the start of the task by mark it as started. Also mark the job if it is not already started.
      *
@@ -471,6 +471,13 @@ public class SchedulingService {
         return jobs.lockJobsToSchedule(isPausedOrStopped());
     }
 
+    /*
+     * Should be called only by scheduling method impl while it holds the lock of the jobs to schedule
+     */
+    public EligibleTasksIndex getEligibleTasksIndex() {
+        return jobs.getEligibleTasksIndex();
+    }
+
     /*
      * Should be called only by scheduling method impl when job scheduling starts
      */
@@ -530,6 +537,14 @@ public class SchedulingService {
         }
     }
 
+    public void submitJobs(List<InternalJob> jobs) {
+        try {
+            infrastructure.getClientOperationsThreadPool().submit(new SubmitHandler(this, jobs)).get();
+        } catch (Exception e) {
+            throw handleFutureWaitException(e);
+        }
+    }
+
     public boolean pauseJob(final JobId jobId) {
         try {
             if (status.isShuttingDown()) {
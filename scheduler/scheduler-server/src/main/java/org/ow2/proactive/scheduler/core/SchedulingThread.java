@@ -49,21 +49,25 @@ public final class SchedulingThread extends Thread {
     public void run() {
         boolean tasksStarted;
 
-        while (!isInterrupted()) {
-            try {
-                tasksStarted = false;
-                if (service.status == SchedulerStatus.STARTED || service.status == SchedulerStatus.PAUSED ||
-                    service.status == SchedulerStatus.STOPPED) {
-                    tasksStarted = schedulingMethod.schedule() > 0;
+        try {
+            while (!isInterrupted()) {
+                try {
+                    tasksStarted = false;
+                    if (service.status == SchedulerStatus.STARTED || service.status == SchedulerStatus.PAUSED ||
+                        service.status == SchedulerStatus.STOPPED) {
+                        tasksStarted = schedulingMethod.schedule() > 0;
+                    }
+                    if (!tasksStarted) {
+                        service.sleepSchedulingThread();
+                    }
+                } catch (InterruptedException e) {
+                    break;
+                } catch (Throwable t) {
+                    service.handleException(t);
                 }
-                if (!tasksStarted) {
-                    service.sleepSchedulingThread();
-                }
-            } catch (InterruptedException e) {
-                break;
-            } catch (Throwable t) {
-                service.handleException(t);
             }
+        } finally {
+            schedulingMethod.shutdown();
         }
     }
 
@@ -25,6 +25,9 @@
  */
 package org.ow2.proactive.scheduler.core;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.job.InternalJob;
 
@@ -33,23 +36,34 @@ class SubmitHandler implements Runnable {
 
     static final Logger logger = Logger.getLogger(SchedulingService.class);
 
-    private final InternalJob job;
+    private final List<InternalJob> jobs;
 
     private final SchedulingService service;
 
     SubmitHandler(SchedulingService service, InternalJob job) {
+        this(service, Collections.singletonList(job));
+    }
+
+    SubmitHandler(SchedulingService service, List<InternalJob> jobs) {
         this.service = service;
-        this.job = job;
+        this.jobs = jobs;
     }
 
     @Override
     public void run() {
-        if (logger.isDebugEnabled()) {
-            logger.debug("Submitting a new job '" + job.getName() + "'");
+        if (jobs.size() == 1) {
+            InternalJob job = jobs.get(0);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Submitting a new job '" + job.getName() + "'");
+            }
+            service.getJobs().jobSubmitted(job);
+        } else {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Submitting " + jobs.size() + " new jobs");
+            }
+            service.getJobs().jobsSubmitted(jobs);
         }
 
-        service.getJobs().jobSubmitted(job);
-
         service.wakeUpSchedulingThread();
     }
 
@@ -145,6 +145,10 @@ public class SchedulerDBManager {
 
     private final TransactionHelper transactionHelper;
 
+    private final int jdbcBatchSize;
+
+    private final SchedulerDBManagerBuffer buffer = new SchedulerDBManagerBuffer(this);
+
     public static SchedulerDBManager createUsingProperties() {
         if (System.getProperty(JAVA_PROPERTYNAME_NODB) != null) {
             return createInMemorySchedulerDBManager();
@@ -198,6 +202,19 @@ public class SchedulerDBManager {
             configuration.setProperty("hibernate.jdbc.use_streams_for_binary", "true");
             configuration.setProperty("hibernate.connection.isolation", "2");
 
+            // batch the inserts of new jobs, unless configured otherwise in the hibernate configuration file
+            if (configuration.getProperty("hibernate.jdbc.batch_size") == null) {
+                configuration.setProperty("hibernate.jdbc.batch_size",
+                                          PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.getValueAsString());
+            }
+            if (configuration.getProperty("hibernate.order_inserts") == null) {
+                configuration.setProperty("hibernate.order_inserts", "true");
+            }
+            if (configuration.getProperty("hibernate.order_updates") == null) {
+                configuration.setProperty("hibernate.order_updates", "true");
+            }
+            jdbcBatchSize = Integer.parseInt(configuration.getProperty("hibernate.jdbc.batch_size").trim());
+
             ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder().applySettings(configuration.getProperties())
                                                                                   .build();
             sessionFactory = configuration.buildSessionFactory(serviceRegistry);
@@ -434,6 +451,11 @@ public class SchedulerDBManager {
     }
 
     public void close() {
+        try {
+            buffer.close();
+        } catch (Exception e) {
+            logger.error("Error while writing buffered updates in database", e);
+        }
         try {
             if (sessionFactory != null) {
                 logger.info("Closing session factory");
@@ -1538,6 +1560,65 @@ public class SchedulerDBManager {
         });
     }
 
+    /**
+     * Update the status and scheduled time of several tasks in a single transaction. Tasks sharing the same
+     * job, statuses and scheduled time are updated with a single statement.
+     * A task which does not have its previous status in database is not updated: its status has been changed
+     * in the meantime (paused, restarted on error, started...) and the new status is more recent than the update.
+     *
+     * @param updates the updates to apply
+     */
+    public void updateTaskStatusesAndScheduledTimes(final Collection<TaskStatusUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        Map<TaskStatusUpdate.GroupKey, List<Long>> taskIdsByGroup = new LinkedHashMap<>();
+        for (TaskStatusUpdate update : updates) {
+            taskIdsByGroup.computeIfAbsent(update.getGroupKey(), key -> new ArrayList<>())
+                          .add(update.getTaskId().getTaskId());
+        }
+
+        executeReadWriteTransaction((SessionWork<Void>) session -> {
+            Query query = session.createQuery("update TaskData task " +
+                                              "set task.taskStatus = :newStatus, task.scheduledTime = :newTime " +
+                                              "where task.id.jobId = :jobId and task.id.taskId in :taskIds " +
+                                              "and task.taskStatus = :previousStatus");
+
+            for (Map.Entry<TaskStatusUpdate.GroupKey, List<Long>> group : taskIdsByGroup.entrySet()) {
+                TaskStatusUpdate.GroupKey key = group.getKey();
+                for (List<Long> taskIds : Lists.partition(group.getValue(), MAX_ITEMS_IN_LIST)) {
+                    int updated = query.setParameter("newStatus", key.getNewStatus())
+                                       .setParameter("newTime", key.getScheduledTime())
+                                       .setParameter("jobId", key.getJobId())
+                                       .setParameterList("taskIds", taskIds)
+                                       .setParameter("previousStatus", key.getPreviousStatus())
+                                       .executeUpdate();
+                    if (updated < taskIds.size()) {
+                        // the status in database has been changed after the update was issued, keep it
+                        logger.debug(String.format("%d tasks of job %d did not have status %s in database anymore, they have not been updated to %s",
+                                                   taskIds.size() - updated,
+                                                   key.getJobId(),
+                                                   key.getPreviousStatus(),
+                                                   key.getNewStatus()));
+                    }
+                }
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Same as {@link #updateTaskStatusesAndScheduledTimes(Collection)}, the updates being possibly delayed to be
+     * batched with the next ones, see {@link PASchedulerProperties#SCHEDULER_DB_TASK_STATUS_UPDATES_DELAY}.
+     * To be used only for updates which are not needed to recover the scheduler state.
+     *
+     * @param updates the updates to apply
+     */
+    public void bufferTaskStatusesAndScheduledTimes(final Collection<TaskStatusUpdate> updates) {
+        buffer.addTaskStatusUpdatesToPendingDatabaseOperations(updates);
+    }
+
     public void updateTaskStatus(final EligibleTaskDescriptorImpl task, final TaskStatus newStatus) {
         executeReadWriteTransaction((SessionWork<Void>) session -> {
 
@@ -1761,6 +1842,52 @@ public class SchedulerDBManager {
 
     }
 
+    /**
+     * Loads the variables propagated by the last result of each of the given tasks,
+     * without loading the result values, exceptions or logs.
+     *
+     * @param jobId id of the job the tasks belong to
+     * @param taskIds ids of the tasks, each must have at least one result
+     * @return the propagated variables of each task, null values being kept for tasks
+     * which did not propagate any variable
+     */
+    @SuppressWarnings("unchecked")
+    public Map<TaskId, Map<String, byte[]>> loadTasksPropagatedVariables(final JobId jobId,
+            final List<TaskId> taskIds) {
+        if (taskIds.isEmpty()) {
+            throw new IllegalArgumentException("TaskIds list is empty");
+        }
+
+        return executeReadOnlyTransaction(session -> {
+            Map<DBTaskId, TaskId> taskIdsByDbTaskId = new HashMap<>(taskIds.size());
+            for (TaskId taskId : taskIds) {
+                taskIdsByDbTaskId.put(taskId(taskId), taskId);
+            }
+
+            Map<TaskId, Map<String, byte[]>> propagatedVariablesMap = new HashMap<>(taskIds.size());
+            for (List<DBTaskId> dbTaskIdsSubList : Lists.partition(new ArrayList<>(taskIdsByDbTaskId.keySet()),
+                                                                   MAX_ITEMS_IN_LIST)) {
+                List<Object[]> resultList = session.getNamedQuery("loadTasksPropagatedVariables")
+                                                   .setParameterList("tasksIds", dbTaskIdsSubList)
+                                                   .list();
+                for (Object[] result : resultList) {
+                    TaskId taskId = taskIdsByDbTaskId.get((DBTaskId) result[0]);
+                    // results are sorted by descending time, only the last one is kept
+                    if (!propagatedVariablesMap.containsKey(taskId)) {
+                        propagatedVariablesMap.put(taskId, (Map<String, byte[]>) result[1]);
+                    }
+                }
+            }
+
+            if (propagatedVariablesMap.size() != taskIds.size()) {
+                throw new DatabaseManagerException("Failed to load results of tasks " + taskIds + " (job: " + jobId +
+                                                   "), " + propagatedVariablesMap.size() + " found");
+            }
+
+            return propagatedVariablesMap;
+        });
+    }
+
     @SuppressWarnings("unchecked")
     public JobResult loadJobResult(final JobId jobId) {
         return executeReadOnlyTransaction((SessionWork<JobResult>) session -> {
@@ -1916,52 +2043,96 @@ public class SchedulerDBManager {
     }
 
     public void newJobSubmitted(final InternalJob job) {
+        newJobsSubmitted(Collections.singletonList(job));
+    }
+
+    /**
+     * Persist several newly submitted jobs in a single transaction. Job and task ids are assigned
+     * to the given jobs, tasks are written using JDBC batches.
+     *
+     * @param jobs the jobs to persist
+     */
+    public void newJobsSubmitted(final List<InternalJob> jobs) {
         executeReadWriteTransaction(session -> {
-            JobData jobRuntimeData = JobData.createJobData(job);
-            session.save(jobRuntimeData);
+            for (InternalJob job : jobs) {
+                saveNewJob(session, job);
+            }
+            return null;
+        });
+    }
 
-            job.setId(new JobIdImpl(jobRuntimeData.getId(), job.getName()));
+    private JobData saveNewJob(Session session, InternalJob job) {
+        JobData jobRuntimeData = JobData.createJobData(job);
+        session.save(jobRuntimeData);
 
-            ArrayList<InternalTask> iTasks = job.getITasks();
-            List<InternalTask> tasksWithNewIds = new ArrayList<>(iTasks.size());
+        job.setId(new JobIdImpl(jobRuntimeData.getId(), job.getName()));
 
-            for (int i = 0; i < iTasks.size(); i++) {
-                InternalTask task = iTasks.get(i);
-                task.setId(TaskIdImpl.createTaskId(job.getId(), task.getTaskInfo().getTaskId().getReadableName(), i));
+        ArrayList<InternalTask> iTasks = job.getITasks();
+        List<InternalTask> tasksWithNewIds = new ArrayList<>(iTasks.size());
 
-                tasksWithNewIds.add(task);
-            }
+        for (int i = 0; i < iTasks.size(); i++) {
+            InternalTask task = iTasks.get(i);
+            task.setId(TaskIdImpl.createTaskId(job.getId(), task.getTaskInfo().getTaskId().getReadableName(), i));
 
-            job.getIHMTasks().clear();
+            tasksWithNewIds.add(task);
+        }
 
-            for (InternalTask task : tasksWithNewIds) {
-                job.getIHMTasks().put(task.getId(), task);
-            }
+        job.getIHMTasks().clear();
 
-            List<InternalTask> tasks = job.getITasks();
-            List<TaskData> taskRuntimeDataList = new ArrayList<>(tasks.size());
-            for (InternalTask task : tasks) {
-                taskRuntimeDataList.add(saveNewTask(session, jobRuntimeData, task));
+        for (InternalTask task : tasksWithNewIds) {
+            job.getIHMTasks().put(task.getId(), task);
+        }
+
+        // dependencies are set before saving the tasks, so that they are inserted with them, as well as
+        // the if branches which are already saved, the other if branches are set once every task has been saved
+        Set<DBTaskId> savedTaskIds = new HashSet<>();
+        List<InternalTask> tasksWithUnsavedIfBranch = new ArrayList<>();
+        int counter = 0;
+        for (InternalTask task : tasksWithNewIds) {
+            TaskData taskRuntimeData = createTaskData(jobRuntimeData, task);
+            setDependentTasksAndJoinedBranches(task, taskRuntimeData);
+            if (task.getIfBranch() != null) {
+                DBTaskId ifBranchId = taskId(task.getIfBranch());
+                if (savedTaskIds.contains(ifBranchId)) {
+                    // a reference is enough to write the foreign key, even if the task has been flushed
+                    taskRuntimeData.setIfBranch(session.load(TaskData.class, ifBranchId));
+                } else {
+                    tasksWithUnsavedIfBranch.add(task);
+                }
             }
-            saveTaskDependencies(session, tasks, taskRuntimeDataList);
+            session.save(taskRuntimeData);
+            savedTaskIds.add(taskRuntimeData.getId());
+            if (jdbcBatchSize > 0 && ++counter % jdbcBatchSize == 0) {
+                session.flush();
+                session.clear();
+                // the job data is detached by the clear, the next tasks must reference a managed instance
+                jobRuntimeData = session.load(JobData.class, jobRuntimeData.getId());
+            }
+        }
 
-            return jobRuntimeData;
-        });
+        for (InternalTask task : tasksWithUnsavedIfBranch) {
+            session.get(TaskData.class, taskId(task)).setIfBranch(session.load(TaskData.class,
+                                                                               taskId(task.getIfBranch())));
+        }
+
+        return jobRuntimeData;
     }
 
     private TaskData getTaskReference(Session session, InternalTask task) {
         return session.get(TaskData.class, taskId(task));
     }
 
-    private void saveTaskDependencies(Session session, List<InternalTask> tasks, List<TaskData> taskRuntimeDataList) {
-        for (int i = 0; i < tasks.size(); i++) {
-            InternalTask task = tasks.get(i);
-            TaskData taskRuntimeData = taskRuntimeDataList.get(i);
-            saveSingleTaskDependencies(session, task, taskRuntimeData);
+    private void saveSingleTaskDependencies(Session session, InternalTask task, TaskData taskRuntimeData) {
+        setDependentTasksAndJoinedBranches(task, taskRuntimeData);
+
+        if (task.getIfBranch() != null) {
+            taskRuntimeData.setIfBranch(getTaskReference(session, task.getIfBranch()));
+        } else {
+            taskRuntimeData.setIfBranch(null);
         }
     }
 
-    private void saveSingleTaskDependencies(Session session, InternalTask task, TaskData taskRuntimeData) {
+    private void setDependentTasksAndJoinedBranches(InternalTask task, TaskData taskRuntimeData) {
         if (task.hasDependences()) {
             List<DBTaskId> dependencies = task.getDependences()
                                               .stream()
@@ -1973,12 +2144,6 @@ public class SchedulerDBManager {
             taskRuntimeData.setDependentTasks(Collections.emptyList());
         }
 
-        if (task.getIfBranch() != null) {
-            taskRuntimeData.setIfBranch(getTaskReference(session, task.getIfBranch()));
-        } else {
-            taskRuntimeData.setIfBranch(null);
-        }
-
         if (task.getJoinedBranches() != null && !task.getJoinedBranches().isEmpty()) {
             List<DBTaskId> joinedBranches = task.getJoinedBranches()
                                                 .stream()
@@ -1991,11 +2156,15 @@ public class SchedulerDBManager {
     }
 
     private TaskData saveNewTask(Session session, JobData jobRuntimeData, InternalTask task) {
+        TaskData taskRuntimeData = createTaskData(jobRuntimeData, task);
+        session.save(taskRuntimeData);
+        return taskRuntimeData;
+    }
+
+    private TaskData createTaskData(JobData jobRuntimeData, InternalTask task) {
         // TODO: use double dispatch to prevent branching
         if (isScriptTask(task)) {
-            TaskData taskRuntimeData = TaskData.createTaskData(jobRuntimeData, (InternalScriptTask) task);
-            session.save(taskRuntimeData);
-            return taskRuntimeData;
+            return TaskData.createTaskData(jobRuntimeData, (InternalScriptTask) task);
         } else {
             throw new IllegalArgumentException("Unexpected task class: " + task.getClass());
         }
@@ -2066,7 +2235,7 @@ public class SchedulerDBManager {
         return transactionHelper.executeReadOnlyTransaction(sessionWork);
     }
 
-    private static TaskData.DBTaskId taskId(InternalTask task) {
+    static TaskData.DBTaskId taskId(InternalTask task) {
         return taskId(task.getId());
     }
 
@@ -0,0 +1,193 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+
+
+/**
+ * Write-behind buffer for the task status updates which are not critical for the recovery of the scheduler,
+ * such as the transition of eligible tasks to the pending status. Buffered updates are written in database
+ * in a single transaction, at most {@link PASchedulerProperties#SCHEDULER_DB_TASK_STATUS_UPDATES_DELAY} milliseconds
+ * after the first of them has been buffered, or as soon as too many updates are buffered.
+ * Buffered updates are always written by a dedicated thread, except the remaining ones which are written when
+ * the buffer is closed.
+ */
+class SchedulerDBManagerBuffer {
+
+    private static final Logger logger = Logger.getLogger(SchedulerDBManagerBuffer.class);
+
+    private static final int MAXIMUM_BUFFERIZED_TASK_STATUS_UPDATES = 10000;
+
+    private final SchedulerDBManager dbManager;
+
+    private final int delay;
+
+    /**
+     * Last update to apply per task, in the order the tasks have been buffered.
+     */
+    private final Map<TaskData.DBTaskId, TaskStatusUpdate> pendingTaskStatusUpdates = new LinkedHashMap<>();
+
+    private final Lock pendingTaskStatusUpdatesLock = new ReentrantLock();
+
+    /**
+     * Serializes the transactions, so that the updates of a task are written in the order they have been buffered.
+     */
+    private final Lock taskStatusTransactionLock = new ReentrantLock();
+
+    private ScheduledExecutorService databaseTransactionExecutor;
+
+    private ScheduledFuture<?> scheduledTaskStatusTransaction;
+
+    private boolean closed;
+
+    SchedulerDBManagerBuffer(SchedulerDBManager dbManager) {
+        this.dbManager = dbManager;
+        this.delay = PASchedulerProperties.SCHEDULER_DB_TASK_STATUS_UPDATES_DELAY.getValueAsInt();
+    }
+
+    void addTaskStatusUpdatesToPendingDatabaseOperations(Collection<TaskStatusUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        if (delay == 0) {
+            dbManager.updateTaskStatusesAndScheduledTimes(updates);
+            return;
+        }
+        boolean writeNow = false;
+        pendingTaskStatusUpdatesLock.lock();
+        try {
+            for (TaskStatusUpdate update : updates) {
+                TaskStatusUpdate previous = pendingTaskStatusUpdates.remove(update.getTaskId());
+                if (previous != null) {
+                    // the task still has, in database, the previous status of the first buffered update
+                    update = new TaskStatusUpdate(update, previous.getPreviousStatus());
+                }
+                pendingTaskStatusUpdates.put(update.getTaskId(), update);
+            }
+            if (closed) {
+                writeNow = true;
+            } else if (pendingTaskStatusUpdates.size() >= MAXIMUM_BUFFERIZED_TASK_STATUS_UPDATES) {
+                if (scheduledTaskStatusTransaction == null || scheduledTaskStatusTransaction.isDone() ||
+                    scheduledTaskStatusTransaction.getDelay(TimeUnit.MILLISECONDS) > 0) {
+                    // too many updates are buffered, write them now but without blocking the caller
+                    logger.debug("Apply " + pendingTaskStatusUpdates.size() + " task status updates in database");
+                    if (scheduledTaskStatusTransaction != null) {
+                        scheduledTaskStatusTransaction.cancel(false);
+                    }
+                    scheduledTaskStatusTransaction = getDatabaseTransactionExecutor().schedule(this::flush,
+                                                                                               0,
+                                                                                               TimeUnit.MILLISECONDS);
+                }
+            } else if (scheduledTaskStatusTransaction == null || scheduledTaskStatusTransaction.isDone()) {
+                // the flush is not postponed by the next updates, so that the staleness of the database is bounded
+                scheduledTaskStatusTransaction = getDatabaseTransactionExecutor().schedule(this::flush,
+                                                                                           delay,
+                                                                                           TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            pendingTaskStatusUpdatesLock.unlock();
+        }
+        if (writeNow) {
+            buildTaskStatusTransactionAndCommit();
+        }
+    }
+
+    /**
+     * Write all the buffered updates in database.
+     */
+    void flush() {
+        buildTaskStatusTransactionAndCommit();
+    }
+
+    /**
+     * Write all the buffered updates in database and stop the buffering, next updates are written synchronously.
+     */
+    void close() {
+        pendingTaskStatusUpdatesLock.lock();
+        try {
+            closed = true;
+            if (scheduledTaskStatusTransaction != null) {
+                scheduledTaskStatusTransaction.cancel(false);
+            }
+        } finally {
+            pendingTaskStatusUpdatesLock.unlock();
+        }
+        buildTaskStatusTransactionAndCommit();
+        if (databaseTransactionExecutor != null) {
+            databaseTransactionExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Write the buffered updates in database. The buffer is only locked while the updates are taken from it, so
+     * that updates can still be buffered during the transaction.
+     */
+    private void buildTaskStatusTransactionAndCommit() {
+        taskStatusTransactionLock.lock();
+        try {
+            List<TaskStatusUpdate> updates;
+            pendingTaskStatusUpdatesLock.lock();
+            try {
+                updates = drainPendingTaskStatusUpdates();
+            } finally {
+                pendingTaskStatusUpdatesLock.unlock();
+            }
+            dbManager.updateTaskStatusesAndScheduledTimes(updates);
+        } catch (Exception e) {
+            logger.warn("Task status updates could not be applied in database", e);
+        } finally {
+            taskStatusTransactionLock.unlock();
+        }
+    }
+
+    private List<TaskStatusUpdate> drainPendingTaskStatusUpdates() {
+        List<TaskStatusUpdate> updates = new ArrayList<>(pendingTaskStatusUpdates.values());
+        pendingTaskStatusUpdates.clear();
+        return updates;
+    }
+
+    private ScheduledExecutorService getDatabaseTransactionExecutor() {
+        if (databaseTransactionExecutor == null) {
+            databaseTransactionExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("TaskStatusUpdatesBuffer"));
+        }
+        return databaseTransactionExecutor;
+    }
+}
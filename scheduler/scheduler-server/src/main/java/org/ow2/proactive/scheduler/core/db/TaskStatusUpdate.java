@@ -0,0 +1,144 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Status and scheduled time of a task to be written in database.
+ * <p>
+ * The update is applied only if the task still has its previous status in database. An update written late
+ * (see {@link SchedulerDBManagerBuffer}) thus never overrides a more recent status of the task.
+ */
+public final class TaskStatusUpdate {
+
+    private final TaskData.DBTaskId taskId;
+
+    private final TaskStatus previousStatus;
+
+    private final TaskStatus newStatus;
+
+    private final long scheduledTime;
+
+    /**
+     * @param task the task, already holding its new status and scheduled time
+     * @param previousStatus the status of the task before the update
+     */
+    public TaskStatusUpdate(InternalTask task, TaskStatus previousStatus) {
+        this.taskId = SchedulerDBManager.taskId(task);
+        this.previousStatus = previousStatus;
+        this.newStatus = task.getStatus();
+        this.scheduledTime = task.getScheduledTime();
+    }
+
+    TaskStatusUpdate(TaskStatusUpdate update, TaskStatus previousStatus) {
+        this.taskId = update.taskId;
+        this.previousStatus = previousStatus;
+        this.newStatus = update.newStatus;
+        this.scheduledTime = update.scheduledTime;
+    }
+
+    TaskData.DBTaskId getTaskId() {
+        return taskId;
+    }
+
+    TaskStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    TaskStatus getNewStatus() {
+        return newStatus;
+    }
+
+    long getScheduledTime() {
+        return scheduledTime;
+    }
+
+    /**
+     * Updates having the same key can be applied with a single statement.
+     */
+    GroupKey getGroupKey() {
+        return new GroupKey(taskId.getJobId(), previousStatus, newStatus, scheduledTime);
+    }
+
+    static final class GroupKey {
+
+        private final long jobId;
+
+        private final TaskStatus previousStatus;
+
+        private final TaskStatus newStatus;
+
+        private final long scheduledTime;
+
+        private GroupKey(long jobId, TaskStatus previousStatus, TaskStatus newStatus, long scheduledTime) {
+            this.jobId = jobId;
+            this.previousStatus = previousStatus;
+            this.newStatus = newStatus;
+            this.scheduledTime = scheduledTime;
+        }
+
+        long getJobId() {
+            return jobId;
+        }
+
+        TaskStatus getPreviousStatus() {
+            return previousStatus;
+        }
+
+        TaskStatus getNewStatus() {
+            return newStatus;
+        }
+
+        long getScheduledTime() {
+            return scheduledTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            GroupKey that = (GroupKey) o;
+
+            return jobId == that.jobId && scheduledTime == that.scheduledTime &&
+                   previousStatus == that.previousStatus && newStatus == that.newStatus;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (jobId ^ (jobId >>> 32));
+            result = 31 * result + (previousStatus != null ? previousStatus.hashCode() : 0);
+            result = 31 * result + (newStatus != null ? newStatus.hashCode() : 0);
+            result = 31 * result + (int) (scheduledTime ^ (scheduledTime >>> 32));
+            return result;
+        }
+    }
+}
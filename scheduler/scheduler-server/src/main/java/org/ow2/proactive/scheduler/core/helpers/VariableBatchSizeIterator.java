@@ -25,20 +25,39 @@
  */
 package org.ow2.proactive.scheduler.core.helpers;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 
 public class VariableBatchSizeIterator<T> {
     final private List<T> rawList;
 
+    final private Iterator<T> rawIterator;
+
     private int offset;
 
     public VariableBatchSizeIterator(List<T> list) {
         this.rawList = list;
+        this.rawIterator = null;
+        this.offset = 0;
+    }
+
+    /**
+     * Create a batch iterator whose elements are lazily pulled from the given iterator,
+     * only the elements which are actually requested are consumed
+     * @param iterator
+     */
+    public VariableBatchSizeIterator(Iterator<T> iterator) {
+        this.rawList = null;
+        this.rawIterator = iterator;
         this.offset = 0;
     }
 
     public boolean hasMoreElements() {
+        if (rawIterator != null) {
+            return rawIterator.hasNext();
+        }
         return offset < rawList.size();
     }
 
@@ -51,6 +70,14 @@ public class VariableBatchSizeIterator<T> {
         if (limit < 0) {
             throw new IllegalArgumentException("limit cannot be negative. Given: " + limit);
         }
+        if (rawIterator != null) {
+            List<T> batch = new ArrayList<>();
+            while (batch.size() < limit && rawIterator.hasNext()) {
+                batch.add(rawIterator.next());
+            }
+            offset += batch.size();
+            return batch;
+        }
         int upperIndexExclusive = Math.min(rawList.size(), offset + limit);
         List<T> subList = rawList.subList(offset, upperIndexExclusive);
         offset = upperIndexExclusive;
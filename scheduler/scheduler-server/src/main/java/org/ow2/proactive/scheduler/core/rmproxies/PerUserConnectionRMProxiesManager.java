@@ -83,7 +83,8 @@ public final class PerUserConnectionRMProxiesManager extends RMProxiesManager {
             RMProxy proxy = userProxiesMap.get(user);
             if (proxy == null) {
                 try {
-                    proxy = new RMProxy(rmURI, credentials);
+                    // nodes acquired by users are reported to the state of the scheduler proxy
+                    proxy = new RMProxy(rmURI, credentials, schedulerRMProxy);
                     userProxiesMap.put(user, proxy);
                 } catch (RMException e) {
                     throw new RMProxyCreationException(e);
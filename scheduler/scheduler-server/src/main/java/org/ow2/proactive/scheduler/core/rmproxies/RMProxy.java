@@ -26,6 +26,7 @@
 package org.ow2.proactive.scheduler.core.rmproxies;
 
 import java.net.URI;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -64,9 +65,17 @@ public class RMProxy {
 
     private Credentials creds;
 
+    /** Proxy whose RM state is used by the scheduling loop, told about the nodes acquired through this proxy */
+    private final RMProxy stateProxy;
+
     RMProxy(URI rmURL, Credentials creds) throws RMException, RMProxyCreationException {
+        this(rmURL, creds, null);
+    }
+
+    RMProxy(URI rmURL, Credentials creds, RMProxy stateProxy) throws RMException, RMProxyCreationException {
         this.rmURL = rmURL;
         this.creds = creds;
+        this.stateProxy = stateProxy != null ? stateProxy : this;
         init();
     }
 
@@ -120,7 +129,23 @@ public class RMProxy {
     }
 
     public NodeSet getNodes(Criteria criteria) {
-        return PAFuture.getFutureValue(proxyActiveObject.getNodes(criteria));
+        NodeSet nodes = PAFuture.getFutureValue(proxyActiveObject.getNodes(criteria));
+        if (nodes != null && !nodes.isEmpty()) {
+            stateProxy.nodesAcquired(nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Remove the given nodes from the free nodes of the RM state, without waiting for the RM events.
+     *
+     * @param nodes nodes acquired through this proxy or through a user proxy
+     */
+    void nodesAcquired(NodeSet nodes) {
+        RMProxyActiveObject activeObject = proxyActiveObject;
+        if (activeObject != null) {
+            activeObject.nodesAcquired(new HashSet<>(nodes.getAllNodesUrls()));
+        }
     }
 
     public void releaseNodes(NodeSet nodeSet) {
@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.core.rmproxies;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -47,6 +48,12 @@ import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
 import org.ow2.proactive.resourcemanager.common.RMConstants;
 import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.frontend.RMEventListener;
+import org.ow2.proactive.resourcemanager.frontend.RMMonitoring;
 import org.ow2.proactive.resourcemanager.frontend.ResourceManager;
 import org.ow2.proactive.resourcemanager.task.client.RMNodeClient;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
@@ -73,7 +80,7 @@ import org.ow2.proactive.utils.NodeSet;
 
 
 @ActiveObject
-public class RMProxyActiveObject {
+public class RMProxyActiveObject implements RMEventListener {
 
     protected static final Logger logger = Logger.getLogger(RMProxyActiveObject.class);
 
@@ -81,6 +88,8 @@ public class RMProxyActiveObject {
 
     private Map<NodeSet, TaskId> nodesTaskId = new ConcurrentHashMap<>();
 
+    private final RMStateMirror stateMirror = new RMStateMirror();
+
     public RMProxyActiveObject() {
     }
 
@@ -113,6 +122,14 @@ public class RMProxyActiveObject {
 
     @ImmediateService
     public BooleanWrapper disconnect() {
+        if (stateMirror.isSynced()) {
+            stateMirror.invalidate();
+            try {
+                rm.getMonitoring().removeRMEventListener();
+            } catch (Exception e) {
+                logger.debug("Cannot remove the RM state listener", e);
+            }
+        }
         return rm.disconnect();
     }
 
@@ -121,8 +138,22 @@ public class RMProxyActiveObject {
         return rm.isActive();
     }
 
+    /**
+     * Return the nodes state of the resource manager. When the state mirror is enabled, the state is read from
+     * the local mirror, which is synchronized with the RM on the first call and then kept up to date by the
+     * RM events. Otherwise, or if the mirror cannot be synchronized, the full state is asked to the RM.
+     */
     @ImmediateService
     public RMState getState() {
+        if (PASchedulerProperties.RESOURCE_MANAGER_STATE_MIRROR.getValueAsBoolean()) {
+            RMState state = stateMirror.getState();
+            if (state == null) {
+                state = synchronizeStateMirror();
+            }
+            if (state != null) {
+                return state;
+            }
+        }
         return rm.getState();
     }
 
@@ -131,6 +162,69 @@ public class RMProxyActiveObject {
         return rm.getNodes(criteria);
     }
 
+    /**
+     * Remove nodes acquired by the scheduler, possibly through another proxy, from the free nodes
+     * of the state mirror: they are not free anymore, even if the events have not been received yet.
+     *
+     * @param nodeUrls urls of the acquired nodes
+     * @return true if the state mirror has been updated
+     */
+    @ImmediateService
+    public boolean nodesAcquired(HashSet<String> nodeUrls) {
+        if (stateMirror.isSynced()) {
+            stateMirror.nodesAcquired(nodeUrls);
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized RMState synchronizeStateMirror() {
+        RMState state = stateMirror.getState();
+        if (state != null) {
+            // synchronized concurrently
+            return state;
+        }
+        try {
+            RMMonitoring monitoring = PAFuture.getFutureValue(rm.getMonitoring());
+            try {
+                monitoring.removeRMEventListener();
+            } catch (Exception e) {
+                logger.debug("No previous RM state listener to remove", e);
+            }
+            RMInitialState initialState = PAFuture.getFutureValue(monitoring.addRMEventListener((RMEventListener) PAActiveObject.getStubOnThis()));
+            RMState fullState = rm.getState();
+            stateMirror.reset(initialState, fullState.getMaxNumberOfNodes());
+            logger.debug("RM state mirror synchronized at version " + stateMirror.getVersion());
+            return stateMirror.getState();
+        } catch (Exception e) {
+            logger.warn("Cannot synchronize the RM state mirror, the RM state will be requested at each scheduling loop",
+                        e);
+            return null;
+        }
+    }
+
+    @Override
+    public void rmEvent(RMEvent event) {
+        applyEvent(event);
+    }
+
+    @Override
+    public void nodeSourceEvent(RMNodeSourceEvent event) {
+        applyEvent(event);
+    }
+
+    @Override
+    public void nodeEvent(RMNodeEvent event) {
+        applyEvent(event);
+    }
+
+    private void applyEvent(RMEvent event) {
+        if (!stateMirror.apply(event)) {
+            logger.warn("Missing RM events detected at version " + stateMirror.getVersion() +
+                        " (received event " + event.getCounter() + "), the RM state mirror will be re-synchronized");
+        }
+    }
+
     @ImmediateService
     public BooleanWrapper releaseNode(Node node) {
         return rm.releaseNode(node);
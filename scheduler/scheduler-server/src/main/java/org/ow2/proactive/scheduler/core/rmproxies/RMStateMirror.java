@@ -0,0 +1,167 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.rmproxies;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.RMStateNodeUrls;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+
+
+/**
+ * Local mirror of the nodes state of the resource manager.
+ * <p>
+ * The mirror is initialized from the snapshot returned when registering an RM event listener,
+ * then kept up to date with the node events. Its version is the counter of the last applied event,
+ * the RM counters being consecutive, a missing event is detected as soon as the next one is received.
+ * In that case the mirror must be re-synchronized from a new snapshot.
+ * <p>
+ * The free, alive and all nodes sets follow the definitions of {@code RMCore#getState()}:
+ * deploying and lost nodes are not part of the state, a node is alive if it is not down
+ * and free if it is in the free state and not locked.
+ */
+class RMStateMirror {
+
+    private final Set<String> freeNodes = new HashSet<>();
+
+    private final Set<String> aliveNodes = new HashSet<>();
+
+    private final Set<String> allNodes = new HashSet<>();
+
+    private Long maxNumberOfNodes;
+
+    private long version = RMInitialState.EMPTY_STATE;
+
+    private boolean synced = false;
+
+    /**
+     * Replace the content of the mirror with the given snapshot.
+     *
+     * @param initialState snapshot of the RM state
+     * @param maxNumberOfNodes maximum number of nodes of the RM
+     */
+    synchronized void reset(RMInitialState initialState, Long maxNumberOfNodes) {
+        freeNodes.clear();
+        aliveNodes.clear();
+        allNodes.clear();
+        for (RMNodeEvent nodeEvent : initialState.getNodeEvents()) {
+            applyNodeEvent(nodeEvent);
+        }
+        this.maxNumberOfNodes = maxNumberOfNodes;
+        this.version = initialState.getLatestCounter();
+        this.synced = true;
+    }
+
+    /**
+     * Apply an RM event on the mirror.
+     *
+     * @param event the received event
+     * @return false if events were missed since the last applied one, the mirror must then be re-synchronized
+     */
+    synchronized boolean apply(RMEvent event) {
+        if (!synced || event.getCounter() <= version) {
+            // not initialized yet, or the event is already part of the snapshot
+            return true;
+        }
+        if (version != RMInitialState.EMPTY_STATE && event.getCounter() != version + 1) {
+            synced = false;
+            return false;
+        }
+        if (event instanceof RMNodeEvent) {
+            applyNodeEvent((RMNodeEvent) event);
+        }
+        version = event.getCounter();
+        return true;
+    }
+
+    /**
+     * Remove nodes acquired by the scheduler from the free nodes, without waiting for the
+     * corresponding events.
+     *
+     * @param nodeUrls urls of the acquired nodes
+     */
+    synchronized void nodesAcquired(Collection<String> nodeUrls) {
+        freeNodes.removeAll(nodeUrls);
+    }
+
+    /**
+     * Mark the mirror as outdated, e.g. when the connection to the RM is closed.
+     */
+    synchronized void invalidate() {
+        synced = false;
+    }
+
+    synchronized boolean isSynced() {
+        return synced;
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return a copy of the mirrored state, or null if the mirror is not synchronized
+     */
+    synchronized RMState getState() {
+        if (!synced) {
+            return null;
+        }
+        return new RMState(new RMStateNodeUrls(new HashSet<>(freeNodes),
+                                               new HashSet<>(aliveNodes),
+                                               new HashSet<>(allNodes)),
+                           maxNumberOfNodes);
+    }
+
+    private void applyNodeEvent(RMNodeEvent nodeEvent) {
+        String nodeUrl = nodeEvent.getNodeUrl();
+        NodeState nodeState = nodeEvent.getNodeState();
+        if (nodeEvent.getEventType() == RMEventType.NODE_REMOVED || nodeState == null ||
+            nodeState == NodeState.DEPLOYING || nodeState == NodeState.LOST) {
+            freeNodes.remove(nodeUrl);
+            aliveNodes.remove(nodeUrl);
+            allNodes.remove(nodeUrl);
+            return;
+        }
+        allNodes.add(nodeUrl);
+        updateMembership(aliveNodes, nodeUrl, nodeState != NodeState.DOWN);
+        updateMembership(freeNodes, nodeUrl, nodeState == NodeState.FREE && !nodeEvent.isLocked());
+    }
+
+    private static void updateMembership(Set<String> nodeUrls, String nodeUrl, boolean member) {
+        if (member) {
+            nodeUrls.add(nodeUrl);
+        } else {
+            nodeUrls.remove(nodeUrl);
+        }
+    }
+}
@@ -27,6 +27,7 @@ package org.ow2.proactive.scheduler.descriptor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -749,6 +750,17 @@ public class JobDescriptorImpl implements JobDescriptor {
         return new Vector<TaskDescriptor>(eligibleTasks.values());
     }
 
+    /**
+     * Return a live, read-only view of the eligible tasks, without copying them.
+     * The view is weakly consistent and reflects the changes made after its creation.
+     *
+     * @return a view of the eligible tasks.
+     */
+    @XmlTransient
+    public Collection<EligibleTaskDescriptor> getEligibleTasksView() {
+        return Collections.unmodifiableCollection(eligibleTasks.values());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -28,12 +28,16 @@ package org.ow2.proactive.scheduler.policy;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.core.EligibleTasksIndex;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
 
@@ -82,6 +86,21 @@ public class DefaultPolicy extends Policy {
         return toReturn;
     }
 
+    /**
+     * This method walks the incremental index, ordered using FIFO policy according to the jobs priorities.
+     *
+     * @see org.ow2.proactive.scheduler.policy.Policy#getOrderedTasks(EligibleTasksIndex, java.util.Map)
+     */
+    @Override
+    public Iterator<EligibleTaskDescriptor> getOrderedTasks(EligibleTasksIndex index, Map<JobId, JobDescriptor> jobs) {
+        return index.cursor(FIFO_BY_PRIORITY_COMPARATOR, jobs);
+    }
+
+    @Override
+    public boolean isEligibleTasksIndexSupported() {
+        return true;
+    }
+
     public static final Comparator<JobDescriptor> FIFO_BY_PRIORITY_COMPARATOR = new Comparator<JobDescriptor>() {
         @Override
         public int compare(JobDescriptor job1, JobDescriptor job2) {
@@ -28,13 +28,17 @@ package org.ow2.proactive.scheduler.policy;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.util.ISO8601DateUtil;
+import org.ow2.proactive.scheduler.core.EligibleTasksIndex;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
@@ -108,6 +112,34 @@ public class ExtendedSchedulerPolicy extends DefaultPolicy {
         return executionCycleTasks;
     }
 
+    /*
+     * Walk the incremental index and skip the jobs/tasks whose 'startAt' generic info
+     * is not reached yet.
+     */
+    @Override
+    public Iterator<EligibleTaskDescriptor> getOrderedTasks(EligibleTasksIndex index, Map<JobId, JobDescriptor> jobs) {
+        Date now = new Date();
+        return index.cursor(FIFO_BY_PRIORITY_COMPARATOR, jobs, candidate -> {
+            JobDescriptor jobDesc = jobs.get(candidate.getJobId());
+            return isStartAtReached(getStartAtValue(jobDesc), now) &&
+                   isStartAtReached(getStartAtValue(jobDesc, candidate), now);
+        });
+    }
+
+    private boolean isStartAtReached(String startAt, Date now) {
+        if (startAt == null) {
+            return true;
+        }
+        try {
+            return now.after(ISO8601DateUtil.toDate(startAt));
+        } catch (IllegalArgumentException e) {
+            logger.warn(String.format("An error occurred while processing 'startAt' generic info %s, it will be ignored.",
+                                      startAt),
+                        e);
+            return true;
+        }
+    }
+
     // To consider only non delayed jobs
     protected List<JobDescriptor> filterJobs(List<JobDescriptor> jobDescList) {
         Date now = new Date();
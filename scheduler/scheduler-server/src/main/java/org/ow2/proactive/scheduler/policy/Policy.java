@@ -29,8 +29,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.log4j.Logger;
@@ -38,6 +41,8 @@ import org.objectweb.proactive.annotation.PublicAPI;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.Scheduler;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.core.EligibleTasksIndex;
 import org.ow2.proactive.scheduler.core.SchedulingService;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
@@ -93,6 +98,49 @@ public abstract class Policy implements Serializable {
      */
     public abstract LinkedList<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobs);
 
+    /**
+     * Return the tasks that have to be scheduled, in the desired scheduling order, as a cursor.
+     * <p>
+     * This method is used by the scheduling loop when the incremental index is enabled
+     * (see {@link PASchedulerProperties#SCHEDULER_POLICY_INCREMENTAL_INDEX}). Policies which order jobs using
+     * a stable comparator should override it and walk the given index instead of sorting
+     * every job and building the complete list of tasks at each scheduling loop.
+     * <p>
+     * This method is only called when {@link #isEligibleTasksIndexSupported()} returns true. The default
+     * implementation delegates to {@link #getOrderedTasks(List)}.
+     *
+     * @param index the incrementally maintained index of the live jobs.
+     * @param jobs the pending or running job descriptors selected for this scheduling loop.
+     * @return an iterator on every task that is ready to be scheduled.
+     */
+    public Iterator<EligibleTaskDescriptor> getOrderedTasks(EligibleTasksIndex index, Map<JobId, JobDescriptor> jobs) {
+        return getOrderedTasksFromList(jobs);
+    }
+
+    /**
+     * Tell whether the scheduling loop can ask the tasks to schedule through
+     * {@link #getOrderedTasks(EligibleTasksIndex, Map)}, which must then return the same tasks, in the same order,
+     * as {@link #getOrderedTasks(List)}. Otherwise, {@link #getOrderedTasks(List)} is called at each scheduling loop.
+     * <p>
+     * A policy overriding {@link #getOrderedTasks(List)} while extending a policy which supports the index
+     * must override this method as well, unless it also overrides {@link #getOrderedTasks(EligibleTasksIndex, Map)}.
+     *
+     * @return true if the policy walks the incremental index, false by default.
+     */
+    public boolean isEligibleTasksIndexSupported() {
+        return false;
+    }
+
+    /**
+     * Order the given jobs using {@link #getOrderedTasks(List)}, without relying on the incremental index.
+     *
+     * @param jobs the pending or running job descriptors.
+     * @return an iterator on every task that is ready to be scheduled.
+     */
+    protected final Iterator<EligibleTaskDescriptor> getOrderedTasksFromList(Map<JobId, JobDescriptor> jobs) {
+        return getOrderedTasks(new ArrayList<>(jobs.values())).iterator();
+    }
+
     /**
      * After the selection process, overriding this method allows to do some filtering on the task scheduled
      * This is useful, for example, when stateless selection scripts cannot completely determine if a node is eligible for execution.
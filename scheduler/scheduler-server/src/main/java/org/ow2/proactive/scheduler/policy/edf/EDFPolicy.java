@@ -27,12 +27,16 @@ package org.ow2.proactive.scheduler.policy.edf;
 
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.core.EligibleTasksIndex;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
 import org.ow2.proactive.scheduler.job.InternalJob;
@@ -62,6 +66,11 @@ public class EDFPolicy extends ExtendedSchedulerPolicy {
                    .collect(Collectors.toCollection(LinkedList::new));
     }
 
+    @Override
+    public Iterator<EligibleTaskDescriptor> getOrderedTasks(EligibleTasksIndex index, Map<JobId, JobDescriptor> jobs) {
+        return index.cursor(FIFO_BY_PRIORITY_AND_DEADLINE_COMPARATOR, jobs);
+    }
+
     /**
      * Compare by priority, then by deadline
      */
@@ -101,6 +101,15 @@ public class EDFPolicyExtended extends ExtendedSchedulerPolicy {
             });
     }
 
+    /*
+     * The job ordering of this policy depends on the current time, it cannot be maintained
+     * by the incremental index.
+     */
+    @Override
+    public boolean isEligibleTasksIndexSupported() {
+        return false;
+    }
+
     @Override
     public LinkedList<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobs) {
         final Date now = new Date();
@@ -299,6 +299,15 @@ public class LicenseSchedulingPolicy extends ExtendedSchedulerPolicy {
         return filteredOrderedTasksDescFromParentPolicy;
     }
 
+    /*
+     * License tokens are acquired for every selected job, the complete list of tasks is thus needed
+     * at each scheduling loop.
+     */
+    @Override
+    public boolean isEligibleTasksIndexSupported() {
+        return false;
+    }
+
     /* A task is executable if it does not require any license or if it can get tokens */
     @Override
     public boolean isTaskExecutable(NodeSet selectedNodes, EligibleTaskDescriptor task) {
@@ -38,7 +38,6 @@ import java.util.function.Function;
 
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
-import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.objectweb.proactive.Body;
 import org.objectweb.proactive.EndActive;
@@ -51,12 +50,10 @@ import org.objectweb.proactive.core.mop.MethodCallExecutionFailedException;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
 import org.objectweb.proactive.utils.StackTraceUtil;
 import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.util.TaskLogger;
 
 import groovy.lang.GroovyShell;
-import jdbm.PrimaryHashMap;
-import jdbm.RecordManager;
-import jdbm.RecordManagerFactory;
 
 
 /**
@@ -66,9 +63,15 @@ import jdbm.RecordManagerFactory;
  *
  * All requests are <b>synchronous</b> (this is done by returning primitive objects or throwing checked exception)
  *
- * Internally, HashMap are used to implement Channels. Channels are persisted thanks to <a href="https://code.google.com/archive/p/jdbm2/">JDBM2</a>
+ * Internally, HashMap are used to implement Channels. Channels are persisted key by key thanks to <a href="https://code.google.com/archive/p/jdbm2/">JDBM2</a>
+ * (see {@link PersistentChannelStore}).
  *
  * A custom {@link RunActive#runActivity(Body) runActivity} is implemented to handle wait Methods.
+ * Wait methods are notified of the modifications of the keys they depend on, and only evaluate their predicate
+ * again after such a modification (see {@link ChannelWatchers}).
+ *
+ * Closures are compiled once and kept in a bounded cache (see {@link ClosureCache}). Latency and throughput
+ * statistics are collected per channel and exposed through JMX (see {@link SynchronizationMXBean}).
  * @author ActiveEon Team
  * @since 26/03/2018
  */
@@ -98,18 +101,11 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     /** Name of the JDBM Database file used by this service */
     private static final String DEFAULT_STORE_SESSION_NAME = "SchedulerStore";
 
-    /** Schema used inside the JDBM database */
-    private static final String STATUS_RECORD_NAME = "STORE";
-
-    private static long WAIT_STEP = 500L;
-
     /** HashMap storing the in-memory channels */
     private ConcurrentHashMap<String, Channel> inMemoryChannels;
 
-    /** JDBM map storing the persistent channels */
-    private PrimaryHashMap<String, Channel> persistedChannels;
-
-    private Map<String, Channel> synchronizedPersistedChannels;
+    /** Store of the persistent channels */
+    private volatile PersistentChannelStore persistentChannels;
 
     /** Queue used to memorize and handle wait requests to the active object */
     private Queue<TimedOutRequest> waitUntilQueue = new ArrayDeque<>();
@@ -118,7 +114,12 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
 
     private GroovyShell shell;
 
-    private RecordManager recordManager;
+    private ClosureCache closureCache;
+
+    /** Keys awaited by wait methods */
+    private ChannelWatchers watchers;
+
+    private SynchronizationStatistics statistics;
 
     private volatile boolean isStarted = false;
 
@@ -132,6 +133,8 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
         initializeGroovyCompiler();
         initializeStatusFile(statusFileDirectoryPath);
         inMemoryChannels = new ConcurrentHashMap<>();
+        watchers = new ChannelWatchers();
+        statistics = new SynchronizationStatistics(closureCache, watchers);
 
     }
 
@@ -139,6 +142,8 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
         CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
         compilerConfiguration.setTargetBytecode(CompilerConfiguration.JDK8);
         shell = new GroovyShell(this.getClass().getClassLoader(), compilerConfiguration);
+        closureCache = new ClosureCache(shell,
+                                        PASchedulerProperties.SCHEDULER_SYNCHRONIZATION_CLOSURE_CACHE_SIZE.getValueAsInt());
     }
 
     private void initializeStatusFile(String statusFileDirectoryPath) {
@@ -168,14 +173,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     private void init(boolean firstAttempt) {
         close();
         try {
-            logger.info("Loading Record Manager from file : " + statusFile);
-            recordManager = RecordManagerFactory.createRecordManager(statusFile.getCanonicalPath());
-            persistedChannels = recordManager.hashMap(STATUS_RECORD_NAME);
-            // While printing the content of persistedChannels, InvalidClassException or jdbm Error can be triggered
-            logger.info("Content of persisted store : " + persistedChannels);
-
-            recordManager.commit();
-            synchronizedPersistedChannels = Collections.synchronizedMap(persistedChannels);
+            openPersistentChannels();
             if (!firstAttempt) {
                 logger.info("Loading of job database successful after clean.");
             }
@@ -234,23 +232,29 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
 
     public boolean close() {
         inMemoryChannels.clear();
-        if (recordManager != null) {
+        if (persistentChannels != null) {
             try {
                 logger.info("Closing Record Manager");
-                recordManager.close();
-                recordManager = null;
+                persistentChannels.close();
             } catch (IOException e) {
                 logger.warn("Error when closing Record Manager", e);
             }
+            persistentChannels = null;
         }
         return true;
     }
 
+    private void openPersistentChannels() throws IOException {
+        logger.info("Loading Record Manager from file : " + statusFile);
+        persistentChannels = PersistentChannelStore.open(statusFile,
+                                                         PersistentChannelStore.Durability.parse(PASchedulerProperties.SCHEDULER_SYNCHRONIZATION_DATABASE_DURABILITY.getValueAsString()));
+    }
+
     private Channel getChannel(String name) throws InvalidChannelException {
         if (inMemoryChannels.containsKey(name)) {
             return inMemoryChannels.get(name);
-        } else if (synchronizedPersistedChannels.containsKey(name)) {
-            return synchronizedPersistedChannels.get(name);
+        } else if (persistentChannels.containsChannel(name)) {
+            return persistentChannels.getChannel(name);
         }
         throw new InvalidChannelException("Channel " + name + " does not exist");
     }
@@ -261,16 +265,15 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             throws IOException {
         try {
             boolean alreadyExistingChannel = deleteChannel(originator, taskid, name);
-            Channel newChannel = new Channel();
+            watchers.channelChanged(name);
             if (isPersistent) {
-                synchronizedPersistedChannels.put(name, newChannel);
+                persistentChannels.createChannel(name);
                 logWithContextAndPersist(taskid,
                                          null,
                                          "Created new persistent channel " + QUOTE + name + QUOTE,
                                          Level.INFO);
-                recordManager.commit();
             } else {
-                inMemoryChannels.put(name, newChannel);
+                inMemoryChannels.put(name, new Channel());
                 logWithContextAndPersist(taskid,
                                          null,
                                          "Created new memory channel " + QUOTE + name + QUOTE,
@@ -285,13 +288,12 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     @Override
     public boolean deleteChannel(String originator, TaskId taskid, String name) throws IOException {
         try {
-            if (synchronizedPersistedChannels.containsKey(name)) {
-                synchronizedPersistedChannels.remove(name);
+            watchers.channelChanged(name);
+            if (persistentChannels.deleteChannel(name)) {
                 logWithContextAndPersist(taskid,
                                          null,
                                          "Deleted persistent channel " + QUOTE + name + QUOTE,
                                          Level.INFO);
-                recordManager.commit();
                 return true;
             } else if (inMemoryChannels.containsKey(name)) {
                 inMemoryChannels.remove(name);
@@ -309,13 +311,13 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     @ImmediateService
     public boolean channelExists(String originator, TaskId taskid, String name) {
         waitUntilStarted();
-        return inMemoryChannels.containsKey(name) || synchronizedPersistedChannels.containsKey(name);
+        return inMemoryChannels.containsKey(name) || persistentChannels.containsChannel(name);
     }
 
     @Override
     public boolean createChannelIfAbsent(String originator, TaskId taskid, String name, boolean isPersistent)
             throws IOException {
-        if (inMemoryChannels.containsKey(name) || synchronizedPersistedChannels.containsKey(name)) {
+        if (inMemoryChannels.containsKey(name) || persistentChannels.containsChannel(name)) {
             return false;
         } else {
             return createChannel(originator, taskid, name, isPersistent);
@@ -323,20 +325,34 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     /**
-     * Commits pending operations on the given channel
+     * Commits pending operations on the given channel, unless modifications are committed by group
+     * (see {@link #runActivity(Body)})
      * @param channel channel name
      * @throws IOException if an error occurs when persisting channel
      */
     private void commitIfNeeded(String channel) throws IOException {
-        if (synchronizedPersistedChannels.containsKey(channel)) {
-            // Record Manager mark as dirty (uncommited) entries which have be modified via a put call
-            // Thus, such operation as persistedChannels.get(channel).dosomething() will not be committed
-            // by the following trick, we mark the entry as dirty and commit
-            synchronizedPersistedChannels.put(channel, synchronizedPersistedChannels.get(channel));
-            recordManager.commit();
+        if (persistentChannels.getDurability() == PersistentChannelStore.Durability.SYNC &&
+            persistentChannels.containsChannel(channel)) {
+            persistentChannels.flush();
         }
     }
 
+    /**
+     * Notify the wait methods and the persistent store that a key was modified
+     */
+    private void keyModified(String channel, String key) {
+        watchers.keyChanged(channel, key);
+        persistentChannels.keyModified(channel, key);
+    }
+
+    /**
+     * Notify the wait methods and the persistent store that any key of the channel may have been modified
+     */
+    private void channelModified(String channel) {
+        watchers.channelChanged(channel);
+        persistentChannels.channelModified(channel);
+    }
+
     @Override
     @ImmediateService
     public boolean containsKey(String originator, TaskId taskid, String channel, String key)
@@ -379,6 +395,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     public Serializable put(String originator, TaskId taskid, String channel, String key, Serializable value)
             throws InvalidChannelException, IOException {
         Serializable answer = getChannel(channel).put(key, value);
+        keyModified(channel, key);
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Put " + value + ON_KEY + QUOTE + key + QUOTE + PREVIOUS_VALUE_WAS + answer + "",
@@ -390,6 +407,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     public Serializable remove(String originator, TaskId taskid, String channel, String key)
             throws InvalidChannelException, IOException {
         Serializable answer = getChannel(channel).remove(key);
+        keyModified(channel, key);
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Removed key " + QUOTE + key + QUOTE + PREVIOUS_VALUE_WAS + answer,
@@ -401,12 +419,16 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     public void putAll(String originator, TaskId taskid, String channel,
             Map<? extends String, ? extends Serializable> m) throws InvalidChannelException, IOException {
         getChannel(channel).putAll(m);
+        for (String key : m.keySet()) {
+            keyModified(channel, key);
+        }
         logWithContextAndPersist(taskid, channel, "PutAll called, with new entries: " + m, Level.DEBUG);
     }
 
     @Override
     public void clear(String originator, TaskId taskid, String channel) throws InvalidChannelException, IOException {
         getChannel(channel).clear();
+        channelModified(channel);
         logWithContextAndPersist(taskid, channel, "Cleared channel", Level.DEBUG);
     }
 
@@ -448,6 +470,8 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
         try {
             Channel chosenChannel = getChannel(channel);
             chosenChannel.forEach(evaluateClosure(action, BiConsumer.class));
+            // the action may modify mutable values in place
+            channelModified(channel);
             logWithContextAndPersist(taskid, channel, "Run forEach, new content is: " + chosenChannel, Level.DEBUG);
         } catch (InvalidChannelException | CompilationException e) {
             throw e;
@@ -464,6 +488,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
         try {
             Channel chosenChannel = getChannel(channel);
             chosenChannel.replaceAll(evaluateClosure(function, BiFunction.class));
+            channelModified(channel);
             logWithContextAndPersist(taskid, channel, "Run replaceAll, new content is: " + chosenChannel, Level.DEBUG);
         } catch (InvalidChannelException | CompilationException | IOException e) {
             throw e;
@@ -476,6 +501,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     public Serializable putIfAbsent(String originator, TaskId taskid, String channel, String key, Serializable value)
             throws InvalidChannelException, IOException {
         Serializable answer = getChannel(channel).putIfAbsent(key, value);
+        keyModified(channel, key);
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Put " + value + ON_KEY + QUOTE + key + QUOTE + PREVIOUS_VALUE_WAS + answer,
@@ -487,6 +513,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     public boolean remove(String originator, TaskId taskid, String channel, String key, Serializable value)
             throws InvalidChannelException, IOException {
         boolean answer = getChannel(channel).remove(key, value);
+        keyModified(channel, key);
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Tried to remove key " + QUOTE + key + QUOTE + " with expected value " + value +
@@ -499,6 +526,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     public boolean replace(String originator, TaskId taskid, String channel, String key, Serializable oldValue,
             Serializable newValue) throws InvalidChannelException, IOException {
         boolean answer = getChannel(channel).replace(key, oldValue, newValue);
+        keyModified(channel, key);
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Tried to replace key " + QUOTE + key + QUOTE + " with expected old value " +
@@ -512,6 +540,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     public Serializable replace(String originator, TaskId taskid, String channel, String key, Serializable value)
             throws InvalidChannelException, IOException {
         Serializable answer = getChannel(channel).replace(key, value);
+        keyModified(channel, key);
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Replaced key " + QUOTE + key + QUOTE + WITH_VALUE + value + ", old value was " +
@@ -530,6 +559,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             answer = chosenChannel.computeIfAbsent(key,
                                                    (Function<? super String, ? extends Serializable>) evaluateClosure(mappingFunction,
                                                                                                                       Function.class));
+            keyModified(channel, key);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run computeIfAbsent" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
@@ -552,6 +582,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             answer = chosenChannel.computeIfPresent(key,
                                                     (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(remappingFunction,
                                                                                                                                                BiFunction.class));
+            keyModified(channel, key);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run computeIfPresent" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
@@ -573,6 +604,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             answer = getChannel(channel).compute(key,
                                                  (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(remappingFunction,
                                                                                                                                             BiFunction.class));
+            keyModified(channel, key);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run compute" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
@@ -596,6 +628,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
                                                value,
                                                (BiFunction<? super Serializable, ? super Serializable, ? extends Serializable>) evaluateClosure(remappingFunction,
                                                                                                                                                 BiFunction.class));
+            keyModified(channel, key);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run merge" + ON_KEY + QUOTE + key + QUOTE + WITH_VALUE + value + RESULT_IS +
@@ -627,6 +660,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             } else {
                 answer = new PredicateActionResult(false, value);
             }
+            keyModified(channel, key);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run conditionalCompute" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
@@ -660,6 +694,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
                                                                          (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(elseRemappingFunction,
                                                                                                                                                                     BiFunction.class)));
             }
+            keyModified(channel, key);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run conditionalCompute" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
@@ -686,6 +721,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
                     chosenChannel.compute(currentKey, evaluateClosure(thenRemappingFunction, BiFunction.class));
                 }
             }
+            channelModified(channel);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run conditionalReplaceAll, new content is: " + chosenChannel,
@@ -721,6 +757,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
                 }
             }
 
+            channelModified(channel);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run conditionalReplaceAll, new content is: " + chosenChannel,
@@ -750,32 +787,18 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     @ImmediateService
     public boolean waitUntil(String originator, TaskId taskid, String channel, String key, String predicate)
             throws InvalidChannelException, CompilationException {
         /**
-         * waitUntil is run on its dedicated thread (ImmediateService), it runs its predicate periodically until success
+         * waitUntil is run on its dedicated thread (ImmediateService), it runs its predicate each time the key is modified, until success
          */
-        waitUntilStarted();
-        boolean predicateResult = false;
-        do {
-            Channel chosenChannel = getChannel(channel);
-            Serializable value = chosenChannel.get(key);
-            try {
-                predicateResult = evaluateClosure(predicate, BiPredicate.class).test(key, value);
-                if (!predicateResult) {
-                    Thread.sleep(WAIT_STEP);
-                }
-            } catch (CompilationException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE +
-                                                     StackTraceUtil.getStackTrace(e));
-            }
-        } while (!predicateResult);
-
-        return true;
+        try {
+            return waitUntilPredicateIsMet(channel, key, predicate, Long.MAX_VALUE);
+        } catch (TimeoutException e) {
+            // cannot happen without timeout
+            throw new IllegalStateException(e);
+        }
     }
 
     @Override
@@ -784,32 +807,47 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             long timeout) throws InvalidChannelException, CompilationException, TimeoutException {
         /**
          * waitUntil with timeout is run on its dedicated thread (ImmediateService).
-         * it runs its predicate periodically until success or timeout
+         * it runs its predicate each time the key is modified, until success or timeout
          */
+        return waitUntilPredicateIsMet(channel, key, predicate, timeout);
+    }
+
+    /**
+     * Evaluate the predicate, then evaluate it again after each modification of the key, until it is met.
+     * The key is watched before reading its value, so that no modification can be missed between the
+     * evaluation of the predicate and the wait.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean waitUntilPredicateIsMet(String channel, String key, String predicate, long timeout)
+            throws InvalidChannelException, CompilationException, TimeoutException {
         waitUntilStarted();
-        boolean predicateResult = false;
         long startTime = System.currentTimeMillis();
-        do {
-            Channel chosenChannel = getChannel(channel);
-            Serializable value = chosenChannel.get(key);
-            try {
-                predicateResult = evaluateClosure(predicate, BiPredicate.class).test(key, value);
-                if (!predicateResult) {
-                    if (System.currentTimeMillis() - startTime > timeout) {
-                        throw new TimeoutException("Timeout of " + timeout + " ms expired while waiting for predicate");
-                    }
-                    Thread.sleep(WAIT_STEP);
+        BiPredicate<String, Serializable> waitPredicate = evaluateClosure(predicate, BiPredicate.class);
+        ChannelWatchers.KeyWatch keyWatch = watchers.register(channel, key);
+        try {
+            while (true) {
+                long version = keyWatch.getVersion();
+                Serializable value = getChannel(channel).get(key);
+                if (waitPredicate.test(key, value)) {
+                    statistics.recordWait(channel, System.currentTimeMillis() - startTime);
+                    return true;
+                }
+                long remainingTime = timeout == Long.MAX_VALUE ? Long.MAX_VALUE
+                                                               : timeout - (System.currentTimeMillis() - startTime);
+                if (remainingTime <= 0 || !keyWatch.awaitChange(version, remainingTime)) {
+                    throw new TimeoutException("Timeout of " + timeout + " ms expired while waiting for predicate");
                 }
-            } catch (CompilationException e) {
-                throw e;
-            } catch (TimeoutException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE +
-                                                     StackTraceUtil.getStackTrace(e));
             }
-        } while (!predicateResult);
-        return true;
+        } catch (InvalidChannelException | TimeoutException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClosureEvaluationException("Interrupted while waiting for predicate", e);
+        } catch (Exception e) {
+            throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE + StackTraceUtil.getStackTrace(e));
+        } finally {
+            watchers.unregister(keyWatch);
+        }
     }
 
     @Override
@@ -834,6 +872,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
                 throw new IllegalStateException("Predicate " + predicate + " is not met");
             }
 
+            keyModified(channel, key);
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run waitUntil" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
@@ -923,24 +962,59 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
                     if (request != null && request.getMethodName().equals("freeze")) {
                         service.serve(request);
                         service.blockingServeOldest("resume");
-                    } else if (request != null && request.getMethodName().startsWith("waitUntilThen") &&
-                               !testWaitFunction(service, request)) {
-                        // If the predicate is not met, delay the wait method execution
-                        TimedOutRequest timedOutRequest = new TimedOutRequest(request,
-                                                                              extractWaitRequestTimeoutParameter(request));
-                        logger.trace("New pending wait request : " + timedOutRequest);
-                        waitUntilQueue.add(new TimedOutRequest(request, extractWaitRequestTimeoutParameter(request)));
+                    } else if (request != null && request.getMethodName().startsWith("waitUntilThen")) {
+                        // watch the key before evaluating the predicate, to be notified of its next modification
+                        ChannelWatchers.KeyWatch keyWatch = watchers.register((String) request.getParameter(2),
+                                                                              (String) request.getParameter(3));
+                        long version = keyWatch.getVersion();
+                        if (testWaitFunction(service, request)) {
+                            watchers.unregister(keyWatch);
+                            serveAndRecord(service, request);
+                        } else {
+                            // If the predicate is not met, delay the wait method execution
+                            TimedOutRequest timedOutRequest = new TimedOutRequest(request,
+                                                                                  extractWaitRequestTimeoutParameter(request),
+                                                                                  keyWatch,
+                                                                                  version);
+                            logger.trace("New pending wait request : " + timedOutRequest);
+                            waitUntilQueue.add(timedOutRequest);
+                        }
                     } else if (request != null) {
-                        service.serve(request);
+                        serveAndRecord(service, request);
                     }
                 }
                 unblockWaitMethods(service, computeMaxTimeSpentWaiting(requestsWithWaitTime));
+                commitGroup();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
     }
 
+    /**
+     * Serve the request and record its duration in the statistics of its channel
+     */
+    private void serveAndRecord(Service service, Request request) {
+        long startTime = System.nanoTime();
+        service.serve(request);
+        if (request.getMethodCall().getNumberOfParameter() > 2 && request.getParameter(2) instanceof String) {
+            statistics.recordOperation((String) request.getParameter(2), System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Commits the modifications made by the last group of requests, when modifications are committed by group
+     */
+    private void commitGroup() {
+        if (persistentChannels.getDurability() == PersistentChannelStore.Durability.GROUP) {
+            try {
+                persistentChannels.flush();
+            } catch (IOException e) {
+                logger.error("Error when persisting channels content", e);
+            }
+        }
+    }
+
     private long computeMaxTimeSpentWaiting(List<NewRequestWithWaitTime> requestsWithWaitTime) {
         long maxWait = 0;
         for (NewRequestWithWaitTime requestWithWaitTime : requestsWithWaitTime) {
@@ -954,18 +1028,16 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     @Override
     public void freeze() throws IOException {
         logger.info("Closing Record Manager");
-        recordManager.close();
-        recordManager = null;
         isStarted = false;
+        if (persistentChannels != null) {
+            persistentChannels.close();
+            persistentChannels = null;
+        }
     }
 
     @Override
     public void resume() throws IOException {
-        logger.info("Loading Record Manager from file : " + statusFile);
-        recordManager = RecordManagerFactory.createRecordManager(statusFile.getCanonicalPath());
-        persistedChannels = recordManager.hashMap(STATUS_RECORD_NAME);
-        recordManager.commit();
-        synchronizedPersistedChannels = Collections.synchronizedMap(persistedChannels);
+        openPersistentChannels();
         isStarted = true;
     }
 
@@ -1021,7 +1093,8 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     /**
-     * Unblock all pending wait methods if predicates are met
+     * Unblock all pending wait methods if predicates are met.
+     * The predicate of a pending wait method is only evaluated again if its key was modified since its last evaluation.
      * @param service active object service
      */
     private void unblockWaitMethods(Service service, long timeSpentWaiting) {
@@ -1029,9 +1102,15 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             TimedOutRequest waitRequest = iterator.next();
             waitRequest.substractTime(timeSpentWaiting);
             logger.trace("Updated timeouted request: " + waitRequest);
-            if (testWaitFunction(service, waitRequest.getRequest())) {
+            long version = waitRequest.getKeyWatch().getVersion();
+            boolean keyChanged = version != waitRequest.getVersion();
+            waitRequest.setVersion(version);
+            if (keyChanged && testWaitFunction(service, waitRequest.getRequest())) {
                 // predicate is met, serve the request
-                service.serve(waitRequest.getRequest());
+                watchers.unregister(waitRequest.getKeyWatch());
+                statistics.recordWait((String) waitRequest.getRequest().getParameter(2),
+                                      System.currentTimeMillis() - waitRequest.getCreationTime());
+                serveAndRecord(service, waitRequest.getRequest());
                 iterator.remove();
             } else if (waitRequest.getRemainingTimeout() <= 0) {
                 // predicate is not met and timeout expired, serve the request with a timeout exception
@@ -1039,19 +1118,14 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
                 service.serveWithException(waitRequest.getRequest(),
                                            new TimeoutException("Timeout of " + waitRequest.getConfiguredTimeout() +
                                                                 " ms expired while waiting for predicate"));
+                watchers.unregister(waitRequest.getKeyWatch());
                 iterator.remove();
             }
         }
     }
 
-    @SuppressWarnings("unchecked")
     private <T> T evaluateClosure(String closureDefinition, Class<T> type) throws CompilationException {
-        try {
-            return (T) shell.evaluate(closureDefinition + " as " + type.getCanonicalName());
-        } catch (CompilationFailedException e) {
-            // CompilationFailedException contains instances which are not serializable
-            throw new CompilationException(StackTraceUtil.getStackTrace(e));
-        }
+        return closureCache.evaluate(closureDefinition, type);
     }
 
     /**
@@ -1097,11 +1171,13 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     public void initActivity(Body body) {
         logger.info("Starting Synchronization service");
         init(true);
+        statistics.registerMBean(statusFileDirectory.getAbsolutePath());
         logger.info("Synchronization service is started");
     }
 
     @Override
     public void endActivity(Body body) {
+        statistics.unregisterMBean();
         close();
     }
 
@@ -1135,10 +1211,19 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
 
         private long remainingTimeout;
 
-        TimedOutRequest(Request request, long configuredTimeout) {
+        private ChannelWatchers.KeyWatch keyWatch;
+
+        private long version;
+
+        private long creationTime;
+
+        TimedOutRequest(Request request, long configuredTimeout, ChannelWatchers.KeyWatch keyWatch, long version) {
             this.request = request;
             this.configuredTimeout = configuredTimeout;
             this.remainingTimeout = configuredTimeout;
+            this.keyWatch = keyWatch;
+            this.version = version;
+            this.creationTime = System.currentTimeMillis();
         }
 
         void substractTime(long timespent) {
@@ -1157,6 +1242,22 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             return remainingTimeout;
         }
 
+        ChannelWatchers.KeyWatch getKeyWatch() {
+            return keyWatch;
+        }
+
+        long getVersion() {
+            return version;
+        }
+
+        void setVersion(long version) {
+            this.version = version;
+        }
+
+        long getCreationTime() {
+            return creationTime;
+        }
+
         @Override
         public String toString() {
             return "TimedOutRequest{" + "request=" + request + ", configuredTimeout=" + configuredTimeout +
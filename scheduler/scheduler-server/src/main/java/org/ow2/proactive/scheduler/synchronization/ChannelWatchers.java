@@ -0,0 +1,134 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Registry of the channel keys currently awaited by <code>waitUntil</code> methods.
+ *
+ * Methods modifying a channel notify the watches of the modified keys, so that waiting methods only
+ * evaluate their predicate again when the key they depend on was modified, instead of polling the channel.
+ * Each watch holds a version number, incremented on each modification: a waiting method reads the version
+ * before evaluating its predicate, and waits until the version changes.
+ *
+ * @author ActiveEon Team
+ * @since 18/10/2026
+ */
+class ChannelWatchers {
+
+    private final Map<Map.Entry<String, String>, KeyWatch> watches = new ConcurrentHashMap<>();
+
+    /**
+     * Start watching the given key. Every call must be matched by a call to {@link #unregister(KeyWatch)}.
+     */
+    KeyWatch register(String channel, String key) {
+        return watches.compute(new AbstractMap.SimpleImmutableEntry<>(channel, key), (watchedKey, watch) -> {
+            KeyWatch answer = watch != null ? watch : new KeyWatch(watchedKey);
+            answer.registrations++;
+            return answer;
+        });
+    }
+
+    void unregister(KeyWatch keyWatch) {
+        watches.computeIfPresent(keyWatch.watchedKey, (watchedKey, watch) -> --watch.registrations == 0 ? null : watch);
+    }
+
+    /**
+     * Notify the watchers of the given key that it was modified
+     */
+    void keyChanged(String channel, String key) {
+        KeyWatch watch = watches.get(new AbstractMap.SimpleImmutableEntry<>(channel, key));
+        if (watch != null) {
+            watch.changed();
+        }
+    }
+
+    /**
+     * Notify the watchers of every key of the given channel that it was modified (e.g. the channel was cleared)
+     */
+    void channelChanged(String channel) {
+        for (KeyWatch watch : watches.values()) {
+            if (watch.watchedKey.getKey().equals(channel)) {
+                watch.changed();
+            }
+        }
+    }
+
+    int size() {
+        return watches.size();
+    }
+
+    static final class KeyWatch {
+
+        private final Map.Entry<String, String> watchedKey;
+
+        /** guarded by the compute methods of the watches map */
+        private int registrations;
+
+        private long version;
+
+        private KeyWatch(Map.Entry<String, String> watchedKey) {
+            this.watchedKey = watchedKey;
+        }
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized void changed() {
+            version++;
+            notifyAll();
+        }
+
+        /**
+         * Wait until the watched key is modified after the given version
+         *
+         * @param fromVersion version read before evaluating the predicate
+         * @param timeout maximum time to wait in milliseconds, <code>Long.MAX_VALUE</code> to wait forever
+         * @return true if the key was modified, false if the timeout expired
+         * @throws InterruptedException if the thread was interrupted while waiting
+         */
+        synchronized boolean awaitChange(long fromVersion, long timeout) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeout;
+            while (version == fromVersion) {
+                if (timeout == Long.MAX_VALUE) {
+                    wait();
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    wait(remaining);
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.objectweb.proactive.utils.StackTraceUtil;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+
+
+/**
+ * Bounded LRU cache of the closures evaluated by the Synchronization service.
+ *
+ * Compiled scripts are kept by source text and target type: a closure is compiled once, then
+ * each evaluation only runs the compiled script to obtain a new instance of the closure.
+ *
+ * This class is thread-safe, as closures are evaluated both by the active object thread and by
+ * the immediate services.
+ *
+ * @author ActiveEon Team
+ * @since 18/10/2026
+ */
+class ClosureCache {
+
+    private final GroovyShell shell;
+
+    private final int maxSize;
+
+    private final Map<String, Class<? extends Script>> compiledScripts;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    ClosureCache(GroovyShell shell, final int maxSize) {
+        this.shell = shell;
+        this.maxSize = maxSize;
+        this.compiledScripts = new LinkedHashMap<String, Class<? extends Script>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Class<? extends Script>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Evaluate the given closure definition as an instance of the given type.
+     *
+     * @param closureDefinition groovy closure, e.g. <code>{k, x -&gt; x + 1}</code>
+     * @param type functional interface implemented by the closure
+     * @return a new instance of the closure
+     * @throws CompilationException if the closure cannot be compiled
+     */
+    @SuppressWarnings("unchecked")
+    <T> T evaluate(String closureDefinition, Class<T> type) throws CompilationException {
+        String scriptText = closureDefinition + " as " + type.getCanonicalName();
+        Class<? extends Script> scriptClass;
+        synchronized (compiledScripts) {
+            scriptClass = compiledScripts.get(scriptText);
+        }
+        if (scriptClass != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            try {
+                scriptClass = shell.parse(scriptText).getClass();
+            } catch (CompilationFailedException e) {
+                // CompilationFailedException contains instances which are not serializable
+                throw new CompilationException(StackTraceUtil.getStackTrace(e));
+            }
+            if (maxSize > 0) {
+                synchronized (compiledScripts) {
+                    compiledScripts.put(scriptText, scriptClass);
+                }
+            }
+        }
+        return (T) InvokerHelper.createScript(scriptClass, new Binding()).run();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    int size() {
+        synchronized (compiledScripts) {
+            return compiledScripts.size();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.synchronization.AOSynchronization.Channel;
+
+import jdbm.PrimaryHashMap;
+import jdbm.RecordManager;
+import jdbm.RecordManagerFactory;
+
+
+/**
+ * Persistent channels of the Synchronization service.
+ *
+ * Channels are kept in memory, and their entries are persisted one by one inside a JDBM database, so that
+ * modifying a key only writes this key, whatever the size of its channel. Modified keys are marked as dirty
+ * and written on {@link #flush()}. Depending on the {@link Durability}, the Synchronization service flushes
+ * after each modification, or once after each group of requests.
+ *
+ * This class is not thread-safe regarding modifications, which are all made by the active object thread.
+ * Channels can be read concurrently.
+ *
+ * @author ActiveEon Team
+ * @since 18/10/2026
+ */
+class PersistentChannelStore {
+
+    private static final Logger logger = Logger.getLogger(PersistentChannelStore.class);
+
+    /** Schema used by former versions, storing each channel as a single record */
+    static final String LEGACY_RECORD_NAME = "STORE";
+
+    /** Names of the persistent channels */
+    static final String CHANNELS_RECORD_NAME = "CHANNELS";
+
+    /** Entries of all persistent channels, see {@link #entryKey(String, String)} */
+    static final String ENTRIES_RECORD_NAME = "ENTRIES";
+
+    enum Durability {
+        /** modifications are committed before the request returns */
+        SYNC,
+        /** modifications of a group of requests are committed together, after the group is served */
+        GROUP;
+
+        static Durability parse(String value) {
+            for (Durability durability : values()) {
+                if (durability.name().equalsIgnoreCase(value)) {
+                    return durability;
+                }
+            }
+            logger.warn("Unknown synchronization database durability '" + value + "', using " + SYNC);
+            return SYNC;
+        }
+    }
+
+    private final RecordManager recordManager;
+
+    private final Durability durability;
+
+    private final PrimaryHashMap<String, Boolean> channelNames;
+
+    private final PrimaryHashMap<String, Serializable> entries;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    /** keys of each channel, as currently written in the database */
+    private final Map<String, Set<String>> persistedKeys = new HashMap<>();
+
+    private final Map<String, Set<String>> dirtyKeys = new HashMap<>();
+
+    /** channels which must be entirely compared with the database (e.g. after clear) */
+    private final Set<String> dirtyChannels = new HashSet<>();
+
+    private PersistentChannelStore(RecordManager recordManager, Durability durability) {
+        this.recordManager = recordManager;
+        this.durability = durability;
+        this.channelNames = recordManager.hashMap(CHANNELS_RECORD_NAME);
+        this.entries = recordManager.hashMap(ENTRIES_RECORD_NAME);
+    }
+
+    /**
+     * Open the database at the given location and load the persistent channels in memory.
+     * Channels stored by former versions are converted to the per key layout.
+     *
+     * @param databaseFile path to jdbm database main file
+     * @param durability when modifications are committed
+     * @return the loaded store
+     * @throws IOException if the database cannot be opened or loaded
+     */
+    static PersistentChannelStore open(File databaseFile, Durability durability) throws IOException {
+        RecordManager recordManager = RecordManagerFactory.createRecordManager(databaseFile.getCanonicalPath());
+        try {
+            PersistentChannelStore store = new PersistentChannelStore(recordManager, durability);
+            store.migrateLegacyChannels();
+            store.load();
+            return store;
+        } catch (IOException | RuntimeException | Error e) {
+            recordManager.close();
+            throw e;
+        }
+    }
+
+    private void migrateLegacyChannels() throws IOException {
+        PrimaryHashMap<String, Channel> legacyChannels = recordManager.hashMap(LEGACY_RECORD_NAME);
+        if (legacyChannels.isEmpty()) {
+            return;
+        }
+        logger.info("Converting " + legacyChannels.size() + " persistent channels to the per key layout");
+        for (Map.Entry<String, Channel> legacyChannel : legacyChannels.entrySet()) {
+            channelNames.put(legacyChannel.getKey(), Boolean.TRUE);
+            for (Map.Entry<String, Serializable> entry : legacyChannel.getValue().entrySet()) {
+                entries.put(entryKey(legacyChannel.getKey(), entry.getKey()), entry.getValue());
+            }
+        }
+        legacyChannels.clear();
+        recordManager.commit();
+        recordManager.defrag();
+    }
+
+    private void load() throws IOException {
+        for (String name : channelNames.keySet()) {
+            channels.put(name, new Channel());
+            persistedKeys.put(name, new HashSet<>());
+        }
+        List<String> orphanEntries = new ArrayList<>();
+        for (Map.Entry<String, Serializable> entry : entries.entrySet()) {
+            String[] channelAndKey = splitEntryKey(entry.getKey());
+            Channel channel = channels.get(channelAndKey[0]);
+            if (channel == null) {
+                // entry of a channel which was not entirely deleted
+                orphanEntries.add(entry.getKey());
+            } else if (entry.getValue() != null) {
+                channel.put(channelAndKey[1], entry.getValue());
+                persistedKeys.get(channelAndKey[0]).add(channelAndKey[1]);
+            }
+        }
+        for (String orphanEntry : orphanEntries) {
+            entries.remove(orphanEntry);
+        }
+        recordManager.commit();
+        // While printing the content of the channels, InvalidClassException or jdbm Error can be triggered
+        logger.info("Content of persisted store : " + channels);
+    }
+
+    Durability getDurability() {
+        return durability;
+    }
+
+    boolean containsChannel(String name) {
+        return channels.containsKey(name);
+    }
+
+    Channel getChannel(String name) {
+        return channels.get(name);
+    }
+
+    /**
+     * Create a new empty persistent channel, the channel must not exist.
+     */
+    Channel createChannel(String name) throws IOException {
+        Channel channel = new Channel();
+        channels.put(name, channel);
+        persistedKeys.put(name, new HashSet<>());
+        channelNames.put(name, Boolean.TRUE);
+        recordManager.commit();
+        return channel;
+    }
+
+    /**
+     * Delete a persistent channel and all its entries
+     *
+     * @return true if the channel existed
+     */
+    boolean deleteChannel(String name) throws IOException {
+        if (channels.remove(name) == null) {
+            return false;
+        }
+        dirtyKeys.remove(name);
+        dirtyChannels.remove(name);
+        for (String key : persistedKeys.remove(name)) {
+            entries.remove(entryKey(name, key));
+        }
+        channelNames.remove(name);
+        recordManager.commit();
+        return true;
+    }
+
+    /**
+     * Mark a key of the given channel as modified, nothing is done if the channel is not persistent
+     */
+    void keyModified(String name, String key) {
+        if (channels.containsKey(name) && !dirtyChannels.contains(name)) {
+            dirtyKeys.computeIfAbsent(name, channelName -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Mark all keys of the given channel as modified, nothing is done if the channel is not persistent
+     */
+    void channelModified(String name) {
+        if (channels.containsKey(name)) {
+            dirtyKeys.remove(name);
+            dirtyChannels.add(name);
+        }
+    }
+
+    boolean isDirty() {
+        return !dirtyKeys.isEmpty() || !dirtyChannels.isEmpty();
+    }
+
+    /**
+     * Write the modified keys in the database and commit
+     *
+     * @throws IOException if an error occurs when writing in the database
+     */
+    void flush() throws IOException {
+        if (!isDirty()) {
+            return;
+        }
+        for (String name : dirtyChannels) {
+            Set<String> keys = new HashSet<>(persistedKeys.get(name));
+            keys.addAll(channels.get(name).keySet());
+            writeKeys(name, keys);
+        }
+        for (Map.Entry<String, Set<String>> channelKeys : dirtyKeys.entrySet()) {
+            writeKeys(channelKeys.getKey(), channelKeys.getValue());
+        }
+        dirtyChannels.clear();
+        dirtyKeys.clear();
+        recordManager.commit();
+    }
+
+    private void writeKeys(String name, Set<String> keys) {
+        Channel channel = channels.get(name);
+        Set<String> channelPersistedKeys = persistedKeys.get(name);
+        for (String key : keys) {
+            Serializable value = channel.get(key);
+            if (value != null) {
+                entries.put(entryKey(name, key), value);
+                channelPersistedKeys.add(key);
+            } else if (channelPersistedKeys.remove(key)) {
+                entries.remove(entryKey(name, key));
+            }
+        }
+    }
+
+    /**
+     * Flush pending modifications and close the database
+     */
+    void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            recordManager.close();
+        }
+    }
+
+    /**
+     * Key of a channel entry in the database, the channel name is prefixed by its length
+     * so that any character can be used in channel names and keys.
+     */
+    static String entryKey(String channel, String key) {
+        return channel.length() + ":" + channel + key;
+    }
+
+    static String[] splitEntryKey(String entryKey) {
+        int separator = entryKey.indexOf(':');
+        int channelEnd = separator + 1 + Integer.parseInt(entryKey.substring(0, separator));
+        return new String[] { entryKey.substring(separator + 1, channelEnd), entryKey.substring(channelEnd) };
+    }
+}
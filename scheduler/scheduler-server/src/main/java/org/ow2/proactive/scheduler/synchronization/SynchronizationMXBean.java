@@ -0,0 +1,88 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import java.util.Map;
+
+
+/**
+ * Metrics of the Synchronization service, per channel.
+ *
+ * @see SynchronizationStatistics
+ */
+public interface SynchronizationMXBean {
+
+    /**
+     * @return the number of requests served by the service, per channel
+     */
+    Map<String, Long> getOperationsCount();
+
+    /**
+     * @return the average time spent serving a request, in milliseconds, per channel
+     */
+    Map<String, Double> getAverageOperationTime();
+
+    /**
+     * @return the number of requests served per second since the statistics were reset, per channel
+     */
+    Map<String, Double> getOperationsPerSecond();
+
+    /**
+     * @return the number of completed waitUntil and waitUntilThen requests, per channel
+     */
+    Map<String, Long> getWaitsCount();
+
+    /**
+     * @return the average time spent by waitUntil and waitUntilThen requests until their predicate was met,
+     * in milliseconds, per channel
+     */
+    Map<String, Double> getAverageWaitTime();
+
+    /**
+     * @return the number of keys currently awaited by waitUntil and waitUntilThen requests
+     */
+    int getWatchedKeys();
+
+    /**
+     * @return the number of closure evaluations which did not need to compile the closure
+     */
+    long getClosureCacheHits();
+
+    /**
+     * @return the number of closure evaluations which compiled the closure
+     */
+    long getClosureCacheMisses();
+
+    /**
+     * @return the number of compiled closures kept in cache
+     */
+    int getClosureCacheSize();
+
+    /**
+     * Reset the per channel statistics
+     */
+    void resetStatistics();
+}
@@ -0,0 +1,181 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Latency and throughput statistics of the Synchronization service, per channel.
+ *
+ * @author ActiveEon Team
+ * @since 18/10/2026
+ */
+public class SynchronizationStatistics implements SynchronizationMXBean {
+
+    private static final Logger logger = Logger.getLogger(SynchronizationStatistics.class);
+
+    public static final String MBEAN_NAME = "ProActiveScheduler:name=Synchronization";
+
+    private final Map<String, ChannelStatistics> channels = new ConcurrentHashMap<>();
+
+    private final ClosureCache closureCache;
+
+    private final ChannelWatchers watchers;
+
+    private volatile long resetTime = System.currentTimeMillis();
+
+    private ObjectName registeredName;
+
+    SynchronizationStatistics(ClosureCache closureCache, ChannelWatchers watchers) {
+        this.closureCache = closureCache;
+        this.watchers = watchers;
+    }
+
+    void recordOperation(String channel, long durationNanos) {
+        ChannelStatistics statistics = channels.computeIfAbsent(channel, name -> new ChannelStatistics());
+        statistics.operations.increment();
+        statistics.operationsNanos.add(durationNanos);
+    }
+
+    void recordWait(String channel, long durationMillis) {
+        ChannelStatistics statistics = channels.computeIfAbsent(channel, name -> new ChannelStatistics());
+        statistics.waits.increment();
+        statistics.waitsMillis.add(durationMillis);
+    }
+
+    void registerMBean(String databasePath) {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME + ",db=" + ObjectName.quote(databasePath));
+            if (!mbs.isRegistered(name)) {
+                mbs.registerMBean(this, name);
+                registeredName = name;
+            }
+        } catch (Exception e) {
+            logger.warn("Unable to register the Synchronization MBean", e);
+        }
+    }
+
+    void unregisterMBean() {
+        if (registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            } catch (Exception e) {
+                logger.warn("Unable to unregister the Synchronization MBean", e);
+            }
+            registeredName = null;
+        }
+    }
+
+    @Override
+    public Map<String, Long> getOperationsCount() {
+        Map<String, Long> answer = new TreeMap<>();
+        channels.forEach((channel, statistics) -> answer.put(channel, statistics.operations.sum()));
+        return answer;
+    }
+
+    @Override
+    public Map<String, Double> getAverageOperationTime() {
+        return perChannel(statistics -> average(statistics.operationsNanos.sum() / 1_000_000d,
+                                                statistics.operations.sum()));
+    }
+
+    @Override
+    public Map<String, Double> getOperationsPerSecond() {
+        double elapsedSeconds = Math.max(1, System.currentTimeMillis() - resetTime) / 1000d;
+        return perChannel(statistics -> statistics.operations.sum() / elapsedSeconds);
+    }
+
+    @Override
+    public Map<String, Long> getWaitsCount() {
+        Map<String, Long> answer = new TreeMap<>();
+        channels.forEach((channel, statistics) -> answer.put(channel, statistics.waits.sum()));
+        return answer;
+    }
+
+    @Override
+    public Map<String, Double> getAverageWaitTime() {
+        return perChannel(statistics -> average(statistics.waitsMillis.sum(), statistics.waits.sum()));
+    }
+
+    @Override
+    public int getWatchedKeys() {
+        return watchers.size();
+    }
+
+    @Override
+    public long getClosureCacheHits() {
+        return closureCache.getHits();
+    }
+
+    @Override
+    public long getClosureCacheMisses() {
+        return closureCache.getMisses();
+    }
+
+    @Override
+    public int getClosureCacheSize() {
+        return closureCache.size();
+    }
+
+    @Override
+    public void resetStatistics() {
+        channels.clear();
+        resetTime = System.currentTimeMillis();
+    }
+
+    private Map<String, Double> perChannel(ToDoubleFunction<ChannelStatistics> metric) {
+        Map<String, Double> answer = new TreeMap<>();
+        channels.forEach((channel, statistics) -> answer.put(channel, metric.applyAsDouble(statistics)));
+        return answer;
+    }
+
+    private static double average(double total, long count) {
+        return count == 0 ? 0 : total / count;
+    }
+
+    private static final class ChannelStatistics {
+
+        private final LongAdder operations = new LongAdder();
+
+        private final LongAdder operationsNanos = new LongAdder();
+
+        private final LongAdder waits = new LongAdder();
+
+        private final LongAdder waitsMillis = new LongAdder();
+    }
+}
@@ -1230,27 +1230,9 @@ public abstract class InternalTask extends TaskState {
      * @param schedulingService used to load results from the database
      */
     public synchronized void updateParentTasksResults(SchedulingService schedulingService) {
-        if (parentTasksResults == null &&
-            (internalTasksDependencies != null || ifBranch != null || joinedBranches != null)) {
-            Set<TaskId> parentIds = new LinkedHashSet<>();
+        if (parentTasksResults == null && hasParentTasks()) {
             parentTasksResults = new LinkedHashMap<>();
-            if (internalTasksDependencies != null) {
-                for (InternalTask parentTask : internalTasksDependencies) {
-                    parentIds.addAll(InternalTaskParentFinder.getInstance()
-                                                             .getFirstNotSkippedParentTaskIds(parentTask));
-                    addParentTaskToResults(parentIds, parentTask);
-                }
-            }
-            if (ifBranch != null) {
-                parentIds.add(ifBranch.getId());
-                addParentTaskToResults(parentIds, ifBranch);
-            }
-            if (joinedBranches != null) {
-                for (InternalTask parentTask : joinedBranches) {
-                    parentIds.add(parentTask.getId());
-                    addParentTaskToResults(parentIds, parentTask);
-                }
-            }
+            Set<TaskId> parentIds = findParentTasksResultsInMemory(parentTasksResults);
 
             // Batch fetching in database of parent tasks results not accessible in memory
             if (parentIds.size() > 0) {
@@ -1266,9 +1248,40 @@ public abstract class InternalTask extends TaskState {
         }
     }
 
-    private void addParentTaskToResults(Set<TaskId> parentIds, InternalTask parentTask) {
+    private boolean hasParentTasks() {
+        return internalTasksDependencies != null || ifBranch != null || joinedBranches != null;
+    }
+
+    /**
+     * Collects the results of parent tasks which are accessible in memory
+     * @param inMemoryResults map filled with the parent tasks results found in memory
+     * @return ids of the parent tasks whose results must be loaded from the database
+     */
+    private Set<TaskId> findParentTasksResultsInMemory(Map<TaskId, TaskResult> inMemoryResults) {
+        Set<TaskId> parentIds = new LinkedHashSet<>();
+        if (internalTasksDependencies != null) {
+            for (InternalTask parentTask : internalTasksDependencies) {
+                parentIds.addAll(InternalTaskParentFinder.getInstance().getFirstNotSkippedParentTaskIds(parentTask));
+                addParentTaskToResults(parentIds, parentTask, inMemoryResults);
+            }
+        }
+        if (ifBranch != null) {
+            parentIds.add(ifBranch.getId());
+            addParentTaskToResults(parentIds, ifBranch, inMemoryResults);
+        }
+        if (joinedBranches != null) {
+            for (InternalTask parentTask : joinedBranches) {
+                parentIds.add(parentTask.getId());
+                addParentTaskToResults(parentIds, parentTask, inMemoryResults);
+            }
+        }
+        return parentIds;
+    }
+
+    private void addParentTaskToResults(Set<TaskId> parentIds, InternalTask parentTask,
+            Map<TaskId, TaskResult> inMemoryResults) {
         if (parentIds.contains(parentTask.getId()) && parentTask.getTaskResult() != null) {
-            parentTasksResults.put(parentTask.getId(), parentTask.getTaskResult());
+            inMemoryResults.put(parentTask.getId(), parentTask.getTaskResult());
             parentIds.remove(parentTask.getId());
         }
     }
@@ -1288,10 +1301,10 @@ public abstract class InternalTask extends TaskState {
             updatedVariables.putAll(internalJob.getVariablesAsReplacementMap());
             updatedVariables.putAll(getScopeVariables());
 
-            updateParentTasksResults(schedulingService);
-
-            if (parentTasksResults != null && !parentTasksResults.isEmpty()) {
+            if (parentTasksResults != null) {
                 updateVariablesWithTaskResults(parentTasksResults);
+            } else if (hasParentTasks()) {
+                updateVariablesWithParentTasksPropagatedVariables(schedulingService);
             }
 
             updatedVariables.putAll(getSystemVariables());
@@ -1300,18 +1313,44 @@ public abstract class InternalTask extends TaskState {
         }
     }
 
+    /**
+     * Only the propagated variables of parent tasks results which are not in memory are
+     * loaded from the database, batch after batch, so that large merges do not need to
+     * hold the results values of all their parents.
+     */
+    private void updateVariablesWithParentTasksPropagatedVariables(SchedulingService schedulingService) {
+        Map<TaskId, TaskResult> inMemoryResults = new LinkedHashMap<>();
+        Set<TaskId> parentIds = findParentTasksResultsInMemory(inMemoryResults);
+        updateVariablesWithTaskResults(inMemoryResults);
+
+        for (List<TaskId> parentsSubList : ListUtils.partition(new ArrayList<>(parentIds),
+                                                               PASchedulerProperties.SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE.getValueAsInt())) {
+            Map<TaskId, Map<String, byte[]>> propagatedVariables = schedulingService.getInfrastructure()
+                                                                                    .getDBManager()
+                                                                                    .loadTasksPropagatedVariables(internalJob.getId(),
+                                                                                                                  parentsSubList);
+            for (TaskId parentId : parentsSubList) {
+                updateVariablesWithPropagatedVariables(propagatedVariables.get(parentId));
+            }
+        }
+    }
+
     private void updateVariablesWithTaskResults(Map<TaskId, TaskResult> taskResults) {
         for (TaskResult taskResult : taskResults.values()) {
+            updateVariablesWithPropagatedVariables(taskResult.getPropagatedVariables());
+        }
+    }
+
+    private void updateVariablesWithPropagatedVariables(Map<String, byte[]> serializedPropagatedVariables) {
+        if (serializedPropagatedVariables != null) {
             Map<String, Serializable> propagatedVariables;
-            if (taskResult.getPropagatedVariables() != null) {
-                try {
-                    propagatedVariables = SerializationUtil.deserializeVariableMap(taskResult.getPropagatedVariables());
-                    if (propagatedVariables != null) {
-                        updateInheritedPropagatedVariables(propagatedVariables);
-                    }
-                } catch (Exception e) {
-                    throw new IllegalStateException("Could not deserialize variable map", e);
-                }
+            try {
+                propagatedVariables = SerializationUtil.deserializeVariableMap(serializedPropagatedVariables);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not deserialize variable map", e);
+            }
+            if (propagatedVariables != null) {
+                updateInheritedPropagatedVariables(propagatedVariables);
             }
         }
     }
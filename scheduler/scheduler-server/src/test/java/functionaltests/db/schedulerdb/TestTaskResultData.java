@@ -25,6 +25,7 @@
  */
 package functionaltests.db.schedulerdb;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -45,6 +46,7 @@ import org.ow2.proactive.scheduler.common.task.TaskLogs;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
 import org.ow2.proactive.scheduler.common.task.flow.FlowAction;
 import org.ow2.proactive.scheduler.common.task.flow.FlowActionType;
+import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
@@ -239,6 +241,36 @@ public class TestTaskResultData extends BaseSchedulerDBTest {
         Assert.assertEquals("job2Res", result.getB());
     }
 
+    @Test
+    public void testLoadPropagatedVariables() throws Throwable {
+        TaskFlowJob job = new TaskFlowJob();
+        job.addTask(createDefaultTask("task1"));
+        job.addTask(createDefaultTask("task2"));
+
+        InternalJob internalJob = defaultSubmitJobAndLoadInternal(true, job);
+        InternalTask task1 = internalJob.getTask("task1");
+        InternalTask task2 = internalJob.getTask("task2");
+
+        TaskResultImpl result = new TaskResultImpl(null, new TestResult(0, "1_1"), null, 0);
+        result.setPropagatedVariables(SerializationUtil.serializeVariableMap(ImmutableMap.<String, Serializable> of("var", "1_1")));
+        dbManager.updateAfterTaskFinished(internalJob, task1, result);
+        result = new TaskResultImpl(null, new TestResult(0, "1_2"), null, 0);
+        result.setPropagatedVariables(SerializationUtil.serializeVariableMap(ImmutableMap.<String, Serializable> of("var", "1_2")));
+        dbManager.updateAfterTaskFinished(internalJob, task1, result);
+        dbManager.updateAfterTaskFinished(internalJob,
+                                          task2,
+                                          new TaskResultImpl(null, new TestResult(0, "2_1"), null, 0));
+
+        Map<TaskId, Map<String, byte[]>> propagatedVariables = dbManager.loadTasksPropagatedVariables(internalJob.getId(),
+                                                                                                      Arrays.asList(task1.getId(),
+                                                                                                                    task2.getId()));
+        Assert.assertEquals(2, propagatedVariables.size());
+        Assert.assertEquals("1_2",
+                            SerializationUtil.deserializeVariableMap(propagatedVariables.get(task1.getId()))
+                                             .get("var"));
+        Assert.assertNull(propagatedVariables.get(task2.getId()));
+    }
+
     @Test
     public void testFlowAction() throws Exception {
         InternalJob job = saveSingleTask(createDefaultTask("task"));
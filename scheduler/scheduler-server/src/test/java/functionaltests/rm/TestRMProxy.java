@@ -166,6 +166,8 @@ public class TestRMProxy extends ProActiveTest {
 
         checkSchedulerProxy(proxiesManager);
 
+        checkSchedulerProxyStateAfterUserRequest(proxiesManager, user2RMProxy);
+
         log("Terminate user proxy1");
         proxiesManager.terminateRMProxy("admin");
         user1RMProxy = proxiesManager.getUserRMProxy("admin", user1Credentials);
@@ -204,6 +206,24 @@ public class TestRMProxy extends ProActiveTest {
         assertTrue(proxy.isActive().getBooleanValue());
     }
 
+    private void checkSchedulerProxyStateAfterUserRequest(RMProxiesManager proxiesManager, RMProxy userProxy)
+            throws Exception {
+        log("Check scheduler proxy state after a user request");
+
+        RMProxy schedulerProxy = proxiesManager.getRmProxy();
+        assertEquals(NODES_NUMBER, schedulerProxy.getState().getFreeNodesNumber());
+
+        NodeSet nodeSet = userProxy.getNodes(new Criteria(1));
+        PAFuture.waitFor(nodeSet);
+        // the acquired node is not free anymore in the scheduler state, even before the RM events are received
+        assertEquals(NODES_NUMBER - 1, schedulerProxy.getState().getFreeNodesNumber());
+        waitWhenNodeSetAcquired(nodeSet, 1);
+
+        userProxy.releaseNodes(nodeSet);
+        waitWhenNodesAreReleased(1);
+        assertEquals(NODES_NUMBER, rmHelper.getResourceManager().getState().getFreeNodesNumber());
+    }
+
     private void requestTooManyNodes(RMProxy proxy, ResourceManager rm) throws Exception {
         log("Request more nodes than RM has");
 
@@ -32,12 +32,16 @@ import static org.junit.Assert.fail;
 import static org.ow2.proactive.scheduler.common.task.TaskStatus.taskStatuses;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 import org.ow2.proactive.scheduler.common.Page;
 import org.ow2.proactive.scheduler.common.SortSpecifierContainer;
 import org.ow2.proactive.scheduler.common.TaskFilterCriteria;
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.job.JobStatus;
 import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
@@ -48,6 +52,7 @@ import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.task.flow.FlowAction;
 import org.ow2.proactive.scheduler.common.task.flow.FlowActionType;
+import org.ow2.proactive.scheduler.core.db.TaskStatusUpdate;
 import org.ow2.proactive.scheduler.job.ChangedTasksInfo;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
@@ -458,6 +463,104 @@ public class SchedulerDBManagerTest extends BaseServiceTest {
         assertThat(taskState.getStatus()).isEqualTo(TaskStatus.ABORTED);
     }
 
+    @Test
+    public void testUpdateTaskStatusesAndScheduledTimes() throws Exception {
+        InternalJob job = createTestJob("test", "tag", 3);
+
+        service.submitJob(job);
+
+        List<TaskStatusUpdate> updates = new ArrayList<>();
+        for (InternalTask internalTask : job.getITasks()) {
+            TaskStatus previousStatus = internalTask.getStatus();
+            internalTask.setStatus(TaskStatus.PENDING);
+            internalTask.setScheduledTime(42);
+            updates.add(new TaskStatusUpdate(internalTask, previousStatus));
+        }
+
+        // a more recent status must not be overridden
+        InternalTask abortedTask = job.getITasks().get(0);
+        abortedTask.setStatus(TaskStatus.ABORTED);
+        dbManager.updateTaskState(abortedTask);
+
+        dbManager.updateTaskStatusesAndScheduledTimes(updates);
+
+        Page<TaskState> tasks = dbManager.getTaskStates(0,
+                                                        10,
+                                                        null,
+                                                        0,
+                                                        10,
+                                                        null,
+                                                        taskStatuses(true, true, true),
+                                                        new SortSpecifierContainer());
+
+        assertThat(tasks.getSize()).isEqualTo(3);
+        for (TaskState taskState : tasks.getList()) {
+            if (taskState.getId().equals(abortedTask.getId())) {
+                assertThat(taskState.getStatus()).isEqualTo(TaskStatus.ABORTED);
+            } else {
+                assertThat(taskState.getStatus()).isEqualTo(TaskStatus.PENDING);
+                assertThat(taskState.getTaskInfo().getScheduledTime()).isEqualTo(42);
+            }
+        }
+    }
+
+    @Test
+    public void testUpdateTaskStatusesAndScheduledTimesWithStaleStatus() throws Exception {
+        InternalJob job = createTestJob("test", "tag", 1);
+
+        service.submitJob(job);
+
+        // the status in database has been changed after the update was issued
+        InternalTask internalTask = job.getITasks().get(0);
+        TaskStatus previousStatus = internalTask.getStatus();
+        internalTask.setStatus(TaskStatus.PAUSED);
+        dbManager.updateTaskState(internalTask);
+
+        internalTask.setStatus(TaskStatus.PENDING);
+        internalTask.setScheduledTime(42);
+        dbManager.updateTaskStatusesAndScheduledTimes(Collections.singletonList(new TaskStatusUpdate(internalTask,
+                                                                                                     previousStatus)));
+
+        Page<TaskState> tasks = dbManager.getTaskStates(0,
+                                                        10,
+                                                        null,
+                                                        0,
+                                                        10,
+                                                        null,
+                                                        taskStatuses(true, true, true),
+                                                        new SortSpecifierContainer());
+
+        assertThat(tasks.getSize()).isEqualTo(1);
+        assertThat(tasks.getList().get(0).getStatus()).isEqualTo(TaskStatus.PAUSED);
+        assertThat(tasks.getList().get(0).getTaskInfo().getScheduledTime()).isNotEqualTo(42);
+    }
+
+    @Test
+    public void testSubmitJobs() throws Exception {
+        List<InternalJob> jobs = createTestJobs("testSubmitJobs-Job", "TEST-TAG", 3, 60);
+
+        service.submitJobs(jobs);
+
+        Set<JobId> jobIds = new HashSet<>();
+        for (InternalJob job : jobs) {
+            jobIds.add(job.getId());
+            assertThat(job.getIHMTasks()).hasSize(60);
+        }
+        assertThat(jobIds).hasSize(3);
+
+        actualJobPage = dbManager.getJobs(0, 0, null, true, true, true, null);
+        assertEquals("Incorrect jobs total number", 3, actualJobPage.getSize());
+        Page<TaskState> tasks = dbManager.getTaskStates(0,
+                                                        0,
+                                                        null,
+                                                        0,
+                                                        10,
+                                                        null,
+                                                        taskStatuses(true, true, true),
+                                                        new SortSpecifierContainer());
+        assertEquals("Total number of tasks is incorrect", 180, tasks.getSize());
+    }
+
     private void initExpectedResults(String jobName, String tag) throws Throwable {
         actualInternalJobs = createTestJobs(jobName, tag, nbJobs, nbTasksPerJob);
         lAllTasks = new ArrayList<Task>(totalNbTasks);
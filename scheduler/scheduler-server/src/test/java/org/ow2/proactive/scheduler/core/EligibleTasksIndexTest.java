@@ -0,0 +1,251 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.policy.DefaultPolicy;
+import org.ow2.proactive.scheduler.policy.ExtendedSchedulerPolicy;
+import org.ow2.proactive.scheduler.policy.edf.EDFPolicy;
+import org.ow2.proactive.scheduler.policy.edf.EDFPolicyExtended;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+public class EligibleTasksIndexTest {
+
+    private EligibleTasksIndex index;
+
+    private Map<JobId, JobDescriptor> jobsToSchedule;
+
+    private int jobId;
+
+    @Before
+    public void init() {
+        index = new EligibleTasksIndex();
+        jobsToSchedule = new HashMap<>();
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        assertFalse(index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR, jobsToSchedule).hasNext());
+    }
+
+    @Test
+    public void testCursorFollowsPriorities() {
+        InternalTaskFlowJob jobLow = submitJob(JobPriority.LOW, 1);
+        InternalTaskFlowJob jobHigh = submitJob(JobPriority.HIGH, 2);
+        InternalTaskFlowJob jobNormal = submitJob(JobPriority.NORMAL, 1);
+
+        List<EligibleTaskDescriptor> orderedTasks = toList(index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR,
+                                                                        jobsToSchedule));
+
+        assertEquals(4, orderedTasks.size());
+        assertEquals(jobHigh.getId(), orderedTasks.get(0).getJobId());
+        assertEquals(jobHigh.getId(), orderedTasks.get(1).getJobId());
+        assertEquals(jobNormal.getId(), orderedTasks.get(2).getJobId());
+        assertEquals(jobLow.getId(), orderedTasks.get(3).getJobId());
+    }
+
+    @Test
+    public void testCursorSkipsJobsNotSelected() {
+        InternalTaskFlowJob job1 = submitJob(JobPriority.NORMAL, 1);
+        InternalTaskFlowJob job2 = submitJob(JobPriority.NORMAL, 1);
+        jobsToSchedule.remove(job1.getId());
+
+        List<EligibleTaskDescriptor> orderedTasks = toList(index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR,
+                                                                        jobsToSchedule));
+
+        assertEquals(1, orderedTasks.size());
+        assertEquals(job2.getId(), orderedTasks.get(0).getJobId());
+    }
+
+    @Test
+    public void testCursorWithFilter() {
+        submitJob(JobPriority.NORMAL, 3);
+
+        Iterator<EligibleTaskDescriptor> cursor = index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR,
+                                                               jobsToSchedule,
+                                                               task -> false);
+
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void testPriorityChangeReordersJob() {
+        InternalTaskFlowJob job1 = submitJob(JobPriority.NORMAL, 1);
+        InternalTaskFlowJob job2 = submitJob(JobPriority.NORMAL, 1);
+
+        // the index is built on the first cursor
+        assertEquals(job1.getId(),
+                     index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR, jobsToSchedule).next().getJobId());
+
+        index.reorderJob(job2.getId(), () -> job2.setPriority(JobPriority.HIGH));
+
+        assertEquals(job2.getId(),
+                     index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR, jobsToSchedule).next().getJobId());
+    }
+
+    @Test
+    public void testRemovedJobIsNotIndexed() {
+        InternalTaskFlowJob job = submitJob(JobPriority.NORMAL, 1);
+        index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR, jobsToSchedule);
+
+        index.removeJob(job.getId());
+
+        assertEquals(0, index.size());
+        assertFalse(index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR, jobsToSchedule).hasNext());
+    }
+
+    @Test
+    public void testRefreshDirtyJobs() {
+        InternalTaskFlowJob job1 = submitJob(JobPriority.NORMAL, 2);
+        InternalTaskFlowJob job2 = submitJob(JobPriority.NORMAL, 3);
+
+        assertEquals(5, index.refreshDirtyJobs(jobsToSchedule).size());
+        assertEquals(5, index.getNeededNodes(jobsToSchedule.keySet()));
+        assertEquals(2, index.getNeededNodes(Collections.singleton(job1.getId())));
+
+        // nothing changed since last refresh
+        assertTrue(index.refreshDirtyJobs(jobsToSchedule).isEmpty());
+
+        index.markDirty(job2.getId());
+        Map<JobId, JobDescriptor> lockedJobs = new HashMap<>(jobsToSchedule);
+        lockedJobs.remove(job2.getId());
+
+        // job2 is not locked, it stays dirty
+        assertTrue(index.refreshDirtyJobs(lockedJobs).isEmpty());
+        assertEquals(3, index.refreshDirtyJobs(jobsToSchedule).size());
+
+        index.removeJob(job1.getId());
+        assertEquals(3, index.getNeededNodes(jobsToSchedule.keySet()));
+    }
+
+    @Test
+    public void testPendingTasksSkipsTasksNotPending() {
+        InternalTaskFlowJob job = submitJob(JobPriority.NORMAL, 3);
+        index.refreshDirtyJobs(jobsToSchedule);
+        job.getITasks().forEach(task -> task.setStatus(TaskStatus.PENDING));
+        // became eligible after the pending statuses were set
+        job.getITasks().get(1).setStatus(TaskStatus.SUBMITTED);
+
+        List<EligibleTaskDescriptor> pendingTasks = toList(index.pendingTasks(index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR,
+                                                                                           jobsToSchedule),
+                                                                              jobsToSchedule));
+
+        assertEquals(2, pendingTasks.size());
+    }
+
+    @Test
+    public void testPendingTasksNeededNodes() {
+        InternalTaskFlowJob job1 = submitJob(JobPriority.HIGH, 2);
+        InternalTaskFlowJob job2 = submitJob(JobPriority.NORMAL, 3);
+        InternalTaskFlowJob notSelectedJob = submitJob(JobPriority.NORMAL, 4);
+        index.refreshDirtyJobs(jobsToSchedule);
+        jobsToSchedule.remove(notSelectedJob.getId());
+        job1.getITasks().forEach(task -> task.setStatus(TaskStatus.PENDING));
+        job2.getITasks().forEach(task -> task.setStatus(TaskStatus.PENDING));
+
+        EligibleTasksIndex.PendingTasks pendingTasks = index.pendingTasks(index.cursor(DefaultPolicy.FIFO_BY_PRIORITY_COMPARATOR,
+                                                                                       jobsToSchedule),
+                                                                          jobsToSchedule);
+
+        // nothing pulled yet, the selected jobs are accounted from the index
+        assertEquals(5, pendingTasks.getNeededNodes());
+
+        // only the first task is pulled
+        assertEquals(job1.getId(), pendingTasks.next().getJobId());
+        assertEquals(4, pendingTasks.getNeededNodes());
+
+        pendingTasks.forEachRemaining(task -> {
+        });
+        assertEquals(5, pendingTasks.getNeededNodes());
+    }
+
+    @Test
+    public void testPoliciesSupportingIndex() {
+        assertTrue(new DefaultPolicy().isEligibleTasksIndexSupported());
+        assertTrue(new ExtendedSchedulerPolicy().isEligibleTasksIndexSupported());
+        assertTrue(new EDFPolicy().isEligibleTasksIndexSupported());
+        assertFalse(new EDFPolicyExtended().isEligibleTasksIndexSupported());
+        assertFalse(new ReversedPolicy().isEligibleTasksIndexSupported());
+    }
+
+    private InternalTaskFlowJob submitJob(JobPriority priority, int numberOfTasks) {
+        InternalTaskFlowJob job = new InternalTaskFlowJob("test", priority, OnTaskError.CANCEL_JOB, "");
+        job.setId(JobIdImpl.makeJobId(Integer.toString(jobId++)));
+        ArrayList<InternalTask> tasks = new ArrayList<>();
+        for (int i = 0; i < numberOfTasks; i++) {
+            InternalScriptTask task = new InternalScriptTask(job);
+            task.setName("task" + i);
+            tasks.add(task);
+        }
+        job.addTasks(tasks);
+        index.addJob(job.getJobDescriptor());
+        jobsToSchedule.put(job.getId(), job.getJobDescriptor());
+        return job;
+    }
+
+    public static class ReversedPolicy extends DefaultPolicy {
+        @Override
+        public LinkedList<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobs) {
+            LinkedList<EligibleTaskDescriptor> orderedTasks = super.getOrderedTasks(jobs);
+            Collections.reverse(orderedTasks);
+            return orderedTasks;
+        }
+
+        @Override
+        public boolean isEligibleTasksIndexSupported() {
+            return false;
+        }
+    }
+
+    private static List<EligibleTaskDescriptor> toList(Iterator<EligibleTaskDescriptor> cursor) {
+        List<EligibleTaskDescriptor> tasks = new ArrayList<>();
+        cursor.forEachRemaining(tasks::add);
+        return tasks;
+    }
+}
@@ -29,10 +29,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
-import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
@@ -44,6 +45,7 @@ import org.mockito.stubbing.Answer;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeInformation;
 import org.objectweb.proactive.core.runtime.VMInformation;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
 import org.ow2.proactive.scheduler.common.exception.UnknownTaskException;
 import org.ow2.proactive.scheduler.common.job.JobId;
@@ -66,7 +68,6 @@ import org.ow2.proactive.scheduler.task.internal.ExecuterInformation;
 import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.tests.ProActiveTestClean;
-import org.python.google.common.collect.ImmutableSet;
 
 
 public class LiveJobsTest extends ProActiveTestClean {
@@ -85,63 +86,6 @@ public class LiveJobsTest extends ProActiveTestClean {
         liveJobs = new LiveJobs(dbManager, listener, null);
     }
 
-    @Test(timeout = 60000)
-    public void testPriorityConflict() throws Exception {
-        TreeSet<JobPriority> scheduled = createTreeSet(JobPriority.LOW);
-        TreeSet<JobPriority> notScheduled = createTreeSet(JobPriority.HIGHEST);
-
-        Assert.assertTrue(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.LOW);
-        notScheduled = createTreeSet(JobPriority.LOW);
-
-        Assert.assertFalse(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.HIGHEST);
-        notScheduled = createTreeSet(JobPriority.LOW);
-
-        Assert.assertFalse(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.LOW, JobPriority.HIGHEST);
-        notScheduled = createTreeSet(JobPriority.NORMAL);
-
-        Assert.assertTrue(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.HIGHEST, JobPriority.LOW);
-        notScheduled = createTreeSet(JobPriority.NORMAL);
-
-        Assert.assertTrue(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.LOW, JobPriority.NORMAL);
-        notScheduled = createTreeSet(JobPriority.NORMAL);
-
-        Assert.assertTrue(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.NORMAL, JobPriority.HIGHEST);
-        notScheduled = createTreeSet(JobPriority.NORMAL);
-
-        Assert.assertFalse(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.NORMAL);
-        notScheduled = createTreeSet(JobPriority.LOW, JobPriority.HIGHEST);
-
-        Assert.assertTrue(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.NORMAL);
-        notScheduled = createTreeSet(JobPriority.LOW, JobPriority.NORMAL);
-
-        Assert.assertFalse(liveJobs.priorityConflict(scheduled, notScheduled));
-
-        scheduled = createTreeSet(JobPriority.NORMAL);
-        notScheduled = createTreeSet(JobPriority.NORMAL, JobPriority.HIGHEST);
-
-        Assert.assertTrue(liveJobs.priorityConflict(scheduled, notScheduled));
-    }
-
-    private TreeSet<JobPriority> createTreeSet(JobPriority... priorities) {
-        return new TreeSet<>(ImmutableSet.copyOf(priorities));
-    }
-
     @Test(timeout = 60000)
     public void testGetRunningTasksEmpty() {
         assertThat(liveJobs.getRunningTasks().isEmpty(), is(true));
@@ -352,6 +296,55 @@ public class LiveJobsTest extends ProActiveTestClean {
         assertThat(liveJobs.lockJobsToSchedule(false).size(), is(1));
     }
 
+    @Test(timeout = 60000)
+    public void testLockJobsToScheduleSkipsContendedJobsAndLowerPriorities() throws Exception {
+        InternalJob highJob = submitJob(666L, JobPriority.HIGH);
+        InternalJob normalJob = submitJob(667L, JobPriority.NORMAL);
+        InternalJob lowJob = submitJob(668L, JobPriority.LOW);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread otherOperation = new Thread(() -> {
+            LiveJobs.JobData jobData = liveJobs.lockJob(normalJob.getId());
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                jobData.unlock();
+            }
+        });
+        otherOperation.start();
+        locked.await();
+
+        try {
+            Map<JobId, JobDescriptor> jobsToSchedule = liveJobs.lockJobsToSchedule(false);
+            assertThat(jobsToSchedule.keySet(), is(Collections.singleton(highJob.getId())));
+            liveJobs.unlockJobsToSchedule(jobsToSchedule.values());
+        } finally {
+            release.countDown();
+            otherOperation.join();
+        }
+
+        Map<JobId, JobDescriptor> jobsToSchedule = liveJobs.lockJobsToSchedule(false);
+        assertThat(jobsToSchedule.size(), is(3));
+        assertThat(jobsToSchedule.containsKey(lowJob.getId()), is(true));
+        liveJobs.unlockJobsToSchedule(jobsToSchedule.values());
+    }
+
+    private InternalJob submitJob(long id, JobPriority priority) {
+        InternalJob job = new InternalTaskFlowJob("test-name", priority, OnTaskError.CANCEL_JOB, "description");
+        job.setId(new JobIdImpl(id, "test-name"));
+        List<InternalTask> tasksList = new ArrayList<>();
+        InternalTask internalTask = new InternalScriptTask(job);
+        internalTask.setName("task-name");
+        tasksList.add(internalTask);
+        job.setTasks(tasksList);
+        liveJobs.jobSubmitted(job);
+        return job;
+    }
+
     @Test(expected = IllegalStateException.class, timeout = 60000)
     public void testRestartTaskOnNodeFailureRunningExceptionExpectedBecauseNotLockedTask()
             throws UnknownJobException, UnknownTaskException {
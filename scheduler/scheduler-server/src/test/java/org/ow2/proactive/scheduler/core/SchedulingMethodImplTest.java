@@ -0,0 +1,239 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.ActiveObjectCreationException;
+import org.objectweb.proactive.core.node.Node;
+import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.core.rmproxies.RMProxiesManager;
+import org.ow2.proactive.scheduler.core.rmproxies.RMProxy;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskLauncher;
+import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.threading.CallableWithTimeoutAction;
+import org.ow2.proactive.threading.TimeoutThreadPoolExecutor;
+import org.ow2.proactive.utils.NodeSet;
+
+
+public class SchedulingMethodImplTest {
+
+    private String previousDeploymentThreadNumber;
+
+    private SchedulingService schedulingService;
+
+    private RMProxy userRMProxy;
+
+    private SchedulingMethodImpl schedulingMethod;
+
+    private InternalJob job;
+
+    private InternalTask task;
+
+    private TaskLauncher launcher;
+
+    @Before
+    public void init() throws Exception {
+        previousDeploymentThreadNumber = PASchedulerProperties.SCHEDULER_DEPLOYMENT_THREADNUMBER.getValueAsString();
+        PASchedulerProperties.SCHEDULER_DEPLOYMENT_THREADNUMBER.updateProperty("1");
+
+        schedulingService = mock(SchedulingService.class, RETURNS_DEEP_STUBS);
+        RMProxiesManager rmProxiesManager = mock(RMProxiesManager.class);
+        when(schedulingService.getInfrastructure().getRMProxiesManager()).thenReturn(rmProxiesManager);
+        when(rmProxiesManager.getRmProxy()).thenReturn(mock(RMProxy.class));
+        userRMProxy = mock(RMProxy.class);
+        when(rmProxiesManager.getUserRMProxy(any(String.class), any())).thenReturn(userRMProxy);
+
+        schedulingMethod = new SchedulingMethodImpl(schedulingService, mock(TaskTerminateNotification.class), null);
+        schedulingMethod.threadPool = mock(TimeoutThreadPoolExecutor.class);
+
+        job = mock(InternalJob.class);
+        when(job.getId()).thenReturn(JobIdImpl.makeJobId("1"));
+        when(schedulingService.lockJob(job.getId())).thenReturn(mock(LiveJobs.JobData.class));
+
+        TaskId taskId = TaskIdImpl.createTaskId(job.getId(), "task", 1);
+        task = mock(InternalTask.class);
+        when(task.getId()).thenReturn(taskId);
+        when(task.getNumberOfNodesNeeded()).thenReturn(1);
+        when(task.getStatus()).thenReturn(TaskStatus.PENDING);
+        when(task.getExecutableContainer()).thenReturn(mock(ExecutableContainer.class));
+        launcher = mock(TaskLauncher.class);
+    }
+
+    @After
+    public void restoreProperties() {
+        schedulingMethod.shutdown();
+        PASchedulerProperties.SCHEDULER_DEPLOYMENT_THREADNUMBER.updateProperty(previousDeploymentThreadNumber);
+    }
+
+    @Test
+    public void testTaskIsCountedAsStartedOnceDeployed() throws Exception {
+        Node node = mock(Node.class, RETURNS_DEEP_STUBS);
+        when(task.createLauncher(node)).thenReturn(launcher);
+
+        assertTrue(schedulingMethod.createExecution(nodeSet(node), node, job, task, mock(TaskDescriptor.class)));
+
+        verify(schedulingService, timeout(5000)).taskStarted(job, task, launcher);
+        verify(schedulingMethod.threadPool).submitWithTimeout(any(CallableWithTimeoutAction.class),
+                                                              anyLong(),
+                                                              eq(TimeUnit.MILLISECONDS));
+        verify(schedulingService, timeout(5000)).wakeUpSchedulingThread();
+        assertEquals(1, schedulingMethod.collectDeployedTasks());
+        assertEquals(0, schedulingMethod.collectDeployedTasks());
+    }
+
+    @Test
+    public void testFailedLauncherCreationReleasesNodesAndIsAccounted() throws Exception {
+        Node node = mock(Node.class, RETURNS_DEEP_STUBS);
+        when(task.createLauncher(node)).thenThrow(new ActiveObjectCreationException("node is down"));
+        schedulingMethod.activeObjectCreationRetryTimeNumber = SchedulingMethodImpl.ACTIVEOBJECT_CREATION_RETRY_TIME_NUMBER;
+
+        assertTrue(schedulingMethod.createExecution(nodeSet(node), node, job, task, mock(TaskDescriptor.class)));
+
+        verify(userRMProxy, timeout(5000)).releaseNodes(nodeSet(node));
+        verify(schedulingService, timeout(5000)).wakeUpSchedulingThread();
+        verify(schedulingService, never()).taskStarted(job, task, launcher);
+        assertEquals(SchedulingMethodImpl.ACTIVEOBJECT_CREATION_RETRY_TIME_NUMBER - 1,
+                     schedulingMethod.activeObjectCreationRetryTimeNumber);
+        assertEquals(0, schedulingMethod.collectDeployedTasks());
+    }
+
+    @Test
+    public void testDeploymentIsCancelledWhenTaskIsNotPendingAnymore() throws Exception {
+        Node node = mock(Node.class, RETURNS_DEEP_STUBS);
+        when(task.createLauncher(node)).thenReturn(launcher);
+        // the task is paused while its deployment is enqueued
+        when(task.getStatus()).thenReturn(TaskStatus.PENDING, TaskStatus.PAUSED);
+
+        assertTrue(schedulingMethod.createExecution(nodeSet(node), node, job, task, mock(TaskDescriptor.class)));
+
+        verify(userRMProxy, timeout(5000)).releaseNodes(nodeSet(node));
+        verify(schedulingService, never()).taskStarted(job, task, launcher);
+        assertEquals(0, schedulingMethod.collectDeployedTasks());
+    }
+
+    @Test
+    public void testShutdownReleasesNodesOfQueuedDeployments() throws Exception {
+        Node busyNode = mock(Node.class, RETURNS_DEEP_STUBS);
+        CountDownLatch deploymentStarted = new CountDownLatch(1);
+        CountDownLatch blockDeployment = new CountDownLatch(1);
+        when(task.createLauncher(busyNode)).thenAnswer(invocation -> {
+            deploymentStarted.countDown();
+            blockDeployment.await();
+            return launcher;
+        });
+        assertTrue(schedulingMethod.createExecution(nodeSet(busyNode), busyNode, job, task, mock(TaskDescriptor.class)));
+        assertTrue(deploymentStarted.await(5, TimeUnit.SECONDS));
+
+        InternalTask queuedTask = mock(InternalTask.class);
+        when(queuedTask.getId()).thenReturn(TaskIdImpl.createTaskId(job.getId(), "queuedTask", 2));
+        when(queuedTask.getNumberOfNodesNeeded()).thenReturn(1);
+        when(queuedTask.getStatus()).thenReturn(TaskStatus.PENDING);
+        Node queuedNode = mock(Node.class, RETURNS_DEEP_STUBS);
+        assertTrue(schedulingMethod.createExecution(nodeSet(queuedNode),
+                                                    queuedNode,
+                                                    job,
+                                                    queuedTask,
+                                                    mock(TaskDescriptor.class)));
+
+        schedulingMethod.shutdown();
+        blockDeployment.countDown();
+
+        verify(userRMProxy, timeout(5000)).releaseNodes(nodeSet(queuedNode));
+        verify(queuedTask, never()).createLauncher(queuedNode);
+    }
+
+    @Test
+    public void testPartitionFreeResourcesIsDisjoint() {
+        Set<String> freeResources = nodes(10);
+
+        List<Set<String>> partitions = SchedulingMethodImpl.partitionFreeResources(freeResources,
+                                                                                   Arrays.asList(1, 2, 2));
+
+        assertEquals(3, partitions.size());
+        Set<String> union = new HashSet<>();
+        int total = 0;
+        for (Set<String> partition : partitions) {
+            total += partition.size();
+            union.addAll(partition);
+        }
+        assertEquals(10, total);
+        assertEquals(freeResources, union);
+        assertTrue(partitions.get(0).size() >= 1);
+        assertTrue(partitions.get(1).size() >= 2);
+        assertTrue(partitions.get(2).size() >= 2);
+    }
+
+    @Test
+    public void testPartitionFreeResourcesWithoutSurplus() {
+        List<Set<String>> partitions = SchedulingMethodImpl.partitionFreeResources(nodes(3), Arrays.asList(1, 2));
+
+        assertEquals(1, partitions.get(0).size());
+        assertEquals(2, partitions.get(1).size());
+    }
+
+    private static NodeSet nodeSet(Node node) {
+        NodeSet nodeSet = new NodeSet();
+        nodeSet.add(node);
+        return nodeSet;
+    }
+
+    private static Set<String> nodes(int number) {
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < number; i++) {
+            nodes.add("pnp://node" + i);
+        }
+        return nodes;
+    }
+}
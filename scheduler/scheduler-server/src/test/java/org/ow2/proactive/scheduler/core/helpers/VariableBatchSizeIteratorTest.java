@@ -114,4 +114,22 @@ public class VariableBatchSizeIteratorTest {
         Assert.assertTrue("Retrieved elements from empty raw list should be empty",
                           variableBatchSizeIterator.getNextElements(42).isEmpty());
     }
+
+    @Test
+    public void testWithLazyIterator() throws Exception {
+        Iterator<Integer> source = rawList.iterator();
+        variableBatchSizeIterator = new VariableBatchSizeIterator(source);
+        List<Integer> newList = new ArrayList<>();
+        newList.addAll(variableBatchSizeIterator.getNextElements(10));
+        newList.addAll(variableBatchSizeIterator.getNextElements(5));
+        Assert.assertTrue("Elements should remain: 42 in raw list, 15 retrieved",
+                          variableBatchSizeIterator.hasMoreElements());
+        Assert.assertTrue("First 15 elements should be the same from raw list", newList.equals(rawList.subList(0, 15)));
+        Assert.assertEquals("Only requested elements should be pulled from the source",
+                            Integer.valueOf(15),
+                            source.next());
+        newList.addAll(variableBatchSizeIterator.getNextElements(50));
+        Assert.assertFalse("No elements should remain", variableBatchSizeIterator.hasMoreElements());
+        Assert.assertEquals(41, newList.size());
+    }
 }
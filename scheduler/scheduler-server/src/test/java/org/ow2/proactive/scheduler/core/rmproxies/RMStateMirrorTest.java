@@ -0,0 +1,134 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.rmproxies;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeDescriptor;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+
+import com.google.common.collect.ImmutableSet;
+
+
+public class RMStateMirrorTest {
+
+    private RMStateMirror mirror;
+
+    @Before
+    public void init() {
+        mirror = new RMStateMirror();
+        RMInitialState initialState = new RMInitialState();
+        initialState.addAll(Arrays.asList(nodeEvent("node1", RMEventType.NODE_ADDED, NodeState.FREE, false, 1),
+                                          nodeEvent("node2", RMEventType.NODE_ADDED, NodeState.BUSY, false, 2),
+                                          nodeEvent("node3", RMEventType.NODE_ADDED, NodeState.FREE, true, 3),
+                                          nodeEvent("deploying", RMEventType.NODE_ADDED, NodeState.DEPLOYING, false, 4)));
+        mirror.reset(initialState, 10L);
+    }
+
+    @Test
+    public void testStateIsNullBeforeSynchronization() {
+        assertNull(new RMStateMirror().getState());
+    }
+
+    @Test
+    public void testInitialState() {
+        RMState state = mirror.getState();
+
+        assertEquals(ImmutableSet.of("node1"), state.getFreeNodes());
+        assertEquals(ImmutableSet.of("node1", "node2", "node3"), state.getAliveNodes());
+        assertEquals(ImmutableSet.of("node1", "node2", "node3"), state.getAllNodes());
+        assertEquals(Long.valueOf(10), state.getMaxNumberOfNodes());
+        assertEquals(4, mirror.getVersion());
+    }
+
+    @Test
+    public void testEventsUpdateState() {
+        assertTrue(mirror.apply(nodeEvent("node1", RMEventType.NODE_STATE_CHANGED, NodeState.BUSY, false, 5)));
+        assertTrue(mirror.apply(nodeEvent("node2", RMEventType.NODE_STATE_CHANGED, NodeState.DOWN, false, 6)));
+        assertTrue(mirror.apply(nodeEvent("node3", RMEventType.NODE_REMOVED, NodeState.FREE, true, 7)));
+        assertTrue(mirror.apply(nodeEvent("node4", RMEventType.NODE_ADDED, NodeState.FREE, false, 8)));
+
+        RMState state = mirror.getState();
+        assertEquals(ImmutableSet.of("node4"), state.getFreeNodes());
+        assertEquals(ImmutableSet.of("node1", "node4"), state.getAliveNodes());
+        assertEquals(ImmutableSet.of("node1", "node2", "node4"), state.getAllNodes());
+        assertEquals(8, mirror.getVersion());
+    }
+
+    @Test
+    public void testEventsOfSnapshotAreIgnored() {
+        assertTrue(mirror.apply(nodeEvent("node1", RMEventType.NODE_STATE_CHANGED, NodeState.BUSY, false, 1)));
+
+        assertEquals(ImmutableSet.of("node1"), mirror.getState().getFreeNodes());
+    }
+
+    @Test
+    public void testMissingEventInvalidatesMirror() {
+        assertFalse(mirror.apply(nodeEvent("node1", RMEventType.NODE_STATE_CHANGED, NodeState.BUSY, false, 6)));
+
+        assertFalse(mirror.isSynced());
+        assertNull(mirror.getState());
+    }
+
+    @Test
+    public void testAcquiredNodesAreNotFree() {
+        mirror.nodesAcquired(Collections.singleton("node1"));
+
+        RMState state = mirror.getState();
+        assertTrue(state.getFreeNodes().isEmpty());
+        assertEquals(3, state.getTotalAliveNodesNumber());
+    }
+
+    @Test
+    public void testStateIsACopy() {
+        mirror.getState().getFreeNodes().clear();
+
+        assertEquals(1, mirror.getState().getFreeNodesNumber());
+    }
+
+    private static RMNodeEvent nodeEvent(String nodeUrl, RMEventType eventType, NodeState nodeState, boolean locked,
+            long counter) {
+        RMNodeDescriptor descriptor = new RMNodeDescriptor();
+        descriptor.setNodeURL(nodeUrl);
+        descriptor.setState(nodeState);
+        descriptor.setLocked(locked);
+        RMNodeEvent event = new RMNodeEvent(descriptor, eventType, null, "test");
+        event.setCounter(counter);
+        return event;
+    }
+}
@@ -191,6 +191,16 @@ public class AOSynchronizationTest extends ProActiveTestClean {
         thread.start();
     }
 
+    @Test
+    public void testCloseAfterFreeze() throws IOException {
+        AOSynchronization frozenSynchronization = new AOSynchronization(folder.newFolder().getAbsolutePath());
+        frozenSynchronization.resume();
+        frozenSynchronization.freeze();
+
+        // the record manager must not be closed twice
+        Assert.assertTrue(frozenSynchronization.close());
+    }
+
     @Test
     public void testCreateChannelIfAbsent() throws IOException, InvalidChannelException {
         synchronization.createChannelIfAbsent(CHANNEL1, false);
@@ -0,0 +1,116 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * @author ActiveEon Team
+ * @since 18/10/2026
+ */
+public class ChannelWatchersTest {
+
+    private static final String CHANNEL = "Channel";
+
+    private ChannelWatchers watchers;
+
+    private ExecutorService executor;
+
+    @Before
+    public void init() {
+        watchers = new ChannelWatchers();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void clean() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testKeyChangeWakesUpWaiter() throws Exception {
+        ChannelWatchers.KeyWatch keyWatch = watchers.register(CHANNEL, "a");
+        long version = keyWatch.getVersion();
+        CountDownLatch waiting = new CountDownLatch(1);
+
+        Future<Boolean> changed = executor.submit(() -> {
+            waiting.countDown();
+            return keyWatch.awaitChange(version, Long.MAX_VALUE);
+        });
+        waiting.await();
+        watchers.keyChanged(CHANNEL, "a");
+
+        assertTrue(changed.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testOtherKeysDoNotChangeVersion() throws Exception {
+        ChannelWatchers.KeyWatch keyWatch = watchers.register(CHANNEL, "a");
+        long version = keyWatch.getVersion();
+
+        watchers.keyChanged(CHANNEL, "b");
+        watchers.keyChanged("OtherChannel", "a");
+
+        assertEquals(version, keyWatch.getVersion());
+        assertFalse(keyWatch.awaitChange(version, 10));
+    }
+
+    @Test
+    public void testChangeBeforeWaitIsNotMissed() throws Exception {
+        ChannelWatchers.KeyWatch keyWatch = watchers.register(CHANNEL, "a");
+        long version = keyWatch.getVersion();
+
+        watchers.channelChanged(CHANNEL);
+
+        assertTrue(keyWatch.awaitChange(version, 10));
+    }
+
+    @Test
+    public void testWatchIsSharedAndRemovedWithLastRegistration() {
+        ChannelWatchers.KeyWatch first = watchers.register(CHANNEL, "a");
+        ChannelWatchers.KeyWatch second = watchers.register(CHANNEL, "a");
+        assertTrue(first == second);
+        assertEquals(1, watchers.size());
+
+        watchers.unregister(first);
+        assertEquals(1, watchers.size());
+        watchers.unregister(second);
+        assertEquals(0, watchers.size());
+    }
+}
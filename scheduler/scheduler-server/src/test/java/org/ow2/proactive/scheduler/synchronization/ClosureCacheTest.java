@@ -0,0 +1,83 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import groovy.lang.GroovyShell;
+
+
+/**
+ * @author ActiveEon Team
+ * @since 18/10/2026
+ */
+public class ClosureCacheTest {
+
+    private ClosureCache closureCache;
+
+    @Before
+    public void init() {
+        closureCache = new ClosureCache(new GroovyShell(), 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testClosureIsCompiledOnce() throws CompilationException {
+        for (int i = 0; i < 3; i++) {
+            BiFunction<String, Integer, Integer> increment = closureCache.evaluate("{k, x -> x + 1}",
+                                                                                   BiFunction.class);
+            assertEquals(2, (int) increment.apply("a", 1));
+        }
+        assertEquals(1, closureCache.getMisses());
+        assertEquals(2, closureCache.getHits());
+    }
+
+    @Test
+    public void testClosureIsCachedPerType() throws CompilationException {
+        closureCache.evaluate("{k -> 7}", Function.class);
+        closureCache.evaluate("{k -> 7}", BiFunction.class);
+        assertEquals(2, closureCache.getMisses());
+    }
+
+    @Test
+    public void testCacheIsBounded() throws CompilationException {
+        closureCache.evaluate("{k -> 1}", Function.class);
+        closureCache.evaluate("{k -> 2}", Function.class);
+        closureCache.evaluate("{k -> 3}", Function.class);
+        assertEquals(2, closureCache.size());
+    }
+
+    @Test(expected = CompilationException.class)
+    public void testCompilationError() throws CompilationException {
+        closureCache.evaluate("{k -> a +-= 1}", Function.class);
+    }
+}
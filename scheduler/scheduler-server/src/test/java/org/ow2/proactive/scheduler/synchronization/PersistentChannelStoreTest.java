@@ -0,0 +1,154 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scheduler.synchronization.AOSynchronization.Channel;
+import org.ow2.proactive.scheduler.synchronization.PersistentChannelStore.Durability;
+
+import jdbm.PrimaryHashMap;
+import jdbm.RecordManager;
+import jdbm.RecordManagerFactory;
+
+
+/**
+ * @author ActiveEon Team
+ * @since 18/10/2026
+ */
+public class PersistentChannelStoreTest {
+
+    private static final String CHANNEL = "Channel";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File databaseFile;
+
+    @Before
+    public void init() throws IOException {
+        databaseFile = new File(folder.newFolder(), "SchedulerStore");
+    }
+
+    @Test
+    public void testModifiedKeysArePersisted() throws IOException {
+        PersistentChannelStore store = PersistentChannelStore.open(databaseFile, Durability.SYNC);
+        Channel channel = store.createChannel(CHANNEL);
+        channel.put("a", 1);
+        channel.put("b", 2);
+        store.keyModified(CHANNEL, "a");
+        store.keyModified(CHANNEL, "b");
+        assertTrue(store.isDirty());
+        store.flush();
+        assertFalse(store.isDirty());
+
+        channel.remove("a");
+        store.keyModified(CHANNEL, "a");
+        // a key modified without notification is not persisted
+        channel.put("c", 3);
+        store.close();
+
+        store = PersistentChannelStore.open(databaseFile, Durability.SYNC);
+        assertTrue(store.containsChannel(CHANNEL));
+        assertEquals(1, store.getChannel(CHANNEL).size());
+        assertEquals(2, store.getChannel(CHANNEL).get("b"));
+        store.close();
+    }
+
+    @Test
+    public void testModifiedChannelIsRewritten() throws IOException {
+        PersistentChannelStore store = PersistentChannelStore.open(databaseFile, Durability.GROUP);
+        Channel channel = store.createChannel(CHANNEL);
+        channel.put("a", 1);
+        channel.put("b", 2);
+        store.channelModified(CHANNEL);
+        store.flush();
+
+        channel.clear();
+        channel.put("c", 3);
+        store.channelModified(CHANNEL);
+        store.close();
+
+        store = PersistentChannelStore.open(databaseFile, Durability.GROUP);
+        assertEquals(1, store.getChannel(CHANNEL).size());
+        assertEquals(3, store.getChannel(CHANNEL).get("c"));
+        store.close();
+    }
+
+    @Test
+    public void testDeletedChannel() throws IOException {
+        PersistentChannelStore store = PersistentChannelStore.open(databaseFile, Durability.SYNC);
+        store.createChannel(CHANNEL).put("a", 1);
+        store.keyModified(CHANNEL, "a");
+        store.flush();
+        assertTrue(store.deleteChannel(CHANNEL));
+        assertFalse(store.deleteChannel(CHANNEL));
+        store.close();
+
+        store = PersistentChannelStore.open(databaseFile, Durability.SYNC);
+        assertFalse(store.containsChannel(CHANNEL));
+        store.createChannel(CHANNEL);
+        assertTrue(store.getChannel(CHANNEL).isEmpty());
+        store.close();
+    }
+
+    @Test
+    public void testLegacyChannelsAreConverted() throws IOException {
+        RecordManager recordManager = RecordManagerFactory.createRecordManager(databaseFile.getCanonicalPath());
+        PrimaryHashMap<String, Channel> legacyChannels = recordManager.hashMap(PersistentChannelStore.LEGACY_RECORD_NAME);
+        Channel legacyChannel = new Channel();
+        legacyChannel.put("a", 1);
+        legacyChannels.put(CHANNEL, legacyChannel);
+        recordManager.commit();
+        recordManager.close();
+
+        PersistentChannelStore store = PersistentChannelStore.open(databaseFile, Durability.SYNC);
+        assertEquals(1, store.getChannel(CHANNEL).get("a"));
+        store.close();
+
+        recordManager = RecordManagerFactory.createRecordManager(databaseFile.getCanonicalPath());
+        assertTrue(recordManager.<String, Channel> hashMap(PersistentChannelStore.LEGACY_RECORD_NAME).isEmpty());
+        recordManager.close();
+    }
+
+    @Test
+    public void testEntryKey() {
+        String entryKey = PersistentChannelStore.entryKey("chan:1", "key:2");
+        assertArrayEquals(new String[] { "chan:1", "key:2" }, PersistentChannelStore.splitEntryKey(entryKey));
+        assertArrayEquals(new String[] { "", "" },
+                          PersistentChannelStore.splitEntryKey(PersistentChannelStore.entryKey("", "")));
+    }
+}